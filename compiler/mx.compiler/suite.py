@@ -1764,6 +1764,8 @@ suite = {
       ],
       "requires" : [
         "java.logging",
+        "java.management",
+        "jdk.management",
       ],
       "uses" : [
         "org.graalvm.compiler.truffle.jfr.EventFactory.Provider",
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/**
+ * @test
+ * @requires vm.aot
+ * @modules jdk.aot/jdk.tools.jaotc:+open
+ *          jdk.internal.vm.ci/jdk.vm.ci.meta
+ * @run junit/othervm jdk.tools.jaotc.test.CompilationOrderTest
+ */
+
+package jdk.tools.jaotc.test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Checks that jaotc compiles the methods with the largest bytecode first.
+ */
+public class CompilationOrderTest {
+
+    private Constructor<?> taskConstructor;
+    private Field methodField;
+
+    @Before
+    public void setUp() throws Exception {
+        Class<?> taskClass = Class.forName("jdk.tools.jaotc.AOTCompilationTask");
+        for (Constructor<?> c : taskClass.getDeclaredConstructors()) {
+            if (c.getParameterCount() == 6) {
+                taskConstructor = c;
+            }
+        }
+        Assert.assertNotNull(taskConstructor);
+        taskConstructor.setAccessible(true);
+        methodField = taskClass.getDeclaredField("method");
+        methodField.setAccessible(true);
+    }
+
+    private static ResolvedJavaMethod method(String name, int codeSize) {
+        return (ResolvedJavaMethod) Proxy.newProxyInstance(CompilationOrderTest.class.getClassLoader(), new Class<?>[]{ResolvedJavaMethod.class}, (proxy, m, args) -> {
+            switch (m.getName()) {
+                case "getCodeSize":
+                    return codeSize;
+                case "getName":
+                case "toString":
+                    return name;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new UnsupportedOperationException(m.toString());
+            }
+        });
+    }
+
+    private List<Object> createTasks(ResolvedJavaMethod... methods) throws Exception {
+        List<Object> tasks = new ArrayList<>();
+        for (ResolvedJavaMethod m : methods) {
+            tasks.add(taskConstructor.newInstance(null, null, null, m, null, null));
+        }
+        return tasks;
+    }
+
+    private String names(Iterable<Object> tasks) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (Object task : tasks) {
+            sb.append(((ResolvedJavaMethod) methodField.get(task)).getName()).append(' ');
+        }
+        return sb.toString().trim();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    public void shouldSortByDecreasingCodeSize() throws Exception {
+        List<Object> tasks = createTasks(method("small", 5), method("large", 500), method("medium", 50), method("tiny", 1));
+        Collections.sort((List) tasks);
+        Assert.assertEquals("large medium small tiny", names(tasks));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    public void shouldKeepCreationOrderForEqualCodeSize() throws Exception {
+        List<Object> tasks = createTasks(method("a", 10), method("b", 20), method("c", 10), method("d", 20), method("e", 10));
+        Collections.sort((List) tasks);
+        Assert.assertEquals("b d a c e", names(tasks));
+    }
+
+    @Test
+    public void shouldPollQueueByDecreasingCodeSize() throws Exception {
+        // The compile queue is a priority queue, so tasks waiting for a thread run by cost too.
+        PriorityBlockingQueue<Object> queue = new PriorityBlockingQueue<>();
+        queue.addAll(createTasks(method("small", 5), method("large", 500), method("equal1", 50), method("equal2", 50)));
+        List<Object> polled = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            polled.add(queue.poll());
+        }
+        Assert.assertEquals("large equal1 equal2 small", names(polled));
+    }
+}
@@ -34,6 +34,7 @@ import org.graalvm.compiler.core.GraalCompilerOptions;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.DebugContext.Activation;
 import org.graalvm.compiler.debug.DebugContext.Builder;
+import org.graalvm.compiler.debug.GlobalMetrics;
 import org.graalvm.compiler.debug.TTY;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.printer.GraalDebugHandlersFactory;
@@ -73,18 +74,30 @@ final class AOTCompilationTask implements Runnable, Comparable<Object> {
 
     private final AOTBackend aotBackend;
 
+    /**
+     * The metrics of all compilations this task's metrics are added to.
+     */
+    private final GlobalMetrics metricValues;
+
+    /**
+     * Estimated cost of compiling {@link #method}.
+     */
+    private final int cost;
+
     /**
      * The result of this compilation task.
      */
     private CompiledMethodInfo result;
 
-    AOTCompilationTask(Main main, OptionValues graalOptions, AOTCompiledClass holder, ResolvedJavaMethod method, AOTBackend aotBackend) {
+    AOTCompilationTask(Main main, OptionValues graalOptions, AOTCompiledClass holder, ResolvedJavaMethod method, AOTBackend aotBackend, GlobalMetrics metricValues) {
         this.main = main;
         this.graalOptions = graalOptions;
         this.id = ids.incrementAndGet();
         this.holder = holder;
         this.method = method;
         this.aotBackend = aotBackend;
+        this.metricValues = metricValues;
+        this.cost = method.getCodeSize();
     }
 
     /**
@@ -119,7 +132,7 @@ final class AOTCompilationTask implements Runnable, Comparable<Object> {
         CompilationResult compResult = null;
         final long startTime = System.currentTimeMillis();
         SnippetReflectionProvider snippetReflection = aotBackend.getProviders().getSnippetReflection();
-        try (DebugContext debug = new Builder(graalOptions, new GraalDebugHandlersFactory(snippetReflection)).build(); Activation a = debug.activate()) {
+        try (DebugContext debug = new Builder(graalOptions, new GraalDebugHandlersFactory(snippetReflection)).globalMetrics(metricValues).build(); Activation a = debug.activate()) {
             compResult = aotBackend.compileMethod(method, debug);
         }
         final long endTime = System.currentTimeMillis();
@@ -182,9 +195,16 @@ final class AOTCompilationTask implements Runnable, Comparable<Object> {
         return result;
     }
 
+    /**
+     * Orders tasks by decreasing cost, using the size of the bytecode as estimate. Tasks of the
+     * same cost are ordered by creation.
+     */
     @Override
     public int compareTo(Object obj) {
         AOTCompilationTask other = (AOTCompilationTask) obj;
+        if (this.cost != other.cost) {
+            return Integer.compare(other.cost, this.cost);
+        }
         return this.id - other.id;
     }
 
@@ -26,6 +26,7 @@
 package jdk.tools.jaotc;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
@@ -33,6 +34,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.graalvm.compiler.debug.GlobalMetrics;
 import org.graalvm.compiler.options.OptionValues;
 
 import jdk.vm.ci.meta.ResolvedJavaMethod;
@@ -47,6 +49,11 @@ final class AOTCompiler {
 
     private final AOTBackend backend;
 
+    /**
+     * Metrics such as the per-phase timers, aggregated over all compilations.
+     */
+    private final GlobalMetrics metricValues = new GlobalMetrics();
+
     /**
      * Compile queue.
      */
@@ -102,6 +109,7 @@ final class AOTCompiler {
             final int failed = failedMethodCount.get();
             main.printer.printlnInfo("");
             main.printer.printlnInfo(success + " methods compiled, " + failed + " methods failed (" + (endTime - startTime) + " ms)");
+            metricValues.print(graalOptions);
         }
 
     }
@@ -120,7 +128,8 @@ final class AOTCompiler {
     }
 
     /**
-     * Compile all methods in all classes passed.
+     * Compile all methods in all classes passed. The most expensive compilations are started
+     * first, so that no thread is left with a long compilation while the others are idle.
      *
      * @param classes a list of class to compile
      * @throws InterruptedException
@@ -129,11 +138,18 @@ final class AOTCompiler {
         main.printer.printlnInfo("Compiling with " + compileQueue.getCorePoolSize() + " threads");
         main.printer.printInfo("."); // Compilation progress indication.
 
+        List<AOTCompilationTask> tasks = new ArrayList<>();
         for (AOTCompiledClass c : classes) {
             for (ResolvedJavaMethod m : c.getMethods()) {
-                enqueueMethod(c, m);
+                tasks.add(new AOTCompilationTask(main, graalOptions, c, m, backend, metricValues));
             }
         }
+        // The queue orders waiting tasks by cost, but the first tasks are handed to the
+        // threads directly.
+        Collections.sort(tasks);
+        for (AOTCompilationTask task : tasks) {
+            enqueueTask(task);
+        }
 
         // Shutdown queue and wait for all tasks to complete.
         compileQueue.shutdown();
@@ -149,12 +165,11 @@ final class AOTCompiler {
     }
 
     /**
-     * Enqueue a method in the {@link #compileQueue}.
+     * Enqueue a task in the {@link #compileQueue}.
      *
-     * @param method method to be enqueued
+     * @param task task to be enqueued
      */
-    private void enqueueMethod(AOTCompiledClass aotClass, ResolvedJavaMethod method) {
-        AOTCompilationTask task = new AOTCompilationTask(main, graalOptions, aotClass, method, backend);
+    private void enqueueTask(AOTCompilationTask task) {
         try {
             compileQueue.execute(task);
         } catch (RejectedExecutionException e) {
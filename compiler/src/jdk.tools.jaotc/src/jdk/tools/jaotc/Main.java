@@ -28,6 +28,7 @@ package jdk.tools.jaotc;
 import static org.graalvm.compiler.core.common.GraalOptions.GeneratePIC;
 import static org.graalvm.compiler.core.common.GraalOptions.ImmutableCode;
 import static org.graalvm.compiler.hotspot.meta.HotSpotAOTProfilingPlugin.Options.TieredAOT;
+import static org.graalvm.compiler.replacements.SnippetTemplate.Options.MaxTemplatesPerSnippet;
 
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -176,6 +177,11 @@ public final class Main {
                 graalOptions = new OptionValues(graalOptions, TieredAOT, options.tiered);
             }
             graalOptions = new OptionValues(graalOptions, GeneratePIC, true, ImmutableCode, true);
+            // Snippet templates are shared by all compilation threads for the whole run, so do not
+            // evict and recreate them unless -Dgraal.MaxTemplatesPerSnippet is set.
+            if (!MaxTemplatesPerSnippet.hasBeenSet(graalOptions)) {
+                graalOptions = new OptionValues(graalOptions, MaxTemplatesPerSnippet, 0);
+            }
             HotSpotJVMCIRuntime jvmciRuntime = HotSpotJVMCIRuntime.runtime();
             CompilerConfigurationFactory factory = CompilerConfigurationFactory.selectFactory(null, graalOptions, jvmciRuntime);
             GraalJVMCICompiler graalCompiler = HotSpotGraalCompilerFactory.createCompiler("JAOTC", jvmciRuntime, graalOptions, factory);
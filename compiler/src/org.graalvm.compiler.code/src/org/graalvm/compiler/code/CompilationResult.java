@@ -222,6 +222,12 @@ public class CompilationResult {
      */
     private int targetCodeSize;
 
+    /**
+     * The offset in {@link #targetCode} at which the cold code region starts or -1 if there is no
+     * cold code region.
+     */
+    private int coldCodeStart = -1;
+
     private ArrayList<CodeAnnotation> annotations;
 
     private Assumption[] assumptions;
@@ -297,6 +303,7 @@ public class CompilationResult {
                 Objects.equals(this.customStackArea, that.customStackArea) &&
                 this.totalFrameSize == that.totalFrameSize &&
                 this.targetCodeSize == that.targetCodeSize &&
+                this.coldCodeStart == that.coldCodeStart &&
                 Objects.equals(this.name, that.name) &&
                 Objects.equals(this.compilationId, that.compilationId) &&
                 Objects.equals(this.annotations, that.annotations) &&
@@ -490,6 +497,31 @@ public class CompilationResult {
         targetCodeSize = size;
     }
 
+    /**
+     * Sets the offset of the first instruction of the cold code region. The cold code region
+     * extends to the end of the {@linkplain #getTargetCode() target code} and contains code that
+     * is (almost) never executed, such as deoptimization and slow paths.
+     */
+    public void setColdCodeStart(int offset) {
+        checkOpen();
+        coldCodeStart = offset;
+    }
+
+    /**
+     * Gets the offset of the first instruction of the cold code region or -1 if the code has not
+     * been split into a hot and a cold region.
+     */
+    public int getColdCodeStart() {
+        return coldCodeStart;
+    }
+
+    /**
+     * Gets the number of bytes of the target code that precede the cold code region.
+     */
+    public int getHotCodeSize() {
+        return coldCodeStart == -1 ? targetCodeSize : coldCodeStart;
+    }
+
     /**
      * Records a data patch in the code section. The data patch can refer to something in the
      * {@link DataSectionReference data section} or directly to an {@link ConstantReference inlined
@@ -838,6 +870,7 @@ public class CompilationResult {
             annotations.clear();
         }
         callToMark.clear();
+        coldCodeStart = -1;
     }
 
     public void clearInfopoints() {
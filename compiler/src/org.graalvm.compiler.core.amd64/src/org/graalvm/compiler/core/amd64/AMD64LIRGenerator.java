@@ -48,7 +48,10 @@ import org.graalvm.compiler.asm.amd64.AMD64Assembler.AMD64MIOp;
 import org.graalvm.compiler.asm.amd64.AMD64Assembler.AMD64RMOp;
 import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
 import org.graalvm.compiler.asm.amd64.AMD64Assembler.SSEOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexMoveOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRMIOp;
 import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRMOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRVMOp;
 import org.graalvm.compiler.asm.amd64.AMD64BaseAssembler.OperandSize;
 import org.graalvm.compiler.asm.amd64.AVXKind;
 import org.graalvm.compiler.asm.amd64.AVXKind.AVXSize;
@@ -58,6 +61,7 @@ import org.graalvm.compiler.core.common.calc.Condition;
 import org.graalvm.compiler.core.common.memory.MemoryOrderMode;
 import org.graalvm.compiler.core.common.spi.ForeignCallLinkage;
 import org.graalvm.compiler.core.common.spi.LIRKindTool;
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp;
 import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.lir.ConstantValue;
 import org.graalvm.compiler.lir.LIRFrameState;
@@ -105,7 +109,17 @@ import org.graalvm.compiler.lir.amd64.AMD64StringUTF16CompressOp;
 import org.graalvm.compiler.lir.amd64.AMD64ZapRegistersOp;
 import org.graalvm.compiler.lir.amd64.AMD64ZapStackOp;
 import org.graalvm.compiler.lir.amd64.AMD64ZeroMemoryOp;
+import org.graalvm.compiler.lir.amd64.vector.AMD64VectorBinary.AVXBinaryOp;
 import org.graalvm.compiler.lir.amd64.vector.AMD64VectorCompareOp;
+import org.graalvm.compiler.lir.amd64.vector.AMD64VectorMove.VectorLoadOp;
+import org.graalvm.compiler.lir.amd64.vector.AMD64VectorMove.VectorStoreOp;
+import org.graalvm.compiler.lir.amd64.vector.AMD64VectorShuffle.Extract128Op;
+import org.graalvm.compiler.lir.amd64.vector.AMD64VectorShuffle.ExtractIntOp;
+import org.graalvm.compiler.lir.amd64.vector.AMD64VectorShuffle.ExtractLongOp;
+import org.graalvm.compiler.lir.amd64.vector.AMD64VectorShuffle.IntToVectorOp;
+import org.graalvm.compiler.lir.amd64.vector.AMD64VectorShuffle.LongToVectorOp;
+import org.graalvm.compiler.lir.amd64.vector.AMD64VectorShuffle.ShuffleWordOp;
+import org.graalvm.compiler.lir.amd64.vector.AMD64VectorUnary.AVXBroadcastOp;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
 import org.graalvm.compiler.lir.gen.LIRGenerator;
 import org.graalvm.compiler.lir.hashing.IntHasher;
@@ -746,4 +760,122 @@ public abstract class AMD64LIRGenerator extends LIRGenerator {
         emitMove(lengthReg, length);
         append(new AMD64ZeroMemoryOp(asAddressValue(address), lengthReg));
     }
+
+    @Override
+    public Variable emitVectorLoad(LIRKind vectorKind, Value address) {
+        AMD64Kind kind = (AMD64Kind) vectorKind.getPlatformKind();
+        Variable result = newVariable(vectorKind);
+        append(new VectorLoadOp(AVXKind.getRegisterSize(kind), getVectorMoveOp(kind), result, asAddressValue(address), null));
+        return result;
+    }
+
+    @Override
+    public void emitVectorStore(LIRKind vectorKind, Value address, Value input) {
+        AMD64Kind kind = (AMD64Kind) vectorKind.getPlatformKind();
+        append(new VectorStoreOp(AVXKind.getRegisterSize(kind), getVectorMoveOp(kind), asAddressValue(address), asAllocatable(input), null));
+    }
+
+    private static VexMoveOp getVectorMoveOp(AMD64Kind kind) {
+        switch (kind.getScalar()) {
+            case SINGLE:
+                return VexMoveOp.VMOVUPS;
+            case DOUBLE:
+                return VexMoveOp.VMOVUPD;
+            case QWORD:
+                return VexMoveOp.VMOVDQU64;
+            default:
+                return VexMoveOp.VMOVDQU32;
+        }
+    }
+
+    @Override
+    public Variable emitVectorBroadcast(LIRKind vectorKind, Value input) {
+        AMD64Kind kind = (AMD64Kind) vectorKind.getPlatformKind();
+        int elementSize = kind.getScalar().getSizeInBytes();
+        boolean quadword = elementSize == 8;
+        Value source = input;
+        if (kind.getScalar().isInteger() && (!isJavaConstant(input) || elementSize == 1)) {
+            // VPBROADCASTB, VPBROADCASTD and VPBROADCASTQ only accept XMM registers or memory as
+            // source
+            Variable vector = newVariable(LIRKind.value(quadword ? AMD64Kind.V128_QWORD : AMD64Kind.V128_DWORD));
+            append(quadword ? new LongToVectorOp(vector, asAllocatable(input)) : new IntToVectorOp(vector, asAllocatable(input)));
+            source = vector;
+        }
+        VexRMOp opcode = elementSize == 1 ? VexRMOp.VPBROADCASTB : quadword ? VexRMOp.VPBROADCASTQ : VexRMOp.VPBROADCASTD;
+        Variable result = newVariable(vectorKind);
+        append(new AVXBroadcastOp(opcode, AVXKind.getRegisterSize(kind), result, source));
+        return result;
+    }
+
+    @Override
+    public Variable emitVectorBinary(BinaryOp<?> op, LIRKind vectorKind, Value x, Value y) {
+        AMD64Kind kind = (AMD64Kind) vectorKind.getPlatformKind();
+        Variable result = newVariable(vectorKind);
+        append(new AVXBinaryOp(getVectorBinaryOp(op, kind.getScalar()), AVXKind.getRegisterSize(kind), result, asAllocatable(x), asAllocatable(y)));
+        return result;
+    }
+
+    private static VexRVMOp getVectorBinaryOp(BinaryOp<?> op, AMD64Kind scalar) {
+        boolean quadword = scalar.getSizeInBytes() == 8;
+        boolean bytes = scalar.getSizeInBytes() == 1;
+        if (scalar.isInteger()) {
+            if (op instanceof BinaryOp.Add) {
+                return quadword ? VexRVMOp.VPADDQ : bytes ? VexRVMOp.VPADDB : VexRVMOp.VPADDD;
+            } else if (op instanceof BinaryOp.Sub) {
+                return quadword ? VexRVMOp.VPSUBQ : bytes ? VexRVMOp.VPSUBB : VexRVMOp.VPSUBD;
+            } else if (op instanceof BinaryOp.Mul && !quadword && !bytes) {
+                return VexRVMOp.VPMULLD;
+            } else if (op instanceof BinaryOp.And) {
+                return VexRVMOp.VPAND;
+            } else if (op instanceof BinaryOp.Or) {
+                return VexRVMOp.VPOR;
+            } else if (op instanceof BinaryOp.Xor) {
+                return VexRVMOp.VPXOR;
+            }
+        } else {
+            if (op instanceof BinaryOp.Add) {
+                return quadword ? VexRVMOp.VADDPD : VexRVMOp.VADDPS;
+            } else if (op instanceof BinaryOp.Sub) {
+                return quadword ? VexRVMOp.VSUBPD : VexRVMOp.VSUBPS;
+            } else if (op instanceof BinaryOp.Mul) {
+                return quadword ? VexRVMOp.VMULPD : VexRVMOp.VMULPS;
+            } else if (op instanceof BinaryOp.Div) {
+                return quadword ? VexRVMOp.VDIVPD : VexRVMOp.VDIVPS;
+            }
+        }
+        throw GraalError.shouldNotReachHere("unsupported vector operation " + op + " on " + scalar);
+    }
+
+    @Override
+    public Variable emitVectorReduce(BinaryOp<?> op, LIRKind resultKind, Value vector) {
+        AMD64Kind kind = (AMD64Kind) vector.getPlatformKind();
+        AMD64Kind scalar = kind.getScalar();
+        GraalError.guarantee(scalar == AMD64Kind.DWORD || scalar == AMD64Kind.QWORD, "unsupported reduction of %s", kind);
+        VexRVMOp opcode = getVectorBinaryOp(op, scalar);
+        LIRKind halfKind = LIRKind.value(AVXKind.getAVXKind(scalar, AVXSize.XMM));
+        AllocatableValue current = asAllocatable(vector);
+        if (AVXKind.getRegisterSize(kind) == AVXSize.YMM) {
+            Variable upper = newVariable(halfKind);
+            append(new Extract128Op(upper, current, 1));
+            current = emitReduceStep(opcode, halfKind, current, upper);
+        }
+        // 0x4E swaps the two quadwords, 0xB1 swaps the doublewords within each quadword
+        Variable swapped = newVariable(halfKind);
+        append(new ShuffleWordOp(VexRMIOp.VPSHUFD, swapped, current, 0x4E));
+        current = emitReduceStep(opcode, halfKind, current, swapped);
+        if (scalar == AMD64Kind.DWORD) {
+            swapped = newVariable(halfKind);
+            append(new ShuffleWordOp(VexRMIOp.VPSHUFD, swapped, current, 0xB1));
+            current = emitReduceStep(opcode, halfKind, current, swapped);
+        }
+        Variable result = newVariable(resultKind);
+        append(scalar == AMD64Kind.DWORD ? new ExtractIntOp(result, current, 0) : new ExtractLongOp(result, current, 0));
+        return result;
+    }
+
+    private Variable emitReduceStep(VexRVMOp opcode, LIRKind halfKind, AllocatableValue x, AllocatableValue y) {
+        Variable result = newVariable(halfKind);
+        append(new AVXBinaryOp(opcode, AVXSize.XMM, result, x, y));
+        return result;
+    }
 }
@@ -24,6 +24,7 @@
  */
 package org.graalvm.compiler.core.amd64;
 
+import org.graalvm.compiler.asm.amd64.AVXKind;
 import org.graalvm.compiler.core.common.LIRKind;
 import org.graalvm.compiler.core.common.spi.LIRKindTool;
 import org.graalvm.compiler.debug.GraalError;
@@ -68,6 +69,11 @@ public abstract class AMD64LIRKindTool implements LIRKindTool {
         return LIRKind.value(AMD64Kind.QWORD);
     }
 
+    @Override
+    public LIRKind getVectorKind(LIRKind elementKind, int length) {
+        return LIRKind.value(AVXKind.getAVXKind((AMD64Kind) elementKind.getPlatformKind(), length));
+    }
+
     @Override
     public abstract LIRKind getNarrowOopKind();
 
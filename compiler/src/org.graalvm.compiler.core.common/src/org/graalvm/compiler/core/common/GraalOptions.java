@@ -120,6 +120,12 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Boolean> LoopPredicationMainPath = new OptionKey<>(true);
 
+    @Option(help = "Split counted loops into pre, main and post loops to remove the range checks of the main loop.", type = OptionType.Debug)
+    public static final OptionKey<Boolean> RangeCheckElimination = new OptionKey<>(true);
+
+    @Option(help = "Widen simple counted loops over arrays to use vector instructions.", type = OptionType.Debug)
+    public static final OptionKey<Boolean> LoopVectorization = new OptionKey<>(false);
+
     // debugging settings
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Boolean> ZapStackOnMethodEntry = new OptionKey<>(false);
@@ -280,6 +286,9 @@ public final class GraalOptions {
     @Option(help = "Alignment in bytes for loop header blocks.", type = OptionType.Expert)
     public static final OptionKey<Integer> LoopHeaderAlignment = new OptionKey<>(16);
 
+    @Option(help = "Emit blocks that are (almost) never executed, such as deoptimization and slow paths, after all other blocks of a method.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> HotColdSplitting = new OptionKey<>(true);
+
     @Option(help = "String.indexOf invocations will be evaluated at compile time if the receiver is a constant and its length is lower than this value.", type = OptionType.Expert)
     public static final OptionKey<Integer> StringIndexOfLimit = new OptionKey<>(4096);
     
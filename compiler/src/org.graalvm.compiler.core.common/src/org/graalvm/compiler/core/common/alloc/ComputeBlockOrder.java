@@ -47,6 +47,11 @@ import org.graalvm.compiler.core.common.cfg.Loop;
  * backward jumps are always marked as aligned. Aligning the target of conditional jumps does not
  * bring a measurable benefit and is therefore avoided to keep the code size small.
  *
+ * If requested, the machine code generator order is additionally split into a hot and a cold part.
+ * All {@linkplain #isColdBlock cold} blocks, i.e., deoptimization, exception and slow paths, are
+ * moved behind the hot blocks. The hot code of a method is then a dense region that is not
+ * interleaved with code that is (almost) never executed.
+ *
  * The linear scan register allocator order has an additional mechanism that prevents merge nodes
  * from being scheduled if there is at least one highly likely predecessor still unscheduled. This
  * increases the probability that the merge node and the corresponding predecessor are more closely
@@ -68,6 +73,17 @@ public final class ComputeBlockOrder {
      */
     private static final int PENALTY_VERSUS_UNSCHEDULED = 10;
 
+    /**
+     * Maximum probability with which a block can be entered from a hot predecessor to be considered
+     * cold. This matches the probability of slow paths in snippets.
+     */
+    private static final double COLD_PROBABILITY = 0.01;
+
+    /**
+     * Tolerance for comparing probabilities that are the result of floating point arithmetic.
+     */
+    private static final double PROBABILITY_EPSILON = 1E-6;
+
     /**
      * Computes the block order used for the linear scan register allocator.
      *
@@ -85,14 +101,20 @@ public final class ComputeBlockOrder {
     /**
      * Computes the block order used for code emission.
      *
+     * @param splitColdBlocks if {@code true}, all {@linkplain #isColdBlock cold} blocks are marked
+     *            as {@linkplain AbstractBlockBase#isCold() cold} and placed behind all other blocks
      * @return sorted list of blocks
      */
-    public static <T extends AbstractBlockBase<T>> AbstractBlockBase<?>[] computeCodeEmittingOrder(int blockCount, T startBlock) {
+    public static <T extends AbstractBlockBase<T>> AbstractBlockBase<?>[] computeCodeEmittingOrder(int blockCount, T startBlock, boolean splitColdBlocks) {
         List<T> order = new ArrayList<>();
         BitSet visitedBlocks = new BitSet(blockCount);
         PriorityQueue<T> worklist = initializeWorklist(startBlock, visitedBlocks);
         computeCodeEmittingOrder(order, worklist, visitedBlocks);
         assert checkOrder(order, blockCount);
+        if (splitColdBlocks) {
+            order = splitColdBlocks(order, blockCount);
+            assert checkOrder(order, blockCount);
+        }
         return order.toArray(new AbstractBlockBase<?>[0]);
     }
 
@@ -198,6 +220,77 @@ public final class ComputeBlockOrder {
         }
     }
 
+    /**
+     * Moves all cold blocks behind the hot blocks. The relative order of the hot blocks and of the
+     * cold blocks is preserved, so that the hot code still follows the most likely paths and a
+     * cold loop stays contiguous.
+     */
+    private static <T extends AbstractBlockBase<T>> List<T> splitColdBlocks(List<T> order, int blockCount) {
+        // Block ids are in reverse post order, i.e., forward predecessors are visited first.
+        List<T> reversePostOrder = new ArrayList<>(order);
+        reversePostOrder.sort(Comparator.comparingInt(AbstractBlockBase::getId));
+        BitSet coldBlocks = new BitSet(blockCount);
+        for (T block : reversePostOrder) {
+            if (isColdBlock(block, coldBlocks)) {
+                coldBlocks.set(block.getId());
+            }
+        }
+        if (coldBlocks.isEmpty()) {
+            return order;
+        }
+
+        List<T> result = new ArrayList<>(order.size());
+        for (T block : order) {
+            if (!coldBlocks.get(block.getId())) {
+                result.add(block);
+            }
+        }
+        for (T block : order) {
+            if (coldBlocks.get(block.getId())) {
+                block.setCold(true);
+                result.add(block);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determines if a block is cold. A block other than the start block is cold if each of its
+     * forward predecessors is either cold itself or rarely branches to the block, i.e., with a
+     * probability of at most {@link #COLD_PROBABILITY} while it has another, more likely successor.
+     * The latter condition keeps the cases of a switch with many equally likely keys hot.
+     *
+     * @param coldBlocks the cold blocks among the forward predecessors of {@code block}
+     */
+    private static <T extends AbstractBlockBase<T>> boolean isColdBlock(T block, BitSet coldBlocks) {
+        if (block.getPredecessorCount() == 0) {
+            return false;
+        }
+        for (T predecessor : block.getPredecessors()) {
+            if (predecessor.getId() >= block.getId()) {
+                // backward edge of a loop: the loop is cold if it is entered from cold code only
+                continue;
+            }
+            if (!coldBlocks.get(predecessor.getId()) && !isRareSuccessor(predecessor, block)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T extends AbstractBlockBase<T>> boolean isRareSuccessor(T block, T successor) {
+        double limit = block.getRelativeFrequency() * (COLD_PROBABILITY + PROBABILITY_EPSILON);
+        if (successor.getRelativeFrequency() > limit) {
+            return false;
+        }
+        for (T other : block.getSuccessors()) {
+            if (other.getRelativeFrequency() > limit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Adds a block to the ordering.
      */
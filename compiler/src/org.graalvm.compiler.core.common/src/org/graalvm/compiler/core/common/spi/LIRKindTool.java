@@ -25,6 +25,7 @@
 package org.graalvm.compiler.core.common.spi;
 
 import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.debug.GraalError;
 
 /**
  * This interface can be used to access platform and VM specific kinds.
@@ -60,4 +61,13 @@ public interface LIRKindTool {
      * Gets the platform specific kind used to represent compressed metaspace pointers.
      */
     LIRKind getNarrowPointerKind();
+
+    /**
+     * Get the architecture specific kind of a vector of {@code length} elements of kind
+     * {@code elementKind}.
+     */
+    @SuppressWarnings("unused")
+    default LIRKind getVectorKind(LIRKind elementKind, int length) {
+        throw GraalError.unimplemented("vector kinds are not supported on this architecture");
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.common.type;
+
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.spi.LIRKindTool;
+import org.graalvm.compiler.debug.GraalError;
+
+import jdk.vm.ci.meta.Constant;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.MemoryAccessProvider;
+import jdk.vm.ci.meta.MetaAccessProvider;
+import jdk.vm.ci.meta.ResolvedJavaType;
+
+/**
+ * Type describing a vector of {@link #getLength() length} primitive values, all described by the
+ * same unrestricted {@link #getElementStamp() element stamp}. Vector values only exist between the
+ * nodes of a vectorized loop body; they are never stored to memory as a whole object, merged in
+ * phis or recorded in frame states.
+ */
+public final class VectorStamp extends Stamp {
+
+    private final PrimitiveStamp elementStamp;
+    private final int length;
+
+    private VectorStamp(PrimitiveStamp elementStamp, int length) {
+        this.elementStamp = elementStamp;
+        this.length = length;
+    }
+
+    public static VectorStamp create(Stamp elementStamp, int length) {
+        GraalError.guarantee(elementStamp instanceof PrimitiveStamp, "vector elements must be primitive: %s", elementStamp);
+        GraalError.guarantee(length > 1, "vector needs at least two elements: %s", length);
+        return new VectorStamp((PrimitiveStamp) elementStamp.unrestricted(), length);
+    }
+
+    public PrimitiveStamp getElementStamp() {
+        return elementStamp;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public void accept(Visitor v) {
+        elementStamp.accept(v);
+        v.visitInt(length);
+    }
+
+    @Override
+    public ResolvedJavaType javaType(MetaAccessProvider metaAccess) {
+        throw GraalError.shouldNotReachHere("vector stamp has no Java type");
+    }
+
+    @Override
+    public JavaKind getStackKind() {
+        return JavaKind.Illegal;
+    }
+
+    @Override
+    public LIRKind getLIRKind(LIRKindTool tool) {
+        return tool.getVectorKind(elementStamp.getLIRKind(tool), length);
+    }
+
+    @Override
+    public Stamp meet(Stamp other) {
+        assert isCompatible(other) : this + " " + other;
+        return this;
+    }
+
+    @Override
+    public Stamp join(Stamp other) {
+        assert isCompatible(other) : this + " " + other;
+        return this;
+    }
+
+    @Override
+    public Stamp unrestricted() {
+        return this;
+    }
+
+    @Override
+    public Stamp empty() {
+        throw GraalError.shouldNotReachHere("vector stamp is never empty");
+    }
+
+    @Override
+    public Stamp constant(Constant c, MetaAccessProvider meta) {
+        throw GraalError.shouldNotReachHere("vector stamp has no constants");
+    }
+
+    @Override
+    public boolean isCompatible(Stamp other) {
+        if (other instanceof VectorStamp) {
+            VectorStamp vector = (VectorStamp) other;
+            return length == vector.length && elementStamp.isCompatible(vector.elementStamp);
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isCompatible(Constant constant) {
+        return false;
+    }
+
+    @Override
+    public boolean hasValues() {
+        return true;
+    }
+
+    @Override
+    public Constant readConstant(MemoryAccessProvider provider, Constant base, long displacement) {
+        return null;
+    }
+
+    @Override
+    public Stamp improveWith(Stamp other) {
+        return this;
+    }
+
+    @Override
+    public int hashCode() {
+        return elementStamp.hashCode() * 31 + length;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof VectorStamp) {
+            VectorStamp other = (VectorStamp) obj;
+            return length == other.length && elementStamp.equals(other.elementStamp);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return elementStamp + "x" + length;
+    }
+}
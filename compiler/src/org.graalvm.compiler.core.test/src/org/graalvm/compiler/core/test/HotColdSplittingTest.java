@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.graalvm.compiler.api.directives.GraalDirectives;
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class HotColdSplittingTest extends GraalCompilerTest {
+
+    static int slowPathCount;
+
+    public static int coldPathSnippet(int[] array, int value) {
+        int sum = 0;
+        for (int i = 0; i < array.length; i++) {
+            if (GraalDirectives.injectBranchProbability(GraalDirectives.SLOWPATH_PROBABILITY, array[i] == value)) {
+                slowPathCount++;
+                sum += slowPath(array, i);
+            }
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    @BytecodeParserNeverInline
+    static int slowPath(int[] array, int i) {
+        return array.length * 31 + i;
+    }
+
+    public static int noColdPathSnippet(int a, int b) {
+        return a * b + 1;
+    }
+
+    private CompilationResult compile(String name, boolean hotColdSplitting) {
+        OptionValues options = new OptionValues(getInitialOptions(), GraalOptions.HotColdSplitting, hotColdSplitting);
+        StructuredGraph graph = parseEager(name, AllowAssumptions.YES, options);
+        return compile(graph.method(), graph);
+    }
+
+    @Test
+    public void testColdPath() {
+        CompilationResult result = compile("coldPathSnippet", true);
+        assertTrue(result.getColdCodeStart() > 0 && result.getColdCodeStart() < result.getTargetCodeSize(), "expected a cold code region: %d", result.getColdCodeStart());
+        assertTrue(result.getHotCodeSize() == result.getColdCodeStart());
+
+        test("coldPathSnippet", new int[]{1, 2, 3, 4}, 5);
+        test("coldPathSnippet", new int[]{1, 2, 3, 4}, 3);
+        test("coldPathSnippet", null, 3);
+    }
+
+    @Test
+    public void testDisabled() {
+        CompilationResult result = compile("coldPathSnippet", false);
+        assertTrue(result.getColdCodeStart() == -1);
+        assertTrue(result.getHotCodeSize() == result.getTargetCodeSize());
+    }
+
+    @Test
+    public void testNoColdPath() {
+        CompilationResult result = compile("noColdPathSnippet", true);
+        assertTrue(result.getColdCodeStart() == -1);
+        test("noColdPathSnippet", 6, 7);
+    }
+}
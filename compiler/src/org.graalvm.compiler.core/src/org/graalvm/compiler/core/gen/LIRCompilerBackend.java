@@ -141,7 +141,7 @@ public class LIRCompilerBackend {
             assert startBlock != null;
             assert startBlock.getPredecessorCount() == 0;
 
-            AbstractBlockBase<?>[] codeEmittingOrder = ComputeBlockOrder.computeCodeEmittingOrder(blocks.length, startBlock);
+            AbstractBlockBase<?>[] codeEmittingOrder = ComputeBlockOrder.computeCodeEmittingOrder(blocks.length, startBlock, GraalOptions.HotColdSplitting.getValue(graph.getOptions()));
             AbstractBlockBase<?>[] linearScanOrder = ComputeBlockOrder.computeLinearScanOrder(blocks.length, startBlock);
             LIR lir = new LIR(schedule.getCFG(), linearScanOrder, codeEmittingOrder, graph.getOptions(), graph.getDebug());
 
@@ -240,6 +240,7 @@ public class LIRCompilerBackend {
 
                 DebugContext.counter("CompilationResults").increment(debug);
                 DebugContext.counter("CodeBytesEmitted").add(debug, compilationResult.getTargetCodeSize());
+                DebugContext.counter("HotCodeBytesEmitted").add(debug, compilationResult.getHotCodeSize());
                 DebugContext.counter("InfopointsEmitted").add(debug, compilationResult.getInfopoints().size());
                 DebugContext.counter("DataPatches").add(debug, ldp.size());
                 DebugContext.counter("ExceptionHandlersEmitted").add(debug, compilationResult.getExceptionHandlers().size());
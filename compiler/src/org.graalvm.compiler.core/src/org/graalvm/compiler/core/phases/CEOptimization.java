@@ -33,6 +33,8 @@ import org.graalvm.compiler.loop.phases.LoopPartialUnrollPhase;
 import org.graalvm.compiler.loop.phases.LoopPeelingPhase;
 import org.graalvm.compiler.loop.phases.LoopSafepointEliminationPhase;
 import org.graalvm.compiler.loop.phases.LoopUnswitchingPhase;
+import org.graalvm.compiler.loop.phases.LoopVectorizationPhase;
+import org.graalvm.compiler.loop.phases.RangeCheckEliminationPhase;
 import org.graalvm.compiler.nodes.memory.MemoryMap;
 import org.graalvm.compiler.options.OptionKey;
 import org.graalvm.compiler.phases.BasePhase;
@@ -279,6 +281,26 @@ public enum CEOptimization {
      */
     PartialLoopUnrolling(GraalOptions.PartialUnroll, LoopPartialUnrollPhase.class),
 
+    /**
+     * {@link RangeCheckEliminationPhase} is a compiler optimization splitting counted loops into
+     * pre, main and post loops such that the array accesses of the main loop are always in bounds.
+     * The range checks of the main loop can then be removed.
+     *
+     * This phase is enabled by default and can be disabled with
+     * {@link GraalOptions#RangeCheckElimination}.
+     */
+    RangeCheckElimination(GraalOptions.RangeCheckElimination, RangeCheckEliminationPhase.class),
+
+    /**
+     * {@link LoopVectorizationPhase} is a compiler optimization widening simple counted loops over
+     * primitive arrays so that one iteration of the loop processes several array elements with
+     * vector instructions. The remaining iterations are executed by a scalar post loop.
+     *
+     * This phase is disabled by default and can be enabled with
+     * {@link GraalOptions#LoopVectorization}.
+     */
+    LoopVectorization(GraalOptions.LoopVectorization, LoopVectorizationPhase.class),
+
     /**
      * {@link BoxNodeOptimizationPhase} is a compiler optimization for Java box operations. The
      * phase tries to re-use dominating boxed/unboxed values to avoid repetitive boxing while it
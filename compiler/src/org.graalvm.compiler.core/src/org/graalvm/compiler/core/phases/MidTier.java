@@ -26,9 +26,11 @@ package org.graalvm.compiler.core.phases;
 
 import static org.graalvm.compiler.core.common.GraalOptions.ConditionalElimination;
 import static org.graalvm.compiler.core.common.GraalOptions.LoopPredication;
+import static org.graalvm.compiler.core.common.GraalOptions.LoopVectorization;
 import static org.graalvm.compiler.core.common.GraalOptions.OptDeoptimizationGrouping;
 import static org.graalvm.compiler.core.common.GraalOptions.OptFloatingReads;
 import static org.graalvm.compiler.core.common.GraalOptions.PartialUnroll;
+import static org.graalvm.compiler.core.common.GraalOptions.RangeCheckElimination;
 import static org.graalvm.compiler.core.common.GraalOptions.ReassociateExpressions;
 import static org.graalvm.compiler.core.common.GraalOptions.VerifyHeapAtReturn;
 import static org.graalvm.compiler.core.common.SpectrePHTMitigations.GuardTargets;
@@ -38,6 +40,8 @@ import static org.graalvm.compiler.core.common.SpectrePHTMitigations.Options.Spe
 import org.graalvm.compiler.loop.phases.LoopPartialUnrollPhase;
 import org.graalvm.compiler.loop.phases.LoopPredicationPhase;
 import org.graalvm.compiler.loop.phases.LoopSafepointEliminationPhase;
+import org.graalvm.compiler.loop.phases.LoopVectorizationPhase;
+import org.graalvm.compiler.loop.phases.RangeCheckEliminationPhase;
 import org.graalvm.compiler.nodes.loop.DefaultLoopPolicies;
 import org.graalvm.compiler.nodes.loop.LoopPolicies;
 import org.graalvm.compiler.nodes.spi.LoweringTool;
@@ -79,6 +83,10 @@ public class MidTier extends BaseTier<MidTierContext> {
             appendPhase(new IncrementalCanonicalizerPhase<>(canonicalizer, new LoopPredicationPhase()));
         }
 
+        if (RangeCheckElimination.getValue(options)) {
+            appendPhase(new RangeCheckEliminationPhase(canonicalizer));
+        }
+
         appendPhase(new LoopSafepointEliminationPhase());
 
         appendPhase(new GuardLoweringPhase());
@@ -101,6 +109,10 @@ public class MidTier extends BaseTier<MidTierContext> {
 
         appendPhase(new FrameStateAssignmentPhase());
 
+        if (LoopVectorization.getValue(options)) {
+            appendPhase(new LoopVectorizationPhase(canonicalizer));
+        }
+
         if (PartialUnroll.getValue(options)) {
             LoopPolicies loopPolicies = createLoopPolicies(options);
             appendPhase(new LoopPartialUnrollPhase(loopPolicies, canonicalizer));
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.graph.test;
+
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_IGNORED;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_IGNORED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.graalvm.compiler.graph.Graph;
+import org.graalvm.compiler.graph.Graph.ChangeMark;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class GraphChangeMarkTest extends GraphTest {
+
+    @NodeInfo(cycles = CYCLES_IGNORED, size = SIZE_IGNORED)
+    static final class Def extends Node {
+        public static final NodeClass<Def> TYPE = NodeClass.create(Def.class);
+
+        protected Def() {
+            super(TYPE);
+        }
+    }
+
+    @NodeInfo(cycles = CYCLES_IGNORED, size = SIZE_IGNORED)
+    static final class Use extends Node {
+        public static final NodeClass<Use> TYPE = NodeClass.create(Use.class);
+        @Input Def in;
+
+        protected Use(Def in) {
+            super(TYPE);
+            this.in = in;
+        }
+    }
+
+    @NodeInfo(cycles = CYCLES_IGNORED, size = SIZE_IGNORED)
+    static final class IndirectUse extends Node implements Node.IndirectCanonicalization {
+        public static final NodeClass<IndirectUse> TYPE = NodeClass.create(IndirectUse.class);
+        @Input Def in;
+
+        protected IndirectUse(Def in) {
+            super(TYPE);
+            this.in = in;
+        }
+    }
+
+    @NodeInfo(cycles = CYCLES_IGNORED, size = SIZE_IGNORED)
+    static final class IndirectUser extends Node {
+        public static final NodeClass<IndirectUser> TYPE = NodeClass.create(IndirectUser.class);
+        @Input IndirectUse in;
+
+        protected IndirectUser(IndirectUse in) {
+            super(TYPE);
+            this.in = in;
+        }
+    }
+
+    @NodeInfo(cycles = CYCLES_IGNORED, size = SIZE_IGNORED)
+    static final class Begin extends Node implements Node.PredecessorCanonicalization {
+        public static final NodeClass<Begin> TYPE = NodeClass.create(Begin.class);
+        @Input Def in;
+
+        protected Begin(Def in) {
+            super(TYPE);
+            this.in = in;
+        }
+    }
+
+    @NodeInfo(cycles = CYCLES_IGNORED, size = SIZE_IGNORED)
+    static final class Split extends Node {
+        public static final NodeClass<Split> TYPE = NodeClass.create(Split.class);
+        @Successor Begin next;
+
+        protected Split(Begin next) {
+            super(TYPE);
+            this.next = next;
+        }
+    }
+
+    private Graph createGraph() {
+        OptionValues options = getOptions();
+        return new Graph(options, getDebug(options));
+    }
+
+    @Test
+    public void testChangedNodes() {
+        Graph graph = createGraph();
+        Def def0 = graph.add(new Def());
+        Def def1 = graph.add(new Def());
+        Use use = graph.add(new Use(def0));
+        Def unchanged = graph.add(new Def());
+        try (ChangeMark changes = graph.markChanges()) {
+            assertTrue(changes.isEmpty());
+            use.replaceFirstInput(def0, def1);
+            use.replaceFirstInput(def1, def0);
+            use.replaceFirstInput(def0, def1);
+            Def added = graph.add(new Def());
+
+            List<Node> changed = changes.getChangedNodes().snapshot();
+            assertEquals(4, changed.size());
+            assertTrue(changed.contains(use));
+            assertTrue(changed.contains(def0));
+            assertTrue(changed.contains(def1));
+            assertTrue(changed.contains(added));
+            assertTrue(!changed.contains(unchanged));
+
+            added.safeDelete();
+            assertEquals(3, changes.getChangedNodes().count());
+        }
+        try (ChangeMark changes = graph.markChanges()) {
+            assertTrue(changes.isEmpty());
+        }
+    }
+
+    @Test
+    public void testNestedMarks() {
+        Graph graph = createGraph();
+        Def def0 = graph.add(new Def());
+        Def def1 = graph.add(new Def());
+        Use use0 = graph.add(new Use(def0));
+        Use use1 = graph.add(new Use(def0));
+        try (ChangeMark outer = graph.markChanges()) {
+            use0.replaceFirstInput(def0, def1);
+            try (ChangeMark inner = graph.markChanges()) {
+                assertTrue(inner.isEmpty());
+                use0.replaceFirstInput(def1, def0);
+                use1.replaceFirstInput(def0, def1);
+
+                List<Node> changed = inner.getChangedNodes().snapshot();
+                assertEquals(3, changed.size());
+                assertTrue(changed.contains(use0));
+                assertTrue(changed.contains(use1));
+                assertTrue(changed.contains(def1));
+            }
+            List<Node> changed = outer.getChangedNodes().snapshot();
+            assertEquals(3, changed.size());
+            assertTrue(changed.contains(use0));
+            assertTrue(changed.contains(use1));
+            assertTrue(changed.contains(def1));
+        }
+    }
+
+    @Test
+    public void testIndirectCanonicalization() {
+        Graph graph = createGraph();
+        Def def0 = graph.add(new Def());
+        Def def1 = graph.add(new Def());
+        IndirectUse indirect = graph.add(new IndirectUse(def0));
+        IndirectUser user = graph.add(new IndirectUser(indirect));
+        try (ChangeMark changes = graph.markChanges()) {
+            indirect.replaceFirstInput(def0, def1);
+
+            List<Node> changed = changes.getChangedNodes().snapshot();
+            assertTrue(changed.contains(indirect));
+            assertTrue(changed.contains(user));
+        }
+    }
+
+    @Test
+    public void testPredecessorCanonicalization() {
+        Graph graph = createGraph();
+        Def def0 = graph.add(new Def());
+        Def def1 = graph.add(new Def());
+        Begin begin = graph.add(new Begin(def0));
+        Split split = graph.add(new Split(begin));
+        try (ChangeMark changes = graph.markChanges()) {
+            begin.replaceFirstInput(def0, def1);
+            // the predecessor is recorded when the change happens
+            split.replaceFirstSuccessor(begin, null);
+            begin.safeDelete();
+
+            List<Node> changed = changes.getChangedNodes().snapshot();
+            assertTrue(changed.contains(split));
+            assertTrue(!changed.contains(begin));
+        }
+    }
+
+    @Test
+    public void testCompression() {
+        Graph graph = createGraph();
+        Def def0 = graph.add(new Def());
+        Def def1 = graph.add(new Def());
+        Def[] garbage = new Def[100];
+        for (int i = 0; i < garbage.length; i++) {
+            garbage[i] = graph.add(new Def());
+        }
+        Use use = graph.add(new Use(def0));
+        Def unchanged = graph.add(new Def());
+        try (ChangeMark changes = graph.markChanges()) {
+            use.replaceFirstInput(def0, def1);
+            for (Def def : garbage) {
+                def.safeDelete();
+            }
+            assertTrue(graph.maybeCompress());
+
+            List<Node> changed = changes.getChangedNodes().snapshot();
+            assertEquals(2, changed.size());
+            assertTrue(changed.contains(use));
+            assertTrue(changed.contains(def0));
+
+            Def added = graph.add(new Def());
+            use.replaceFirstInput(def1, def0);
+            changed = changes.getChangedNodes().snapshot();
+            assertEquals(4, changed.size());
+            assertTrue(changed.contains(added));
+            assertTrue(changed.contains(def1));
+            assertTrue(!changed.contains(unchanged));
+        }
+    }
+}
@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.function.Consumer;
 
 import org.graalvm.collections.EconomicMap;
@@ -43,6 +44,8 @@ import org.graalvm.compiler.debug.DebugCloseable;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.debug.TimerKey;
+import org.graalvm.compiler.graph.Node.IndirectCanonicalization;
+import org.graalvm.compiler.graph.Node.PredecessorCanonicalization;
 import org.graalvm.compiler.graph.Node.NodeInsertionStackTrace;
 import org.graalvm.compiler.graph.Node.ValueNumberable;
 import org.graalvm.compiler.graph.iterators.NodeIterable;
@@ -120,6 +123,41 @@ public class Graph {
 
     NodeEventListener nodeEventListener;
 
+    /**
+     * The innermost open {@link ChangeMark} or {@code null} if changes are not being tracked.
+     */
+    ChangeMark changeMark;
+
+    /**
+     * Log of the nodes changed since the outermost {@link ChangeMark} was opened. A node may
+     * appear in the log more than once, only the entry matching its {@linkplain #nodeChangeStamps
+     * stamp} is valid.
+     */
+    private Node[] changedNodes;
+    private int changedNodesCount;
+
+    /**
+     * Records for each node id the stamp of the latest {@linkplain #changedNodes log} entry for
+     * the node. A stamp is {@link #changeLogBase} plus the index of the entry plus one.
+     */
+    private int[] nodeChangeStamps;
+
+    /**
+     * The most recently assigned change stamp.
+     */
+    private int changeStamp;
+
+    /**
+     * The value of {@link #changeStamp} when the {@linkplain #changedNodes log} was last reset.
+     */
+    private int changeLogBase;
+
+    /**
+     * The value of {@link #changeStamp} when the innermost {@link ChangeMark} was opened. A node
+     * with a greater stamp is already in the log of the innermost mark.
+     */
+    private int latestMarkStamp;
+
     /**
      * Used to global value number {@link ValueNumberable} {@linkplain NodeClass#isLeafNode() leaf}
      * nodes.
@@ -681,6 +719,170 @@ public class Graph {
         return new NodeEventScope(listener);
     }
 
+    /**
+     * Tracks the nodes of a graph that had their inputs changed, their usages dropped to zero or
+     * that were added while this object is open. Compared to a {@link NodeEventListener}
+     * accumulating nodes in a set, a change mark only appends to a log shared by all marks of the
+     * graph, so phases can hand the changed nodes to a worklist without hashing or sweeping the
+     * whole graph. Marks nest and must be {@linkplain #close() closed} in the reverse order they
+     * were opened. The changed nodes are only available while the mark is open:
+     *
+     * <pre>
+     * try (ChangeMark changes = graph.markChanges()) {
+     *     // make changes to the graph
+     *     for (Node node : changes.getChangedNodes()) {
+     *         // process node
+     *     }
+     * }
+     * </pre>
+     */
+    public final class ChangeMark implements AutoCloseable {
+
+        private final ChangeMark outer;
+        private final int start;
+        private final int previousLatestMarkStamp;
+
+        ChangeMark() {
+            outer = changeMark;
+            if (outer == null) {
+                if (changeStamp >= Integer.MAX_VALUE / 2) {
+                    // avoid overflowing the stamps of long living graphs
+                    if (nodeChangeStamps != null) {
+                        Arrays.fill(nodeChangeStamps, 0);
+                    }
+                    changeStamp = 0;
+                }
+                if (nodeChangeStamps == null || nodeChangeStamps.length < nodes.length) {
+                    nodeChangeStamps = nodeChangeStamps == null ? new int[nodes.length] : Arrays.copyOf(nodeChangeStamps, nodes.length);
+                }
+                if (changedNodes == null) {
+                    changedNodes = new Node[INITIAL_NODES_SIZE];
+                }
+                changeLogBase = changeStamp;
+                changedNodesCount = 0;
+            }
+            start = changedNodesCount;
+            previousLatestMarkStamp = latestMarkStamp;
+            latestMarkStamp = changeStamp;
+            changeMark = this;
+        }
+
+        /**
+         * Returns the live nodes changed since this mark was opened. Each node is returned at most
+         * once. Nodes changed while iterating may or may not be returned.
+         */
+        public NodeIterable<Node> getChangedNodes() {
+            assert changeMark != null : "change mark is closed";
+            return new NodeIterable<Node>() {
+                @Override
+                public Iterator<Node> iterator() {
+                    return new ChangedNodeIterator(start);
+                }
+            };
+        }
+
+        /**
+         * Determines if no live node was changed since this mark was opened.
+         */
+        public boolean isEmpty() {
+            return getChangedNodes().isEmpty();
+        }
+
+        @Override
+        public void close() {
+            assert changeMark == this : "change marks must be closed in reverse order";
+            changeMark = outer;
+            latestMarkStamp = previousLatestMarkStamp;
+            if (outer == null) {
+                Arrays.fill(changedNodes, 0, changedNodesCount, null);
+                changedNodesCount = 0;
+            }
+        }
+    }
+
+    private final class ChangedNodeIterator implements Iterator<Node> {
+
+        private int index;
+        private Node next;
+
+        ChangedNodeIterator(int start) {
+            this.index = start;
+            forward();
+        }
+
+        private void forward() {
+            next = null;
+            while (index < changedNodesCount) {
+                Node node = changedNodes[index++];
+                if (node.isAlive() && nodeChangeStamps[node.id] == changeLogBase + index) {
+                    next = node;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Node next() {
+            Node result = next;
+            if (result == null) {
+                throw new NoSuchElementException();
+            }
+            forward();
+            return result;
+        }
+    }
+
+    /**
+     * Opens a {@link ChangeMark} tracking the nodes changed in this graph. This should be used in
+     * conjunction with try-with-resources statement.
+     */
+    public ChangeMark markChanges() {
+        return new ChangeMark();
+    }
+
+    /**
+     * Records that {@code node} changed in the log of the open {@link ChangeMark}s. Usages of
+     * {@link IndirectCanonicalization} nodes and predecessors of
+     * {@link PredecessorCanonicalization} nodes are recorded as well, while they are still
+     * attached to {@code node}.
+     */
+    void recordChange(Node node) {
+        assert changeMark != null;
+        recordChange0(node);
+        if (node instanceof IndirectCanonicalization) {
+            for (Node usage : node.usages()) {
+                recordChange0(usage);
+            }
+        }
+        if (node instanceof PredecessorCanonicalization) {
+            recordChange0(node.predecessor());
+        }
+    }
+
+    private void recordChange0(Node node) {
+        if (node == null || !node.isAlive()) {
+            return;
+        }
+        int id = node.id;
+        if (id >= nodeChangeStamps.length) {
+            nodeChangeStamps = Arrays.copyOf(nodeChangeStamps, Math.max(id + 1, nodes.length));
+        } else if (nodeChangeStamps[id] > latestMarkStamp) {
+            // already in the log of the innermost mark
+            return;
+        }
+        if (changedNodesCount == changedNodes.length) {
+            changedNodes = Arrays.copyOf(changedNodes, changedNodesCount * 2 + 1);
+        }
+        changedNodes[changedNodesCount++] = node;
+        nodeChangeStamps[id] = ++changeStamp;
+        assert changeStamp == changeLogBase + changedNodesCount;
+    }
+
     /**
      * Looks for a node <i>similar</i> to {@code node} and returns it if found. Otherwise
      * {@code node} is added to this graph and returned.
@@ -949,6 +1151,10 @@ public class Graph {
                     afterNodeIdChange(n, value);
                     nodes[nextId] = n;
                     nodes[i] = null;
+                    if (nodeChangeStamps != null && nextId < nodeChangeStamps.length) {
+                        // the stamps are grown lazily, a missing entry is 0
+                        nodeChangeStamps[nextId] = i < nodeChangeStamps.length ? nodeChangeStamps[i] : 0;
+                    }
                 }
                 nextId++;
             }
@@ -958,6 +1164,9 @@ public class Graph {
             Arrays.fill(nodeModCounts, 0);
             Arrays.fill(nodeUsageModCounts, 0);
         }
+        if (nodeChangeStamps != null && nextId < nodeChangeStamps.length) {
+            Arrays.fill(nodeChangeStamps, nextId, nodeChangeStamps.length, 0);
+        }
         nodesSize = nextId;
         compressions++;
         nodesDeletedBeforeLastCompression += nodesDeletedSinceLastCompression;
@@ -1098,6 +1307,9 @@ public class Graph {
         if (nodeEventListener != null) {
             nodeEventListener.event(NodeEvent.NODE_ADDED, node);
         }
+        if (changeMark != null) {
+            recordChange(node);
+        }
         afterRegister(node);
     }
 
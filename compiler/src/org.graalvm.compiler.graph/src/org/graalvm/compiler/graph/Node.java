@@ -230,6 +230,13 @@ public abstract class Node implements Cloneable, Formattable, NodeInterface {
     public interface IndirectCanonicalization {
     }
 
+    /**
+     * Marker interface for nodes whose predecessor should also be placed on the work list for
+     * canonicalization when this node changes.
+     */
+    public interface PredecessorCanonicalization {
+    }
+
     private Graph graph;
     int id;
 
@@ -946,6 +953,9 @@ public abstract class Node implements Cloneable, Formattable, NodeInterface {
             if (listener != null) {
                 listener.event(Graph.NodeEvent.INPUT_CHANGED, node);
             }
+            if (graph.changeMark != null) {
+                graph.recordChange(node);
+            }
         }
     }
 
@@ -956,6 +966,9 @@ public abstract class Node implements Cloneable, Formattable, NodeInterface {
             if (listener != null && node.isAlive()) {
                 listener.event(Graph.NodeEvent.ZERO_USAGES, node);
             }
+            if (graph.changeMark != null) {
+                graph.recordChange(node);
+            }
         }
     }
 
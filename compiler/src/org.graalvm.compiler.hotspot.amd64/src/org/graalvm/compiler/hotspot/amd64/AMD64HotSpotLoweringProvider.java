@@ -30,6 +30,14 @@ import static org.graalvm.compiler.hotspot.HotSpotBackend.Options.GraalArithmeti
 import org.graalvm.compiler.core.amd64.AMD64LoweringProviderMixin;
 import org.graalvm.compiler.core.common.spi.ForeignCallsProvider;
 import org.graalvm.compiler.core.common.spi.MetaAccessExtensionProvider;
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp;
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp.Add;
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp.And;
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp.Div;
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp.Mul;
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp.Or;
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp.Sub;
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp.Xor;
 import org.graalvm.compiler.debug.DebugHandlersFactory;
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.hotspot.GraalHotSpotVMConfig;
@@ -55,6 +63,7 @@ import org.graalvm.compiler.serviceprovider.JavaVersionUtil;
 import jdk.vm.ci.amd64.AMD64;
 import jdk.vm.ci.code.TargetDescription;
 import jdk.vm.ci.hotspot.HotSpotConstantReflectionProvider;
+import jdk.vm.ci.meta.JavaKind;
 import jdk.vm.ci.meta.MetaAccessProvider;
 import jdk.vm.ci.meta.ResolvedJavaMethod;
 
@@ -141,4 +150,31 @@ public class AMD64HotSpotLoweringProvider extends DefaultHotSpotLoweringProvider
         return ((AMD64) getTarget().arch).getFeatures().contains(AMD64.CPUFeature.SSE4_1);
     }
 
+    @Override
+    public int largestVectorWidth() {
+        if (!((AMD64) getTarget().arch).getFeatures().contains(AMD64.CPUFeature.AVX2)) {
+            return 0;
+        }
+        return Math.min(256, runtime.getVMConfig().maxVectorSize * Byte.SIZE);
+    }
+
+    @Override
+    public boolean supportsVectorOperation(BinaryOp<?> op, JavaKind elementKind) {
+        switch (elementKind) {
+            case Byte:
+                /* AVX2 has no packed 8-bit multiply. */
+                return op instanceof Add || op instanceof Sub || op instanceof And || op instanceof Or || op instanceof Xor;
+            case Int:
+                return op instanceof Add || op instanceof Sub || op instanceof Mul || op instanceof And || op instanceof Or || op instanceof Xor;
+            case Long:
+                /* AVX2 has no packed 64-bit multiply. */
+                return op instanceof Add || op instanceof Sub || op instanceof And || op instanceof Or || op instanceof Xor;
+            case Float:
+            case Double:
+                return op instanceof Add || op instanceof Sub || op instanceof Mul || op instanceof Div;
+            default:
+                return false;
+        }
+    }
+
 }
@@ -215,7 +215,8 @@ public class AMD64Move {
         public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
             AMD64Kind backupKind = (AMD64Kind) backupSlot.getPlatformKind();
             if (backupKind.isXMM()) {
-                // graal doesn't use vector values, so it's safe to backup using DOUBLE
+                // vector values are only live in vectorized loops, which have no floating point
+                // phis, so it's safe to backup using DOUBLE
                 backupKind = AMD64Kind.DOUBLE;
             }
 
@@ -251,7 +252,8 @@ public class AMD64Move {
         public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
             AMD64Kind backupKind = (AMD64Kind) backupSlot.getPlatformKind();
             if (backupKind.isXMM()) {
-                // graal doesn't use vector values, so it's safe to backup using DOUBLE
+                // vector values are only live in vectorized loops, which have no floating point
+                // phis, so it's safe to backup using DOUBLE
                 backupKind = AMD64Kind.DOUBLE;
             }
 
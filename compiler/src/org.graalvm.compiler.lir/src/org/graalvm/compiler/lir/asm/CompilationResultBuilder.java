@@ -563,6 +563,9 @@ public class CompilationResultBuilder {
         if (block == null) {
             return;
         }
+        if (block.isCold() && compilationResult.getColdCodeStart() == -1) {
+            compilationResult.setColdCodeStart(asm.position());
+        }
         boolean emitComment = debug.isDumpEnabled(DebugContext.BASIC_LEVEL) || Options.PrintLIRWithAssembly.getValue(getOptions());
         if (emitComment) {
             blockComment(String.format("block B%d %s", block.getId(), block.getLoop()));
@@ -32,6 +32,7 @@ import org.graalvm.compiler.core.common.memory.MemoryOrderMode;
 import org.graalvm.compiler.core.common.spi.CodeGenProviders;
 import org.graalvm.compiler.core.common.spi.ForeignCallLinkage;
 import org.graalvm.compiler.core.common.spi.ForeignCallsProvider;
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp;
 import org.graalvm.compiler.core.common.type.Stamp;
 import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.lir.LIRFrameState;
@@ -319,4 +320,38 @@ public interface LIRGeneratorTool extends DiagnosticLIRGeneratorTool, ValueKindF
     default void emitZeroMemory(Value address, Value length, boolean isAligned) {
         throw GraalError.unimplemented("Bulk zeroing is not implemented on this architecture");
     }
+
+    /*
+     * The vector operations below are emitted for loops vectorized by the mid tier. All lanes of a
+     * vector have the same kind and vectors are loaded from and stored to consecutive array
+     * elements.
+     */
+    @SuppressWarnings("unused")
+    default Variable emitVectorLoad(LIRKind vectorKind, Value address) {
+        throw GraalError.unimplemented("Vector loads are not implemented on this architecture");
+    }
+
+    @SuppressWarnings("unused")
+    default void emitVectorStore(LIRKind vectorKind, Value address, Value input) {
+        throw GraalError.unimplemented("Vector stores are not implemented on this architecture");
+    }
+
+    @SuppressWarnings("unused")
+    default Variable emitVectorBroadcast(LIRKind vectorKind, Value input) {
+        throw GraalError.unimplemented("Vector broadcasts are not implemented on this architecture");
+    }
+
+    @SuppressWarnings("unused")
+    default Variable emitVectorBinary(BinaryOp<?> op, LIRKind vectorKind, Value x, Value y) {
+        throw GraalError.unimplemented("Vector arithmetic is not implemented on this architecture");
+    }
+
+    /**
+     * Combines all lanes of {@code vector} with the associative operation {@code op} and returns
+     * the scalar result.
+     */
+    @SuppressWarnings("unused")
+    default Variable emitVectorReduce(BinaryOp<?> op, LIRKind resultKind, Value vector) {
+        throw GraalError.unimplemented("Vector reductions are not implemented on this architecture");
+    }
 }
@@ -0,0 +1,848 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.collections.MapCursor;
+import org.graalvm.compiler.core.common.calc.CanonicalCondition;
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp;
+import org.graalvm.compiler.core.common.type.FloatStamp;
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.core.common.type.Stamp;
+import org.graalvm.compiler.core.common.type.VectorStamp;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Graph;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.LoopEndNode;
+import org.graalvm.compiler.nodes.LoopExitNode;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.PiNode;
+import org.graalvm.compiler.nodes.SafepointNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.AndNode;
+import org.graalvm.compiler.nodes.calc.BinaryArithmeticNode;
+import org.graalvm.compiler.nodes.calc.CompareNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerBelowNode;
+import org.graalvm.compiler.nodes.calc.IntegerConvertNode;
+import org.graalvm.compiler.nodes.calc.LeftShiftNode;
+import org.graalvm.compiler.nodes.calc.MulNode;
+import org.graalvm.compiler.nodes.calc.NarrowNode;
+import org.graalvm.compiler.nodes.calc.OrNode;
+import org.graalvm.compiler.nodes.calc.SignExtendNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.calc.XorNode;
+import org.graalvm.compiler.nodes.calc.ZeroExtendNode;
+import org.graalvm.compiler.nodes.loop.BasicInductionVariable;
+import org.graalvm.compiler.nodes.loop.CountedLoopInfo;
+import org.graalvm.compiler.nodes.loop.InductionVariable;
+import org.graalvm.compiler.nodes.loop.LoopEx;
+import org.graalvm.compiler.nodes.loop.LoopsData;
+import org.graalvm.compiler.nodes.memory.FloatingReadNode;
+import org.graalvm.compiler.nodes.memory.MemoryAccess;
+import org.graalvm.compiler.nodes.memory.MemoryKill;
+import org.graalvm.compiler.nodes.memory.MemoryPhiNode;
+import org.graalvm.compiler.nodes.memory.OnHeapMemoryAccess.BarrierType;
+import org.graalvm.compiler.nodes.memory.ReadNode;
+import org.graalvm.compiler.nodes.memory.WriteNode;
+import org.graalvm.compiler.nodes.memory.address.AddressNode;
+import org.graalvm.compiler.nodes.memory.address.OffsetAddressNode;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.nodes.spi.LoweringProvider;
+import org.graalvm.compiler.nodes.util.GraphUtil;
+import org.graalvm.compiler.nodes.util.IntegerHelper;
+import org.graalvm.compiler.nodes.vector.VectorBinaryNode;
+import org.graalvm.compiler.nodes.vector.VectorBroadcastNode;
+import org.graalvm.compiler.nodes.vector.VectorLoadNode;
+import org.graalvm.compiler.nodes.vector.VectorReduceNode;
+import org.graalvm.compiler.nodes.vector.VectorStoreNode;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.util.EconomicSetNodeEventListener;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.MetaAccessProvider;
+
+/**
+ * Widens simple counted loops over primitive arrays so that each iteration of the main loop
+ * processes as many consecutive iterations of the original loop as fit into one vector register.
+ *
+ * A loop is a candidate if its body is a single block containing only array {@linkplain WriteNode
+ * writes}, array reads and a safepoint, the counter advances by one and every array address is
+ * {@code base + scale * i + offset} with loop invariant {@code base} and {@code offset}. The values
+ * written must be trees of lane-wise {@linkplain BinaryArithmeticNode arithmetic} over such reads,
+ * loop invariants and constants. Integer phis updated with an associative operation are widened as
+ * reductions: the main loop accumulates into a vector phi and its lanes are combined once after the
+ * loop exit. Since every statement is packed across all lanes of an iteration, the isomorphic
+ * operations to pack are exactly the copies of one scalar operation in consecutive iterations.
+ *
+ * Byte array elements are extended to {@code int} when read and narrowed when written, so the
+ * arithmetic in between has {@code int} stamps. Such a value is computed in byte lanes if every
+ * operation computes the low bits of its result from the low bits of its operands only, as
+ * addition, subtraction, multiplication and the bitwise operations do.
+ *
+ * The loop is split into pre, main and post loops using
+ * {@link LoopTransformations#insertPrePostLoops(LoopEx)} and only the main loop is widened, so the
+ * post loop executes the remaining iterations with the original scalar code. The vector accesses
+ * are unaligned, so the pre loop is not used to align them.
+ *
+ * Widening reorders the memory accesses of consecutive iterations. Accesses to arrays of the same
+ * element kind may refer to the same array, so the transformation is only applied if the constant
+ * distance between any such write and another access is either zero or at least the vector length
+ * in the direction that would be reordered.
+ */
+public class LoopVectorizationPhase extends BasePhase<CoreProviders> {
+
+    /**
+     * The maximum number of vector values created for one loop. Apart from the reduction
+     * accumulators all vector values are defined and used within a single iteration of the main
+     * loop, so keeping this below the number of vector registers ensures that none of them needs to
+     * be spilled.
+     */
+    private static final int MAX_VECTOR_VALUES = 10;
+
+    private static final JavaKind[] ELEMENT_KINDS = {JavaKind.Byte, JavaKind.Int, JavaKind.Long, JavaKind.Float, JavaKind.Double};
+
+    private final CanonicalizerPhase canonicalizer;
+
+    public LoopVectorizationPhase(CanonicalizerPhase canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    protected void run(StructuredGraph graph, CoreProviders context) {
+        if (!graph.hasLoops() || graph.hasValueProxies() || context.getLowerer().largestVectorWidth() == 0) {
+            return;
+        }
+        EconomicSetNodeEventListener listener = new EconomicSetNodeEventListener();
+        try (Graph.NodeEventScope nes = graph.trackNodeEvents(listener)) {
+            LoopsData loops = context.getLoopsDataProvider().getLoopsData(graph);
+            loops.detectedCountedLoops();
+            List<LoopBeginNode> candidates = new ArrayList<>();
+            for (LoopEx loop : loops.countedLoops()) {
+                if (LoopTransformations.isUnrollableLoop(loop) && loop.loopBegin().isSimpleLoop() && VectorizableLoop.analyze(loop, context) != null) {
+                    candidates.add(loop.loopBegin());
+                }
+            }
+            for (LoopBeginNode loopBegin : candidates) {
+                loops = context.getLoopsDataProvider().getLoopsData(graph);
+                loops.detectedCountedLoops();
+                LoopBeginNode mainLoopBegin = LoopTransformations.insertPrePostLoops(loops.loop(loopBegin));
+
+                loops = context.getLoopsDataProvider().getLoopsData(graph);
+                loops.detectedCountedLoops();
+                LoopEx mainLoop = loops.loop(mainLoopBegin);
+                VectorizableLoop vectorizable = mainLoop.isCounted() ? VectorizableLoop.analyze(mainLoop, context) : null;
+                if (vectorizable != null) {
+                    vectorizable.widen();
+                    graph.getDebug().log("LoopVectorization %s widened to %d lanes", mainLoopBegin, vectorizable.lanes);
+                    graph.getDebug().dump(DebugContext.DETAILED_LEVEL, graph, "LoopVectorization %s", mainLoopBegin);
+                } else {
+                    graph.getDebug().log("LoopVectorization %s main loop is not vectorizable", mainLoopBegin);
+                }
+            }
+            if (!listener.getNodes().isEmpty()) {
+                canonicalizer.applyIncremental(graph, context, listener.getNodes());
+            }
+        }
+    }
+
+    @Override
+    public boolean checkContract() {
+        return false;
+    }
+
+    /**
+     * The kind of values stored in a lane of a vector with elements of the given stamp, or
+     * {@link JavaKind#Illegal} if such values cannot be vectorized.
+     */
+    private static JavaKind laneKind(Stamp stamp) {
+        if (stamp instanceof IntegerStamp) {
+            int bits = ((IntegerStamp) stamp).getBits();
+            return bits == 8 ? JavaKind.Byte : bits == 32 ? JavaKind.Int : bits == 64 ? JavaKind.Long : JavaKind.Illegal;
+        } else if (stamp instanceof FloatStamp) {
+            int bits = ((FloatStamp) stamp).getBits();
+            return bits == 32 ? JavaKind.Float : bits == 64 ? JavaKind.Double : JavaKind.Illegal;
+        }
+        return JavaKind.Illegal;
+    }
+
+    private static JavaKind arrayElementKind(LocationIdentity location) {
+        for (JavaKind kind : ELEMENT_KINDS) {
+            if (NamedLocationIdentity.getArrayLocation(kind).equals(location)) {
+                return kind;
+            }
+        }
+        return JavaKind.Illegal;
+    }
+
+    /**
+     * An integer expression of the form {@code scale * counter + constant + sum(factor * invariant)}.
+     */
+    private static final class AffineValue {
+        final long scale;
+        final long constant;
+        final EconomicMap<ValueNode, Long> invariants;
+
+        AffineValue(long scale, long constant, EconomicMap<ValueNode, Long> invariants) {
+            this.scale = scale;
+            this.constant = constant;
+            this.invariants = invariants;
+        }
+
+        AffineValue plus(AffineValue other, long sign) {
+            EconomicMap<ValueNode, Long> sum = EconomicMap.create(Equivalence.IDENTITY, invariants);
+            MapCursor<ValueNode, Long> cursor = other.invariants.getEntries();
+            while (cursor.advance()) {
+                long factor = Math.addExact(sum.get(cursor.getKey(), 0L), Math.multiplyExact(sign, cursor.getValue()));
+                if (factor == 0) {
+                    sum.removeKey(cursor.getKey());
+                } else {
+                    sum.put(cursor.getKey(), factor);
+                }
+            }
+            return new AffineValue(Math.addExact(scale, Math.multiplyExact(sign, other.scale)), Math.addExact(constant, Math.multiplyExact(sign, other.constant)), sum);
+        }
+
+        AffineValue times(long factor) {
+            EconomicMap<ValueNode, Long> product = EconomicMap.create(Equivalence.IDENTITY);
+            MapCursor<ValueNode, Long> cursor = invariants.getEntries();
+            while (cursor.advance()) {
+                if (factor != 0) {
+                    product.put(cursor.getKey(), Math.multiplyExact(factor, cursor.getValue()));
+                }
+            }
+            return new AffineValue(Math.multiplyExact(scale, factor), Math.multiplyExact(constant, factor), product);
+        }
+
+        boolean sameInvariants(AffineValue other) {
+            if (invariants.size() != other.invariants.size()) {
+                return false;
+            }
+            MapCursor<ValueNode, Long> cursor = invariants.getEntries();
+            while (cursor.advance()) {
+                if (!cursor.getValue().equals(other.invariants.get(cursor.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * An array access in the loop body. For reads {@link #position} is the number of writes that
+     * precede the read, for writes it is the 1-based index of the write.
+     */
+    private static final class ArrayAccess {
+        final ValueNode node;
+        final JavaKind kind;
+        final AffineValue offset;
+        final long elementOffset;
+        final int position;
+
+        ArrayAccess(ValueNode node, JavaKind kind, AffineValue offset, long elementOffset, int position) {
+            this.node = node;
+            this.kind = kind;
+            this.offset = offset;
+            this.elementOffset = elementOffset;
+            this.position = position;
+        }
+
+        boolean isWrite() {
+            return node instanceof WriteNode;
+        }
+    }
+
+    private static final class VectorizableLoop {
+        private final LoopEx loop;
+        private final CoreProviders providers;
+        private final ValuePhiNode counter;
+        private final List<ArrayAccess> writes = new ArrayList<>();
+        private final EconomicMap<ValueNode, ArrayAccess> reads = EconomicMap.create(Equivalence.IDENTITY);
+        private final EconomicMap<ValueNode, Integer> fixedReadPositions = EconomicMap.create(Equivalence.IDENTITY);
+        private final List<BinaryArithmeticNode<?>> operations = new ArrayList<>();
+        private final List<IntegerConvertNode<?, ?>> conversions = new ArrayList<>();
+        private final List<ValueNode> invariants = new ArrayList<>();
+        private final List<BinaryArithmeticNode<?>> reductions = new ArrayList<>();
+        private int elementBytes;
+        private int lanes;
+
+        private VectorizableLoop(LoopEx loop, CoreProviders providers, ValuePhiNode counter) {
+            this.loop = loop;
+            this.providers = providers;
+            this.counter = counter;
+        }
+
+        static VectorizableLoop analyze(LoopEx loop, CoreProviders providers) {
+            CountedLoopInfo counted = loop.counted();
+            InductionVariable iv = counted.getCounter();
+            if (!(iv instanceof BasicInductionVariable) || !iv.isConstantStride() || iv.constantStride() != 1 || counted.getDirection() != InductionVariable.Direction.Up || counted.isUnsignedCheck() || counted.isLimitIncluded()) {
+                return null;
+            }
+            LogicNode condition = counted.getLimitTest().condition();
+            if (!(condition instanceof CompareNode) || ((CompareNode) condition).condition() == CanonicalCondition.EQ) {
+                return null;
+            }
+            VectorizableLoop vectorizable = new VectorizableLoop(loop, providers, (ValuePhiNode) iv.valueNode());
+            if (!vectorizable.analyzeBody() || !vectorizable.analyzePhis() || !vectorizable.analyzeUsages() || !vectorizable.analyzeDependences()) {
+                return null;
+            }
+            if (counted.isConstantMaxTripCount() && counted.constantMaxTripCount().isLessThan(2L * vectorizable.lanes)) {
+                return null;
+            }
+            return vectorizable;
+        }
+
+        private DebugContext getDebug() {
+            return loop.loopBegin().getDebug();
+        }
+
+        private boolean reject(String reason, Object arg) {
+            getDebug().log(DebugContext.VERBOSE_LEVEL, "LoopVectorization %s: %s %s", loop.loopBegin(), reason, arg);
+            return false;
+        }
+
+        /**
+         * Checks that the body is a single block of array accesses and collects the writes and the
+         * positions of fixed reads.
+         */
+        private boolean analyzeBody() {
+            LoopBeginNode loopBegin = loop.loopBegin();
+            CountedLoopInfo counted = loop.counted();
+            if (loopBegin.next() != counted.getLimitTest()) {
+                return reject("limit test is not at the loop header", loopBegin.next());
+            }
+            FixedNode current = counted.getBody().next();
+            while (!(current instanceof LoopEndNode)) {
+                if (current instanceof WriteNode) {
+                    WriteNode write = (WriteNode) current;
+                    if (write.getNullCheck() || write.getBarrierType() != BarrierType.NONE) {
+                        return reject("write needs a null check or barrier", write);
+                    }
+                    JavaKind kind = arrayElementKind(write.getLocationIdentity());
+                    ArrayAccess access = createAccess(write, kind, write.getAddress(), writes.size() + 1);
+                    if (access == null || laneKind(write.value().stamp(NodeView.DEFAULT)) != kind) {
+                        return reject("unsupported write", write);
+                    }
+                    writes.add(access);
+                } else if (current instanceof ReadNode) {
+                    if (((ReadNode) current).getNullCheck()) {
+                        return reject("read needs a null check", current);
+                    }
+                    fixedReadPositions.put((ReadNode) current, writes.size());
+                } else if (!(current instanceof SafepointNode)) {
+                    return reject("unsupported fixed node", current);
+                }
+                if (!(current instanceof FixedWithNextNode)) {
+                    return reject("control flow in loop body", current);
+                }
+                current = ((FixedWithNextNode) current).next();
+            }
+            for (ArrayAccess write : writes) {
+                if (!analyzeLaneValue(((WriteNode) write.node).value(), write.kind)) {
+                    return reject("value cannot be vectorized", write.node);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Every phi except the counter must be a memory phi or a reduction.
+         */
+        private boolean analyzePhis() {
+            LoopBeginNode loopBegin = loop.loopBegin();
+            LoopEndNode loopEnd = loopBegin.loopEnds().first();
+            for (PhiNode phi : loopBegin.phis()) {
+                if (phi == counter || phi instanceof MemoryPhiNode) {
+                    continue;
+                }
+                if (!(phi instanceof ValuePhiNode)) {
+                    return reject("unsupported phi", phi);
+                }
+                ValueNode backedge = phi.valueAt(loopEnd);
+                JavaKind kind = laneKind(phi.stamp(NodeView.DEFAULT));
+                if (!(backedge instanceof AddNode || backedge instanceof AndNode || backedge instanceof OrNode || backedge instanceof XorNode) || !kind.isNumericInteger()) {
+                    return reject("unsupported phi", phi);
+                }
+                BinaryArithmeticNode<?> reduction = (BinaryArithmeticNode<?>) backedge;
+                ValueNode input = reduction.getX() == phi ? reduction.getY() : reduction.getX();
+                if (input == phi || reduction.getX() != phi && reduction.getY() != phi || !reduction.hasExactlyOneUsage() ||
+                                !providers.getLowerer().supportsVectorOperation(reduction.getArithmeticOp(), kind) || !analyzeLaneValue(input, kind)) {
+                    return reject("unsupported reduction", phi);
+                }
+                for (Node usage : phi.usages()) {
+                    if (usage != reduction && !loop.isOutsideLoop(usage)) {
+                        return reject("reduction phi is used in the loop", usage);
+                    }
+                }
+                reductions.add(reduction);
+            }
+            if (writes.isEmpty() && reductions.isEmpty()) {
+                return reject("no array writes or reductions", null);
+            }
+            if (!reductions.isEmpty() && loopBegin.loopExits().count() != 1) {
+                return reject("reduction in a loop with several exits", loopBegin);
+            }
+            return true;
+        }
+
+        /**
+         * Checks that the scalar values that are replaced by vectors are not used by anything but
+         * other vectorized operations, writes and reductions, and that all reads in the loop are
+         * vectorized.
+         */
+        private boolean analyzeUsages() {
+            for (Node node : loop.whole().nodes()) {
+                if ((node instanceof FloatingReadNode || node instanceof ReadNode) && node.hasUsages() && !reads.containsKey((ValueNode) node)) {
+                    return reject("read cannot be vectorized", node);
+                }
+            }
+            List<ValueNode> laneValues = new ArrayList<>(operations);
+            laneValues.addAll(conversions);
+            for (ValueNode read : reads.getKeys()) {
+                laneValues.add(read);
+            }
+            for (ValueNode value : laneValues) {
+                for (Node usage : value.usages()) {
+                    boolean vectorized = operations.contains(usage) || conversions.contains(usage) || reductions.contains(usage);
+                    vectorized |= usage instanceof WriteNode && ((WriteNode) usage).value() == value && !loop.isOutsideLoop(usage);
+                    if (!vectorized) {
+                        return reject("scalar value is still needed", usage);
+                    }
+                }
+            }
+            if (reads.size() + operations.size() + invariants.size() + reductions.size() > MAX_VECTOR_VALUES) {
+                return reject("too many vector values", null);
+            }
+            return true;
+        }
+
+        /**
+         * Checks that executing {@link #lanes} consecutive iterations lane by lane preserves the
+         * order of all dependent accesses.
+         */
+        private boolean analyzeDependences() {
+            List<ArrayAccess> accesses = new ArrayList<>(writes);
+            for (ArrayAccess read : reads.getValues()) {
+                accesses.add(read);
+            }
+            for (ArrayAccess write : writes) {
+                for (ArrayAccess other : accesses) {
+                    if (other == write || other.kind != write.kind) {
+                        continue;
+                    }
+                    if (!write.offset.sameInvariants(other.offset)) {
+                        return reject("unknown distance between accesses", other.node);
+                    }
+                    long distance;
+                    if (other.isWrite()) {
+                        if (other.position < write.position) {
+                            continue;
+                        }
+                        // the later write must not overwrite an element of an earlier iteration
+                        distance = other.elementOffset - write.elementOffset;
+                    } else if (other.position < write.position) {
+                        // the read must not see an element written by an earlier iteration
+                        distance = write.elementOffset - other.elementOffset;
+                    } else {
+                        // the read must not see an element written by a later iteration
+                        distance = other.elementOffset - write.elementOffset;
+                    }
+                    if (distance > 0 && distance < lanes) {
+                        return reject("dependence distance is shorter than the vector", other.node);
+                    }
+                }
+            }
+            return true;
+        }
+
+        private ArrayAccess createAccess(ValueNode node, JavaKind kind, AddressNode address, int position) {
+            if (kind == JavaKind.Illegal || !(address instanceof OffsetAddressNode) || !loop.isOutsideLoop(((OffsetAddressNode) address).getBase())) {
+                return null;
+            }
+            int bytes = kind.getByteCount();
+            if (elementBytes == 0) {
+                int vectorBits = providers.getLowerer().largestVectorWidth();
+                elementBytes = bytes;
+                lanes = vectorBits / (bytes * Byte.SIZE);
+                if (lanes < 2) {
+                    return null;
+                }
+            } else if (elementBytes != bytes) {
+                return null;
+            }
+            AffineValue offset;
+            try {
+                offset = affine(((OffsetAddressNode) address).getOffset());
+            } catch (ArithmeticException e) {
+                return null;
+            }
+            MetaAccessProvider metaAccess = providers.getMetaAccess();
+            int scale = metaAccess.getArrayIndexScale(kind);
+            if (offset == null || offset.scale != scale || offset.constant % scale != 0) {
+                return null;
+            }
+            return new ArrayAccess(node, kind, offset, offset.constant / scale, position);
+        }
+
+        private AffineValue affine(ValueNode node) {
+            if (node == counter) {
+                return new AffineValue(1, 0, EconomicMap.create(Equivalence.IDENTITY));
+            } else if (node.isJavaConstant() && node.asJavaConstant().getJavaKind().isNumericInteger()) {
+                return new AffineValue(0, node.asJavaConstant().asLong(), EconomicMap.create(Equivalence.IDENTITY));
+            } else if (loop.isOutsideLoop(node)) {
+                EconomicMap<ValueNode, Long> invariant = EconomicMap.create(Equivalence.IDENTITY);
+                invariant.put(node, 1L);
+                return new AffineValue(0, 0, invariant);
+            } else if (node instanceof PiNode) {
+                return affine(((PiNode) node).getOriginalNode());
+            } else if (node instanceof SignExtendNode || node instanceof ZeroExtendNode) {
+                // array indices that reach an access are known not to overflow
+                return affine(((IntegerConvertNode<?, ?>) node).getValue());
+            } else if (node instanceof AddNode || node instanceof SubNode) {
+                BinaryArithmeticNode<?> arithmetic = (BinaryArithmeticNode<?>) node;
+                AffineValue x = affine(arithmetic.getX());
+                AffineValue y = affine(arithmetic.getY());
+                return x == null || y == null ? null : x.plus(y, node instanceof AddNode ? 1 : -1);
+            } else if (node instanceof LeftShiftNode && ((LeftShiftNode) node).getY().isJavaConstant()) {
+                int shift = ((LeftShiftNode) node).getY().asJavaConstant().asInt();
+                AffineValue x = affine(((LeftShiftNode) node).getX());
+                return x == null || shift < 0 || shift >= 32 ? null : x.times(1L << shift);
+            } else if (node instanceof MulNode && ((MulNode) node).getY().isJavaConstant()) {
+                AffineValue x = affine(((MulNode) node).getX());
+                return x == null ? null : x.times(((MulNode) node).getY().asJavaConstant().asLong());
+            }
+            return null;
+        }
+
+        /**
+         * Checks that {@code value} can be computed lane by lane and records the reads, operations
+         * and invariants that need a vector counterpart.
+         */
+        private boolean analyzeLaneValue(ValueNode value, JavaKind kind) {
+            if (laneKind(value.stamp(NodeView.DEFAULT)) != kind) {
+                return false;
+            }
+            if (reads.containsKey(value) || operations.contains(value) || conversions.contains(value) || invariants.contains(value)) {
+                return true;
+            }
+            if (value.isConstant() || loop.isOutsideLoop(value)) {
+                invariants.add(value);
+                return true;
+            }
+            if (value instanceof FloatingReadNode || value instanceof ReadNode) {
+                return analyzeRead(value, kind);
+            }
+            if (value instanceof NarrowNode && kind == JavaKind.Byte) {
+                NarrowNode narrow = (NarrowNode) value;
+                if (narrow.getInputBits() != Integer.SIZE || !analyzeByteLaneValue(narrow.getValue())) {
+                    return false;
+                }
+                conversions.add(narrow);
+                return true;
+            }
+            if (value instanceof BinaryArithmeticNode) {
+                BinaryArithmeticNode<?> arithmetic = (BinaryArithmeticNode<?>) value;
+                if (!providers.getLowerer().supportsVectorOperation(arithmetic.getArithmeticOp(), kind)) {
+                    return false;
+                }
+                if (!analyzeLaneValue(arithmetic.getX(), kind) || !analyzeLaneValue(arithmetic.getY(), kind)) {
+                    return false;
+                }
+                operations.add(arithmetic);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Checks that the low byte of the {@code int} value {@code value} can be computed in byte
+         * lanes.
+         */
+        private boolean analyzeByteLaneValue(ValueNode value) {
+            Stamp stamp = value.stamp(NodeView.DEFAULT);
+            if (!(stamp instanceof IntegerStamp) || ((IntegerStamp) stamp).getBits() != Integer.SIZE) {
+                return false;
+            }
+            if (operations.contains(value) || conversions.contains(value) || invariants.contains(value)) {
+                return true;
+            }
+            if (value.isConstant() || loop.isOutsideLoop(value)) {
+                invariants.add(value);
+                return true;
+            }
+            if (value instanceof SignExtendNode || value instanceof ZeroExtendNode) {
+                IntegerConvertNode<?, ?> extend = (IntegerConvertNode<?, ?>) value;
+                if (extend.getInputBits() != Byte.SIZE || !analyzeLaneValue(extend.getValue(), JavaKind.Byte)) {
+                    return false;
+                }
+                conversions.add(extend);
+                return true;
+            }
+            if (value instanceof AddNode || value instanceof SubNode || value instanceof MulNode || value instanceof AndNode || value instanceof OrNode || value instanceof XorNode) {
+                BinaryArithmeticNode<?> arithmetic = (BinaryArithmeticNode<?>) value;
+                if (!providers.getLowerer().supportsVectorOperation(arithmetic.getArithmeticOp(), JavaKind.Byte)) {
+                    return false;
+                }
+                if (!analyzeByteLaneValue(arithmetic.getX()) || !analyzeByteLaneValue(arithmetic.getY())) {
+                    return false;
+                }
+                operations.add(arithmetic);
+                return true;
+            }
+            return false;
+        }
+
+        private boolean analyzeRead(ValueNode read, JavaKind kind) {
+            MemoryAccess access = (MemoryAccess) read;
+            if (arrayElementKind(access.getLocationIdentity()) != kind) {
+                return false;
+            }
+            int position;
+            AddressNode address;
+            if (read instanceof ReadNode) {
+                Integer fixedPosition = fixedReadPositions.get(read);
+                if (fixedPosition == null || ((ReadNode) read).getBarrierType() != BarrierType.NONE) {
+                    return false;
+                }
+                position = fixedPosition;
+                address = ((ReadNode) read).getAddress();
+            } else {
+                FloatingReadNode floatingRead = (FloatingReadNode) read;
+                if (floatingRead.getBarrierType() != BarrierType.NONE) {
+                    return false;
+                }
+                position = positionAfter(floatingRead.getLastLocationAccess());
+                address = floatingRead.getAddress();
+            }
+            ArrayAccess arrayAccess = position < 0 ? null : createAccess(read, kind, address, position);
+            if (arrayAccess == null) {
+                return false;
+            }
+            reads.put(read, arrayAccess);
+            return true;
+        }
+
+        /**
+         * The number of writes that precede a read depending on {@code lastLocationAccess}, or -1 if
+         * that is unknown.
+         */
+        private int positionAfter(MemoryKill lastLocationAccess) {
+            if (lastLocationAccess == null) {
+                return -1;
+            }
+            for (ArrayAccess write : writes) {
+                if (write.node == lastLocationAccess) {
+                    return write.position;
+                }
+            }
+            if (lastLocationAccess instanceof MemoryPhiNode && ((MemoryPhiNode) lastLocationAccess).merge() == loop.loopBegin() || loop.isOutsideLoop(lastLocationAccess.asNode())) {
+                return 0;
+            }
+            return -1;
+        }
+
+        /**
+         * Advances the counter by {@link #lanes} and replaces all scalar array accesses and
+         * operations by their vector counterparts.
+         */
+        void widen() {
+            StructuredGraph graph = loop.loopBegin().graph();
+            LoopBeginNode loopBegin = loop.loopBegin();
+            LoopEndNode loopEnd = loopBegin.loopEnds().first();
+            CountedLoopInfo counted = loop.counted();
+
+            // the last lane of an iteration must still be below the limit
+            ValueNode limit = counted.getLimit();
+            int bits = ((IntegerStamp) limit.stamp(NodeView.DEFAULT)).getBits();
+            IntegerHelper helper = counted.getCounterIntegerHelper();
+            ConstantNode extraLanes = ConstantNode.forIntegerBits(bits, lanes - 1);
+            ConstantNode extremum = ConstantNode.forIntegerBits(bits, helper.minValue());
+            LogicNode overflowCheck = IntegerBelowNode.create(SubNode.create(limit, extremum, NodeView.DEFAULT), extraLanes, NodeView.DEFAULT);
+            ValueNode newLimit = ConditionalNode.create(overflowCheck, extremum, SubNode.create(limit, extraLanes, NodeView.DEFAULT), NodeView.DEFAULT);
+            CompareNode compareNode = (CompareNode) counted.getLimitTest().condition();
+            compareNode.replaceFirstInput(limit, graph.addOrUniqueWithInputs(newLimit));
+
+            ValueNode oldIncrement = counter.valueAt(loopEnd);
+            int counterBits = ((IntegerStamp) counter.stamp(NodeView.DEFAULT)).getBits();
+            counter.setValueAt(loopEnd, graph.unique(new AddNode(counter, ConstantNode.forIntegerBits(counterBits, lanes, graph))));
+            GraphUtil.tryKillUnused(oldIncrement);
+
+            loopBegin.setUnrollFactor(loopBegin.getUnrollFactor() * lanes);
+            loopBegin.setLoopFrequency(Math.max(1.0, loopBegin.loopFrequency() / lanes));
+
+            EconomicMap<ValueNode, ValueNode> vectors = EconomicMap.create(Equivalence.IDENTITY);
+            FixedWithNextNode last = counted.getBody();
+            List<VectorStoreNode> stores = new ArrayList<>();
+            for (int position = 0; position <= writes.size(); position++) {
+                for (ArrayAccess read : reads.getValues()) {
+                    if (read.position == position) {
+                        last = emitLoad(graph, read.node, last);
+                        vectors.put(read.node, last);
+                    }
+                }
+                if (position < writes.size()) {
+                    WriteNode write = (WriteNode) writes.get(position).node;
+                    last = emitVector(graph, write.value(), vectors, last);
+                    VectorStoreNode store = graph.add(new VectorStoreNode(write.getAddress(), write.getLocationIdentity(), vectors.get(write.value())));
+                    store.setLastLocationAccess(write.getLastLocationAccess());
+                    store.setGuard(write.getGuard());
+                    graph.addAfterFixed(last, store);
+                    last = store;
+                    stores.add(store);
+                }
+            }
+            LoopExitNode loopExit = loopBegin.loopExits().first();
+            for (BinaryArithmeticNode<?> reduction : reductions) {
+                PhiNode phi = (PhiNode) (loopBegin.isPhiAtMerge(reduction.getX()) ? reduction.getX() : reduction.getY());
+                ValueNode input = reduction.getX() == phi ? reduction.getY() : reduction.getX();
+                last = emitVector(graph, input, vectors, last);
+
+                // accumulate lane by lane and combine the lanes once after the loop
+                ValueNode vector = vectors.get(input);
+                ValueNode initial = phi.valueAt(loopBegin.forwardEnd());
+                int phiBits = ((IntegerStamp) phi.stamp(NodeView.DEFAULT)).getBits();
+                long identity = reduction instanceof AndNode ? -1L : 0L;
+                VectorBroadcastNode start = graph.add(new VectorBroadcastNode(ConstantNode.forIntegerBits(phiBits, identity, graph), lanes));
+                graph.addBeforeFixed(loopBegin.forwardEnd(), start);
+                ValuePhiNode accumulator = graph.addWithoutUnique(new ValuePhiNode(vector.stamp(NodeView.DEFAULT), loopBegin));
+                accumulator.addInput(start);
+                VectorBinaryNode accumulate = graph.add(new VectorBinaryNode(reduction.getArithmeticOp(), accumulator, vector));
+                graph.addAfterFixed(last, accumulate);
+                last = accumulate;
+                accumulator.addInput(accumulate);
+
+                VectorReduceNode reduce = graph.add(new VectorReduceNode(reduction.getArithmeticOp(), accumulator));
+                graph.addAfterFixed(loopExit, reduce);
+                ValueNode result = graph.addOrUniqueWithInputs(combine(reduction, initial, reduce));
+                phi.replaceAtMatchingUsages(result, usage -> usage != reduction);
+                phi.setValueAt(loopEnd, initial);
+                GraphUtil.tryKillUnused(reduction);
+            }
+
+            for (int i = 0; i < writes.size(); i++) {
+                WriteNode write = (WriteNode) writes.get(i).node;
+                write.replaceAtUsages(stores.get(i));
+                graph.removeFixed(write);
+            }
+            for (BinaryArithmeticNode<?> operation : operations) {
+                GraphUtil.tryKillUnused(operation);
+            }
+            for (IntegerConvertNode<?, ?> conversion : conversions) {
+                GraphUtil.tryKillUnused(conversion);
+            }
+            for (ValueNode read : reads.getKeys()) {
+                if (read.isAlive() && read.hasNoUsages()) {
+                    if (read instanceof ReadNode) {
+                        graph.removeFixed((ReadNode) read);
+                    } else {
+                        GraphUtil.tryKillUnused(read);
+                    }
+                }
+            }
+        }
+
+        private static ValueNode combine(BinaryArithmeticNode<?> reduction, ValueNode x, ValueNode y) {
+            if (reduction instanceof AddNode) {
+                return new AddNode(x, y);
+            } else if (reduction instanceof AndNode) {
+                return new AndNode(x, y);
+            } else if (reduction instanceof OrNode) {
+                return new OrNode(x, y);
+            } else {
+                assert reduction instanceof XorNode : reduction;
+                return new XorNode(x, y);
+            }
+        }
+
+        private FixedWithNextNode emitLoad(StructuredGraph graph, ValueNode read, FixedWithNextNode last) {
+            MemoryAccess access = (MemoryAccess) read;
+            VectorStamp stamp = VectorStamp.create(read.stamp(NodeView.DEFAULT), lanes);
+            VectorLoadNode load;
+            if (read instanceof ReadNode) {
+                ReadNode fixedRead = (ReadNode) read;
+                load = graph.add(new VectorLoadNode(fixedRead.getAddress(), access.getLocationIdentity(), stamp));
+                load.setGuard(fixedRead.getGuard());
+            } else {
+                FloatingReadNode floatingRead = (FloatingReadNode) read;
+                load = graph.add(new VectorLoadNode(floatingRead.getAddress(), access.getLocationIdentity(), stamp));
+                load.setGuard(floatingRead.getGuard());
+            }
+            load.setLastLocationAccess(access.getLastLocationAccess());
+            graph.addAfterFixed(last, load);
+            return load;
+        }
+
+        /**
+         * Emits the vector counterparts of {@code value} and its inputs after {@code last}.
+         */
+        private FixedWithNextNode emitVector(StructuredGraph graph, ValueNode value, EconomicMap<ValueNode, ValueNode> vectors, FixedWithNextNode last) {
+            if (vectors.containsKey(value)) {
+                return last;
+            }
+            FixedWithNextNode current = last;
+            FixedWithNextNode vector;
+            if (conversions.contains(value)) {
+                // byte lanes already hold the low byte of the extended or narrowed value
+                ValueNode input = ((IntegerConvertNode<?, ?>) value).getValue();
+                current = emitVector(graph, input, vectors, current);
+                vectors.put(value, vectors.get(input));
+                return current;
+            } else if (value instanceof BinaryArithmeticNode && operations.contains(value)) {
+                BinaryArithmeticNode<?> arithmetic = (BinaryArithmeticNode<?>) value;
+                current = emitVector(graph, arithmetic.getX(), vectors, current);
+                current = emitVector(graph, arithmetic.getY(), vectors, current);
+                vector = graph.add(new VectorBinaryNode(arithmetic.getArithmeticOp(), vectors.get(arithmetic.getX()), vectors.get(arithmetic.getY())));
+            } else {
+                assert invariants.contains(value) : value;
+                ValueNode scalar = value;
+                if (elementBytes == 1 && ((IntegerStamp) value.stamp(NodeView.DEFAULT)).getBits() == Integer.SIZE) {
+                    scalar = graph.addOrUniqueWithInputs(NarrowNode.create(value, Byte.SIZE, NodeView.DEFAULT));
+                }
+                vector = graph.add(new VectorBroadcastNode(scalar, lanes));
+            }
+            graph.addAfterFixed(current, vector);
+            vectors.put(value, vector);
+            return vector;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import static org.graalvm.compiler.core.common.GraalOptions.MaximumDesiredSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.core.common.calc.CanonicalCondition;
+import org.graalvm.compiler.core.common.cfg.AbstractControlFlowGraph;
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Graph;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.GuardNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.CompareNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerBelowNode;
+import org.graalvm.compiler.nodes.calc.IntegerLessThanNode;
+import org.graalvm.compiler.nodes.calc.MulNode;
+import org.graalvm.compiler.nodes.calc.NarrowNode;
+import org.graalvm.compiler.nodes.calc.NegateNode;
+import org.graalvm.compiler.nodes.calc.RightShiftNode;
+import org.graalvm.compiler.nodes.calc.SignExtendNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.cfg.Block;
+import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
+import org.graalvm.compiler.nodes.loop.BasicInductionVariable;
+import org.graalvm.compiler.nodes.loop.CountedLoopInfo;
+import org.graalvm.compiler.nodes.loop.InductionVariable;
+import org.graalvm.compiler.nodes.loop.LoopEx;
+import org.graalvm.compiler.nodes.loop.LoopsData;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.util.EconomicSetNodeEventListener;
+
+/**
+ * Removes range checks from counted loops whose bounds cannot be proven before the loop is entered.
+ *
+ * This phase handles the {@linkplain GuardNode guards} left in the loop by
+ * {@link LoopPredicationPhase}, for example because a predicate failed before. A range check is a
+ * guard on {@code index |<| range} that is checked in every iteration, has a loop invariant
+ * {@code range} and an {@code index} that is an {@link InductionVariable} of the form
+ * {@code scale * i + offset} where {@code i} is the loop counter and {@code scale} is a positive or
+ * negative power of two. Such a check holds exactly for
+ * the counter values in {@code [lower, upper)}, which can be computed before the loop with shifts
+ * in 64-bit arithmetic.
+ *
+ * The loop is split into pre, main and post loops using
+ * {@link LoopTransformations#insertPrePostLoops(LoopEx)}. The pre loop runs until the counter
+ * reaches the largest lower bound, the main loop runs until it reaches the smallest upper bound and
+ * the post loop executes the remaining iterations. The range checks of the main loop are removed,
+ * while the pre and post loops keep them and therefore deoptimize in their first iteration
+ * if they execute any iteration at all. The main loop limit is computed from the values the
+ * counter actually has when entering the main loop, so the main loop is correct independently of
+ * the pre loop limit.
+ */
+public class RangeCheckEliminationPhase extends BasePhase<CoreProviders> {
+
+    /**
+     * The largest absolute scale of an index. It keeps all bounds computations within 64 bits.
+     */
+    private static final long MAX_SCALE = 1L << 30;
+
+    private final CanonicalizerPhase canonicalizer;
+
+    public RangeCheckEliminationPhase(CanonicalizerPhase canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    protected void run(StructuredGraph graph, CoreProviders context) {
+        if (!graph.hasLoops() || !graph.getGuardsStage().allowsFloatingGuards()) {
+            return;
+        }
+        EconomicSetNodeEventListener listener = new EconomicSetNodeEventListener();
+        try (Graph.NodeEventScope nes = graph.trackNodeEvents(listener)) {
+            LoopsData loops = context.getLoopsDataProvider().getLoopsData(graph);
+            loops.detectedCountedLoops();
+            List<LoopBeginNode> candidates = new ArrayList<>();
+            for (LoopEx loop : loops.countedLoops()) {
+                if (isCandidate(loop) && !findRangeChecks(loop, loops.getCFG()).isEmpty()) {
+                    candidates.add(loop.loopBegin());
+                }
+            }
+            for (LoopBeginNode loopBegin : candidates) {
+                loops = context.getLoopsDataProvider().getLoopsData(graph);
+                loops.detectedCountedLoops();
+                LoopBeginNode mainLoopBegin = LoopTransformations.insertPrePostLoops(loops.loop(loopBegin));
+
+                loops = context.getLoopsDataProvider().getLoopsData(graph);
+                loops.detectedCountedLoops();
+                LoopEx preLoop = loops.loop(loopBegin);
+                LoopEx mainLoop = loops.loop(mainLoopBegin);
+                if (!preLoop.isCounted() || !mainLoop.isCounted()) {
+                    graph.getDebug().log("RangeCheckElimination %s lost its counted loops", loopBegin);
+                    continue;
+                }
+                List<RangeCheck> preChecks = findRangeChecks(preLoop, loops.getCFG());
+                List<RangeCheck> mainChecks = findRangeChecks(mainLoop, loops.getCFG());
+                if (!preChecks.isEmpty()) {
+                    CountedLoopInfo preCounted = preLoop.counted();
+                    ValueNode lower = lowerBound(graph, preCounted, preChecks);
+                    // the original limit, which the pre loop limit has been derived from
+                    ValueNode limit = mainLoop.counted().getLimit();
+                    ValueNode preLimit = clamp(preCounted.getStart(), lower, limit);
+                    replaceLimit(preCounted, graph.addOrUniqueWithInputs(preLimit));
+                }
+                if (!mainChecks.isEmpty()) {
+                    CountedLoopInfo mainCounted = mainLoop.counted();
+                    ValueNode start = mainCounted.getStart();
+                    ValueNode limit = mainCounted.getLimit();
+                    ValueNode upperLimit = clamp(start, upperBound(graph, mainCounted, mainChecks), limit);
+                    // the main loop runs no iteration if it is entered below the lower bound
+                    LogicNode startBelowLower = IntegerLessThanNode.create(signExtend(start), lowerBound(graph, mainCounted, mainChecks), NodeView.DEFAULT);
+                    ValueNode mainLimit = ConditionalNode.create(startBelowLower, start, upperLimit, NodeView.DEFAULT);
+                    replaceLimit(mainCounted, graph.addOrUniqueWithInputs(mainLimit));
+                    for (RangeCheck check : mainChecks) {
+                        check.guard.replaceAtUsagesAndDelete(mainCounted.getBody());
+                    }
+                }
+                graph.getDebug().log("RangeCheckElimination %s removed %d range checks from main loop %s", loopBegin, mainChecks.size(), mainLoopBegin);
+                graph.getDebug().dump(DebugContext.DETAILED_LEVEL, graph, "RangeCheckElimination %s", loopBegin);
+            }
+            if (!listener.getNodes().isEmpty()) {
+                canonicalizer.applyIncremental(graph, context, listener.getNodes());
+            }
+        }
+    }
+
+    @Override
+    public boolean checkContract() {
+        return false;
+    }
+
+    @Override
+    public float codeSizeIncrease() {
+        return 3;
+    }
+
+    private static boolean isCandidate(LoopEx loop) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        if (!loopBegin.isSimpleLoop() || !loop.loop().getChildren().isEmpty() || loopBegin.loopEnds().count() != 1 || loopBegin.loopExits().count() != 1) {
+            return false;
+        }
+        CountedLoopInfo counted = loop.counted();
+        InductionVariable counter = counted.getCounter();
+        if (!(counter instanceof BasicInductionVariable) || !counter.isConstantStride() || counter.constantStride() <= 0 || counted.getDirection() != InductionVariable.Direction.Up) {
+            return false;
+        }
+        if (((IntegerStamp) counter.valueNode().stamp(NodeView.DEFAULT)).getBits() != 32 || counted.isUnsignedCheck() || counted.isLimitIncluded() || counted.isInverted()) {
+            return false;
+        }
+        LogicNode condition = counted.getLimitTest().condition();
+        if (!(condition instanceof CompareNode) || ((CompareNode) condition).condition() != CanonicalCondition.LT) {
+            return false;
+        }
+        StructuredGraph graph = loopBegin.graph();
+        int maxNodes = Math.max(0, MaximumDesiredSize.getValue(graph.getOptions()) - graph.getNodeCount());
+        if (2 * loop.size() > maxNodes) {
+            loopBegin.getDebug().log(DebugContext.VERBOSE_LEVEL, "RangeCheckElimination %s loop is too large %d", loopBegin, loop.size());
+            return false;
+        }
+        return loop.canDuplicateLoop();
+    }
+
+    /**
+     * A range check {@code scale * i + offset |<| range} in the loop with counter {@code i}.
+     */
+    private static final class RangeCheck {
+        final GuardNode guard;
+        final InductionVariable index;
+        final long scale;
+        final ValueNode range;
+
+        RangeCheck(GuardNode guard, InductionVariable index, long scale, ValueNode range) {
+            this.guard = guard;
+            this.index = index;
+            this.scale = scale;
+            this.range = range;
+        }
+
+        /**
+         * The offset of the index, computed from the values of the index and the counter on loop
+         * entry.
+         */
+        ValueNode offset(InductionVariable counter) {
+            return SubNode.create(signExtend(index.initNode()), MulNode.create(ConstantNode.forLong(scale), signExtend(counter.initNode()), NodeView.DEFAULT), NodeView.DEFAULT);
+        }
+    }
+
+    private static List<RangeCheck> findRangeChecks(LoopEx loop, ControlFlowGraph cfg) {
+        List<RangeCheck> checks = new ArrayList<>();
+        InductionVariable counter = loop.counted().getCounter();
+        Block bodyBlock = cfg.blockFor(loop.counted().getBody());
+        Block endBlock = cfg.blockFor(loop.loopBegin().loopEnds().first());
+        for (GuardNode guard : loop.whole().nodes().filter(GuardNode.class)) {
+            if (!(guard.getCondition() instanceof IntegerBelowNode) || guard.isNegated()) {
+                continue;
+            }
+            // the guard must be checked in every iteration of the loop body
+            Block anchorBlock = cfg.blockFor(guard.getAnchor().asNode());
+            if (anchorBlock == null || !AbstractControlFlowGraph.dominates(bodyBlock, anchorBlock) || !AbstractControlFlowGraph.dominates(anchorBlock, endBlock)) {
+                continue;
+            }
+            IntegerBelowNode below = (IntegerBelowNode) guard.getCondition();
+            ValueNode range = below.getY();
+            if (!loop.isOutsideLoop(range) || ((IntegerStamp) below.getX().stamp(NodeView.DEFAULT)).getBits() != 32) {
+                continue;
+            }
+            InductionVariable index = loop.getInductionVariables().get(below.getX());
+            if (index == null || !index.isConstantScale(counter)) {
+                continue;
+            }
+            long scale = index.constantScale(counter);
+            if (scale < -MAX_SCALE || scale > MAX_SCALE || scale == 0 || Long.bitCount(Math.abs(scale)) != 1) {
+                continue;
+            }
+            checks.add(new RangeCheck(guard, index, scale, range));
+        }
+        return checks;
+    }
+
+    /**
+     * The smallest counter value for which all range checks succeed.
+     */
+    private static ValueNode lowerBound(StructuredGraph graph, CountedLoopInfo counted, List<RangeCheck> checks) {
+        ValueNode result = null;
+        for (RangeCheck check : checks) {
+            int shift = Long.numberOfTrailingZeros(Math.abs(check.scale));
+            ValueNode offset = check.offset(counted.getCounter());
+            // scale * i + offset >= 0 for a positive scale, scale * i + offset <= range - 1 otherwise
+            ValueNode bound = check.scale > 0 ? offset : SubNode.create(lastIndex(check), offset, NodeView.DEFAULT);
+            ValueNode lower = NegateNode.create(RightShiftNode.create(bound, shift, NodeView.DEFAULT), NodeView.DEFAULT);
+            result = result == null ? lower : max(result, lower);
+        }
+        return graph.addOrUniqueWithInputs(result);
+    }
+
+    /**
+     * The smallest counter value above the lower bound for which a range check fails.
+     */
+    private static ValueNode upperBound(StructuredGraph graph, CountedLoopInfo counted, List<RangeCheck> checks) {
+        ValueNode result = null;
+        for (RangeCheck check : checks) {
+            int shift = Long.numberOfTrailingZeros(Math.abs(check.scale));
+            ValueNode offset = check.offset(counted.getCounter());
+            // scale * i + offset <= range - 1 for a positive scale, scale * i + offset >= 0 otherwise
+            ValueNode bound = check.scale > 0 ? SubNode.create(lastIndex(check), offset, NodeView.DEFAULT) : offset;
+            ValueNode upper = AddNode.create(RightShiftNode.create(bound, shift, NodeView.DEFAULT), ConstantNode.forLong(1), NodeView.DEFAULT);
+            result = result == null ? upper : min(result, upper);
+        }
+        return graph.addOrUniqueWithInputs(result);
+    }
+
+    private static ValueNode lastIndex(RangeCheck check) {
+        return SubNode.create(signExtend(check.range), ConstantNode.forLong(1), NodeView.DEFAULT);
+    }
+
+    private static ValueNode signExtend(ValueNode value) {
+        return SignExtendNode.create(value, 64, NodeView.DEFAULT);
+    }
+
+    /**
+     * Computes {@code min(limit, max(start, bound))} in 64-bit arithmetic. The result is between
+     * {@code start} and {@code limit} or equal to {@code limit}, so it can be narrowed to the width
+     * of the counter.
+     */
+    private static ValueNode clamp(ValueNode start, ValueNode bound, ValueNode limit) {
+        ValueNode result = min(signExtend(limit), max(signExtend(start), bound));
+        return NarrowNode.create(result, ((IntegerStamp) limit.stamp(NodeView.DEFAULT)).getBits(), NodeView.DEFAULT);
+    }
+
+    private static ValueNode min(ValueNode x, ValueNode y) {
+        return ConditionalNode.create(IntegerLessThanNode.create(x, y, NodeView.DEFAULT), x, y, NodeView.DEFAULT);
+    }
+
+    private static ValueNode max(ValueNode x, ValueNode y) {
+        return ConditionalNode.create(IntegerLessThanNode.create(x, y, NodeView.DEFAULT), y, x, NodeView.DEFAULT);
+    }
+
+    private static void replaceLimit(CountedLoopInfo counted, ValueNode newLimit) {
+        CompareNode compare = (CompareNode) counted.getLimitTest().condition();
+        compare.replaceFirstInput(counted.getLimit(), newLimit);
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.test;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
+import org.graalvm.compiler.nodes.vector.VectorLoadNode;
+import org.graalvm.compiler.nodes.vector.VectorReduceNode;
+import org.graalvm.compiler.nodes.vector.VectorStoreNode;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.SpeculationLog;
+
+public class LoopVectorizationTest extends GraalCompilerTest {
+
+    private final SpeculationLog speculationLog;
+    private final OptionValues options = new OptionValues(getInitialOptions(), GraalOptions.LoopVectorization, true);
+
+    /**
+     * Whether the loop of the current snippet is expected to be vectorized if the target supports
+     * vector operations, or {@code null} once the first compilation has been checked. The tests
+     * start with long arrays; short arrays can fail the loop predication speculation, and the
+     * recompiled loop keeps its bounds checks and therefore stays scalar.
+     */
+    private Boolean expectVectorized;
+
+    public LoopVectorizationTest() {
+        // loop predication needs a speculation log to move the bounds checks out of the loops
+        speculationLog = getCodeCache().createSpeculationLog();
+    }
+
+    @Override
+    protected SpeculationLog getSpeculationLog() {
+        speculationLog.collectFailedSpeculations();
+        return speculationLog;
+    }
+
+    @Override
+    protected void checkMidTierGraph(StructuredGraph graph) {
+        if (expectVectorized == null) {
+            return;
+        }
+        boolean vectorized = graph.getNodes().filter(VectorStoreNode.class).isNotEmpty() || graph.getNodes().filter(VectorReduceNode.class).isNotEmpty();
+        if (getLowerer().largestVectorWidth() == 0) {
+            assertFalse(vectorized, "target does not support vector operations");
+        } else if (expectVectorized) {
+            assertTrue(vectorized, "expected a vectorized loop");
+            assertTrue(graph.getNodes().filter(VectorLoadNode.class).isNotEmpty(), "expected vector loads");
+        } else {
+            assertFalse(vectorized, "loop must not be vectorized");
+        }
+        ControlFlowGraph cfg = ControlFlowGraph.compute(graph, true, true, false, false);
+        for (VectorReduceNode reduce : graph.getNodes().filter(VectorReduceNode.class)) {
+            assertTrue(cfg.blockFor(reduce).getLoop() == null, "lanes must be reduced once after the loop");
+        }
+        expectVectorized = null;
+    }
+
+    private static int[] ints(int length, int seed) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 31 + seed;
+        }
+        return result;
+    }
+
+    private static long[] longs(int length, int seed) {
+        long[] result = new long[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 0x123456789L + seed;
+        }
+        return result;
+    }
+
+    private static float[] floats(int length, int seed) {
+        float[] result = new float[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 0.25f + seed;
+        }
+        return result;
+    }
+
+    private static double[] doubles(int length, int seed) {
+        double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 1.5 - seed;
+        }
+        return result;
+    }
+
+    private static byte[] bytes(int length, int seed) {
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = (byte) (i * 37 + seed);
+        }
+        return result;
+    }
+
+    public static int[] arrayAddSnippet(int[] a, int[] b, int[] c) {
+        for (int i = 0; i < c.length; i++) {
+            c[i] = a[i] + b[i];
+        }
+        return c;
+    }
+
+    @Test
+    public void testArrayAdd() {
+        expectVectorized = true;
+        for (int length = 39; length >= 0; length--) {
+            int[] a = ints(length, 1);
+            int[] b = ints(length, -7);
+            int[] c = new int[length];
+            test(options, "arrayAddSnippet", a, b, supply(() -> c.clone()));
+        }
+    }
+
+    public static int[] arrayAddAliasedSnippet(int[] a) {
+        return arrayAddSnippet(a, a, a);
+    }
+
+    @Test
+    public void testArrayAddAliased() {
+        expectVectorized = true;
+        for (int length = 39; length >= 0; length--) {
+            int[] a = ints(length, 3);
+            test(options, "arrayAddAliasedSnippet", supply(() -> a.clone()));
+        }
+    }
+
+    public static int dotProductSnippet(int[] a, int[] b) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testDotProduct() {
+        expectVectorized = true;
+        for (int length = 39; length >= 0; length--) {
+            test(options, "dotProductSnippet", ints(length, 5), ints(length, 11));
+        }
+    }
+
+    public static long xorReductionSnippet(long[] a, int start) {
+        long result = 0;
+        for (int i = start; i < a.length; i++) {
+            result ^= a[i];
+        }
+        return result;
+    }
+
+    @Test
+    public void testXorReduction() {
+        expectVectorized = true;
+        for (int length = 19; length >= 0; length--) {
+            test(options, "xorReductionSnippet", longs(length, 2), length / 3);
+        }
+    }
+
+    public static float[] saxpySnippet(float alpha, float[] x, float[] y) {
+        for (int i = 0; i < y.length; i++) {
+            y[i] = alpha * x[i] + y[i];
+        }
+        return y;
+    }
+
+    @Test
+    public void testSaxpy() {
+        expectVectorized = true;
+        for (int length = 39; length >= 0; length--) {
+            float[] x = floats(length, 1);
+            float[] y = floats(length, 9);
+            test(options, "saxpySnippet", 1.75f, x, supply(() -> y.clone()));
+        }
+    }
+
+    public static double[] scaleSnippet(double[] a, int offset, double factor) {
+        for (int i = 0; i < a.length - offset; i++) {
+            a[i + offset] = a[i + offset] * factor - 1.0;
+        }
+        return a;
+    }
+
+    @Test
+    public void testScale() {
+        expectVectorized = true;
+        for (int length = 19; length >= 0; length--) {
+            double[] a = doubles(length, 4);
+            test(options, "scaleSnippet", supply(() -> a.clone()), length % 3, 0.5);
+        }
+    }
+
+    public static int[] shiftLeftSnippet(int[] a) {
+        for (int i = 0; i < a.length - 1; i++) {
+            a[i] = a[i + 1] - 3;
+        }
+        return a;
+    }
+
+    @Test
+    public void testShiftLeft() {
+        expectVectorized = true;
+        for (int length = 39; length >= 0; length--) {
+            int[] a = ints(length, 6);
+            test(options, "shiftLeftSnippet", supply(() -> a.clone()));
+        }
+    }
+
+    public static byte[] byteArithmeticSnippet(byte[] a, byte[] b, byte key) {
+        for (int i = 0; i < b.length; i++) {
+            b[i] = (byte) ((a[i] + b[i]) ^ key);
+        }
+        return b;
+    }
+
+    @Test
+    public void testByteArithmetic() {
+        expectVectorized = true;
+        for (int length = 79; length >= 0; length--) {
+            byte[] a = bytes(length, 1);
+            byte[] b = bytes(length, 100);
+            test(options, "byteArithmeticSnippet", a, supply(() -> b.clone()), (byte) 0x5a);
+        }
+    }
+
+    public static byte[] byteConstantSnippet(byte[] a) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] = (byte) (a[i] - 100 & 0x7f);
+        }
+        return a;
+    }
+
+    @Test
+    public void testByteConstant() {
+        expectVectorized = true;
+        for (int length = 79; length >= 0; length--) {
+            byte[] a = bytes(length, 9);
+            test(options, "byteConstantSnippet", supply(() -> a.clone()));
+        }
+    }
+
+    public static int[] prefixSnippet(int[] a) {
+        for (int i = 1; i < a.length; i++) {
+            a[i] = a[i - 1] + a[i];
+        }
+        return a;
+    }
+
+    @Test
+    public void testLoopCarriedDependence() {
+        expectVectorized = false;
+        for (int length = 39; length >= 0; length--) {
+            int[] a = ints(length, 2);
+            test(options, "prefixSnippet", supply(() -> a.clone()));
+        }
+    }
+
+    public static long[] shiftRightSnippet(long[] a, int distance) {
+        for (int i = distance; i < a.length; i++) {
+            a[i] = a[i - distance] + 1;
+        }
+        return a;
+    }
+
+    @Test
+    public void testUnknownDistance() {
+        expectVectorized = false;
+        for (int length = 19; length >= 0; length--) {
+            long[] a = longs(length, 8);
+            test(options, "shiftRightSnippet", supply(() -> a.clone()), 1 + length % 3);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.test;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.loop.LoopEx;
+import org.graalvm.compiler.nodes.loop.LoopsData;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class RangeCheckEliminationTest extends GraalCompilerTest {
+
+    /**
+     * Whether the loop of the current snippet is expected to be split into pre, main and post
+     * loops, or {@code null} once the first compilation has been checked. Later compilations follow
+     * the deoptimizations caused by out of bounds accesses.
+     */
+    private Boolean expectMainLoop;
+
+    private OptionValues getOptions() {
+        // keep the range checks in the loop and the main loop unchanged
+        return new OptionValues(getInitialOptions(), GraalOptions.LoopPredication, false, GraalOptions.LoopVectorization, false, GraalOptions.PartialUnroll, false);
+    }
+
+    @Override
+    protected void checkMidTierGraph(StructuredGraph graph) {
+        if (expectMainLoop == null) {
+            return;
+        }
+        LoopsData loops = getDefaultMidTierContext().getLoopsDataProvider().getLoopsData(graph);
+        int mainLoops = 0;
+        for (LoopEx loop : loops.loops()) {
+            if (loop.loopBegin().isMainLoop()) {
+                mainLoops++;
+                assertTrue(loop.whole().nodes().filter(IfNode.class).count() == 1, "main loop must only test its limit");
+            }
+        }
+        assertTrue(expectMainLoop ? mainLoops == 1 : mainLoops == 0, "unexpected number of main loops: %d", mainLoops);
+        expectMainLoop = null;
+    }
+
+    private static int[] ints(int length) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 13 - 100;
+        }
+        return result;
+    }
+
+    public static int sumOffsetSnippet(int[] a, int from, int to, int offset) {
+        int sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += a[i + offset];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testSumOffset() {
+        int[] a = ints(50);
+        expectMainLoop = true;
+        test(getOptions(), "sumOffsetSnippet", a, 0, 50, 0);
+        for (int offset = -3; offset <= 3; offset++) {
+            test(getOptions(), "sumOffsetSnippet", a, 3, 47, offset);
+            test(getOptions(), "sumOffsetSnippet", a, 0, 50, offset);
+            test(getOptions(), "sumOffsetSnippet", a, 10, 5, offset);
+        }
+    }
+
+    public static int[] reverseSnippet(int[] a, int[] b, int n) {
+        for (int i = 0; i < n; i++) {
+            b[i] = a[n - 1 - i];
+        }
+        return b;
+    }
+
+    @Test
+    public void testReverse() {
+        int[] a = ints(40);
+        expectMainLoop = true;
+        for (int n = 40; n >= 0; n -= 3) {
+            test(getOptions(), "reverseSnippet", a, supply(() -> new int[40]), n);
+        }
+        test(getOptions(), "reverseSnippet", a, supply(() -> new int[30]), 35);
+        test(getOptions(), "reverseSnippet", a, supply(() -> new int[40]), 45);
+    }
+
+    public static int[] reverseCopySnippet(int[] a, int[] b, int n) {
+        if (a.length == 0 || b.length < n) {
+            return b;
+        }
+        for (int i = 0; i < n; i++) {
+            b[i] = a[n - 1 - i];
+        }
+        return b;
+    }
+
+    @Test
+    public void testReverseOutOfBounds() {
+        // a peeled first iteration would already check the largest index
+        OptionValues options = new OptionValues(getOptions(), GraalOptions.LoopPeeling, false);
+        expectMainLoop = true;
+        test(options, "reverseCopySnippet", ints(40), supply(() -> new int[45]), 40);
+        // the code of the first compilation must throw before reading outside of the array
+        Result result = executeActual(options, getResolvedJavaMethod("reverseCopySnippet"), null, ints(40), new int[45], 45);
+        assertTrue(result.exception instanceof ArrayIndexOutOfBoundsException, "expected an out of bounds access: %s", result);
+        test(options, "reverseCopySnippet", ints(40), supply(() -> new int[45]), 41);
+        test(options, "reverseCopySnippet", ints(40), supply(() -> new int[45]), 7);
+    }
+
+    public static long stridedSnippet(long[] a, int n) {
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[2 * i] * 3 + a[2 * i + 1];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testStrided() {
+        long[] a = new long[41];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = i * 0x100000001L;
+        }
+        expectMainLoop = true;
+        for (int n = 20; n >= 0; n--) {
+            test(getOptions(), "stridedSnippet", a, n);
+        }
+        test(getOptions(), "stridedSnippet", a, 21);
+    }
+
+    public static int[] stepSnippet(int[] a, int start, int n) {
+        for (int i = start; i < n; i += 3) {
+            a[i] = a[i - 1] + i;
+        }
+        return a;
+    }
+
+    @Test
+    public void testStep() {
+        expectMainLoop = true;
+        for (int n = 30; n >= 0; n -= 2) {
+            test(getOptions(), "stepSnippet", supply(() -> ints(30)), 1, n);
+            test(getOptions(), "stepSnippet", supply(() -> ints(30)), 2, n);
+        }
+        test(getOptions(), "stepSnippet", supply(() -> ints(30)), 0, 30);
+        test(getOptions(), "stepSnippet", supply(() -> ints(30)), 1, 32);
+    }
+
+    public static int scaleThreeSnippet(int[] a, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[3 * i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testScaleNotPowerOfTwo() {
+        expectMainLoop = false;
+        for (int n = 10; n >= 0; n--) {
+            test(getOptions(), "scaleThreeSnippet", ints(30), n);
+        }
+    }
+}
@@ -24,6 +24,7 @@
  */
 package org.graalvm.compiler.nodes.spi;
 
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp;
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.nodes.calc.RoundNode;
@@ -70,4 +71,21 @@ public interface LoweringProvider {
      */
     boolean supportsRounding();
 
+    /**
+     * Indicates the largest vector width in bits that loop vectorization may use on the target
+     * platform, or 0 if vector operations are not supported.
+     */
+    default int largestVectorWidth() {
+        return 0;
+    }
+
+    /**
+     * Indicates whether the arithmetic operation {@code op} can be applied lane by lane to vectors
+     * of {@code elementKind} values.
+     */
+    @SuppressWarnings("unused")
+    default boolean supportsVectorOperation(BinaryOp<?> op, JavaKind elementKind) {
+        return false;
+    }
+
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.nodes.vector;
+
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_2;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_1;
+
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+/**
+ * Applies the arithmetic operation {@link #getOp() op} lane by lane to two vectors of the same
+ * {@linkplain org.graalvm.compiler.core.common.type.VectorStamp stamp}.
+ */
+@NodeInfo(nameTemplate = "Vector#{p#op/s}", cycles = CYCLES_2, size = SIZE_1)
+public final class VectorBinaryNode extends FixedWithNextNode implements LIRLowerable {
+
+    public static final NodeClass<VectorBinaryNode> TYPE = NodeClass.create(VectorBinaryNode.class);
+
+    protected final BinaryOp<?> op;
+    @Input ValueNode x;
+    @Input ValueNode y;
+
+    public VectorBinaryNode(BinaryOp<?> op, ValueNode x, ValueNode y) {
+        super(TYPE, x.stamp(NodeView.DEFAULT));
+        assert x.stamp(NodeView.DEFAULT).isCompatible(y.stamp(NodeView.DEFAULT)) : x + " " + y;
+        this.op = op;
+        this.x = x;
+        this.y = y;
+    }
+
+    public BinaryOp<?> getOp() {
+        return op;
+    }
+
+    public ValueNode getX() {
+        return x;
+    }
+
+    public ValueNode getY() {
+        return y;
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        LIRGeneratorTool tool = gen.getLIRGeneratorTool();
+        gen.setResult(this, tool.emitVectorBinary(op, tool.getLIRKind(stamp(NodeView.DEFAULT)), gen.operand(x), gen.operand(y)));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.nodes.vector;
+
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_2;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_2;
+
+import org.graalvm.compiler.core.common.type.VectorStamp;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+/**
+ * Creates a vector that has the scalar {@link #getValue() value} in all of its lanes.
+ *
+ * Like the other vector operations this node is fixed, which keeps it inside the vectorized loop
+ * body. Vector registers are not preserved across safepoints, so vector values must not float out
+ * of the loop even if their inputs are loop invariant.
+ */
+@NodeInfo(cycles = CYCLES_2, size = SIZE_2)
+public final class VectorBroadcastNode extends FixedWithNextNode implements LIRLowerable {
+
+    public static final NodeClass<VectorBroadcastNode> TYPE = NodeClass.create(VectorBroadcastNode.class);
+
+    @Input ValueNode value;
+
+    public VectorBroadcastNode(ValueNode value, int length) {
+        super(TYPE, VectorStamp.create(value.stamp(NodeView.DEFAULT), length));
+        this.value = value;
+    }
+
+    public ValueNode getValue() {
+        return value;
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        LIRGeneratorTool tool = gen.getLIRGeneratorTool();
+        gen.setResult(this, tool.emitVectorBroadcast(tool.getLIRKind(stamp(NodeView.DEFAULT)), gen.operand(value)));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.nodes.vector;
+
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_2;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_1;
+
+import org.graalvm.compiler.core.common.type.Stamp;
+import org.graalvm.compiler.core.common.type.VectorStamp;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.memory.FixedAccessNode;
+import org.graalvm.compiler.nodes.memory.LIRLowerableAccess;
+import org.graalvm.compiler.nodes.memory.address.AddressNode;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+import org.graalvm.word.LocationIdentity;
+
+/**
+ * Loads a vector from consecutive array elements starting at {@link #getAddress() address}.
+ */
+@NodeInfo(nameTemplate = "VectorLoad#{p#location/s}", cycles = CYCLES_2, size = SIZE_1)
+public final class VectorLoadNode extends FixedAccessNode implements LIRLowerableAccess {
+
+    public static final NodeClass<VectorLoadNode> TYPE = NodeClass.create(VectorLoadNode.class);
+
+    public VectorLoadNode(AddressNode address, LocationIdentity location, VectorStamp stamp) {
+        super(TYPE, address, location, stamp);
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        LIRGeneratorTool tool = gen.getLIRGeneratorTool();
+        gen.setResult(this, tool.emitVectorLoad(tool.getLIRKind(stamp(NodeView.DEFAULT)), gen.operand(getAddress())));
+    }
+
+    @Override
+    public Stamp getAccessStamp(NodeView view) {
+        return stamp(view);
+    }
+
+    @Override
+    public boolean canNullCheck() {
+        return false;
+    }
+}
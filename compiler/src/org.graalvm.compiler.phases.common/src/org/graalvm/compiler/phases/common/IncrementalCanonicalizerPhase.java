@@ -24,12 +24,14 @@
  */
 package org.graalvm.compiler.phases.common;
 
-import org.graalvm.compiler.graph.Graph.NodeEventScope;
+import java.util.List;
+
+import org.graalvm.compiler.graph.Graph.ChangeMark;
+import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.spi.CoreProviders;
 import org.graalvm.compiler.phases.BasePhase;
 import org.graalvm.compiler.phases.PhaseSuite;
-import org.graalvm.compiler.phases.common.util.EconomicSetNodeEventListener;
 
 /**
  * A phase suite that applies {@linkplain CanonicalizerPhase canonicalization} to a graph after all
@@ -51,13 +53,14 @@ public class IncrementalCanonicalizerPhase<C extends CoreProviders> extends Phas
     @Override
     @SuppressWarnings("try")
     protected void run(StructuredGraph graph, C context) {
-        EconomicSetNodeEventListener listener = new EconomicSetNodeEventListener();
-        try (NodeEventScope nes = graph.trackNodeEvents(listener)) {
+        List<Node> changedNodes;
+        try (ChangeMark changes = graph.markChanges()) {
             super.run(graph, context);
+            changedNodes = changes.getChangedNodes().snapshot();
         }
 
-        if (!listener.getNodes().isEmpty()) {
-            canonicalizer.applyIncremental(graph, context, listener.getNodes(), null, false);
+        if (!changedNodes.isEmpty()) {
+            canonicalizer.applyIncremental(graph, context, changedNodes, false);
         }
     }
 }
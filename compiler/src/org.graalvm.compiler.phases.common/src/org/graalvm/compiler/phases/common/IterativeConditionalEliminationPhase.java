@@ -24,15 +24,17 @@
  */
 package org.graalvm.compiler.phases.common;
 
+import java.util.List;
+
 import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.common.PermanentBailoutException;
 import org.graalvm.compiler.debug.TTY;
+import org.graalvm.compiler.graph.Graph.ChangeMark;
 import org.graalvm.compiler.graph.Graph.NodeEventScope;
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.spi.CoreProviders;
 import org.graalvm.compiler.phases.BasePhase;
-import org.graalvm.compiler.phases.common.util.EconomicSetNodeEventListener;
 import org.graalvm.compiler.phases.common.util.TracingNodeEventListener;
 
 public class IterativeConditionalEliminationPhase extends BasePhase<CoreProviders> {
@@ -52,20 +54,20 @@ public class IterativeConditionalEliminationPhase extends BasePhase<CoreProvider
     @SuppressWarnings("try")
     protected void run(StructuredGraph graph, CoreProviders context) {
         final int maxIterations = GraalOptions.ConditionalEliminationMaxIterations.getValue(graph.getOptions());
-        EconomicSetNodeEventListener listener = new EconomicSetNodeEventListener();
         int count = 0;
 
         while (true) {
             count++;
-            try (NodeEventScope nes = graph.trackNodeEvents(listener)) {
+            List<Node> changedNodes;
+            try (ChangeMark changes = graph.markChanges()) {
                 new ConditionalEliminationPhase(fullSchedule).apply(graph, context);
+                changedNodes = changes.getChangedNodes().snapshot();
             }
-            if (listener.getNodes().isEmpty()) {
+            if (changedNodes.isEmpty()) {
                 break;
             }
 
-            canonicalizer.applyIncremental(graph, context, listener.getNodes());
-            listener.getNodes().clear();
+            canonicalizer.applyIncremental(graph, context, changedNodes);
 
             if (count >= maxIterations) {
                 if (DEBUG_PHASE) {
@@ -74,7 +76,7 @@ public class IterativeConditionalEliminationPhase extends BasePhase<CoreProvider
                         TTY.println("------------------------------------");
                         TTY.println("Iteration " + count);
                         TTY.println("Conditional elimination changed nodes: ");
-                        for (Node n : listener.getNodes()) {
+                        for (Node n : changedNodes) {
                             TTY.println(n.toString());
                             for (Node input : n.inputs()) {
                                 TTY.println("    input: " + input);
@@ -82,7 +84,7 @@ public class IterativeConditionalEliminationPhase extends BasePhase<CoreProvider
                         }
                         TTY.println("Canonicalization with node listener: ");
                         try (NodeEventScope debugNes = graph.trackNodeEvents(new TracingNodeEventListener())) {
-                            canonicalizer.applyIncremental(graph, context, listener.getNodes());
+                            canonicalizer.applyIncremental(graph, context, changedNodes);
                         }
                     }
                     if (count >= DEBUG_MAX_ITERATIONS) {
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import static org.graalvm.compiler.replacements.SnippetTemplate.DEFAULT_REPLACER;
+
+import java.util.Collections;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.nodes.extended.UnboxNode;
+import org.graalvm.compiler.nodes.spi.LoweringTool;
+import org.graalvm.compiler.nodes.spi.SnippetParameterInfo;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.util.Providers;
+import org.graalvm.compiler.replacements.BoxingSnippets;
+import org.graalvm.compiler.replacements.SnippetCounter;
+import org.graalvm.compiler.replacements.SnippetTemplate;
+import org.graalvm.compiler.replacements.SnippetTemplate.AbstractTemplates;
+import org.graalvm.compiler.replacements.SnippetTemplate.Arguments;
+import org.graalvm.compiler.replacements.SnippetTemplate.SnippetInfo;
+import org.graalvm.word.LocationIdentity;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Tests that threads instantiating the same snippet concurrently share a single cached
+ * {@link SnippetTemplate}.
+ */
+public class SnippetTemplateCacheTest extends GraalCompilerTest {
+
+    private static final int THREADS = 8;
+
+    public static int unbox(Integer value) {
+        return value;
+    }
+
+    private static final class UnboxTemplates extends AbstractTemplates {
+
+        private final SnippetInfo intValue;
+
+        UnboxTemplates(OptionValues options, Providers providers, TargetDescription target) {
+            super(options, Collections.emptyList(), providers, providers.getSnippetReflection(), target);
+            // Snippet registration is closed at this point so reuse the registered boxing snippet.
+            ResolvedJavaMethod method = findMethod(providers.getMetaAccess(), BoxingSnippets.class, "intValue");
+            SnippetParameterInfo parameterInfo = new SnippetParameterInfo(method);
+            intValue = new SnippetInfo(method, null, new LocationIdentity[0], null) {
+                @Override
+                protected SnippetParameterInfo info() {
+                    return parameterInfo;
+                }
+            };
+        }
+
+        SnippetTemplate lower(UnboxNode unbox) {
+            Arguments args = new Arguments(intValue, unbox.graph().getGuardsStage(), LoweringTool.StandardLoweringStage.HIGH_TIER);
+            args.add("value", unbox.getValue());
+            args.addConst("valueCounter", SnippetCounter.DISABLED_COUNTER);
+            SnippetTemplate template = template(unbox, args);
+            template.instantiate(providers.getMetaAccess(), unbox, DEFAULT_REPLACER, args);
+            return template;
+        }
+    }
+
+    @Test
+    public void testUnboundedCache() throws Throwable {
+        testSharedTemplate(new OptionValues(getInitialOptions(), SnippetTemplate.Options.MaxTemplatesPerSnippet, 0));
+    }
+
+    @Test
+    public void testLRUCache() throws Throwable {
+        testSharedTemplate(getInitialOptions());
+    }
+
+    private void testSharedTemplate(OptionValues options) throws Throwable {
+        UnboxTemplates templates = new UnboxTemplates(options, getProviders(), getTarget());
+        SnippetTemplate[] results = new SnippetTemplate[THREADS];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    StructuredGraph graph = parseEager("unbox", AllowAssumptions.YES);
+                    UnboxNode unbox = graph.getNodes().filter(UnboxNode.class).first();
+                    Assert.assertNotNull("expected an unbox node in " + graph, unbox);
+                    barrier.await();
+                    results[index] = templates.lower(unbox);
+                    Assert.assertTrue(graph.getNodes().filter(UnboxNode.class).isEmpty());
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                    barrier.reset();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        for (SnippetTemplate result : results) {
+            Assert.assertSame(results[0], result);
+        }
+    }
+}
@@ -97,6 +97,7 @@ public class CachingPEGraphDecoder extends PEGraphDecoder {
 
     @SuppressWarnings("try")
     private EncodedGraph createGraph(ResolvedJavaMethod method, MethodSubstitutionPlugin plugin, BytecodeProvider intrinsicBytecodeProvider, boolean isSubstitution) {
+        long startTime = System.nanoTime();
         StructuredGraph graphToEncode;
         if (isSubstitution && (UseEncodedGraphs.getValue(options) || IS_IN_NATIVE_IMAGE)) {
             // These must go through Replacements to find the graph to use.
@@ -118,10 +119,19 @@ public class CachingPEGraphDecoder extends PEGraphDecoder {
         }
 
         EncodedGraph encodedGraph = GraphEncoder.encodeSingleGraph(graphToEncode, architecture);
-        graphCache.put(method, encodedGraph);
+        cacheEncodedGraph(method, encodedGraph, System.nanoTime() - startTime);
         return encodedGraph;
     }
 
+    /**
+     * Stores a graph that was parsed and encoded because it was not found in the graph cache.
+     *
+     * @param creationTime the time in nanoseconds it took to parse and encode the graph
+     */
+    protected void cacheEncodedGraph(ResolvedJavaMethod method, EncodedGraph encodedGraph, long creationTime) {
+        graphCache.put(method, encodedGraph);
+    }
+
     @SuppressWarnings("try")
     private StructuredGraph buildGraph(ResolvedJavaMethod method, MethodSubstitutionPlugin plugin, BytecodeProvider intrinsicBytecodeProvider, boolean isSubstitution) {
         StructuredGraph graphToEncode;// @formatter:off
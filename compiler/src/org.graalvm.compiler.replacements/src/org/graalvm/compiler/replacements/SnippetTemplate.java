@@ -45,6 +45,7 @@ import java.util.Formatter;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
@@ -557,12 +558,13 @@ public class SnippetTemplate {
     private static final TimerKey SnippetTemplateCreationTime = DebugContext.timer("SnippetTemplateCreationTime");
     private static final CounterKey SnippetTemplates = DebugContext.counter("SnippetTemplateCount");
 
-    static class Options {
+    public static class Options {
         @Option(help = "Use a LRU cache for snippet templates.")//
         public static final OptionKey<Boolean> UseSnippetTemplateCache = new OptionKey<>(true);
 
-        @Option(help = "")//
-        static final OptionKey<Integer> MaxTemplatesPerSnippet = new OptionKey<>(50);
+        @Option(help = "Maximum number of templates cached per snippet class. " +
+                        "A value of 0 or less caches all templates without evicting any of them.")//
+        public static final OptionKey<Integer> MaxTemplatesPerSnippet = new OptionKey<>(50);
     }
 
     /**
@@ -587,7 +589,13 @@ public class SnippetTemplate {
             this.factories = factories;
             if (Options.UseSnippetTemplateCache.getValue(options)) {
                 int size = Options.MaxTemplatesPerSnippet.getValue(options);
-                this.templates = Collections.synchronizedMap(new LRUCache<>(size, size));
+                if (size <= 0) {
+                    // Lookups of an unbounded cache do not need to lock the cache to update the
+                    // access order. This matters when many compiler threads lower the same snippets.
+                    this.templates = new ConcurrentHashMap<>();
+                } else {
+                    this.templates = Collections.synchronizedMap(new LRUCache<>(size, size));
+                }
             } else {
                 this.templates = null;
             }
@@ -674,7 +682,13 @@ public class SnippetTemplate {
                         OptionValues snippetOptions = new OptionValues(options, GraalOptions.TraceInlining, GraalOptions.TraceInliningForStubsAndSnippets.getValue(options));
                         template = new SnippetTemplate(snippetOptions, debug, providers, snippetReflection, args, graph.trackNodeSourcePosition(), replacee, createMidTierPhases());
                         if (Options.UseSnippetTemplateCache.getValue(snippetOptions) && args.cacheable) {
-                            templates.put(args.cacheKey, template);
+                            // Share the template of a thread that created it concurrently.
+                            SnippetTemplate existing = templates.putIfAbsent(args.cacheKey, template);
+                            if (existing != null && (!graph.trackNodeSourcePosition() || existing.snippet.trackNodeSourcePosition())) {
+                                template = existing;
+                            } else if (existing != null) {
+                                templates.put(args.cacheKey, template);
+                            }
                         }
                     } catch (Throwable e) {
                         throw debug.handle(e);
@@ -39,6 +39,7 @@ public final class HotSpotKnownTruffleTypes extends KnownTruffleTypes {
     public final ResolvedJavaType classWeakReference = lookupType(WeakReference.class);
     public final ResolvedJavaType classSoftReference = lookupType(SoftReference.class);
     public final ResolvedJavaField referenceReferent = findField(lookupType(Reference.class), "referent");
+    public final ResolvedJavaType classThreadLocalHandshake = lookupType("com.oracle.truffle.api.ThreadLocalHandshake");
 
     public HotSpotKnownTruffleTypes(MetaAccessProvider metaAccess) {
         super(metaAccess);
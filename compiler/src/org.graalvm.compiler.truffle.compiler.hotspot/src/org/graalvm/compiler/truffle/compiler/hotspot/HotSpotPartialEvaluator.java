@@ -24,16 +24,14 @@
  */
 package org.graalvm.compiler.truffle.compiler.hotspot;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.graalvm.collections.EconomicMap;
+import org.graalvm.compiler.hotspot.meta.HotSpotProviders;
 import org.graalvm.compiler.nodes.EncodedGraph;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration;
 import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins;
+import org.graalvm.compiler.truffle.compiler.EncodedGraphCache;
 import org.graalvm.compiler.truffle.compiler.PartialEvaluator;
 import org.graalvm.compiler.truffle.compiler.TruffleCompilerConfiguration;
 import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
@@ -43,13 +41,15 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
 
 public final class HotSpotPartialEvaluator extends PartialEvaluator {
 
-    private final AtomicReference<EconomicMap<ResolvedJavaMethod, EncodedGraph>> graphCacheRef;
+    private final AtomicReference<EncodedGraphCache> graphCacheRef;
+    private final EncodedGraphCache.Statistics graphCacheStatistics = new EncodedGraphCache.Statistics();
 
     public boolean isEncodedGraphCacheEnabled() {
         return encodedGraphCacheCapacity != 0;
     }
 
     private int encodedGraphCacheCapacity;
+    private long encodedGraphCacheMemoryLimit;
 
     public HotSpotPartialEvaluator(TruffleCompilerConfiguration config, GraphBuilderConfiguration configForRoot) {
         super(config, configForRoot, new HotSpotKnownTruffleTypes(config.lastTier().providers().getMetaAccess()));
@@ -60,31 +60,18 @@ public final class HotSpotPartialEvaluator extends PartialEvaluator {
     protected void initialize(OptionValues options) {
         super.initialize(options);
         encodedGraphCacheCapacity = options.get(PolyglotCompilerOptions.EncodedGraphCacheCapacity);
+        encodedGraphCacheMemoryLimit = options.get(PolyglotCompilerOptions.EncodedGraphCacheMemoryLimit) * 1024L * 1024L;
     }
 
     @Override
     protected void registerGraphBuilderInvocationPlugins(InvocationPlugins invocationPlugins, boolean canDelayIntrinsification) {
         super.registerGraphBuilderInvocationPlugins(invocationPlugins, canDelayIntrinsification);
         HotSpotTruffleGraphBuilderPlugins.registerCompilationFinalReferencePlugins(invocationPlugins, canDelayIntrinsification, (HotSpotKnownTruffleTypes) getKnownTruffleTypes());
-    }
-
-    @SuppressWarnings("serial")
-    private Map<ResolvedJavaMethod, EncodedGraph> createEncodedGraphMap() {
-        if (encodedGraphCacheCapacity < 0) {
-            // Unbounded cache.
-            return new ConcurrentHashMap<>();
+        if (providers instanceof HotSpotProviders) {
+            HotSpotProviders hotSpotProviders = (HotSpotProviders) providers;
+            HotSpotTruffleGraphBuilderPlugins.registerThreadLocalHandshakePlugins(invocationPlugins, hotSpotProviders.getWordTypes(), hotSpotProviders.getConfig(),
+                            (HotSpotKnownTruffleTypes) getKnownTruffleTypes());
         }
-
-        // Access-based LRU bounded cache. The overhead of the synchronized map is negligible
-        // compared to the cost of re-parsing the graphs.
-        return Collections.synchronizedMap(
-                        new LinkedHashMap<ResolvedJavaMethod, EncodedGraph>(16, 0.75f, true) {
-                            @Override
-                            protected boolean removeEldestEntry(Map.Entry<ResolvedJavaMethod, EncodedGraph> eldest) {
-                                // encodedGraphCacheCapacity < 0 => unbounded capacity
-                                return (encodedGraphCacheCapacity >= 0) && size() > encodedGraphCacheCapacity;
-                            }
-                        });
     }
 
     @Override
@@ -94,15 +81,20 @@ public final class HotSpotPartialEvaluator extends PartialEvaluator {
             // can still be used and propagated within the same compilation unit.
             return super.getOrCreateEncodedGraphCache();
         }
-        EconomicMap<ResolvedJavaMethod, EncodedGraph> cache;
+        EncodedGraphCache cache;
         do {
             cache = graphCacheRef.get();
         } while (cache == null &&
-                        !graphCacheRef.compareAndSet(null, cache = EconomicMap.wrapMap(createEncodedGraphMap())));
+                        !graphCacheRef.compareAndSet(null, cache = new EncodedGraphCache(encodedGraphCacheCapacity, encodedGraphCacheMemoryLimit, graphCacheStatistics)));
         assert cache != null;
         return cache;
     }
 
+    @Override
+    public EncodedGraphCache.Statistics getEncodedGraphCacheStatistics() {
+        return isEncodedGraphCacheEnabled() ? graphCacheStatistics : null;
+    }
+
     public void purgeEncodedGraphCache() {
         graphCacheRef.set(null);
     }
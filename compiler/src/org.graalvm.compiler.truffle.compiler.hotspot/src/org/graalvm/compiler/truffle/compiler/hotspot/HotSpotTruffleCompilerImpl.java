@@ -34,7 +34,6 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 
-import org.graalvm.collections.EconomicMap;
 import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
 import org.graalvm.compiler.api.runtime.GraalJVMCICompiler;
 import org.graalvm.compiler.code.CompilationResult;
@@ -81,6 +80,7 @@ import org.graalvm.compiler.printer.GraalDebugHandlersFactory;
 import org.graalvm.compiler.serviceprovider.GraalServices;
 import org.graalvm.compiler.truffle.common.CompilableTruffleAST;
 import org.graalvm.compiler.truffle.compiler.EconomyPartialEvaluatorConfiguration;
+import org.graalvm.compiler.truffle.compiler.EncodedGraphCache;
 import org.graalvm.compiler.truffle.compiler.PartialEvaluatorConfiguration;
 import org.graalvm.compiler.truffle.common.TruffleCompilerRuntime;
 import org.graalvm.compiler.truffle.compiler.TruffleCompilerConfiguration;
@@ -392,7 +392,7 @@ public final class HotSpotTruffleCompilerImpl extends TruffleCompilerImpl implem
             if (!bailout.isPermanent() && graph != null && !graph.getAssumptions().isEmpty()) {
                 try (DebugCloseable dummy = EncodedGraphCacheEvictionTime.start(debug)) {
                     assert graph.method() != null;
-                    EconomicMap<ResolvedJavaMethod, EncodedGraph> graphCache = partialEvaluator.getOrCreateEncodedGraphCache();
+                    EncodedGraphCache graphCache = (EncodedGraphCache) partialEvaluator.getOrCreateEncodedGraphCache();
 
                     /*
                      * At this point, the cache containing invalid graphs may be already
@@ -407,7 +407,7 @@ public final class HotSpotTruffleCompilerImpl extends TruffleCompilerImpl implem
 
                         // Bailout may have been caused by an assumption on some inlined method.
                         for (ResolvedJavaMethod method : graph.getMethods()) {
-                            EncodedGraph encodedGraph = graphCache.get(method);
+                            EncodedGraph encodedGraph = graphCache.peek(method);
                             if (encodedGraph == null) {
                                 continue;
                             }
@@ -30,10 +30,24 @@ import jdk.vm.ci.meta.JavaConstant;
 import jdk.vm.ci.meta.JavaKind;
 import jdk.vm.ci.meta.ResolvedJavaMethod;
 
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.hotspot.GraalHotSpotVMConfig;
+import org.graalvm.compiler.hotspot.nodes.CurrentJavaThreadNode;
 import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerEqualsNode;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderContext;
 import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugin;
 import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins;
+import org.graalvm.compiler.nodes.memory.OnHeapMemoryAccess.BarrierType;
+import org.graalvm.compiler.nodes.memory.ReadNode;
+import org.graalvm.compiler.nodes.memory.address.AddressNode;
+import org.graalvm.compiler.nodes.memory.address.OffsetAddressNode;
+import org.graalvm.compiler.word.WordTypes;
+import org.graalvm.word.LocationIdentity;
 
 final class HotSpotTruffleGraphBuilderPlugins {
     static void registerCompilationFinalReferencePlugins(InvocationPlugins plugins, boolean canDelayIntrinsification, HotSpotKnownTruffleTypes types) {
@@ -55,4 +69,28 @@ final class HotSpotTruffleGraphBuilderPlugins {
             }
         });
     }
+
+    /**
+     * Intrinsifies the fast path of the Truffle safepoint poll with a read of the pending thread
+     * local action flag that the runtime publishes in {@code JavaThread::_jvmci_reserved0}.
+     */
+    static void registerThreadLocalHandshakePlugins(InvocationPlugins plugins, WordTypes wordTypes, GraalHotSpotVMConfig config, HotSpotKnownTruffleTypes types) {
+        if (config.jvmciReserved0Offset == -1) {
+            return;
+        }
+        InvocationPlugins.Registration r = new InvocationPlugins.Registration(plugins, new InvocationPlugins.ResolvedJavaSymbol(types.classThreadLocalHandshake));
+        r.register0("isPending", new InvocationPlugin() {
+            @Override
+            public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver) {
+                CurrentJavaThreadNode thread = b.add(new CurrentJavaThreadNode(wordTypes.getWordKind()));
+                ValueNode offset = b.add(ConstantNode.forLong(config.jvmciReserved0Offset));
+                AddressNode address = b.add(new OffsetAddressNode(thread, offset));
+                // Written by other threads, the read must neither float nor be eliminated.
+                ReadNode pending = b.add(new ReadNode(address, LocationIdentity.any(), StampFactory.forKind(JavaKind.Int), BarrierType.NONE));
+                LogicNode notPending = b.add(IntegerEqualsNode.create(pending, ConstantNode.forInt(0, b.getGraph()), NodeView.DEFAULT));
+                b.addPush(JavaKind.Boolean, ConditionalNode.create(notPending, ConstantNode.forBoolean(false, b.getGraph()), ConstantNode.forBoolean(true, b.getGraph()), NodeView.DEFAULT));
+                return true;
+            }
+        });
+    }
 }
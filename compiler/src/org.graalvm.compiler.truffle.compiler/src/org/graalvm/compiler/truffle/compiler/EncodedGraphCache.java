@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.compiler;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.MapCursor;
+import org.graalvm.compiler.nodes.EncodedGraph;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * A concurrent cache of encoded graphs shared by all compilations of a Truffle compiler. Interpreter
+ * methods such as node execute methods and DSL specializations are parsed and encoded once and then
+ * decoded by every partial evaluation that inlines them.
+ *
+ * The cache is bounded by a number of entries and by the approximate memory used by the cached
+ * encodings. If either limit is exceeded the least recently used entries are evicted. The entries
+ * are kept in access order, so eviction removes the eldest entries without sorting.
+ */
+public final class EncodedGraphCache implements EconomicMap<ResolvedJavaMethod, EncodedGraph> {
+
+    /**
+     * Approximate size of an object reference and of the per object overhead used for memory
+     * accounting.
+     */
+    private static final int REFERENCE_SIZE = 8;
+    private static final int OBJECT_OVERHEAD = 16;
+
+    // iteration order is least recently used first, guarded by this
+    private final LinkedHashMap<ResolvedJavaMethod, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int capacity;
+    private final long memoryLimit;
+
+    private final Statistics statistics;
+
+    private long memoryUsage; // guarded by this
+
+    /**
+     * @param capacity maximum number of cached graphs, a negative value means unbounded
+     * @param memoryLimit maximum approximate number of bytes used by cached graphs, a value
+     *            {@code <= 0} means unbounded
+     * @param statistics the counters to update, may be shared with a previous cache instance that
+     *            was purged
+     */
+    public EncodedGraphCache(int capacity, long memoryLimit, Statistics statistics) {
+        this.capacity = capacity;
+        this.memoryLimit = memoryLimit;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Counters of an encoded graph cache.
+     */
+    public static final class Statistics {
+
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+        final LongAdder savedTime = new LongAdder();
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        public long getEvictions() {
+            return evictions.sum();
+        }
+
+        /**
+         * Returns the total time in nanoseconds that cache hits saved by not parsing and encoding
+         * the graph again.
+         */
+        public long getSavedTime() {
+            return savedTime.sum();
+        }
+    }
+
+    private static final class Entry {
+
+        final EncodedGraph graph;
+        final long size;
+        final long creationTime;
+
+        Entry(EncodedGraph graph, long creationTime) {
+            this.graph = graph;
+            this.size = estimateSize(graph);
+            this.creationTime = creationTime;
+        }
+    }
+
+    static long estimateSize(EncodedGraph graph) {
+        long size = OBJECT_OVERHEAD + graph.getEncoding().length;
+        size += OBJECT_OVERHEAD + (long) graph.getNumObjects() * REFERENCE_SIZE;
+        if (graph.getNodeClasses() != null) {
+            size += OBJECT_OVERHEAD + (long) graph.getNodeClasses().length * REFERENCE_SIZE;
+        }
+        if (graph.getInlinedMethods() != null) {
+            size += OBJECT_OVERHEAD + (long) graph.getInlinedMethods().size() * REFERENCE_SIZE;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the cached graph without updating the hit statistics.
+     */
+    public synchronized EncodedGraph peek(ResolvedJavaMethod method) {
+        Entry entry = entries.get(method);
+        return entry != null ? entry.graph : null;
+    }
+
+    @Override
+    public EncodedGraph get(ResolvedJavaMethod method) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(method);
+        }
+        if (entry == null) {
+            statistics.misses.increment();
+            return null;
+        }
+        statistics.hits.increment();
+        statistics.savedTime.add(entry.creationTime);
+        return entry.graph;
+    }
+
+    @Override
+    public EncodedGraph put(ResolvedJavaMethod method, EncodedGraph graph) {
+        return put(method, graph, 0L);
+    }
+
+    /**
+     * Caches a graph together with the time it took to parse and encode it. The time is accounted
+     * as saved for every subsequent {@link #get(ResolvedJavaMethod) hit}.
+     */
+    public synchronized EncodedGraph put(ResolvedJavaMethod method, EncodedGraph graph, long creationTimeNanos) {
+        Entry entry = new Entry(graph, creationTimeNanos);
+        Entry previous = entries.put(method, entry);
+        memoryUsage += entry.size - (previous != null ? previous.size : 0);
+        evict();
+        return previous != null ? previous.graph : null;
+    }
+
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (eldest.hasNext() && ((capacity >= 0 && entries.size() > capacity) || (memoryLimit > 0 && memoryUsage > memoryLimit))) {
+            Entry entry = eldest.next();
+            eldest.remove();
+            memoryUsage -= entry.size;
+            statistics.evictions.increment();
+        }
+    }
+
+    @Override
+    public synchronized EncodedGraph removeKey(ResolvedJavaMethod method) {
+        Entry entry = entries.remove(method);
+        if (entry == null) {
+            return null;
+        }
+        memoryUsage -= entry.size;
+        return entry.graph;
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        memoryUsage = 0;
+    }
+
+    @Override
+    public synchronized boolean containsKey(ResolvedJavaMethod method) {
+        return entries.containsKey(method);
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /*
+     * Iteration works on a snapshot, so it neither blocks nor observes concurrent compilations.
+     */
+    private synchronized List<Map.Entry<ResolvedJavaMethod, Entry>> snapshot() {
+        return new ArrayList<>(entries.entrySet());
+    }
+
+    @Override
+    public Iterable<EncodedGraph> getValues() {
+        return () -> {
+            Iterator<Map.Entry<ResolvedJavaMethod, Entry>> iterator = snapshot().iterator();
+            return new Iterator<EncodedGraph>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public EncodedGraph next() {
+                    return iterator.next().getValue().graph;
+                }
+            };
+        };
+    }
+
+    @Override
+    public Iterable<ResolvedJavaMethod> getKeys() {
+        return () -> {
+            Iterator<Map.Entry<ResolvedJavaMethod, Entry>> iterator = snapshot().iterator();
+            return new Iterator<ResolvedJavaMethod>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public ResolvedJavaMethod next() {
+                    return iterator.next().getKey();
+                }
+            };
+        };
+    }
+
+    @Override
+    public MapCursor<ResolvedJavaMethod, EncodedGraph> getEntries() {
+        Iterator<Map.Entry<ResolvedJavaMethod, Entry>> iterator = snapshot().iterator();
+        return new MapCursor<ResolvedJavaMethod, EncodedGraph>() {
+
+            private Map.Entry<ResolvedJavaMethod, Entry> current;
+
+            @Override
+            public boolean advance() {
+                boolean result = iterator.hasNext();
+                if (result) {
+                    current = iterator.next();
+                }
+                return result;
+            }
+
+            @Override
+            public ResolvedJavaMethod getKey() {
+                return current.getKey();
+            }
+
+            @Override
+            public EncodedGraph getValue() {
+                return current.getValue().graph;
+            }
+
+            @Override
+            public void remove() {
+                synchronized (EncodedGraphCache.this) {
+                    if (entries.remove(current.getKey(), current.getValue())) {
+                        memoryUsage -= current.getValue().size;
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super ResolvedJavaMethod, ? super EncodedGraph, ? extends EncodedGraph> function) {
+        for (Map.Entry<ResolvedJavaMethod, Entry> entry : snapshot()) {
+            Entry value = entry.getValue();
+            put(entry.getKey(), function.apply(entry.getKey(), value.graph), value.creationTime);
+        }
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns the approximate number of bytes used by the cached graphs.
+     */
+    public synchronized long getMemoryUsage() {
+        return memoryUsage;
+    }
+}
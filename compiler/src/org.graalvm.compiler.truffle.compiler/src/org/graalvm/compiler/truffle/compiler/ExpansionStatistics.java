@@ -188,12 +188,15 @@ final class ExpansionStatistics {
         }
     }
 
-    void onShutdown() {
+    void onShutdown(EncodedGraphCache.Statistics graphCacheStatistics) {
         CompilableTruffleAST ast = this.previousCompilation;
         if (ast == null) {
             // cannot print without any compilations
             return;
         }
+        if (graphCacheStatistics != null) {
+            printEncodedGraphCacheStatistics(ast, graphCacheStatistics);
+        }
         for (Entry<CompilationTier, Map<ResolvedJavaMethod, Stats>> statsEntry : this.methodExpansionStatistics.entrySet()) {
             printHistogram(ast, statsEntry.getKey(), statsEntry.getValue(), ExpansionStatistics::formatQualifiedMethod, null, null, null, "Method");
         }
@@ -205,6 +208,14 @@ final class ExpansionStatistics {
         }
     }
 
+    private static void printEncodedGraphCacheStatistics(CompilableTruffleAST ast, EncodedGraphCache.Statistics statistics) {
+        long hits = statistics.getHits();
+        long misses = statistics.getMisses();
+        double hitRate = hits + misses == 0 ? 0.0 : hits * 100.0 / (hits + misses);
+        TruffleCompilerRuntime.getRuntime().log(ast, String.format("Encoded graph cache statistics: hits %d, misses %d (%.1f%% hit rate), evictions %d, parsing time saved %d ms",
+                        hits, misses, hitRate, statistics.getEvictions(), statistics.getSavedTime() / 1_000_000));
+    }
+
     private static <T, S> void printHistogram(CompilableTruffleAST ast, CompilationTier tier,
                     Map<T, Stats> statsMap, Function<T, String> labelFunction,
                     Map<S, Stats> subGroupMap, Function<S, String> subGroupLabelFunction,
@@ -197,6 +197,14 @@ public abstract class PartialEvaluator {
         return EconomicMap.create();
     }
 
+    /**
+     * Returns the statistics of the encoded graph cache shared between compilations or
+     * {@code null} if graphs are only cached within a single compilation.
+     */
+    public EncodedGraphCache.Statistics getEncodedGraphCacheStatistics() {
+        return null;
+    }
+
     /**
      * Gets the instrumentation manager associated with this compiler, creating it first if
      * necessary. Each compiler instance has its own instrumentation manager.
@@ -524,7 +532,17 @@ public abstract class PartialEvaluator {
         return new CachingPEGraphDecoder(architecture, request.graph, compilationUnitProviders, newConfig, TruffleCompilerImpl.Optimizations,
                         AllowAssumptions.ifNonNull(request.graph.getAssumptions()),
                         loopExplosionPlugin, decodingPlugins, inlineInvokePlugins, parameterPlugin, nodePluginList, callInlined,
-                        sourceLanguagePositionProvider, postParsingPhase, graphCache);
+                        sourceLanguagePositionProvider, postParsingPhase, graphCache) {
+            @Override
+            protected void cacheEncodedGraph(ResolvedJavaMethod method, EncodedGraph encodedGraph, long creationTime) {
+                if (graphCache instanceof EncodedGraphCache) {
+                    // remember the parsing time to account it as saved on cache hits
+                    ((EncodedGraphCache) graphCache).put(method, encodedGraph, creationTime);
+                } else {
+                    super.cacheEncodedGraph(method, encodedGraph, creationTime);
+                }
+            }
+        };
     }
 
     public void doGraphPE(Request request, InlineInvokePlugin inlineInvokePlugin, EconomicMap<ResolvedJavaMethod, EncodedGraph> graphCache) {
@@ -85,6 +85,10 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
     @Input private ValueNode frameDefaultValue;
     private final boolean intrinsifyAccessors;
     private final JavaKind[] frameSlotKinds;
+    /*
+     * The declared frame slot tags if the descriptor has static slot kinds, otherwise null.
+     */
+    private final int[] staticSlotTags;
     private final int frameSize;
 
     private final SpeculationReason intrinsifyAccessorsSpeculation;
@@ -159,7 +163,10 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
         final int slotsArrayLength = constantReflection.readArrayLength(slotArray);
         final int frameLength = constantReflection.readFieldValue(types.fieldFrameDescriptorSize, frameDescriptor).asInt();
 
+        final boolean staticSlotKinds = constantReflection.readFieldValue(types.fieldFrameDescriptorStaticSlotKinds, frameDescriptor).asBoolean();
+
         JavaKind[] frameSlotKindsCandidate = new JavaKind[frameLength];
+        int[] staticSlotTagsCandidate = staticSlotKinds ? new int[frameLength] : null;
         int limit = -1;
         for (int i = 0; i < slotsArrayLength; i++) {
             JavaConstant slot = constantReflection.readArrayElement(slotArray, i);
@@ -167,7 +174,8 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
                 JavaConstant slotKind = constantReflection.readFieldValue(types.fieldFrameSlotKind, slot);
                 JavaConstant slotIndex = constantReflection.readFieldValue(types.fieldFrameSlotIndex, slot);
                 if (slotKind.isNonNull() && slotIndex.isNonNull()) {
-                    final JavaKind kind = asJavaKind(constantReflection.readFieldValue(types.fieldFrameSlotKindTag, slotKind));
+                    final JavaConstant slotTag = constantReflection.readFieldValue(types.fieldFrameSlotKindTag, slotKind);
+                    final JavaKind kind = asJavaKind(slotTag);
                     final int index = slotIndex.asInt();
                     limit = Math.max(index, limit);
                     if (index >= frameLength) {
@@ -180,12 +188,19 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
                         final JavaKind[] newArray = new JavaKind[index + 1];
                         System.arraycopy(frameSlotKindsCandidate, 0, newArray, 0, frameSlotKindsCandidate.length);
                         frameSlotKindsCandidate = newArray;
+                        if (staticSlotTagsCandidate != null) {
+                            staticSlotTagsCandidate = Arrays.copyOf(staticSlotTagsCandidate, index + 1);
+                        }
                     }
                     frameSlotKindsCandidate[index] = kind;
+                    if (staticSlotTagsCandidate != null) {
+                        staticSlotTagsCandidate[index] = slotTag.asInt();
+                    }
                 }
             }
         }
         this.frameSlotKinds = frameSlotKindsCandidate;
+        this.staticSlotTags = staticSlotTagsCandidate;
         this.frameSize = limit + 1;
 
         ResolvedJavaType frameType = types.classFrameClass;
@@ -228,6 +243,15 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
         return index >= 0 && index < frameSize && frameSlotKinds[index] != null;
     }
 
+    public boolean hasStaticSlotKinds() {
+        return staticSlotTags != null;
+    }
+
+    public int getStaticSlotTag(int index) {
+        assert hasStaticSlotKinds() && isValidSlotIndex(index);
+        return staticSlotTags[index];
+    }
+
     private static ResolvedJavaField findField(ResolvedJavaField[] fields, String fieldName) {
         for (ResolvedJavaField field : fields) {
             if (field.getName().equals(fieldName)) {
@@ -255,7 +279,17 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
         if (frameSize > 0) {
             Arrays.fill(objectArrayEntryState, frameDefaultValue);
             if (virtualFrameTagArray != null) {
-                Arrays.fill(tagArrayEntryState, smallIntConstants.get(0));
+                if (staticSlotTags != null) {
+                    /*
+                     * Slots with static kinds are never tagged dynamically, so the virtual tags start
+                     * out with the declared kinds and accesses with the declared kind fold away.
+                     */
+                    for (int i = 0; i < frameSize; i++) {
+                        tagArrayEntryState[i] = smallIntConstants.get(frameSlotKinds[i] != null ? staticSlotTags[i] : 0);
+                    }
+                } else {
+                    Arrays.fill(tagArrayEntryState, smallIntConstants.get(0));
+                }
             }
             if (virtualFramePrimitiveArray != null) {
                 for (int i = 0; i < frameSize; i++) {
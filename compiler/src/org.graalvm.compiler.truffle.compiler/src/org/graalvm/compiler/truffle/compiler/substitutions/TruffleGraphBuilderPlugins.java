@@ -600,6 +600,17 @@ public class TruffleGraphBuilderPlugins {
                 int frameSlotIndex = maybeGetConstantFrameSlotIndex(receiver, frameSlot, constantReflection, types);
                 if (frameSlotIndex >= 0) {
                     TruffleCompilerRuntime runtime = getRuntime();
+                    NewFrameNode newFrameNode = (NewFrameNode) receiver.get(false);
+                    if (newFrameNode.hasStaticSlotKinds()) {
+                        /*
+                         * Slots with static kinds keep their kind when cleared, only the value is
+                         * reset to the default of the kind.
+                         */
+                        int staticTag = newFrameNode.getStaticSlotTag(frameSlotIndex);
+                        JavaKind staticKind = runtime.getJavaKindForFrameSlotKind(staticTag);
+                        b.add(new VirtualFrameSetNode(receiver, frameSlotIndex, staticTag, ConstantNode.defaultForKind(staticKind, b.getGraph())));
+                        return true;
+                    }
                     b.add(new VirtualFrameClearNode(receiver, frameSlotIndex, runtime.getFrameSlotKindTagForJavaKind(JavaKind.Illegal)));
                     return true;
                 }
@@ -256,6 +256,28 @@ public final class PolyglotCompilerOptions {
             category = OptionCategory.EXPERT)
     public static final OptionKey<Long> CompilerIdleDelay = new OptionKey<>(1000L);
 
+    @Option(help = "Grow and shrink the number of compiler threads between MinCompilerThreads and MaxCompilerThreads depending on the compile queue length, " +
+            "the time the oldest compilation has been waiting in the queue and the CPU load of the process.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Boolean> CompilerThreadScaling = new OptionKey<>(false);
+
+    @Option(help = "Minimum number of compiler threads kept when CompilerThreadScaling is enabled.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> MinCompilerThreads = new OptionKey<>(1);
+
+    @Option(help = "Maximum number of compiler threads started when CompilerThreadScaling is enabled. Select '0' to use the number of available processors.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> MaxCompilerThreads = new OptionKey<>(0);
+
+    @Option(help = "Minimum time in milliseconds between two compiler thread scaling decisions.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> CompilerThreadScalingInterval = new OptionKey<>(100);
+
+    @Option(help = "Add a compiler thread when the oldest queued compilation has waited longer than this many milliseconds.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> CompilerThreadScalingMaxQueueAge = new OptionKey<>(50);
+
+    @Option(help = "Do not add compiler threads while the CPU load of the process, relative to all available processors, is above this percentage.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> CompilerThreadScalingMaxLoad = new OptionKey<>(90);
+
+    @Option(help = "Print compiler thread scaling decisions and the compile queue metrics they are based on.", category = OptionCategory.INTERNAL)
+    public static final OptionKey<Boolean> TraceCompilerThreadScaling = new OptionKey<>(false);
+
     @Option(help = "Minimum number of invocations or loop iterations needed to compile a guest language root.",
                     category = OptionCategory.EXPERT)
     public static final OptionKey<Integer> CompilationThreshold = new OptionKey<>(10000);
@@ -269,6 +291,17 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Delay compilation after a node replacement. Deprecated: no longer has any effect.", category = OptionCategory.EXPERT, deprecated =  true)
     public static final OptionKey<Integer> ReplaceReprofileCount = new OptionKey<>(3);
 
+    @Option(help = "Number of invalidations of a call target, or of compilations depending on the same assumption, within the deoptimization storm window after which " +
+            "the repeatedly invalidated speculation is backed off. Type speculations are disabled, otherwise the recompilation is delayed exponentially (0 disables the detection).",
+            category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> DeoptimizationStormThreshold = new OptionKey<>(16);
+
+    @Option(help = "Time window, in milliseconds, in which invalidations are counted for the deoptimization storm detection.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> DeoptimizationStormWindow = new OptionKey<>(10_000);
+
+    @Option(help = "Print detected deoptimization storms and, when the engine is closed, the most frequently invalidated call targets and assumptions.", category = OptionCategory.INTERNAL)
+    public static final OptionKey<Boolean> TraceDeoptimizationStorms = new OptionKey<>(false);
+
     @Option(help = "Speculate on arguments types at call sites", category = OptionCategory.INTERNAL)
     public static final OptionKey<Boolean> ArgumentTypeSpeculation = new OptionKey<>(true);
 
@@ -481,9 +514,13 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Instrument branches by considering different inlining sites as different branches.", category = OptionCategory.INTERNAL)
     public static final OptionKey<Boolean> InstrumentBranchesPerInlineSite = new OptionKey<>(false);
 
-    @Option(help = "Maximum number of entries in the encoded graph cache (< 0 unbounded, 0 disabled).", category = OptionCategory.EXPERT)
+    @Option(help = "Maximum number of entries in the encoded graph cache shared by all compilations (< 0 unbounded, 0 disabled).", category = OptionCategory.EXPERT)
     public static final OptionKey<Integer> EncodedGraphCacheCapacity = new OptionKey<>(0);
 
+    @Option(help = "Maximum memory, in megabytes, used by the graphs in the encoded graph cache if it is enabled. " +
+            "The least recently used graphs are evicted when the limit is exceeded (0 unbounded).", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> EncodedGraphCacheMemoryLimit = new OptionKey<>(64);
+
     @Option(help = "Delay, in milliseconds, after which the encoded graph cache is dropped when the compile queue becomes idle." +
             "The option is only supported on the HotSpot (non-libgraal) Truffle runtime." +
             "On runtimes which doesn't support it the option has no effect.",
@@ -501,6 +538,34 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Use a configurable compilation queue.", category = OptionCategory.INTERNAL)
     public static final OptionKey<Boolean> ConfigurableCompilationQueue = new OptionKey<>(false);
 
+    @Option(help = "Use a compilation queue that drops stale compilation tasks, coalesces the first and last tier requests of a call target " +
+            "and selects the task whose call target's call and loop count grows fastest.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Boolean> TraversingCompilationQueue = new OptionKey<>(false);
+
+    // Compilation cache
+
+    @Option(help = "Directory used to persist the compilation state of call targets when the engine is closed. " +
+            "Call targets that are found in the cache of a previous run are compiled after a short warm-up instead of waiting for the compilation thresholds. " +
+            "The cache is disabled if no directory is set.",
+            category = OptionCategory.EXPERT)
+    public static final OptionKey<String> CompilationCacheDirectory = new OptionKey<>(null, OptionType.defaultType(String.class));
+
+    @Option(help = "Number of calls after which a call target found in the compilation cache is submitted for compilation.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> CompilationCacheWarmupCalls = new OptionKey<>(3);
+
+    @Option(help = "Call targets that were invalidated more often than this in the recorded run are compiled using the regular thresholds.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> CompilationCacheMaxInvalidations = new OptionKey<>(8);
+
+    @Option(help = "Maximum number of call targets stored in the compilation cache. Least recently compiled call targets are dropped first.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> CompilationCacheMaxEntries = new OptionKey<>(65536);
+
+    @Option(help = "Record the argument and return type profiles and the splitting decisions of call targets in the compilation cache and seed them in later runs. " +
+            "Call targets that reached the last tier are compiled directly in the last tier.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Boolean> CompilationCacheProfiles = new OptionKey<>(true);
+
+    @Option(help = "Print information about loading, validating and storing the compilation cache.", category = OptionCategory.INTERNAL)
+    public static final OptionKey<Boolean> TraceCompilationCache = new OptionKey<>(false);
+
     // Language agnostic inlining
 
     @Option(help = "Print detailed information for inlining (i.e. the entire explored call tree).", category = OptionCategory.INTERNAL)
@@ -503,12 +503,17 @@ public abstract class AbstractHotSpotTruffleRuntime extends GraalTruffleRuntime
         return value;
     }
 
-    private static <T> T getVMOptionValue(String name, Class<T> type) {
+    private static HotSpotVMConfigAccess getVMConfigAccess() {
         HotSpotVMConfigAccess vmConfig = vmConfigAccess;
         if (vmConfig == null) {
             vmConfig = new HotSpotVMConfigAccess(HotSpotJVMCIRuntime.runtime().getConfigStore());
             vmConfigAccess = vmConfig;
         }
+        return vmConfig;
+    }
+
+    private static <T> T getVMOptionValue(String name, Class<T> type) {
+        HotSpotVMConfigAccess vmConfig = getVMConfigAccess();
         try {
             return vmConfig.getFlag(name, type);
         } catch (JVMCIError jvmciError) {
@@ -547,6 +552,41 @@ public abstract class AbstractHotSpotTruffleRuntime extends GraalTruffleRuntime
         return hsConstant.asObject(type);
     }
 
+    @Override
+    protected void setThreadLocalActionPending(Thread thread, boolean pending) {
+        ThreadLocalActionHelper.setPending(thread, pending);
+    }
+
+    /**
+     * Publishes the pending thread local action flag in {@code JavaThread::_jvmci_reserved0}, where
+     * the safepoint poll of compiled code reads it relative to the current thread register.
+     */
+    private static final class ThreadLocalActionHelper {
+        private static final long THREAD_EETOP_OFFSET;
+        private static final int PENDING_OFFSET = getVMConfigAccess().getFieldOffset("JavaThread::_jvmci_reserved0", Integer.class, "jlong", -1);
+
+        static {
+            try {
+                THREAD_EETOP_OFFSET = UNSAFE.objectFieldOffset(Thread.class.getDeclaredField("eetop"));
+            } catch (Exception e) {
+                throw new InternalError(e);
+            }
+        }
+
+        static void setPending(Thread thread, boolean pending) {
+            if (PENDING_OFFSET == -1) {
+                return;
+            }
+            // The VM clears eetop while holding the monitor of the thread when the thread exits.
+            synchronized (thread) {
+                long eetop = UNSAFE.getLong(thread, THREAD_EETOP_OFFSET);
+                if (eetop != 0) {
+                    UNSAFE.putIntVolatile(null, eetop + PENDING_OFFSET, pending ? 1 : 0);
+                }
+            }
+        }
+    }
+
     private static class TraceTransferToInterpreterHelper {
         private static final long THREAD_EETOP_OFFSET;
 
@@ -24,11 +24,15 @@
  */
 package org.graalvm.compiler.truffle.runtime;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
@@ -40,10 +44,12 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.logging.Level;
 
 import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
 import org.graalvm.compiler.truffle.runtime.collection.BTreeQueue;
 import org.graalvm.compiler.truffle.runtime.collection.DelegatingBlockingQueue;
+import org.graalvm.options.OptionValues;
 
 /**
  * The compilation queue accepts compilation requests, and schedules compilations.
@@ -54,6 +60,14 @@ import org.graalvm.compiler.truffle.runtime.collection.DelegatingBlockingQueue;
  * (first-in-first-out).
  *
  * Note that all the compilation requests are second tier when the multi-tier option is turned off.
+ *
+ * If {@link PolyglotCompilerOptions#CompilerThreadScaling} is enabled, the number of compiler
+ * threads is re-evaluated at most once per
+ * {@link PolyglotCompilerOptions#CompilerThreadScalingInterval interval} when compilations are
+ * submitted or finished. Threads are added while the oldest queued compilation waits longer than
+ * {@link PolyglotCompilerOptions#CompilerThreadScalingMaxQueueAge} and the CPU load of the process
+ * allows it, and removed one at a time once the queue is drained and threads become idle. The queue
+ * is shared by all engines, so the scaling options of all engines that enable it are merged.
  */
 public class BackgroundCompileQueue {
 
@@ -63,6 +77,16 @@ public class BackgroundCompileQueue {
     private volatile BlockingQueue<Runnable> compilationQueue;
     private boolean shutdown = false;
     private long delayMillis;
+    private volatile long metricsIntervalNanos;
+
+    // compiler thread scaling, merged from all engines that enable it, written while holding this
+    private volatile boolean threadScaling;
+    private volatile int minThreads;
+    private volatile int maxThreads;
+    private volatile long maxQueueAgeNanos;
+    private volatile int maxLoadPercent;
+    private final AtomicLong nextScalingTime = new AtomicLong(System.nanoTime());
+    private final Set<EngineData> scalingEngines = Collections.newSetFromMap(new WeakHashMap<>());
 
     public BackgroundCompileQueue(GraalTruffleRuntime runtime) {
         this.runtime = runtime;
@@ -75,8 +99,8 @@ public class BackgroundCompileQueue {
         return 31 - Integer.numberOfLeadingZeros(n);
     }
 
-    private ExecutorService getExecutorService(OptimizedCallTarget callTarget) {
-        ExecutorService service = this.compilationExecutorService;
+    private ThreadPoolExecutor getExecutorService(OptimizedCallTarget callTarget) {
+        ThreadPoolExecutor service = this.compilationExecutorService;
         if (service != null) {
             return service;
         }
@@ -126,12 +150,16 @@ public class BackgroundCompileQueue {
             }
             threads = Math.max(1, threads);
 
+            this.metricsIntervalNanos = TimeUnit.MILLISECONDS.toNanos(callTarget.getOptionValue(PolyglotCompilerOptions.CompilerThreadScalingInterval));
+
             ThreadFactory factory = newThreadFactory("TruffleCompilerThread", callTarget);
 
             long compilerIdleDelay = runtime.getCompilerIdleDelay(callTarget);
             long keepAliveTime = compilerIdleDelay >= 0 ? compilerIdleDelay : 0;
 
-            if (callTarget.getOptionValue(PolyglotCompilerOptions.ConfigurableCompilationQueue)) {
+            if (callTarget.getOptionValue(PolyglotCompilerOptions.TraversingCompilationQueue)) {
+                this.compilationQueue = new TraversingBlockingQueue();
+            } else if (callTarget.getOptionValue(PolyglotCompilerOptions.ConfigurableCompilationQueue)) {
                 this.compilationQueue = new DelegatingBlockingQueue<>(new BTreeQueue<>());
             } else {
                 this.compilationQueue = new IdlingPriorityBlockingQueue<>();
@@ -144,6 +172,16 @@ public class BackgroundCompileQueue {
                 protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
                     return (RunnableFuture<T>) new CompilationTask.ExecutorServiceWrapper((CompilationTask) callable);
                 }
+
+                @Override
+                protected void beforeExecute(Thread t, Runnable r) {
+                    taskDequeued(((CompilationTask.ExecutorServiceWrapper) r).compileTask);
+                }
+
+                @Override
+                protected void afterExecute(Runnable r, Throwable t) {
+                    taskFinished(((CompilationTask.ExecutorServiceWrapper) r).compileTask);
+                }
             };
 
             if (compilerIdleDelay > 0) {
@@ -163,10 +201,136 @@ public class BackgroundCompileQueue {
     }
 
     private CompilationTask submitTask(CompilationTask compilationTask) {
-        compilationTask.setFuture(getExecutorService(compilationTask.targetRef.get()).submit(compilationTask));
+        ThreadPoolExecutor executorService = getExecutorService(compilationTask.targetRef.get());
+        EngineData engine = compilationTask.engineData;
+        if (engine != null) {
+            applyThreadScalingOptions(executorService, engine);
+            engine.compilationQueueMetrics.taskQueued();
+        }
+        try {
+            compilationTask.setFuture(executorService.submit(compilationTask));
+        } catch (RejectedExecutionException e) {
+            if (engine != null) {
+                engine.compilationQueueMetrics.taskRejected();
+            }
+            throw e;
+        }
+        if (threadScaling) {
+            scaleCompilerThreads(System.nanoTime(), engine);
+        }
         return compilationTask;
     }
 
+    /**
+     * Merges the compiler thread scaling options of an engine into the options of this queue the
+     * first time the engine submits a task. The pool may grow to the largest maximum and keeps the
+     * largest minimum of all engines, the most eager queue age, load and interval options win.
+     */
+    private synchronized void applyThreadScalingOptions(ThreadPoolExecutor executor, EngineData engine) {
+        if (!scalingEngines.add(engine)) {
+            return;
+        }
+        OptionValues options = engine.engineOptions;
+        if (!options.get(PolyglotCompilerOptions.CompilerThreadScaling)) {
+            return;
+        }
+        int max = options.get(PolyglotCompilerOptions.MaxCompilerThreads);
+        int engineMaxThreads = Math.max(1, max > 0 ? max : Runtime.getRuntime().availableProcessors());
+        int engineMinThreads = Math.max(1, Math.min(options.get(PolyglotCompilerOptions.MinCompilerThreads), engineMaxThreads));
+        long engineMaxQueueAgeNanos = TimeUnit.MILLISECONDS.toNanos(options.get(PolyglotCompilerOptions.CompilerThreadScalingMaxQueueAge));
+        int engineMaxLoadPercent = options.get(PolyglotCompilerOptions.CompilerThreadScalingMaxLoad);
+        long engineIntervalNanos = TimeUnit.MILLISECONDS.toNanos(options.get(PolyglotCompilerOptions.CompilerThreadScalingInterval));
+        if (threadScaling) {
+            maxThreads = Math.max(maxThreads, engineMaxThreads);
+            minThreads = Math.max(minThreads, engineMinThreads);
+            maxQueueAgeNanos = Math.min(maxQueueAgeNanos, engineMaxQueueAgeNanos);
+            maxLoadPercent = Math.max(maxLoadPercent, engineMaxLoadPercent);
+            metricsIntervalNanos = Math.min(metricsIntervalNanos, engineIntervalNanos);
+        } else {
+            maxThreads = engineMaxThreads;
+            minThreads = engineMinThreads;
+            maxQueueAgeNanos = engineMaxQueueAgeNanos;
+            maxLoadPercent = engineMaxLoadPercent;
+            metricsIntervalNanos = engineIntervalNanos;
+        }
+        if (executor.getMaximumPoolSize() < maxThreads) {
+            executor.setMaximumPoolSize(maxThreads);
+        }
+        executor.setCorePoolSize(Math.max(minThreads, Math.min(executor.getCorePoolSize(), maxThreads)));
+        threadScaling = true;
+    }
+
+    private static void taskDequeued(CompilationTask task) {
+        long now = System.nanoTime();
+        task.dequeueTime = now;
+        EngineData engine = task.engineData;
+        if (engine != null) {
+            engine.compilationQueueMetrics.taskDequeued(now - task.queueTime);
+        }
+    }
+
+    private void taskFinished(CompilationTask task) {
+        long now = System.nanoTime();
+        EngineData engine = task.engineData;
+        if (engine != null && task.isStarted()) {
+            CompilationQueueMetrics metrics = engine.compilationQueueMetrics;
+            metrics.compilationFinished(now - task.dequeueTime, compilationExecutorService.getCorePoolSize());
+            if (metrics.claimPublish(now, metricsIntervalNanos)) {
+                if (engine.engineOptions.get(PolyglotCompilerOptions.TraceCompilerThreadScaling)) {
+                    engine.getEngineLogger().log(Level.INFO, String.format("[compiler-threads] Engine %d: %s", engine.id, metrics));
+                }
+                runtime.getListener().onCompilationQueueMetrics(engine, metrics);
+            }
+        }
+        if (threadScaling) {
+            scaleCompilerThreads(now, engine);
+        }
+    }
+
+    /**
+     * Grows or shrinks the compiler thread pool depending on the length and the age of the compile
+     * queue and on the CPU load of the process. Decisions are made at most once per scaling interval, the
+     * caller that claims the interval makes the decision.
+     */
+    private void scaleCompilerThreads(long now, EngineData engine) {
+        long next = nextScalingTime.get();
+        if (now - next < 0 || !nextScalingTime.compareAndSet(next, now + metricsIntervalNanos)) {
+            return;
+        }
+        ThreadPoolExecutor executor = compilationExecutorService;
+        if (executor == null || executor.isShutdown()) {
+            return;
+        }
+        int queued = 0;
+        long oldestQueueTime = now;
+        for (CompilationTask.ExecutorServiceWrapper wrapper : compilationQueue.toArray(new CompilationTask.ExecutorServiceWrapper[0])) {
+            CompilationTask task = wrapper.compileTask;
+            if (!wrapper.isCancelled() && !task.isCancelled()) {
+                queued++;
+                oldestQueueTime = Math.min(oldestQueueTime, task.queueTime);
+            }
+        }
+        long oldestAge = now - oldestQueueTime;
+        int load = ProcessLoad.percent();
+        int current = executor.getCorePoolSize();
+        int threads = current;
+        if (queued > 0 && oldestAge > maxQueueAgeNanos) {
+            if (load < maxLoadPercent) {
+                // Grow by at most a factor of two per interval, never beyond the queue length.
+                threads = Math.min(maxThreads, Math.max(current + 1, Math.min(current * 2, queued)));
+            }
+        } else if ((queued == 0 && executor.getActiveCount() < current) || load >= maxLoadPercent) {
+            threads = Math.max(minThreads, current - 1);
+        }
+        if (threads != current) {
+            executor.setCorePoolSize(threads);
+            if (engine != null && engine.engineOptions.get(PolyglotCompilerOptions.TraceCompilerThreadScaling)) {
+                engine.getEngineLogger().log(Level.INFO, String.format("[compiler-threads] Changed compiler threads from %d to %d (queued=%d, oldest=%.3fms, load=%d%%).",
+                                current, threads, queued, oldestAge / 1e6, load));
+            }
+        }
+    }
+
     public CompilationTask submitCompilation(Priority priority, OptimizedCallTarget target) {
         final WeakReference<OptimizedCallTarget> targetReference = new WeakReference<>(target);
         CompilationTask compilationTask = CompilationTask.createCompilationTask(priority, targetReference, nextId());
@@ -179,10 +343,29 @@ public class BackgroundCompileQueue {
         return submitTask(initializationTask);
     }
 
+    /**
+     * Turns a queued first tier compilation into a last tier compilation. This is only supported
+     * by the {@link TraversingBlockingQueue}, since other queues order tasks on insertion.
+     *
+     * @return {@code true} if the task was upgraded
+     */
+    boolean upgradeToLastTier(CompilationTask task) {
+        return compilationQueue instanceof TraversingBlockingQueue && task.upgradeToLastTier();
+    }
+
     private long nextId() {
         return idCounter.getAndIncrement();
     }
 
+    /**
+     * Returns the number of compiler threads the pool currently keeps, or {@code 0} if no task was
+     * submitted yet.
+     */
+    public int getCompilerThreadCount() {
+        ThreadPoolExecutor executor = compilationExecutorService;
+        return executor != null ? executor.getCorePoolSize() : 0;
+    }
+
     public int getQueueSize() {
         final ExecutorService threadPool = compilationExecutorService;
         if (threadPool instanceof ThreadPoolExecutor) {
@@ -246,6 +429,25 @@ public class BackgroundCompileQueue {
         // nop
     }
 
+    /**
+     * Recent CPU usage of this process relative to all available processors, in percent, or
+     * {@code 0} if the platform does not provide it.
+     */
+    private static final class ProcessLoad {
+
+        private static final OperatingSystemMXBean OPERATING_SYSTEM = ManagementFactory.getOperatingSystemMXBean();
+
+        static int percent() {
+            if (OPERATING_SYSTEM instanceof com.sun.management.OperatingSystemMXBean) {
+                double load = ((com.sun.management.OperatingSystemMXBean) OPERATING_SYSTEM).getProcessCpuLoad();
+                if (load >= 0) {
+                    return (int) (load * 100);
+                }
+            }
+            return 0;
+        }
+    }
+
     static class Priority {
 
         public static final Priority INITIALIZATION = new Priority(0, Tier.INITIALIZATION);
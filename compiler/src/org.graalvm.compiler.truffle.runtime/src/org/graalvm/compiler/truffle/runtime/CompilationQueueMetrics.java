@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compile queue metrics of a single engine. The metrics are updated by the
+ * {@link BackgroundCompileQueue} and published to
+ * {@link GraalTruffleRuntimeListener#onCompilationQueueMetrics(EngineData, CompilationQueueMetrics)
+ * listeners} as compilations of the engine complete.
+ * <p>
+ * Percentiles are computed over the most recent {@value #WINDOW_SIZE} samples. All times are in
+ * nanoseconds.
+ */
+public final class CompilationQueueMetrics {
+
+    static final int WINDOW_SIZE = 1024;
+
+    private final AtomicInteger queueLength = new AtomicInteger();
+    private final AtomicLong avoidedCompilations = new AtomicLong();
+    private final AtomicLong nextPublishTime = new AtomicLong(System.nanoTime());
+    private final Samples dequeueLatencies = new Samples(WINDOW_SIZE);
+    private final Samples compilationTimes = new Samples(WINDOW_SIZE);
+    private volatile int compilerThreads;
+
+    CompilationQueueMetrics() {
+    }
+
+    /**
+     * Returns the number of tasks of this engine currently waiting in the compile queue.
+     */
+    public int getQueueLength() {
+        return queueLength.get();
+    }
+
+    /**
+     * Returns the number of compiler threads the shared compile queue used at the last update.
+     */
+    public int getCompilerThreads() {
+        return compilerThreads;
+    }
+
+    /**
+     * Returns the number of tasks of this engine taken from the compile queue.
+     */
+    public long getDequeueCount() {
+        return dequeueLatencies.getCount();
+    }
+
+    /**
+     * Returns the number of compilations of this engine that ran to completion or failure.
+     */
+    public long getCompilationCount() {
+        return compilationTimes.getCount();
+    }
+
+    /**
+     * Returns the number of compilations of this engine that were dropped or coalesced by the
+     * {@link org.graalvm.compiler.truffle.options.PolyglotCompilerOptions#TraversingCompilationQueue
+     * traversing compilation queue}.
+     */
+    public long getAvoidedCompilationCount() {
+        return avoidedCompilations.get();
+    }
+
+    /**
+     * Returns the time between submission and dequeue of a task below which the given percentage
+     * of the recent tasks were dequeued, or {@code 0} if no tasks were dequeued yet.
+     *
+     * @param percentile a percentage between {@code 0} and {@code 100}
+     */
+    public long getDequeueLatencyPercentile(double percentile) {
+        return dequeueLatencies.percentile(percentile);
+    }
+
+    /**
+     * Returns the compilation time below which the given percentage of the recent compilations
+     * finished, or {@code 0} if no compilation finished yet.
+     *
+     * @param percentile a percentage between {@code 0} and {@code 100}
+     */
+    public long getCompilationTimePercentile(double percentile) {
+        return compilationTimes.percentile(percentile);
+    }
+
+    void taskQueued() {
+        queueLength.incrementAndGet();
+    }
+
+    void taskDequeued(long latency) {
+        queueLength.decrementAndGet();
+        dequeueLatencies.add(latency);
+    }
+
+    void compilationAvoided() {
+        avoidedCompilations.incrementAndGet();
+    }
+
+    void taskRejected() {
+        queueLength.decrementAndGet();
+    }
+
+    void compilationFinished(long time, int threads) {
+        compilationTimes.add(time);
+        compilerThreads = threads;
+    }
+
+    /**
+     * Returns {@code true} if the caller should publish the metrics. Publishing is limited to once
+     * per {@code interval} nanoseconds.
+     */
+    boolean claimPublish(long now, long interval) {
+        long next = nextPublishTime.get();
+        return now - next >= 0 && nextPublishTime.compareAndSet(next, now + interval);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("queue=%d, threads=%d, dequeue latency p50=%.3fms p90=%.3fms p99=%.3fms, compilation time p50=%.3fms p90=%.3fms p99=%.3fms",
+                        getQueueLength(), getCompilerThreads(),
+                        getDequeueLatencyPercentile(50) / 1e6, getDequeueLatencyPercentile(90) / 1e6, getDequeueLatencyPercentile(99) / 1e6,
+                        getCompilationTimePercentile(50) / 1e6, getCompilationTimePercentile(90) / 1e6, getCompilationTimePercentile(99) / 1e6);
+    }
+
+    /**
+     * Fixed size ring buffer of the most recent samples.
+     */
+    private static final class Samples {
+
+        private final long[] values;
+        private long count;
+
+        Samples(int size) {
+            this.values = new long[size];
+        }
+
+        synchronized void add(long value) {
+            values[(int) (count % values.length)] = value;
+            count++;
+        }
+
+        synchronized long getCount() {
+            return count;
+        }
+
+        long percentile(double percentile) {
+            long[] sorted;
+            synchronized (this) {
+                if (count == 0) {
+                    return 0;
+                }
+                sorted = Arrays.copyOf(values, (int) Math.min(count, values.length));
+            }
+            Arrays.sort(sorted);
+            double p = Math.max(0, Math.min(100, percentile));
+            int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, index)];
+        }
+    }
+}
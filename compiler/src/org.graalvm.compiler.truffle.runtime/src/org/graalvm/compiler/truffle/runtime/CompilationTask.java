@@ -41,9 +41,14 @@ import com.oracle.truffle.api.Truffle;
 public final class CompilationTask implements TruffleCompilationTask, Callable<Void>, Comparable<CompilationTask> {
 
     final WeakReference<OptimizedCallTarget> targetRef;
-    private final BackgroundCompileQueue.Priority priority;
+    final EngineData engineData;
+    final long queueTime = System.nanoTime();
+    long dequeueTime;
+    private volatile BackgroundCompileQueue.Priority priority;
     private final boolean multiTier;
     private final boolean priorityQueue;
+    private final boolean dropStale;
+    private final int queueCallAndLoopCount;
     private final long id;
     private final Consumer<CompilationTask> action;
     private volatile Future<?> future;
@@ -53,7 +58,9 @@ public final class CompilationTask implements TruffleCompilationTask, Callable<V
         @Override
         public void accept(CompilationTask task) {
             OptimizedCallTarget callTarget = task.targetRef.get();
-            if (callTarget != null && task.start()) {
+            if (task.dropStale && (callTarget == null || !callTarget.needsCompile(task.isLastTier()))) {
+                task.drop(callTarget);
+            } else if (callTarget != null && task.start()) {
                 try {
                     ((GraalTruffleRuntime) Truffle.getRuntime()).doCompile(callTarget, task);
                 } finally {
@@ -77,8 +84,11 @@ public final class CompilationTask implements TruffleCompilationTask, Callable<V
         this.action = action;
         this.id = id;
         OptimizedCallTarget target = targetRef.get();
+        engineData = target != null ? target.engine : null;
         priorityQueue = target != null && target.getOptionValue(PolyglotCompilerOptions.PriorityQueue);
         multiTier = target != null && target.getOptionValue(PolyglotCompilerOptions.MultiTier);
+        dropStale = target != null && target.getOptionValue(PolyglotCompilerOptions.TraversingCompilationQueue);
+        queueCallAndLoopCount = target != null ? target.getCallAndLoopCount() : 0;
     }
 
     public void awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
@@ -120,6 +130,69 @@ public final class CompilationTask implements TruffleCompilationTask, Callable<V
         return true;
     }
 
+    boolean isStarted() {
+        return started;
+    }
+
+    boolean isInitialization() {
+        return priority.tier == BackgroundCompileQueue.Priority.Tier.INITIALIZATION;
+    }
+
+    /**
+     * Determines if running this task would not compile anything: the task was cancelled, its call
+     * target was collected or, if stale tasks are dropped, its call target was already compiled
+     * for the requested tier.
+     */
+    boolean isStale() {
+        if (cancelled) {
+            return true;
+        }
+        OptimizedCallTarget target = targetRef.get();
+        if (target == null) {
+            return true;
+        }
+        return dropStale && !isInitialization() && !target.needsCompile(isLastTier());
+    }
+
+    /**
+     * Cancels a stale compilation before it starts and records it as avoided.
+     */
+    private void drop(OptimizedCallTarget target) {
+        if (cancel()) {
+            if (target != null) {
+                GraalTruffleRuntime.getRuntime().getListener().onCompilationDequeued(target, null, "Call target already compiled.", tier());
+            }
+            if (engineData != null) {
+                engineData.compilationQueueMetrics.compilationAvoided();
+            }
+        }
+    }
+
+    /**
+     * Turns this first tier compilation into a last tier compilation if it did not start yet. Only
+     * valid for queues that do not order tasks on insertion.
+     */
+    synchronized boolean upgradeToLastTier() {
+        if (started || cancelled || priority.tier != BackgroundCompileQueue.Priority.Tier.FIRST) {
+            return false;
+        }
+        priority = new BackgroundCompileQueue.Priority(priority.value, BackgroundCompileQueue.Priority.Tier.LAST);
+        return true;
+    }
+
+    /**
+     * Returns how many calls and loop iterations per millisecond the call target executed since
+     * this task was queued.
+     */
+    double velocity(long now) {
+        OptimizedCallTarget target = targetRef.get();
+        if (target == null) {
+            return 0;
+        }
+        long elapsed = Math.max(1, now - queueTime);
+        return (target.getCallAndLoopCount() - queueCallAndLoopCount) * 1_000_000d / elapsed;
+    }
+
     @Override
     public boolean isCancelled() {
         return cancelled;
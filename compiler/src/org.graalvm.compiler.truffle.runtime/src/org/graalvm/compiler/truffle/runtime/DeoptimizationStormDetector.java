@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Detects call targets whose compiled code is invalidated over and over again, a pattern that
+ * floods the compile queue with recompilations that are invalidated soon after being installed.
+ * <p>
+ * Invalidations are counted per call target and per {@link Assumption} within a sliding time
+ * window. A call target is in a deoptimization storm if it was invalidated
+ * {@link org.graalvm.compiler.truffle.options.PolyglotCompilerOptions#DeoptimizationStormThreshold
+ * threshold} times within the
+ * {@link org.graalvm.compiler.truffle.options.PolyglotCompilerOptions#DeoptimizationStormWindow
+ * window}, or if it is invalidated by an assumption that invalidated that many compilations of any
+ * call target within the window. When a storm is detected the offending speculation is backed off
+ * instead of being profiled again:
+ * <ul>
+ * <li>Invalidated argument or return type speculations are disabled for the call target.
+ * <li>For node rewrites and other assumptions, which cannot be disabled, the next compilation of
+ * the call target is delayed by an exponentially growing number of calls.
+ * </ul>
+ * Each storm is reported with
+ * {@link GraalTruffleRuntimeListener#onCompilationDeoptimizationStorm(OptimizedCallTarget, Speculation, Object, int, int)}.
+ */
+public final class DeoptimizationStormDetector {
+
+    /**
+     * The kind of speculation that invalidated compiled code.
+     */
+    public enum Speculation {
+        /** The profiled argument types of a call target. */
+        ARGUMENT_TYPES,
+        /** The profiled return type of a call target. */
+        RETURN_TYPE,
+        /** A node rewrite, e.g. a specialization or a branch profile that was activated. */
+        NODE_REWRITE,
+        /** An assumption created by a guest language. */
+        ASSUMPTION,
+        /** Any other reason, e.g. the code was invalidated explicitly. */
+        OTHER
+    }
+
+    private static final String ARGUMENT_TYPES_PREFIX = "Profiled Argument Types";
+    private static final String CUSTOM_ARGUMENT_TYPES_PREFIX = "Custom profiled argument types";
+    private static final String RETURN_TYPE_PREFIX = "Profiled Return Type";
+    private static final String NODE_REWRITING_PREFIX = "nodeRewritingAssumption";
+    private static final String VALID_ROOT_PREFIX = "validRootAssumption";
+
+    /** Upper bound of the exponential backoff, in multiples of the compilation threshold. */
+    private static final int MAX_BACKOFF_SHIFT = 10;
+    private static final int MAX_BACKOFF = Integer.MAX_VALUE / 4;
+
+    private final int threshold;
+    private final long windowNanos;
+    private final boolean trace;
+
+    private final Map<OptimizedCallTarget, Window> targets = new WeakHashMap<>();
+    private final Map<Assumption, Window> assumptions = new WeakHashMap<>();
+    /** Invalidation totals by source location, only collected when tracing. */
+    private final Map<String, Statistics> locations = new HashMap<>();
+    private int stormCount;
+
+    DeoptimizationStormDetector(int threshold, int windowMillis, boolean trace) {
+        this.threshold = threshold;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.trace = trace;
+    }
+
+    /**
+     * Invalidation counts of a call target or an assumption within the current window.
+     */
+    private static final class Window {
+        long start;
+        int count;
+        int total;
+        /** Number of storms detected so far, determines the backoff. */
+        int storms;
+
+        int add(long now, long windowNanos) {
+            if (now - start > windowNanos) {
+                start = now;
+                count = 0;
+            }
+            total++;
+            return ++count;
+        }
+    }
+
+    /**
+     * Accumulated invalidations of a source location or assumption, used for reporting.
+     */
+    public static final class Statistics {
+
+        private final String name;
+        private final int[] invalidations = new int[Speculation.values().length];
+        private int storms;
+
+        Statistics(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getInvalidations() {
+            int sum = 0;
+            for (int count : invalidations) {
+                sum += count;
+            }
+            return sum;
+        }
+
+        public int getInvalidations(Speculation speculation) {
+            return invalidations[speculation.ordinal()];
+        }
+
+        public int getStorms() {
+            return storms;
+        }
+    }
+
+    boolean isEnabled() {
+        return threshold > 0;
+    }
+
+    /**
+     * Called when the compiled code of {@code target} was invalidated by {@code source}.
+     */
+    void onInvalidated(OptimizedCallTarget target, Object source) {
+        if (!isEnabled() || target.getRootNode() instanceof OptimizedOSRLoopNode.OSRRootNode) {
+            return;
+        }
+        String assumptionName = source instanceof Assumption ? ((Assumption) source).getName() : null;
+        Speculation speculation = classify(assumptionName);
+        long now = System.nanoTime();
+        int invalidations;
+        int backoff = 0;
+        boolean storm;
+        synchronized (this) {
+            Window window = targets.computeIfAbsent(target, (t) -> new Window());
+            invalidations = window.add(now, windowNanos);
+            storm = invalidations >= threshold;
+            if (speculation == Speculation.ASSUMPTION) {
+                Window assumptionWindow = assumptions.computeIfAbsent((Assumption) source, (a) -> new Window());
+                if (assumptionWindow.add(now, windowNanos) >= threshold) {
+                    // the assumption takes down compilations across call targets
+                    storm = true;
+                    invalidations = Math.max(invalidations, assumptionWindow.count);
+                    assumptionWindow.count = 0;
+                    assumptionWindow.storms++;
+                }
+            }
+            if (storm) {
+                window.count = 0;
+                window.storms++;
+                stormCount++;
+                if (speculation != Speculation.ARGUMENT_TYPES && speculation != Speculation.RETURN_TYPE) {
+                    backoff = (int) Math.min(MAX_BACKOFF, (long) target.engine.callThresholdInInterpreter << Math.min(window.storms, MAX_BACKOFF_SHIFT));
+                }
+            }
+            if (trace) {
+                Statistics statistics = locations.computeIfAbsent(getLocation(target), Statistics::new);
+                statistics.invalidations[speculation.ordinal()]++;
+                if (storm) {
+                    statistics.storms++;
+                }
+                if (assumptionName != null) {
+                    Statistics assumptionStatistics = locations.computeIfAbsent("assumption " + assumptionName, Statistics::new);
+                    assumptionStatistics.invalidations[speculation.ordinal()]++;
+                }
+            }
+        }
+        if (storm) {
+            backOff(target, speculation, backoff);
+            GraalTruffleRuntime.getRuntime().getListener().onCompilationDeoptimizationStorm(target, speculation, source, invalidations, backoff);
+        }
+    }
+
+    private static void backOff(OptimizedCallTarget target, Speculation speculation, int backoff) {
+        switch (speculation) {
+            case ARGUMENT_TYPES:
+                target.disableArgumentTypeSpeculation();
+                break;
+            case RETURN_TYPE:
+                target.disableReturnTypeSpeculation();
+                break;
+            default:
+                target.backOffCompilation(backoff);
+                break;
+        }
+    }
+
+    static Speculation classify(String assumptionName) {
+        if (assumptionName == null) {
+            return Speculation.OTHER;
+        } else if (assumptionName.startsWith(ARGUMENT_TYPES_PREFIX) || assumptionName.startsWith(CUSTOM_ARGUMENT_TYPES_PREFIX)) {
+            return Speculation.ARGUMENT_TYPES;
+        } else if (assumptionName.startsWith(RETURN_TYPE_PREFIX)) {
+            return Speculation.RETURN_TYPE;
+        } else if (assumptionName.startsWith(NODE_REWRITING_PREFIX) || assumptionName.startsWith(VALID_ROOT_PREFIX)) {
+            return Speculation.NODE_REWRITE;
+        } else {
+            return Speculation.ASSUMPTION;
+        }
+    }
+
+    private static String getLocation(OptimizedCallTarget target) {
+        SourceSection section = target.getRootNode().getSourceSection();
+        if (section == null || !section.isAvailable()) {
+            return target.getName();
+        }
+        String path = section.getSource().getPath();
+        return String.format("%s (%s:%d)", target.getName(), path != null ? path : section.getSource().getName(), section.getStartLine());
+    }
+
+    /**
+     * Returns the number of storms detected in this engine.
+     */
+    public synchronized int getStormCount() {
+        return stormCount;
+    }
+
+    /**
+     * Returns the source locations and assumptions with the most invalidations, in descending
+     * order. Statistics are only collected if
+     * {@link org.graalvm.compiler.truffle.options.PolyglotCompilerOptions#TraceDeoptimizationStorms}
+     * is enabled.
+     */
+    public synchronized List<Statistics> getTopOffenders(int limit) {
+        List<Statistics> result = new ArrayList<>(locations.values());
+        Collections.sort(result, (s0, s1) -> Integer.compare(s1.getInvalidations(), s0.getInvalidations()));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+}
@@ -41,6 +41,8 @@ public interface EngineCacheSupport extends GraalRuntimeServiceProvider {
 
     void onEngineClosed(EngineData e);
 
+    void onCallTargetCreated(OptimizedCallTarget target);
+
     boolean isStoreEnabled(OptionValues options);
 
     Object tryLoadingCachedEngine(OptionValues options, Function<String, TruffleLogger> loggerFactory);
@@ -55,6 +57,10 @@ public interface EngineCacheSupport extends GraalRuntimeServiceProvider {
         public void onEnginePatch(EngineData e) {
         }
 
+        @Override
+        public void onCallTargetCreated(OptimizedCallTarget target) {
+        }
+
         @Override
         public Object tryLoadingCachedEngine(OptionValues options, Function<String, TruffleLogger> loggerFactory) {
             return null;
@@ -37,6 +37,8 @@ import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.Compi
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompileImmediately;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompileOnly;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompileAOTOnCreate;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.DeoptimizationStormThreshold;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.DeoptimizationStormWindow;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.FirstTierCompilationThreshold;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.FirstTierMinInvokeThreshold;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.Inlining;
@@ -55,9 +57,11 @@ import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.Split
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.SplittingTraceEvents;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraceCompilation;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraceCompilationDetails;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraceDeoptimizationStorms;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraceSplitting;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraceSplittingSummary;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraceTransferToInterpreter;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraversingCompilationQueue;
 import static org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime.getRuntime;
 
 import java.util.ArrayList;
@@ -96,7 +100,9 @@ public final class EngineData {
     private Function<String, TruffleLogger> loggerFactory;
     @CompilationFinal OptionValues engineOptions;
     final TruffleSplittingStrategy.SplitStatisticsData splittingStatistics;
+    final CompilationQueueMetrics compilationQueueMetrics = new CompilationQueueMetrics();
     @CompilationFinal public StatisticsListener statisticsListener;
+    @CompilationFinal DeoptimizationStormDetector deoptimizationStormDetector;
 
     /*
      * Important while visible, options must not be modified except in loadOptions.
@@ -131,6 +137,7 @@ public final class EngineData {
     @CompilationFinal public boolean profilingEnabled;
     @CompilationFinal public boolean traceTransferToInterpreter;
     @CompilationFinal public boolean compileAOTOnCreate;
+    @CompilationFinal public boolean traversingCompilationQueue;
 
     // computed fields.
     @CompilationFinal public int callThresholdInInterpreter;
@@ -166,6 +173,20 @@ public final class EngineData {
         GraalRuntimeAccessor.ENGINE.finalizeStore(this.polyglotEngine);
     }
 
+    /**
+     * Returns the deoptimization storm detector of this engine.
+     */
+    public DeoptimizationStormDetector getDeoptimizationStormDetector() {
+        return deoptimizationStormDetector;
+    }
+
+    /**
+     * Returns the compile queue metrics of this engine.
+     */
+    public CompilationQueueMetrics getCompilationQueueMetrics() {
+        return compilationQueueMetrics;
+    }
+
     public Object getEngineLock() {
         return GraalRuntimeAccessor.ENGINE.getEngineLock(this.polyglotEngine);
     }
@@ -258,6 +279,7 @@ public final class EngineData {
         this.traceCompilation = options.get(TraceCompilation);
         this.traceCompilationDetails = options.get(TraceCompilationDetails);
         this.backgroundCompilation = options.get(BackgroundCompilation) && !compileAOTOnCreate;
+        this.traversingCompilationQueue = options.get(TraversingCompilationQueue);
         this.callThresholdInInterpreter = computeCallThresholdInInterpreter(options);
         this.callAndLoopThresholdInInterpreter = computeCallAndLoopThresholdInInterpreter(options);
         this.callThresholdInFirstTier = computeCallThresholdInFirstTier(options);
@@ -267,6 +289,8 @@ public final class EngineData {
         this.statisticsListener = this.callTargetStatistics ? StatisticsListener.createEngineListener(GraalTruffleRuntime.getRuntime()) : null;
         this.profilingEnabled = options.get(Profiling);
         this.traceTransferToInterpreter = options.get(TraceTransferToInterpreter);
+        this.deoptimizationStormDetector = new DeoptimizationStormDetector(options.get(DeoptimizationStormThreshold), options.get(DeoptimizationStormWindow),
+                        options.get(TraceDeoptimizationStorms));
         this.compilationFailureAction = computeCompilationFailureAction(options);
         validateOptions();
         parsedCompileOnly = null;
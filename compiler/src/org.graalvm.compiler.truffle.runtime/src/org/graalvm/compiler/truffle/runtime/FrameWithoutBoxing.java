@@ -48,6 +48,11 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     private final Object[] arguments;
     private Object[] locals;
     private long[] primitiveLocals;
+    /*
+     * Null for frames of descriptors with static slot kinds: the kind of each slot is then taken
+     * from the frame slot and only the locals array of the respective kind is allocated. Frames
+     * rematerialized after a deoptimization do have tags, initialized with the static kinds.
+     */
     private byte[] tags;
 
     public static final byte OBJECT_TAG = 0;
@@ -96,21 +101,30 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         this.descriptor = descriptor;
         this.arguments = arguments;
         int size = descriptor.getSize();
-        if (size == 0) {
+        if (descriptor.hasStaticSlotKinds()) {
+            this.locals = size != 0 && GraalRuntimeAccessor.FRAME.hasStaticObjectSlots(descriptor) ? newLocals(descriptor, size) : EMPTY_OBJECT_ARRAY;
+            this.primitiveLocals = size != 0 && GraalRuntimeAccessor.FRAME.hasStaticPrimitiveSlots(descriptor) ? new long[size] : EMPTY_LONG_ARRAY;
+            this.tags = null;
+        } else if (size == 0) {
             this.locals = EMPTY_OBJECT_ARRAY;
             this.primitiveLocals = EMPTY_LONG_ARRAY;
             this.tags = EMPTY_BYTE_ARRAY;
         } else {
-            this.locals = new Object[size];
-            Object defaultValue = descriptor.getDefaultValue();
-            if (defaultValue != null) {
-                Arrays.fill(locals, defaultValue);
-            }
+            this.locals = newLocals(descriptor, size);
             this.primitiveLocals = new long[size];
             this.tags = new byte[size];
         }
     }
 
+    private static Object[] newLocals(FrameDescriptor descriptor, int size) {
+        Object[] newLocals = new Object[size];
+        Object defaultValue = descriptor.getDefaultValue();
+        if (defaultValue != null) {
+            Arrays.fill(newLocals, defaultValue);
+        }
+        return newLocals;
+    }
+
     @Override
     public Object[] getArguments() {
         return unsafeCast(arguments, Object[].class, true, true, true);
@@ -125,7 +139,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public Object getObject(FrameSlot slot) throws FrameSlotTypeException {
         int slotIndex = getFrameSlotIndex(slot);
-        boolean condition = verifyGet(slotIndex, OBJECT_TAG);
+        boolean condition = verifyGet(slotIndex, slot, OBJECT_TAG);
         return getObjectUnsafe(slotIndex, slot, condition);
     }
 
@@ -137,8 +151,11 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         return unsafeCast(this.primitiveLocals, long[].class, true, true, true);
     }
 
+    /**
+     * Returns <code>null</code> if the slot kinds are taken from the frame descriptor.
+     */
     byte[] getTags() {
-        return unsafeCast(tags, byte[].class, true, true, true);
+        return unsafeCast(tags, byte[].class, true, false, true);
     }
 
     Object getObjectUnsafe(int slotIndex, FrameSlot slot, boolean condition) {
@@ -148,7 +165,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public void setObject(FrameSlot slot, Object value) {
         int slotIndex = getFrameSlotIndex(slot);
-        verifySet(slotIndex, OBJECT_TAG);
+        verifySet(slotIndex, slot, OBJECT_TAG);
         setObjectUnsafe(slotIndex, slot, value);
     }
 
@@ -159,7 +176,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public byte getByte(FrameSlot slot) throws FrameSlotTypeException {
         int slotIndex = getFrameSlotIndex(slot);
-        boolean condition = verifyGet(slotIndex, BYTE_TAG);
+        boolean condition = verifyGet(slotIndex, slot, BYTE_TAG);
         return getByteUnsafe(slotIndex, slot, condition);
     }
 
@@ -171,7 +188,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public void setByte(FrameSlot slot, byte value) {
         int slotIndex = getFrameSlotIndex(slot);
-        verifySet(slotIndex, BYTE_TAG);
+        verifySet(slotIndex, slot, BYTE_TAG);
         setByteUnsafe(slotIndex, slot, value);
     }
 
@@ -183,7 +200,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public boolean getBoolean(FrameSlot slot) throws FrameSlotTypeException {
         int slotIndex = getFrameSlotIndex(slot);
-        boolean condition = verifyGet(slotIndex, BOOLEAN_TAG);
+        boolean condition = verifyGet(slotIndex, slot, BOOLEAN_TAG);
         return getBooleanUnsafe(slotIndex, slot, condition);
     }
 
@@ -195,7 +212,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public void setBoolean(FrameSlot slot, boolean value) {
         int slotIndex = getFrameSlotIndex(slot);
-        verifySet(slotIndex, BOOLEAN_TAG);
+        verifySet(slotIndex, slot, BOOLEAN_TAG);
         setBooleanUnsafe(slotIndex, slot, value);
     }
 
@@ -207,7 +224,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public float getFloat(FrameSlot slot) throws FrameSlotTypeException {
         int slotIndex = getFrameSlotIndex(slot);
-        boolean condition = verifyGet(slotIndex, FLOAT_TAG);
+        boolean condition = verifyGet(slotIndex, slot, FLOAT_TAG);
         return getFloatUnsafe(slotIndex, slot, condition);
     }
 
@@ -219,7 +236,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public void setFloat(FrameSlot slot, float value) {
         int slotIndex = getFrameSlotIndex(slot);
-        verifySet(slotIndex, FLOAT_TAG);
+        verifySet(slotIndex, slot, FLOAT_TAG);
         setFloatUnsafe(slotIndex, slot, value);
     }
 
@@ -231,7 +248,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public long getLong(FrameSlot slot) throws FrameSlotTypeException {
         int slotIndex = getFrameSlotIndex(slot);
-        boolean condition = verifyGet(slotIndex, LONG_TAG);
+        boolean condition = verifyGet(slotIndex, slot, LONG_TAG);
         return getLongUnsafe(slotIndex, slot, condition);
     }
 
@@ -243,7 +260,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public void setLong(FrameSlot slot, long value) {
         int slotIndex = getFrameSlotIndex(slot);
-        verifySet(slotIndex, LONG_TAG);
+        verifySet(slotIndex, slot, LONG_TAG);
         setLongUnsafe(slotIndex, slot, value);
     }
 
@@ -255,7 +272,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public int getInt(FrameSlot slot) throws FrameSlotTypeException {
         int slotIndex = getFrameSlotIndex(slot);
-        boolean condition = verifyGet(slotIndex, INT_TAG);
+        boolean condition = verifyGet(slotIndex, slot, INT_TAG);
         return getIntUnsafe(slotIndex, slot, condition);
     }
 
@@ -267,7 +284,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public void setInt(FrameSlot slot, int value) {
         int slotIndex = getFrameSlotIndex(slot);
-        verifySet(slotIndex, INT_TAG);
+        verifySet(slotIndex, slot, INT_TAG);
         setIntUnsafe(slotIndex, slot, value);
     }
 
@@ -279,7 +296,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public double getDouble(FrameSlot slot) throws FrameSlotTypeException {
         int slotIndex = getFrameSlotIndex(slot);
-        boolean condition = verifyGet(slotIndex, DOUBLE_TAG);
+        boolean condition = verifyGet(slotIndex, slot, DOUBLE_TAG);
         return getDoubleUnsafe(slotIndex, slot, condition);
     }
 
@@ -291,7 +308,7 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public void setDouble(FrameSlot slot, double value) {
         int slotIndex = getFrameSlotIndex(slot);
-        verifySet(slotIndex, DOUBLE_TAG);
+        verifySet(slotIndex, slot, DOUBLE_TAG);
         setDoubleUnsafe(slotIndex, slot, value);
     }
 
@@ -305,12 +322,29 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         return unsafeCast(descriptor, FrameDescriptor.class, true, true, false);
     }
 
-    private void verifySet(int slotIndex, byte tag) {
+    private void verifySet(int slotIndex, FrameSlot slot, byte tag) {
+        if (getTags() == null) {
+            if (getStaticTag(slot) != tag) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw new IllegalArgumentException(String.format("The frame slot '%s' has a static kind and cannot be set with tag %d.", slot, tag));
+            }
+            checkStaticSlotIndex(slotIndex, tag);
+            return;
+        }
         checkSlotIndex(slotIndex);
         getTags()[slotIndex] = tag;
     }
 
-    private boolean verifyGet(int slotIndex, byte tag) throws FrameSlotTypeException {
+    private boolean verifyGet(int slotIndex, FrameSlot slot, byte tag) throws FrameSlotTypeException {
+        if (getTags() == null) {
+            boolean condition = getStaticTag(slot) == tag;
+            if (!condition) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw new FrameSlotTypeException();
+            }
+            checkStaticSlotIndex(slotIndex, tag);
+            return condition;
+        }
         checkSlotIndex(slotIndex);
         boolean condition = getTags()[slotIndex] == tag;
         if (!condition) {
@@ -328,6 +362,18 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         }
     }
 
+    private void checkStaticSlotIndex(int slotIndex, byte tag) {
+        if (CompilerDirectives.inInterpreter() && slotIndex >= (tag == OBJECT_TAG ? getLocals().length : getPrimitiveLocals().length)) {
+            if (!resizeStatic(tag == OBJECT_TAG)) {
+                throw new IllegalArgumentException(String.format("The frame slot '%s' is not known by the frame descriptor.", slotIndex));
+            }
+        }
+    }
+
+    private static byte getStaticTag(FrameSlot slot) {
+        return GraalRuntimeAccessor.FRAME.getStaticSlotTag(slot);
+    }
+
     private static long getPrimitiveOffset(int slotIndex) {
         return Unsafe.ARRAY_LONG_BASE_OFFSET + slotIndex * (long) Unsafe.ARRAY_LONG_INDEX_SCALE;
     }
@@ -335,11 +381,17 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public Object getValue(FrameSlot slot) {
         int slotIndex = getFrameSlotIndex(slot);
-        if (CompilerDirectives.inInterpreter() && slotIndex >= getTags().length) {
-            CompilerDirectives.transferToInterpreterAndInvalidate();
-            resize();
+        byte tag;
+        if (getTags() == null) {
+            tag = getStaticTag(slot);
+            checkStaticSlotIndex(slotIndex, tag);
+        } else {
+            if (CompilerDirectives.inInterpreter() && slotIndex >= getTags().length) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                resize();
+            }
+            tag = getTags()[slotIndex];
         }
-        byte tag = getTags()[slotIndex];
         boolean condition = (tag == BOOLEAN_TAG);
         if (condition) {
             return getBooleanUnsafe(slotIndex, slot, condition);
@@ -383,9 +435,28 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         return false;
     }
 
+    private boolean resizeStatic(boolean objectLocals) {
+        int newSize = descriptor.getSize();
+        if (objectLocals) {
+            int oldSize = locals.length;
+            if (newSize > oldSize) {
+                locals = Arrays.copyOf(locals, newSize);
+                Arrays.fill(locals, oldSize, newSize, descriptor.getDefaultValue());
+                return true;
+            }
+        } else if (newSize > primitiveLocals.length) {
+            primitiveLocals = Arrays.copyOf(primitiveLocals, newSize);
+            return true;
+        }
+        return false;
+    }
+
     byte getTag(FrameSlot slot) {
         int slotIndex = getFrameSlotIndex(slot);
         byte[] cachedTags = getTags();
+        if (cachedTags == null) {
+            return getStaticTag(slot);
+        }
         if (slotIndex < cachedTags.length) {
             return cachedTags[slotIndex];
         }
@@ -433,7 +504,22 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     @Override
     public void clear(FrameSlot slot) {
         int slotIndex = getFrameSlotIndex(slot);
-        verifySet(slotIndex, ILLEGAL_TAG);
+        if (getFrameDescriptor().hasStaticSlotKinds()) {
+            // slots with static kinds keep their kind, only the value is reset
+            byte tag = getStaticTag(slot);
+            if (getTags() == null) {
+                checkStaticSlotIndex(slotIndex, tag);
+            } else {
+                checkSlotIndex(slotIndex);
+            }
+            if (tag == OBJECT_TAG) {
+                setObjectUnsafe(slotIndex, slot, null);
+            } else {
+                setLongUnsafe(slotIndex, slot, 0L);
+            }
+            return;
+        }
+        verifySet(slotIndex, slot, ILLEGAL_TAG);
         setObjectUnsafe(slotIndex, slot, null);
         setLongUnsafe(slotIndex, slot, 0L);
     }
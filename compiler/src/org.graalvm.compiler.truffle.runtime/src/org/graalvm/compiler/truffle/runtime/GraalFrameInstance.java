@@ -41,6 +41,7 @@ public final class GraalFrameInstance implements FrameInstance {
 
     private static final int CALL_TARGET_INDEX = 0;
     private static final int CALL_TARGET_FRAME_INDEX = 1;
+    private static final int CALL_TARGET_IN_COMPILED_CODE_INDEX = 3;
 
     private static final int CALL_NODE_NOTIFY_INDEX = 1;
 
@@ -93,6 +94,14 @@ public final class GraalFrameInstance implements FrameInstance {
         return callTargetFrame.isVirtual(CALL_TARGET_FRAME_INDEX);
     }
 
+    @Override
+    public int getCompilationTier() {
+        if (!Boolean.TRUE.equals(callTargetFrame.getLocal(CALL_TARGET_IN_COMPILED_CODE_INDEX))) {
+            return 0;
+        }
+        return ((OptimizedCallTarget) getCallTarget()).isValidLastTier() ? 2 : 1;
+    }
+
     @Override
     public CallTarget getCallTarget() {
         return (CallTarget) callTargetFrame.getLocal(CALL_TARGET_INDEX);
@@ -234,4 +234,9 @@ final class GraalRuntimeSupport extends RuntimeSupport {
     public Object getFieldValue(Object resolvedJavaField, Object obj) {
         return GraalTruffleRuntime.getRuntime().getFieldValue((ResolvedJavaField) resolvedJavaField, obj);
     }
+
+    @Override
+    public void setThreadLocalActionPending(Thread thread, boolean pending) {
+        GraalTruffleRuntime.getRuntime().setThreadLocalActionPending(thread, pending);
+    }
 }
@@ -67,6 +67,7 @@ import org.graalvm.compiler.truffle.runtime.debug.StatisticsListener;
 import org.graalvm.compiler.truffle.runtime.debug.TraceASTCompilationListener;
 import org.graalvm.compiler.truffle.runtime.debug.TraceCompilationListener;
 import org.graalvm.compiler.truffle.runtime.debug.TraceCompilationPolymorphismListener;
+import org.graalvm.compiler.truffle.runtime.debug.TraceDeoptimizationStormListener;
 import org.graalvm.compiler.truffle.runtime.debug.TraceSplittingListener;
 import org.graalvm.compiler.truffle.runtime.serviceprovider.TruffleRuntimeServices;
 import org.graalvm.nativeimage.ImageInfo;
@@ -91,6 +92,7 @@ import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleOptions;
 import com.oracle.truffle.api.TruffleRuntime;
+import com.oracle.truffle.api.TruffleSafepoint;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.FrameInstance;
@@ -397,6 +399,14 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
                 m.put(c.getName(), c);
             }
         }
+        // package-private, intrinsified by the safepoint poll
+        String handshakeClassName = "com.oracle.truffle.api.ThreadLocalHandshake";
+        try {
+            Class<?> c = Class.forName(handshakeClassName, false, TruffleSafepoint.class.getClassLoader());
+            m.put(c.getName(), c);
+        } catch (ClassNotFoundException e) {
+            throw new NoClassDefFoundError(handshakeClassName);
+        }
         if (JAVA_SPECIFICATION_VERSION >= 16) {
             String className = "jdk.internal.access.foreign.MemorySegmentProxy";
             try {
@@ -425,6 +435,7 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
         TraceCompilationListener.install(this);
         TraceCompilationPolymorphismListener.install(this);
         TraceSplittingListener.install(this);
+        TraceDeoptimizationStormListener.install(this);
         StatisticsListener.install(this);
         TraceASTCompilationListener.install(this);
         JFRListener.install(this);
@@ -604,6 +615,7 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
         CompilerAsserts.neverPartOfCompilation();
         final OptimizedCallTarget target = createClonedCallTarget(rootNode, null);
         TruffleSplittingStrategy.newTargetCreated(target);
+        engineCacheSupport.onCallTargetCreated(target);
         return target;
     }
 
@@ -1166,4 +1178,12 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Publishes the pending thread local action flag of a thread to compiled code. Runtimes that
+     * do not intrinsify the flag read in compiled code leave this empty.
+     */
+    @SuppressWarnings("unused")
+    protected void setThreadLocalActionPending(Thread thread, boolean pending) {
+    }
+
 }
@@ -218,6 +218,35 @@ public interface GraalTruffleRuntimeListener {
     default void onCompilationDeoptimized(OptimizedCallTarget target, Frame frame) {
     }
 
+    /**
+     * Notifies this object when a deoptimization storm was detected for {@code target}, i.e. its
+     * compiled code was invalidated repeatedly within a short time. The offending speculation was
+     * backed off before this notification is sent.
+     *
+     * @param target the call target that was invalidated repeatedly
+     * @param speculation the kind of speculation that caused the last invalidation
+     * @param source the source object that caused the last invalidation, e.g. an assumption. May be
+     *            {@code null}.
+     * @param invalidations the number of invalidations within the detection window
+     * @param backoff the number of additional calls before {@code target} is compiled again, 0 if
+     *            the speculation was disabled instead
+     * @see DeoptimizationStormDetector
+     */
+    default void onCompilationDeoptimizationStorm(OptimizedCallTarget target, DeoptimizationStormDetector.Speculation speculation, Object source, int invalidations, int backoff) {
+    }
+
+    /**
+     * Notifies this object about the compile queue metrics of an engine. The notification is sent
+     * from a compiler thread after a compilation of the engine finished, at most once per
+     * {@link org.graalvm.compiler.truffle.options.PolyglotCompilerOptions#CompilerThreadScalingInterval
+     * scaling interval}.
+     *
+     * @param engine the engine the metrics belong to
+     * @param metrics the current compile queue metrics of {@code engine}
+     */
+    default void onCompilationQueueMetrics(EngineData engine, CompilationQueueMetrics metrics) {
+    }
+
     /**
      * Notifies this object the {@link GraalTruffleRuntime} is being shut down.
      */
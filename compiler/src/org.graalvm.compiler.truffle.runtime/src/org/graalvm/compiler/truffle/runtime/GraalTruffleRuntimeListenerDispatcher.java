@@ -103,6 +103,16 @@ final class GraalTruffleRuntimeListenerDispatcher extends CopyOnWriteArrayList<G
         invokeListeners((l) -> l.onCompilationDeoptimized(target, frame));
     }
 
+    @Override
+    public void onCompilationDeoptimizationStorm(OptimizedCallTarget target, DeoptimizationStormDetector.Speculation speculation, Object source, int invalidations, int backoff) {
+        invokeListeners((l) -> l.onCompilationDeoptimizationStorm(target, speculation, source, invalidations, backoff));
+    }
+
+    @Override
+    public void onCompilationQueueMetrics(EngineData engine, CompilationQueueMetrics metrics) {
+        invokeListeners((l) -> l.onCompilationQueueMetrics(engine, metrics));
+    }
+
     @Override
     public void onShutdown() {
         invokeListeners((l) -> l.onShutdown());
@@ -52,6 +52,7 @@ import com.oracle.truffle.api.OptimizationFailedException;
 import com.oracle.truffle.api.ReplaceObserver;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleSafepoint;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.impl.DefaultCompilerOptions;
@@ -178,6 +179,17 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
      */
     private volatile boolean dequeueInlined;
     private volatile boolean aotInitialized;
+    /**
+     * Whether the first compilation of this call target goes directly to the last tier. Set for
+     * call targets that reached the last tier in a recorded run and cleared on the first
+     * invalidation, so that recompilations go through the regular tiers again.
+     */
+    private volatile boolean skipFirstTier;
+    /**
+     * Additional calls required before this call target is compiled again. Increased when a
+     * {@link DeoptimizationStormDetector deoptimization storm} is detected for this call target.
+     */
+    private int compilationBackoff;
 
     public static final class ArgumentsProfile {
         private static final String ARGUMENT_TYPES_ASSUMPTION_NAME = "Profiled Argument Types";
@@ -423,6 +435,45 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         this.callAndLoopCount = 0;
     }
 
+    /**
+     * Advances the call and loop counters such that this call target is submitted for compilation
+     * after at most {@code remainingCalls} further calls. If {@code lastTier} is <code>true</code>
+     * the counters are advanced towards the last tier thresholds, otherwise towards the thresholds
+     * checked in the interpreter. Counters that are already beyond the target value are left
+     * unchanged. Used to shorten the warm-up of call targets known to become hot.
+     */
+    final void primeCompilationProfile(boolean lastTier, int remainingCalls) {
+        int callThreshold;
+        int callAndLoopThreshold;
+        if (lastTier && engine.multiTier) {
+            callThreshold = engine.callThresholdInFirstTier;
+            callAndLoopThreshold = engine.callAndLoopThresholdInFirstTier;
+        } else {
+            callThreshold = engine.callThresholdInInterpreter;
+            callAndLoopThreshold = engine.callAndLoopThresholdInInterpreter;
+        }
+        this.callCount = Math.max(this.callCount, callThreshold - remainingCalls);
+        this.callAndLoopCount = Math.max(this.callAndLoopCount, callAndLoopThreshold - remainingCalls);
+    }
+
+    /**
+     * Delays the next compilation of this call target until it was called {@code backoff} times
+     * more than the regular compilation threshold.
+     */
+    final void backOffCompilation(int backoff) {
+        this.compilationBackoff = backoff;
+        resetCompilationProfile();
+    }
+
+    /**
+     * Primes this call target such that it is submitted for a last tier compilation after at most
+     * {@code remainingCalls} further calls, without being compiled in the first tier before.
+     */
+    final void primeLastTierCompilation(int remainingCalls) {
+        this.skipFirstTier = true;
+        primeCompilationProfile(false, remainingCalls);
+    }
+
     @Override
     @TruffleBoundary
     public final Object call(Object... args) {
@@ -536,13 +587,33 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
 
         // Check if call target is hot enough to compile
         if (shouldCompileImpl(intCallCount, intLoopCallCount)) {
-            return compile(!engine.multiTier);
+            return compile(!engine.multiTier || skipFirstTier);
+        }
+        if (engine.traversingCompilationQueue) {
+            maybeCoalesceLastTierCompilation(intCallCount, intLoopCallCount);
         }
         return false;
     }
 
+    /**
+     * If this call target became hot enough for the last tier while its first tier compilation is
+     * still queued, the queued compilation is turned into a last tier compilation. The first tier
+     * code would be replaced soon after being installed.
+     */
+    private void maybeCoalesceLastTierCompilation(int intCallCount, int intLoopCallCount) {
+        if (!engine.multiTier || intCallCount < engine.callThresholdInFirstTier || intLoopCallCount < engine.callAndLoopThresholdInFirstTier) {
+            return;
+        }
+        CompilationTask task = this.compilationTask;
+        if (task != null && !task.isLastTier() && runtime().getCompileQueue().upgradeToLastTier(task)) {
+            runtime().getListener().onCompilationDequeued(this, null, "Coalesced with a last tier compilation.", 1);
+            runtime().getListener().onCompilationQueued(this, 2);
+            engine.compilationQueueMetrics.compilationAvoided();
+        }
+    }
+
     private boolean shouldCompileImpl(int intCallCount, int intLoopCallCount) {
-        return intCallCount >= engine.callThresholdInInterpreter //
+        return intCallCount >= engine.callThresholdInInterpreter + compilationBackoff //
                         && intLoopCallCount >= engine.callAndLoopThresholdInInterpreter //
                         && !compilationFailed //
                         && !isSubmittedForCompilation()
@@ -570,6 +641,7 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         if (CompilerDirectives.inCompiledCode()) {
             args = injectArgumentsProfile(originalArguments);
         }
+        TruffleSafepoint.poll(rootNode);
         Object result = executeRootNode(createFrame(getRootNode().getFrameDescriptor(), args));
         profileReturnValue(result);
         return result;
@@ -598,6 +670,8 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
 
     private Object executeRootNode(VirtualFrame frame) {
         final boolean inCompiled = CompilerDirectives.inCompilationRoot();
+        // read by GraalFrameInstance, which can only access object locals
+        final Boolean inCompiledCode = CompilerDirectives.inCompiledCode();
         try {
             return rootNode.execute(frame);
         } catch (ControlFlowException t) {
@@ -608,7 +682,7 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
             throw rethrow(profiledT);
         } finally {
             // this assertion is needed to keep the values from being cleared as non-live locals
-            assert frame != null && this != null;
+            assert frame != null && this != null && inCompiledCode != null;
             if (CompilerDirectives.inInterpreter() && inCompiled) {
                 notifyDeoptimized(frame);
             }
@@ -871,8 +945,10 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
 
     public final boolean onInvalidate(Object source, CharSequence reason, boolean wasActive) {
         cachedNonTrivialNodeCount = -1;
+        skipFirstTier = false;
         if (wasActive) {
             GraalTruffleRuntime.getRuntime().getListener().onCompilationInvalidated(this, source, reason);
+            engine.deoptimizationStormDetector.onInvalidated(this, source);
         }
         return cancelCompilation(reason) || wasActive;
     }
@@ -1266,6 +1342,45 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         return argumentsProfile;
     }
 
+    /**
+     * Initializes the argument profile with types observed in a previous run. Has no effect if the
+     * profile was already initialized or argument type speculation is disabled. Arguments that do
+     * not match the seeded types update the profile as usual. A <code>null</code> array seeds an
+     * invalid profile.
+     */
+    final void seedArgumentTypes(Class<?>[] argumentTypes) {
+        CompilerAsserts.neverPartOfCompilation();
+        if (callProfiled || !engine.argumentTypeSpeculation || argumentsProfile != null) {
+            return;
+        }
+        ArgumentsProfile newProfile;
+        if (argumentTypes == null || argumentTypes.length > MAX_PROFILED_ARGUMENTS) {
+            newProfile = ArgumentsProfile.INVALID;
+        } else {
+            newProfile = new ArgumentsProfile(argumentTypes.clone(), ArgumentsProfile.ARGUMENT_TYPES_ASSUMPTION_NAME);
+        }
+        // losing the race is fine, the profile observed by the other thread wins
+        updateArgumentsProfile(null, newProfile);
+    }
+
+    /**
+     * Stops speculating on the argument types of this call target, used when the argument type
+     * speculation caused a deoptimization storm.
+     */
+    final void disableArgumentTypeSpeculation() {
+        if (!callProfiled) {
+            transitionToInvalidArgumentsProfile();
+        }
+    }
+
+    /**
+     * Returns the current argument profile without initializing it, <code>null</code> if the call
+     * target was not called yet.
+     */
+    final ArgumentsProfile peekArgumentsProfile() {
+        return callProfiled ? null : argumentsProfile;
+    }
+
     // endregion
     // region Return value profiling
 
@@ -1320,6 +1435,49 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         return returnProfile;
     }
 
+    /**
+     * Initializes the return profile with a type observed in a previous run. Has no effect if the
+     * profile was already initialized or return type speculation is disabled. A <code>null</code>
+     * type seeds an invalid profile.
+     */
+    final void seedReturnType(Class<?> returnType) {
+        CompilerAsserts.neverPartOfCompilation();
+        if (!engine.returnTypeSpeculation || returnProfile != null) {
+            return;
+        }
+        ReturnProfile newProfile = returnType == null ? ReturnProfile.INVALID : new ReturnProfile(returnType);
+        // losing the race is fine, the profile observed by the other thread wins
+        RETURN_PROFILE_UPDATER.compareAndSet(this, null, newProfile);
+    }
+
+    /**
+     * Stops speculating on the return type of this call target, used when the return type
+     * speculation caused a deoptimization storm.
+     */
+    final void disableReturnTypeSpeculation() {
+        while (true) {
+            ReturnProfile oldProfile = returnProfile;
+            if (oldProfile == ReturnProfile.INVALID) {
+                return;
+            }
+            if (oldProfile != null) {
+                // the assumption must be invalidated before installing the new profile
+                oldProfile.assumption.invalidate();
+            }
+            if (RETURN_PROFILE_UPDATER.compareAndSet(this, oldProfile, ReturnProfile.INVALID)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the current return profile without initializing it, <code>null</code> if the call
+     * target did not return yet.
+     */
+    final ReturnProfile peekReturnProfile() {
+        return returnProfile;
+    }
+
     // endregion
     // region Exception profiling
 
@@ -1509,6 +1667,16 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         needsSplit = false;
     }
 
+    /**
+     * Marks this call target as needing a split, as decided for it in a previous run. Direct call
+     * sites split it on their next call if the splitting budget and limits allow it.
+     */
+    final void seedNeedsSplit() {
+        if (engine.splitting && !isSplit()) {
+            needsSplit = true;
+        }
+    }
+
     private boolean maybeSetNeedsSplit(int depth, List<Node> toDump) {
         final OptimizedDirectCallNode onlyCaller = getSingleCallNode();
         if (depth > engine.splittingMaxPropagationDepth || needsSplit || callSitesKnown == 0 || getCallCount() == 1) {
@@ -33,9 +33,11 @@ import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.ReplaceObserver;
 import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleSafepoint;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameSlotTypeException;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.LoopNode;
@@ -134,6 +136,7 @@ public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceOb
             Object status;
             try {
                 while (repeatableNode.shouldContinue((status = repeatableNode.executeRepeatingWithValue(frame)))) {
+                    TruffleSafepoint.poll(this);
                     iterationsCompleted++;
                     if (CompilerDirectives.inInterpreter()) {
                         // compiled method got invalidated. We might need OSR again.
@@ -149,6 +152,7 @@ public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceOb
         } else {
             Object status;
             while (repeatableNode.shouldContinue((status = repeatableNode.executeRepeatingWithValue(frame)))) {
+                TruffleSafepoint.poll(this);
                 if (CompilerDirectives.inInterpreter()) {
                     // compiled method got invalidated. We might need OSR again.
                     return execute(frame);
@@ -163,6 +167,7 @@ public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceOb
         try {
             Object status;
             while (repeatableNode.shouldContinue(status = repeatableNode.executeRepeatingWithValue(frame))) {
+                TruffleSafepoint.poll(this);
                 // the baseLoopCount might be updated from a child loop during an iteration.
                 if (++iterations + baseLoopCount > osrThreshold && !compilationDisabled) {
                     compileLoop(frame);
@@ -220,6 +225,7 @@ public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceOb
                     return repeatableNode.initialLoopStatus();
                 }
                 iterations++;
+                TruffleSafepoint.poll(this);
 
             } while (repeatableNode.shouldContinue(status = repeatableNode.executeRepeatingWithValue(frame)));
             return status;
@@ -467,6 +473,7 @@ public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceOb
             VirtualFrame parentFrame = clazz.cast(frame.getArguments()[0]);
             Object status;
             while (loopNode.repeatableNode.shouldContinue(status = loopNode.getRepeatingNode().executeRepeatingWithValue(parentFrame))) {
+                TruffleSafepoint.poll(loopNode);
                 if (CompilerDirectives.inInterpreter()) {
                     return loopNode.repeatableNode.initialLoopStatus();
                 }
@@ -548,6 +555,7 @@ public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceOb
             try {
                 Object status;
                 while (loopNode.repeatableNode.shouldContinue(status = loopNode.getRepeatingNode().executeRepeatingWithValue(loopFrame))) {
+                    TruffleSafepoint.poll(loopNode);
                     if (CompilerDirectives.inInterpreter()) {
                         return loopNode.repeatableNode.initialLoopStatus();
                     }
@@ -565,6 +573,10 @@ public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceOb
             }
             byte[] currentSourceTags = source.getTags();
             byte[] currentTargetTags = target.getTags();
+            if (currentSourceTags == null || currentTargetTags == null) {
+                executeStaticTransfer(source, target, frameSlots, speculatedTags);
+                return;
+            }
 
             /*
              * We check max tags so length of the tags array is not checked inside the loop each
@@ -627,6 +639,48 @@ public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceOb
             }
         }
 
+        /*
+         * Frames of descriptors with static slot kinds have no tags. The speculated tags were
+         * initialized with the static kinds and therefore never change.
+         */
+        @ExplodeLoop
+        private static void executeStaticTransfer(FrameWithoutBoxing source, FrameWithoutBoxing target, FrameSlot[] frameSlots, byte[] staticTags) {
+            try {
+                for (int i = 0; i < frameSlots.length; i++) {
+                    FrameSlot slot = frameSlots[i];
+                    switch (staticTags[i]) {
+                        case FrameWithoutBoxing.BOOLEAN_TAG:
+                            target.setBoolean(slot, source.getBoolean(slot));
+                            break;
+                        case FrameWithoutBoxing.BYTE_TAG:
+                            target.setByte(slot, source.getByte(slot));
+                            break;
+                        case FrameWithoutBoxing.DOUBLE_TAG:
+                            target.setDouble(slot, source.getDouble(slot));
+                            break;
+                        case FrameWithoutBoxing.FLOAT_TAG:
+                            target.setFloat(slot, source.getFloat(slot));
+                            break;
+                        case FrameWithoutBoxing.INT_TAG:
+                            target.setInt(slot, source.getInt(slot));
+                            break;
+                        case FrameWithoutBoxing.LONG_TAG:
+                            target.setLong(slot, source.getLong(slot));
+                            break;
+                        case FrameWithoutBoxing.OBJECT_TAG:
+                            target.setObject(slot, source.getObject(slot));
+                            break;
+                        default:
+                            CompilerDirectives.transferToInterpreterAndInvalidate();
+                            throw new AssertionError("Static frame slot " + slot + " has an illegal kind.");
+                    }
+                }
+            } catch (FrameSlotTypeException e) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw new AssertionError("Static frame slot kinds must not change.", e);
+            }
+        }
+
     }
 
 }
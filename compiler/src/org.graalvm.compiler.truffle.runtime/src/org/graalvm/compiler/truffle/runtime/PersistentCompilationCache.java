@@ -0,0 +1,798 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompilationCacheDirectory;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompilationCacheMaxEntries;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompilationCacheMaxInvalidations;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompilationCacheProfiles;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompilationCacheWarmupCalls;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraceCompilationCache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+import org.graalvm.compiler.truffle.common.TruffleCompilerListener.CompilationResultInfo;
+import org.graalvm.compiler.truffle.common.TruffleCompilerListener.GraphInfo;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget.ArgumentsProfile;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget.ReturnProfile;
+import org.graalvm.options.OptionValues;
+
+import com.oracle.truffle.api.TruffleLogger;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Engine cache support that persists the compilation state of call targets in the directory
+ * configured with {@link org.graalvm.compiler.truffle.options.PolyglotCompilerOptions#CompilationCacheDirectory
+ * CompilationCacheDirectory}.
+ * <p>
+ * Call targets are identified across runs by a hash of their {@link RootNode root node's} source
+ * section and a hash of the shape of their uninitialized AST. For each call target the cache
+ * records the highest tier it was compiled with, how often its compiled code was invalidated and
+ * whether its compilation failed permanently. When the engine is closed the recorded state is
+ * merged with the existing cache file and written back. When a call target with a matching key is
+ * created in a later run, the entry is revalidated and the call target is primed to be submitted to
+ * the regular {@link BackgroundCompileQueue compile queue} after
+ * {@link org.graalvm.compiler.truffle.options.PolyglotCompilerOptions#CompilationCacheWarmupCalls
+ * a few calls} instead of waiting for the compilation thresholds. Entries that fail validation are
+ * ignored and the call target is compiled using the regular policy.
+ * <p>
+ * Installed machine code depends on the heap layout and on the speculations of the current
+ * process and is therefore not persisted. Entries of call targets whose speculations were
+ * repeatedly invalidated in the recorded run are not primed.
+ * <p>
+ * Unless {@link org.graalvm.compiler.truffle.options.PolyglotCompilerOptions#CompilationCacheProfiles
+ * disabled}, the cache also records a warm-up profile of each call target: the argument and return
+ * type speculations and whether the call target needed splitting. When a matching call target is
+ * created, its profiles are seeded with the recorded types, it is marked for splitting if it was
+ * split before and call targets that reached the last tier are queued directly for a last tier
+ * compilation. Seeded type profiles are validated by the regular profiling code, such that types
+ * that do not match in the current run only cost the usual deoptimization.
+ */
+public final class PersistentCompilationCache implements EngineCacheSupport, GraalTruffleRuntimeListener {
+
+    static final String CACHE_FILE_NAME = "truffle-compilation-cache.bin";
+    private static final int MAGIC = 0x54434331; // "TCC1"
+    private static final int VERSION = 2;
+    /** The smallest encoding of an entry: two hashes, an empty name and an empty profile. */
+    private static final int MIN_ENTRY_BYTES = 8 + 8 + 2 + 1 + 4 + 1 + 8 + 3;
+    private static final int MAX_UTF_BYTES = 65535;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Cache files already read by this process, keyed by their absolute path. Engines sharing a
+     * cache directory share the loaded entries.
+     */
+    private final Map<Path, Map<CacheKey, CacheEntry>> loadedFiles = new ConcurrentHashMap<>();
+    private volatile boolean listenerInstalled;
+
+    @Override
+    public Object tryLoadingCachedEngine(OptionValues options, Function<String, TruffleLogger> loggerFactory) {
+        Path file = getCacheFile(options);
+        if (file != null) {
+            /*
+             * There is no persisted engine that could be restored. Preload the compilation state
+             * such that it is available when the engine is created.
+             */
+            getLoadedEntries(file, loggerFactory.apply("engine"), options.get(TraceCompilationCache));
+        }
+        return null;
+    }
+
+    @Override
+    public void onEngineCreated(EngineData e) {
+        initializeEngine(e);
+    }
+
+    @Override
+    public void onEnginePatch(EngineData e) {
+        e.clearEngineLocal(EngineCompilationCache.class);
+        initializeEngine(e);
+    }
+
+    @Override
+    public boolean onEngineClosing(EngineData e) {
+        EngineCompilationCache cache = e.getEngineLocal(EngineCompilationCache.class);
+        if (cache != null) {
+            cache.store();
+        }
+        // the engine itself is never stored
+        return false;
+    }
+
+    @Override
+    public void onEngineClosed(EngineData e) {
+        e.clearEngineLocal(EngineCompilationCache.class);
+    }
+
+    @Override
+    public void onCallTargetCreated(OptimizedCallTarget target) {
+        EngineCompilationCache cache = target.engine.getEngineLocal(EngineCompilationCache.class);
+        if (cache != null) {
+            cache.onCallTargetCreated(target);
+        }
+    }
+
+    @Override
+    public boolean isStoreEnabled(OptionValues options) {
+        return false;
+    }
+
+    @Override
+    public void onCompilationSuccess(OptimizedCallTarget target, TruffleInlining inliningDecision, GraphInfo graph, CompilationResultInfo result, int tier) {
+        EngineCompilationCache cache = target.engine.getEngineLocal(EngineCompilationCache.class);
+        if (cache != null) {
+            cache.onCompilationSuccess(target, tier);
+        }
+    }
+
+    @Override
+    public void onCompilationFailed(OptimizedCallTarget target, String reason, boolean bailout, boolean permanentBailout, int tier) {
+        if (permanentBailout) {
+            EngineCompilationCache cache = target.engine.getEngineLocal(EngineCompilationCache.class);
+            if (cache != null) {
+                cache.onCompilationFailed(target);
+            }
+        }
+    }
+
+    @Override
+    public void onCompilationInvalidated(OptimizedCallTarget target, Object source, CharSequence reason) {
+        EngineCompilationCache cache = target.engine.getEngineLocal(EngineCompilationCache.class);
+        if (cache != null) {
+            cache.onCompilationInvalidated(target);
+        }
+    }
+
+    private void initializeEngine(EngineData e) {
+        Path file = getCacheFile(e.engineOptions);
+        if (file == null) {
+            return;
+        }
+        if (!listenerInstalled) {
+            synchronized (this) {
+                if (!listenerInstalled) {
+                    GraalTruffleRuntime.getRuntime().addListener(this);
+                    listenerInstalled = true;
+                }
+            }
+        }
+        boolean trace = e.engineOptions.get(TraceCompilationCache);
+        Map<CacheKey, CacheEntry> loaded = getLoadedEntries(file, e.getEngineLogger(), trace);
+        e.putEngineLocal(EngineCompilationCache.class, new EngineCompilationCache(this, e, file, loaded, trace));
+    }
+
+    private Map<CacheKey, CacheEntry> getLoadedEntries(Path file, TruffleLogger logger, boolean trace) {
+        Map<CacheKey, CacheEntry> entries = loadedFiles.get(file);
+        if (entries == null) {
+            entries = readCacheFile(file, logger, trace);
+            Map<CacheKey, CacheEntry> prev = loadedFiles.putIfAbsent(file, entries);
+            if (prev != null) {
+                entries = prev;
+            }
+        }
+        return entries;
+    }
+
+    private static Path getCacheFile(OptionValues options) {
+        String directory = options.get(CompilationCacheDirectory);
+        if (directory == null || directory.isEmpty()) {
+            return null;
+        }
+        return Paths.get(directory).toAbsolutePath().resolve(CACHE_FILE_NAME);
+    }
+
+    /**
+     * Reads and validates a cache file. Returns an empty map if the file does not exist or was
+     * written by an incompatible runtime. A corrupt file is ignored and replaced by an empty one.
+     */
+    static Map<CacheKey, CacheEntry> readCacheFile(Path file, TruffleLogger logger, boolean trace) {
+        if (!Files.isRegularFile(file)) {
+            if (trace) {
+                logger.log(Level.INFO, String.format("[compilation-cache] No cache found at %s.", file));
+            }
+            return Collections.emptyMap();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                logger.log(Level.WARNING, String.format("[compilation-cache] Ignoring %s. The file has an unsupported format.", file));
+                return Collections.emptyMap();
+            }
+            String runtimeName = in.readUTF();
+            if (!runtimeName.equals(GraalTruffleRuntime.getRuntime().getName())) {
+                if (trace) {
+                    logger.log(Level.INFO, String.format("[compilation-cache] Ignoring %s. It was written by runtime '%s'.", file, runtimeName));
+                }
+                return Collections.emptyMap();
+            }
+            // every count is bounded by the number of bytes that could encode its elements
+            long fileSize = Files.size(file);
+            int size = readCount(in, fileSize / MIN_ENTRY_BYTES);
+            Map<CacheKey, CacheEntry> entries = new HashMap<>(size);
+            for (int i = 0; i < size; i++) {
+                CacheKey key = new CacheKey(in.readLong(), in.readLong());
+                CacheEntry entry = new CacheEntry(in.readUTF(), in.readByte(), in.readInt(), in.readBoolean(), in.readLong(), WarmupProfile.read(in, fileSize));
+                entries.put(key, entry);
+            }
+            if (trace) {
+                logger.log(Level.INFO, String.format("[compilation-cache] Loaded %d entries from %s.", entries.size(), file));
+            }
+            return Collections.unmodifiableMap(entries);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, String.format("[compilation-cache] Ignoring corrupt %s: %s", file, e));
+            try {
+                writeCacheFile(file, Collections.emptyMap());
+            } catch (IOException ioe) {
+                logger.log(Level.WARNING, String.format("[compilation-cache] Failed to write %s: %s", file, ioe.getMessage()));
+            }
+            return Collections.emptyMap();
+        }
+    }
+
+    private static int readCount(DataInputStream in, long max) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > max) {
+            throw new IOException(String.format("Invalid element count %d.", count));
+        }
+        return count;
+    }
+
+    static void writeCacheFile(Path file, Map<CacheKey, CacheEntry> entries) throws IOException {
+        Path directory = file.getParent();
+        Files.createDirectories(directory);
+        Path tmp = Files.createTempFile(directory, CACHE_FILE_NAME, ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(GraalTruffleRuntime.getRuntime().getName());
+                out.writeInt(entries.size());
+                for (Map.Entry<CacheKey, CacheEntry> mapEntry : entries.entrySet()) {
+                    CacheKey key = mapEntry.getKey();
+                    CacheEntry entry = mapEntry.getValue();
+                    out.writeLong(key.sourceHash);
+                    out.writeLong(key.shapeHash);
+                    out.writeUTF(entry.name);
+                    out.writeByte(entry.tier);
+                    out.writeInt(entry.invalidations);
+                    out.writeBoolean(entry.failed);
+                    out.writeLong(entry.timestamp);
+                    entry.profile.write(out);
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Returns whether {@link DataOutputStream#writeUTF(String)} can encode {@code value}, i.e.
+     * whether its modified UTF-8 encoding does not exceed 65535 bytes.
+     */
+    static boolean isWritableUTF(String value) {
+        if (value.length() > MAX_UTF_BYTES) {
+            return false;
+        }
+        int bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                bytes++;
+            } else if (c > 0x07FF) {
+                bytes += 3;
+            } else {
+                bytes += 2;
+            }
+        }
+        return bytes <= MAX_UTF_BYTES;
+    }
+
+    /**
+     * Computes the key of a call target. Returns <code>null</code> if the call target cannot be
+     * identified across runs, e.g. because its root node has no source section.
+     */
+    static CacheKey computeKey(RootNode rootNode) {
+        SourceSection section = rootNode.getSourceSection();
+        if (section == null || !section.isAvailable()) {
+            return null;
+        }
+        Source source = section.getSource();
+        if (!source.hasCharacters()) {
+            return null;
+        }
+        long sourceHash = hash(FNV_OFFSET_BASIS, source.getName());
+        sourceHash = hash(sourceHash, source.getLanguage());
+        sourceHash = mix(sourceHash, section.getCharIndex());
+        sourceHash = hash(sourceHash, section.getCharacters());
+        long shapeHash = hash(FNV_OFFSET_BASIS, rootNode.getName());
+        shapeHash = hashShape(shapeHash, rootNode);
+        return new CacheKey(sourceHash, shapeHash);
+    }
+
+    private static long hashShape(long hash, Node node) {
+        long result = hash(hash, node.getClass().getName());
+        for (Node child : node.getChildren()) {
+            result = hashShape(result, child);
+        }
+        // marks the end of the children such that different tree shapes hash differently
+        return mix(result, -1L);
+    }
+
+    private static long hash(long hash, CharSequence value) {
+        if (value == null) {
+            return mix(hash, 0L);
+        }
+        long result = hash;
+        for (int i = 0; i < value.length(); i++) {
+            result = mix(result, value.charAt(i));
+        }
+        return mix(result, value.length());
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+
+    static final class CacheKey {
+
+        final long sourceHash;
+        final long shapeHash;
+
+        CacheKey(long sourceHash, long shapeHash) {
+            this.sourceHash = sourceHash;
+            this.shapeHash = shapeHash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return sourceHash == other.sourceHash && shapeHash == other.shapeHash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(sourceHash) * 31 + Long.hashCode(shapeHash);
+        }
+    }
+
+    static final class CacheEntry {
+
+        final String name;
+        /** The highest tier the call target was compiled with, 0 if it was not compiled. */
+        final byte tier;
+        final int invalidations;
+        final boolean failed;
+        /** Time in milliseconds since the epoch when the entry was last updated. */
+        final long timestamp;
+        final WarmupProfile profile;
+
+        CacheEntry(String name, byte tier, int invalidations, boolean failed, long timestamp, WarmupProfile profile) {
+            this.name = name;
+            this.tier = tier;
+            this.invalidations = invalidations;
+            this.failed = failed;
+            this.timestamp = timestamp;
+            this.profile = profile;
+        }
+
+        CacheEntry withTier(int newTier) {
+            return new CacheEntry(name, (byte) Math.max(tier, newTier), invalidations, failed, System.currentTimeMillis(), profile);
+        }
+
+        CacheEntry withInvalidation() {
+            return new CacheEntry(name, tier, invalidations + 1, failed, System.currentTimeMillis(), profile);
+        }
+
+        CacheEntry withFailure() {
+            return new CacheEntry(name, tier, invalidations, true, System.currentTimeMillis(), profile);
+        }
+
+        CacheEntry withProfile(WarmupProfile newProfile) {
+            return new CacheEntry(name, tier, invalidations, failed, timestamp, newProfile);
+        }
+
+        /**
+         * Returns <code>false</code> if a string of this entry is too long to be written, in which
+         * case the entry is not persisted.
+         */
+        boolean isWritable() {
+            return isWritableUTF(name) && profile.isWritable();
+        }
+    }
+
+    /**
+     * The argument and return type profiles and the splitting decision of a call target. Types are
+     * recorded by name and resolved with the class loader of the call target's root node when the
+     * profile is replayed.
+     */
+    static final class WarmupProfile {
+
+        /** The profile was not initialized, i.e. the call target was not called or did not return. */
+        static final byte PROFILE_NONE = 0;
+        /** The profile was invalidated because the observed types did not match. */
+        static final byte PROFILE_INVALID = 1;
+        /** The profile holds the observed types. */
+        static final byte PROFILE_TYPES = 2;
+
+        static final WarmupProfile NONE = new WarmupProfile(PROFILE_NONE, null, PROFILE_NONE, null, false);
+
+        final byte argumentsState;
+        /** The profiled argument type names, <code>null</code> elements are not profiled. */
+        final String[] argumentTypes;
+        final byte returnState;
+        final String returnType;
+        final boolean split;
+
+        WarmupProfile(byte argumentsState, String[] argumentTypes, byte returnState, String returnType, boolean split) {
+            this.argumentsState = argumentsState;
+            this.argumentTypes = argumentTypes;
+            this.returnState = returnState;
+            this.returnType = returnType;
+            this.split = split;
+        }
+
+        boolean isEmpty() {
+            return argumentsState == PROFILE_NONE && returnState == PROFILE_NONE && !split;
+        }
+
+        static WarmupProfile record(OptimizedCallTarget target) {
+            byte argumentsState = PROFILE_NONE;
+            String[] argumentTypes = null;
+            ArgumentsProfile arguments = target.peekArgumentsProfile();
+            if (arguments != null) {
+                if (arguments.getAssumption().isValid()) {
+                    Class<?>[] types = arguments.getTypes();
+                    argumentsState = PROFILE_TYPES;
+                    argumentTypes = new String[types.length];
+                    for (int i = 0; i < types.length; i++) {
+                        argumentTypes[i] = types[i] == null ? null : types[i].getName();
+                    }
+                } else {
+                    argumentsState = PROFILE_INVALID;
+                }
+            }
+            byte returnState = PROFILE_NONE;
+            String returnType = null;
+            ReturnProfile ret = target.peekReturnProfile();
+            if (ret != null) {
+                if (ret.getAssumption().isValid()) {
+                    returnState = PROFILE_TYPES;
+                    returnType = ret.getType().getName();
+                } else {
+                    returnState = PROFILE_INVALID;
+                }
+            }
+            return new WarmupProfile(argumentsState, argumentTypes, returnState, returnType, target.isNeedsSplit());
+        }
+
+        /**
+         * Seeds the profiles of {@code target}. Returns <code>false</code> if a recorded type could
+         * not be resolved, in which case the type profiles are left uninitialized.
+         */
+        boolean replay(OptimizedCallTarget target) {
+            ClassLoader loader = target.getRootNode().getClass().getClassLoader();
+            boolean resolved = true;
+            if (argumentsState == PROFILE_TYPES) {
+                Class<?>[] types = new Class<?>[argumentTypes.length];
+                for (int i = 0; i < types.length && resolved; i++) {
+                    if (argumentTypes[i] != null) {
+                        types[i] = resolve(argumentTypes[i], loader);
+                        resolved = types[i] != null;
+                    }
+                }
+                if (resolved) {
+                    target.seedArgumentTypes(types);
+                }
+            } else if (argumentsState == PROFILE_INVALID) {
+                target.seedArgumentTypes(null);
+            }
+            if (returnState == PROFILE_TYPES) {
+                Class<?> type = resolve(returnType, loader);
+                if (type != null) {
+                    target.seedReturnType(type);
+                } else {
+                    resolved = false;
+                }
+            } else if (returnState == PROFILE_INVALID) {
+                target.seedReturnType(null);
+            }
+            if (split) {
+                target.seedNeedsSplit();
+            }
+            return resolved;
+        }
+
+        private static Class<?> resolve(String name, ClassLoader loader) {
+            try {
+                return Class.forName(name, false, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                // the class is not available or different in this run
+                return null;
+            }
+        }
+
+        boolean isWritable() {
+            if (argumentTypes != null) {
+                for (String type : argumentTypes) {
+                    if (type != null && !isWritableUTF(type)) {
+                        return false;
+                    }
+                }
+            }
+            return returnType == null || isWritableUTF(returnType);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(argumentsState);
+            if (argumentsState == PROFILE_TYPES) {
+                out.writeInt(argumentTypes.length);
+                for (String type : argumentTypes) {
+                    out.writeUTF(type == null ? "" : type);
+                }
+            }
+            out.writeByte(returnState);
+            if (returnState == PROFILE_TYPES) {
+                out.writeUTF(returnType);
+            }
+            out.writeBoolean(split);
+        }
+
+        static WarmupProfile read(DataInputStream in, long fileSize) throws IOException {
+            byte argumentsState = in.readByte();
+            String[] argumentTypes = null;
+            if (argumentsState == PROFILE_TYPES) {
+                // each type name takes at least two bytes
+                argumentTypes = new String[readCount(in, fileSize / 2)];
+                for (int i = 0; i < argumentTypes.length; i++) {
+                    String type = in.readUTF();
+                    argumentTypes[i] = type.isEmpty() ? null : type;
+                }
+            }
+            byte returnState = in.readByte();
+            String returnType = returnState == PROFILE_TYPES ? in.readUTF() : null;
+            boolean split = in.readBoolean();
+            if (argumentsState == PROFILE_NONE && returnState == PROFILE_NONE && !split) {
+                return NONE;
+            }
+            return new WarmupProfile(argumentsState, argumentTypes, returnState, returnType, split);
+        }
+    }
+
+    /**
+     * Compilation cache state of a single engine.
+     */
+    static final class EngineCompilationCache {
+
+        private final PersistentCompilationCache support;
+        private final EngineData engine;
+        private final Path file;
+        private final Map<CacheKey, CacheEntry> loaded;
+        private final Map<CacheKey, CacheEntry> recorded = new ConcurrentHashMap<>();
+        private final Map<OptimizedCallTarget, CacheKey> keys = Collections.synchronizedMap(new WeakHashMap<>());
+        private final int warmupCalls;
+        private final int maxInvalidations;
+        private final int maxEntries;
+        private final boolean profiles;
+        private final boolean trace;
+
+        private final AtomicInteger hits = new AtomicInteger();
+        private final AtomicInteger rejected = new AtomicInteger();
+
+        EngineCompilationCache(PersistentCompilationCache support, EngineData engine, Path file, Map<CacheKey, CacheEntry> loaded, boolean trace) {
+            this.support = support;
+            this.engine = engine;
+            this.file = file;
+            this.loaded = loaded;
+            this.trace = trace;
+            this.warmupCalls = Math.max(1, engine.engineOptions.get(CompilationCacheWarmupCalls));
+            this.maxInvalidations = engine.engineOptions.get(CompilationCacheMaxInvalidations);
+            this.maxEntries = engine.engineOptions.get(CompilationCacheMaxEntries);
+            this.profiles = engine.engineOptions.get(CompilationCacheProfiles);
+        }
+
+        void onCallTargetCreated(OptimizedCallTarget target) {
+            RootNode rootNode = target.getRootNode();
+            if (rootNode instanceof OptimizedOSRLoopNode.OSRRootNode) {
+                return;
+            }
+            CacheKey key = computeKey(rootNode);
+            if (key == null) {
+                return;
+            }
+            keys.put(target, key);
+            CacheEntry entry = loaded.get(key);
+            if (entry == null || (entry.tier == 0 && (!profiles || entry.profile.isEmpty()))) {
+                return;
+            }
+            if (entry.failed || entry.invalidations > maxInvalidations || !target.acceptForCompilation()) {
+                rejected.incrementAndGet();
+                if (trace) {
+                    log(String.format("[compilation-cache] Rejected %s (invalidations: %d, failed: %b).", target.getName(), entry.invalidations, entry.failed));
+                }
+                return;
+            }
+            if (profiles && !entry.profile.replay(target) && trace) {
+                log(String.format("[compilation-cache] Could not resolve the profiled types of %s.", target.getName()));
+            }
+            if (entry.tier == 0) {
+                return;
+            }
+            hits.incrementAndGet();
+            if (profiles && entry.tier > 1 && engine.multiTier) {
+                // the recorded run reached the last tier, do not spend time on the first tier
+                target.primeLastTierCompilation(warmupCalls);
+            } else {
+                target.primeCompilationProfile(false, warmupCalls);
+            }
+        }
+
+        void onCompilationSuccess(OptimizedCallTarget target, int tier) {
+            CacheKey key = getKey(target);
+            if (key == null) {
+                return;
+            }
+            recorded.compute(key, (k, e) -> (e == null ? newEntry(target) : e).withTier(tier));
+            if (tier == 1 && engine.multiTier) {
+                CacheEntry entry = loaded.get(key);
+                if (entry != null && entry.tier > 1 && !entry.failed && entry.invalidations <= maxInvalidations) {
+                    // continue the warm-up towards the last tier
+                    target.primeCompilationProfile(true, warmupCalls);
+                }
+            }
+        }
+
+        void onCompilationFailed(OptimizedCallTarget target) {
+            CacheKey key = getKey(target);
+            if (key != null) {
+                recorded.compute(key, (k, e) -> (e == null ? newEntry(target) : e).withFailure());
+            }
+        }
+
+        void onCompilationInvalidated(OptimizedCallTarget target) {
+            CacheKey key = getKey(target);
+            if (key != null) {
+                recorded.compute(key, (k, e) -> (e == null ? newEntry(target) : e).withInvalidation());
+            }
+        }
+
+        private CacheKey getKey(OptimizedCallTarget target) {
+            OptimizedCallTarget source = target.getSourceCallTarget();
+            return keys.get(source != null ? source : target);
+        }
+
+        private static CacheEntry newEntry(OptimizedCallTarget target) {
+            return new CacheEntry(target.getName(), (byte) 0, 0, false, System.currentTimeMillis(), WarmupProfile.NONE);
+        }
+
+        /**
+         * Captures the warm-up profiles of call targets that were compiled or that needed
+         * splitting in this run.
+         */
+        private void recordProfiles() {
+            List<Map.Entry<OptimizedCallTarget, CacheKey>> targets;
+            synchronized (keys) {
+                targets = new ArrayList<>(keys.entrySet());
+            }
+            for (Map.Entry<OptimizedCallTarget, CacheKey> mapEntry : targets) {
+                OptimizedCallTarget target = mapEntry.getKey();
+                if (target == null) {
+                    // collected while copying
+                    continue;
+                }
+                CacheKey key = mapEntry.getValue();
+                WarmupProfile profile = WarmupProfile.record(target);
+                if (recorded.containsKey(key) || profile.split) {
+                    recorded.compute(key, (k, e) -> (e == null ? newEntry(target) : e).withProfile(profile));
+                }
+            }
+        }
+
+        void store() {
+            if (profiles) {
+                recordProfiles();
+            }
+            if (recorded.isEmpty()) {
+                return;
+            }
+            synchronized (support) {
+                // merge with entries written by other engines or processes since the file was loaded
+                Map<CacheKey, CacheEntry> merged = new HashMap<>(readCacheFile(file, engine.getEngineLogger(), false));
+                for (Map.Entry<CacheKey, CacheEntry> mapEntry : recorded.entrySet()) {
+                    CacheEntry entry = mapEntry.getValue();
+                    CacheEntry previous = merged.get(mapEntry.getKey());
+                    if (previous != null && entry.invalidations == 0 && !entry.failed) {
+                        // a clean run only improves the previously recorded tier
+                        entry = new CacheEntry(entry.name, (byte) Math.max(entry.tier, previous.tier), entry.invalidations, false, entry.timestamp, entry.profile);
+                    }
+                    if (previous != null && entry.profile.isEmpty()) {
+                        entry = entry.withProfile(previous.profile);
+                    }
+                    if (entry.isWritable()) {
+                        merged.put(mapEntry.getKey(), entry);
+                    } else if (trace) {
+                        log(String.format("[compilation-cache] Skipped %s, its name or profile is too long to be stored.", entry.name.substring(0, Math.min(entry.name.length(), 80))));
+                    }
+                }
+                if (maxEntries >= 0 && merged.size() > maxEntries) {
+                    List<Map.Entry<CacheKey, CacheEntry>> sorted = new ArrayList<>(merged.entrySet());
+                    sorted.sort(Comparator.comparingLong((Map.Entry<CacheKey, CacheEntry> e) -> e.getValue().timestamp).reversed());
+                    merged = new HashMap<>();
+                    for (Map.Entry<CacheKey, CacheEntry> mapEntry : sorted.subList(0, maxEntries)) {
+                        merged.put(mapEntry.getKey(), mapEntry.getValue());
+                    }
+                }
+                try {
+                    writeCacheFile(file, merged);
+                    support.loadedFiles.put(file, Collections.unmodifiableMap(merged));
+                    if (trace) {
+                        log(String.format("[compilation-cache] Stored %d entries (%d recorded, %d primed, %d rejected) to %s.",
+                                        merged.size(), recorded.size(), hits.get(), rejected.get(), file));
+                    }
+                } catch (IOException ioe) {
+                    engine.getEngineLogger().log(Level.WARNING, String.format("[compilation-cache] Failed to write %s: %s", file, ioe.getMessage()));
+                }
+            }
+        }
+
+        private void log(String message) {
+            engine.getEngineLogger().log(Level.INFO, message);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compilation queue that picks the next task by traversing all queued tasks on every dequeue,
+ * instead of ordering them on insertion. This allows the queue to rank tasks by values that change
+ * while they wait:
+ * <ul>
+ * <li>Stale tasks are returned first. A task is stale if it was cancelled, if its call target was
+ * collected or if its call target was already compiled for the requested tier. Running a stale task
+ * completes its future without compiling, which removes duplicates left behind by call targets
+ * that were invalidated and resubmitted.</li>
+ * <li>Initialization tasks are returned before first tier tasks, and first tier tasks before last
+ * tier tasks.</li>
+ * <li>Among tasks of the same tier the task whose call target's call and loop count grew fastest
+ * since it was queued is returned. Ties are broken by submission order.</li>
+ * </ul>
+ * Since the order is not fixed on insertion, a queued first tier task can be
+ * {@link CompilationTask#upgradeToLastTier() upgraded} to a last tier task in place.
+ */
+final class TraversingBlockingQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final ArrayList<Runnable> entries = new ArrayList<>();
+
+    @Override
+    public boolean offer(Runnable e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        lock.lock();
+        try {
+            entries.add(e);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Runnable e) {
+        offer(e);
+    }
+
+    @Override
+    public boolean offer(Runnable e, long timeout, TimeUnit unit) {
+        return offer(e);
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return lockedPoll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            Runnable result;
+            while ((result = lockedPoll()) == null && nanos > 0) {
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            Runnable result;
+            while ((result = lockedPoll()) == null) {
+                notEmpty.await();
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Runnable lockedPoll() {
+        int size = entries.size();
+        if (size == 0) {
+            return null;
+        }
+        long now = System.nanoTime();
+        int bestIndex = -1;
+        int bestRank = Integer.MAX_VALUE;
+        double bestVelocity = 0;
+        for (int i = 0; i < size; i++) {
+            CompilationTask.ExecutorServiceWrapper wrapper = (CompilationTask.ExecutorServiceWrapper) entries.get(i);
+            CompilationTask task = wrapper.compileTask;
+            if (wrapper.isCancelled() || task.isStale()) {
+                return entries.remove(i);
+            }
+            int rank = task.isInitialization() ? 0 : (task.isLastTier() ? 2 : 1);
+            if (rank > bestRank) {
+                continue;
+            }
+            double velocity = task.velocity(now);
+            if (rank < bestRank || velocity > bestVelocity) {
+                bestIndex = i;
+                bestRank = rank;
+                bestVelocity = velocity;
+            }
+        }
+        return entries.remove(bestIndex);
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            return entries.isEmpty() ? null : entries.get(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        lock.lock();
+        try {
+            return entries.remove(o);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public Object[] toArray() {
+        lock.lock();
+        try {
+            return entries.toArray();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        lock.lock();
+        try {
+            return entries.toArray(a);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the queued tasks.
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        ArrayList<Runnable> snapshot;
+        lock.lock();
+        try {
+            snapshot = new ArrayList<>(entries);
+        } finally {
+            lock.unlock();
+        }
+        return snapshot.iterator();
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c, int maxElements) {
+        lock.lock();
+        try {
+            int count = Math.min(maxElements, entries.size());
+            for (int i = 0; i < count; i++) {
+                c.add(entries.get(i));
+            }
+            entries.subList(0, count).clear();
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
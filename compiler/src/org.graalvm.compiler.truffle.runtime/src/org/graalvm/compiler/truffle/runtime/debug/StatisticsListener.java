@@ -298,6 +298,7 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
             printStatistic(out, "Queues", queues);
             printStatistic(out, "Dequeues", dequeues);
             dequeuedReasons.printStatistics(out, String::toString, true, false);
+            printStatistic(out, "Avoided Compilations", runtimeData.getCompilationQueueMetrics().getAvoidedCompilationCount());
             printStatistic(out, "Splits", splits);
             printStatistic(out, "Compilation Accuracy", 1.0 - invalidations / (double) compilations);
             printStatistic(out, "Queue Accuracy", 1.0 - dequeues / (double) queues);
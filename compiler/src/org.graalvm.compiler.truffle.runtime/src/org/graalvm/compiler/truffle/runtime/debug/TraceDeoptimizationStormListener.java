@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime.debug;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
+import org.graalvm.compiler.truffle.runtime.DeoptimizationStormDetector;
+import org.graalvm.compiler.truffle.runtime.DeoptimizationStormDetector.Speculation;
+import org.graalvm.compiler.truffle.runtime.DeoptimizationStormDetector.Statistics;
+import org.graalvm.compiler.truffle.runtime.EngineData;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntimeListener;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+
+import com.oracle.truffle.api.Assumption;
+
+/**
+ * Traces deoptimization storms detected by the {@link DeoptimizationStormDetector} and prints the
+ * most frequently invalidated call targets and assumptions when an engine is closed.
+ */
+public final class TraceDeoptimizationStormListener implements GraalTruffleRuntimeListener {
+
+    private static final int TOP_OFFENDERS = 20;
+
+    private final GraalTruffleRuntime runtime;
+
+    private TraceDeoptimizationStormListener(GraalTruffleRuntime runtime) {
+        this.runtime = runtime;
+    }
+
+    public static void install(GraalTruffleRuntime runtime) {
+        runtime.addListener(new TraceDeoptimizationStormListener(runtime));
+    }
+
+    @Override
+    public void onCompilationDeoptimizationStorm(OptimizedCallTarget target, Speculation speculation, Object source, int invalidations, int backoff) {
+        if (target.getOptionValue(PolyglotCompilerOptions.TraceDeoptimizationStorms)) {
+            Map<String, Object> properties = new LinkedHashMap<>();
+            properties.put("Speculation", speculation);
+            if (source instanceof Assumption) {
+                properties.put("Assumption", ((Assumption) source).getName());
+            }
+            properties.put("Invalidations", invalidations);
+            properties.put("Action", backoff == 0 ? "speculation disabled" : "compilation delayed by " + backoff + " calls");
+            runtime.logEvent(target, 0, "deopt storm", properties);
+        }
+    }
+
+    @Override
+    public void onEngineClosed(EngineData runtimeData) {
+        if (!runtimeData.getEngineOptions().get(PolyglotCompilerOptions.TraceDeoptimizationStorms)) {
+            return;
+        }
+        DeoptimizationStormDetector detector = runtimeData.getDeoptimizationStormDetector();
+        List<Statistics> offenders = detector.getTopOffenders(TOP_OFFENDERS);
+        StringWriter messageBuilder = new StringWriter();
+        try (PrintWriter out = new PrintWriter(messageBuilder)) {
+            out.printf("Deoptimization storms for engine %d: %d", runtimeData.id, detector.getStormCount());
+            out.printf("%n%-60s %8s %8s %8s %8s %8s %8s %8s", "Most invalidated", "Total", "Storms", "Args", "Return", "Rewrite", "Assumpt.", "Other");
+            for (Statistics statistics : offenders) {
+                out.printf("%n%-60s %8d %8d %8d %8d %8d %8d %8d", statistics.getName(), statistics.getInvalidations(), statistics.getStorms(),
+                                statistics.getInvalidations(Speculation.ARGUMENT_TYPES), statistics.getInvalidations(Speculation.RETURN_TYPE),
+                                statistics.getInvalidations(Speculation.NODE_REWRITE), statistics.getInvalidations(Speculation.ASSUMPTION),
+                                statistics.getInvalidations(Speculation.OTHER));
+            }
+        }
+        runtimeData.getEngineLogger().log(Level.INFO, messageBuilder.toString());
+    }
+}
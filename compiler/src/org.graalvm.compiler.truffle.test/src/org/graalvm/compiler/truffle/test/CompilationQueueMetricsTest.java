@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import org.graalvm.compiler.truffle.runtime.CompilationQueueMetrics;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.polyglot.Context;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+public class CompilationQueueMetricsTest extends TestWithPolyglotOptions {
+
+    @After
+    public void tearDown() {
+        cleanup();
+    }
+
+    @Test
+    public void testMetricsRecorded() throws InterruptedException {
+        setupContext(Context.newBuilder().allowExperimentalOptions(true) //
+                        .option("engine.BackgroundCompilation", "true") //
+                        .option("engine.MultiTier", "false") //
+                        .option("engine.CompilationThreshold", "3") //
+                        .option("engine.CompilerThreadScaling", "true"));
+        OptimizedCallTarget target = (OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(new RootNode(null) {
+            @Override
+            public Object execute(VirtualFrame frame) {
+                return 42;
+            }
+
+            @Override
+            public String getName() {
+                return "metrics";
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            target.call();
+        }
+        target.waitForCompilation();
+        Assert.assertTrue(target.isValid());
+
+        CompilationQueueMetrics metrics = target.engine.getCompilationQueueMetrics();
+        Assert.assertEquals(0, metrics.getQueueLength());
+        Assert.assertTrue(metrics.getDequeueCount() >= 1);
+        // The compilation time is recorded after the compilation future completes.
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (metrics.getCompilationCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(metrics.getCompilationCount() >= 1);
+        Assert.assertTrue(metrics.getCompilationTimePercentile(50) > 0);
+        Assert.assertTrue(metrics.getCompilationTimePercentile(50) <= metrics.getCompilationTimePercentile(100));
+        Assert.assertTrue(metrics.getCompilerThreads() >= 1);
+    }
+}
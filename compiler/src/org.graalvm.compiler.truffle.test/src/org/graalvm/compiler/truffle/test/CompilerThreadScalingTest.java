@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue;
+import org.graalvm.compiler.truffle.runtime.CompilationTask;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.polyglot.Context;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Drives the length and the age of a compile queue with blocking tasks and checks that the number
+ * of compiler threads grows and shrinks with it.
+ */
+public class CompilerThreadScalingTest extends TestWithPolyglotOptions {
+
+    private static final int MAX_THREADS = 4;
+
+    private BackgroundCompileQueue queue;
+
+    @After
+    public void tearDown() {
+        if (queue != null) {
+            queue.shutdownAndAwaitTermination(10_000);
+        }
+        cleanup();
+    }
+
+    private OptimizedCallTarget createTarget(String maxThreads) {
+        setupContext(Context.newBuilder().allowExperimentalOptions(true) //
+                        .option("engine.CompilerThreads", "1") //
+                        .option("engine.CompilerThreadScaling", "true") //
+                        .option("engine.MinCompilerThreads", "1") //
+                        .option("engine.MaxCompilerThreads", maxThreads) //
+                        .option("engine.CompilerThreadScalingInterval", "0") //
+                        .option("engine.CompilerThreadScalingMaxQueueAge", "1") //
+                        // independent of the load of the machine running the test
+                        .option("engine.CompilerThreadScalingMaxLoad", "10000"));
+        return (OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(new RootNode(null) {
+            @Override
+            public Object execute(VirtualFrame frame) {
+                return 42;
+            }
+        });
+    }
+
+    @Test
+    public void testGrowAndShrink() throws Exception {
+        OptimizedCallTarget target = createTarget(String.valueOf(MAX_THREADS));
+        queue = new BackgroundCompileQueue(GraalTruffleRuntime.getRuntime());
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompilationTask> tasks = new ArrayList<>();
+        for (int i = 0; i < MAX_THREADS * 2; i++) {
+            tasks.add(queue.submitInitialization(target, (task) -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }));
+            // let the queued tasks age
+            Thread.sleep(2);
+        }
+        // the queue stays long and old while all compiler threads are blocked
+        Assert.assertEquals(MAX_THREADS, queue.getCompilerThreadCount());
+        awaitQueueSize(MAX_THREADS);
+
+        release.countDown();
+        for (CompilationTask task : tasks) {
+            awaitDone(task);
+        }
+        // every task that finishes with an empty queue and idle threads removes a thread
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (queue.getCompilerThreadCount() > 1 && System.currentTimeMillis() < deadline) {
+            awaitDone(queue.submitInitialization(target, (task) -> {
+            }));
+        }
+        Assert.assertEquals(1, queue.getCompilerThreadCount());
+    }
+
+    @Test
+    public void testMergeEngineOptions() throws Exception {
+        OptimizedCallTarget first = createTarget("1");
+        queue = new BackgroundCompileQueue(GraalTruffleRuntime.getRuntime());
+        awaitDone(queue.submitInitialization(first, (task) -> {
+        }));
+        cleanup();
+
+        // a later engine may raise the maximum number of threads
+        OptimizedCallTarget second = createTarget(String.valueOf(MAX_THREADS));
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompilationTask> tasks = new ArrayList<>();
+        for (int i = 0; i < MAX_THREADS * 2; i++) {
+            tasks.add(queue.submitInitialization(second, (task) -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }));
+            Thread.sleep(2);
+        }
+        Assert.assertEquals(MAX_THREADS, queue.getCompilerThreadCount());
+        awaitQueueSize(MAX_THREADS);
+        release.countDown();
+        for (CompilationTask task : tasks) {
+            awaitDone(task);
+        }
+    }
+
+    private static void awaitDone(CompilationTask task) throws Exception {
+        task.awaitCompletion(10, TimeUnit.SECONDS);
+    }
+
+    private void awaitQueueSize(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (queue.getQueueSize() != size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertEquals(size, queue.getQueueSize());
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import org.graalvm.compiler.truffle.runtime.DeoptimizationStormDetector.Speculation;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntimeListener;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+public class DeoptimizationStormTest extends TestWithPolyglotOptions {
+
+    private static final int STORM_THRESHOLD = 3;
+
+    @Test
+    public void testAssumptionStormDelaysRecompilation() {
+        setupStormContext(String.valueOf(STORM_THRESHOLD));
+        AssumptionRootNode rootNode = new AssumptionRootNode();
+        OptimizedCallTarget target = (OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(rootNode);
+        try (StormListener listener = new StormListener(target)) {
+            for (int i = 0; i < STORM_THRESHOLD; i++) {
+                compile(target);
+                rootNode.invalidate();
+                Assert.assertFalse(target.isValid());
+            }
+            Assert.assertEquals(1, listener.storms);
+            Assert.assertEquals(Speculation.ASSUMPTION, listener.speculation);
+            Assert.assertTrue(listener.backoff > 0);
+
+            callTimes(target, 5);
+            Assert.assertFalse("recompilation must be delayed after a deoptimization storm", target.isValid());
+            compile(target);
+        }
+    }
+
+    @Test
+    public void testRepeatedStormsInOneWindow() {
+        setupStormContext(String.valueOf(STORM_THRESHOLD));
+        AssumptionRootNode rootNode = new AssumptionRootNode();
+        OptimizedCallTarget target = (OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(rootNode);
+        try (StormListener listener = new StormListener(target)) {
+            for (int i = 0; i < 2 * STORM_THRESHOLD; i++) {
+                compile(target);
+                rootNode.invalidate();
+            }
+            // the count starts over after each storm
+            Assert.assertEquals(2, listener.storms);
+        }
+    }
+
+    @Test
+    public void testSharedAssumptionStorm() {
+        setupStormContext(String.valueOf(STORM_THRESHOLD));
+        Assumption shared = Truffle.getRuntime().createAssumption("storm test assumption");
+        try (StormListener listener = new StormListener(null)) {
+            for (int i = 0; i < 2 * STORM_THRESHOLD; i++) {
+                compile((OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(new AssumptionRootNode(shared)));
+            }
+            shared.invalidate();
+            // the assumption invalidated each target once, its count starts over after each storm
+            Assert.assertEquals(2, listener.storms);
+            Assert.assertEquals(Speculation.ASSUMPTION, listener.speculation);
+        }
+    }
+
+    @Test
+    public void testDetectionDisabled() {
+        setupStormContext("0");
+        AssumptionRootNode rootNode = new AssumptionRootNode();
+        OptimizedCallTarget target = (OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(rootNode);
+        try (StormListener listener = new StormListener(target)) {
+            for (int i = 0; i < STORM_THRESHOLD; i++) {
+                compile(target);
+                rootNode.invalidate();
+            }
+            Assert.assertEquals(0, listener.storms);
+            // the counters are not reset, the next call compiles again
+            target.call();
+            Assert.assertTrue(target.isValid());
+        }
+    }
+
+    private void setupStormContext(String threshold) {
+        setupContext("engine.BackgroundCompilation", "false",
+                        "engine.MultiTier", "false",
+                        "engine.CompilationThreshold", "10",
+                        "engine.DeoptimizationStormThreshold", threshold);
+    }
+
+    private static void compile(OptimizedCallTarget target) {
+        for (int i = 0; i < 1000 && !target.isValid(); i++) {
+            target.call();
+        }
+        Assert.assertTrue(target.isValid());
+    }
+
+    private static void callTimes(OptimizedCallTarget target, int count) {
+        for (int i = 0; i < count; i++) {
+            target.call();
+        }
+    }
+
+    private static final class AssumptionRootNode extends RootNode {
+
+        @CompilationFinal private Assumption assumption;
+
+        AssumptionRootNode() {
+            this(createAssumption());
+        }
+
+        AssumptionRootNode(Assumption assumption) {
+            super(null);
+            this.assumption = assumption;
+        }
+
+        private static Assumption createAssumption() {
+            return Truffle.getRuntime().createAssumption("storm test assumption");
+        }
+
+        void invalidate() {
+            Assumption previous = assumption;
+            assumption = createAssumption();
+            previous.invalidate();
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return assumption.isValid() ? 42 : 0;
+        }
+    }
+
+    private static final class StormListener implements GraalTruffleRuntimeListener, AutoCloseable {
+
+        private final OptimizedCallTarget focus;
+        int storms;
+        Speculation speculation;
+        int backoff;
+
+        StormListener(OptimizedCallTarget focus) {
+            this.focus = focus;
+            GraalTruffleRuntime.getRuntime().addListener(this);
+        }
+
+        @Override
+        public void onCompilationDeoptimizationStorm(OptimizedCallTarget target, Speculation kind, Object source, int invalidations, int backoffCalls) {
+            if (focus == null || target == focus) {
+                storms++;
+                speculation = kind;
+                backoff = backoffCalls;
+            }
+        }
+
+        @Override
+        public void close() {
+            GraalTruffleRuntime.getRuntime().removeListener(this);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import java.util.Collections;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodes.EncodedGraph;
+import org.graalvm.compiler.truffle.compiler.EncodedGraphCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+public class EncodedGraphCacheLimitTest extends GraalCompilerTest {
+
+    public static int method0() {
+        return 0;
+    }
+
+    public static int method1() {
+        return 1;
+    }
+
+    public static int method2() {
+        return 2;
+    }
+
+    private static EncodedGraph encodedGraph(int size) {
+        return new EncodedGraph(new byte[size], 0, new Object[0], new NodeClass<?>[0], null, Collections.emptyList(), null, false, false);
+    }
+
+    @Test
+    public void testCapacity() {
+        ResolvedJavaMethod m0 = getResolvedJavaMethod("method0");
+        ResolvedJavaMethod m1 = getResolvedJavaMethod("method1");
+        ResolvedJavaMethod m2 = getResolvedJavaMethod("method2");
+        EncodedGraphCache cache = new EncodedGraphCache(2, 0, new EncodedGraphCache.Statistics());
+        cache.put(m0, encodedGraph(16));
+        cache.put(m1, encodedGraph(16));
+        Assert.assertNotNull(cache.get(m0));
+        cache.put(m2, encodedGraph(16));
+
+        // m1 was the least recently used graph
+        Assert.assertEquals(2, cache.size());
+        Assert.assertTrue(cache.containsKey(m0));
+        Assert.assertFalse(cache.containsKey(m1));
+        Assert.assertTrue(cache.containsKey(m2));
+        Assert.assertEquals(1, cache.getStatistics().getEvictions());
+    }
+
+    @Test
+    public void testMemoryLimit() {
+        ResolvedJavaMethod m0 = getResolvedJavaMethod("method0");
+        ResolvedJavaMethod m1 = getResolvedJavaMethod("method1");
+        ResolvedJavaMethod m2 = getResolvedJavaMethod("method2");
+        EncodedGraph graph = encodedGraph(1000);
+        long graphSize = estimateSize(graph);
+        EncodedGraphCache cache = new EncodedGraphCache(-1, 2 * graphSize, new EncodedGraphCache.Statistics());
+        cache.put(m0, graph);
+        cache.put(m1, encodedGraph(1000));
+        Assert.assertEquals(2 * graphSize, cache.getMemoryUsage());
+        cache.put(m2, encodedGraph(1000));
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertFalse(cache.containsKey(m0));
+        Assert.assertEquals(2 * graphSize, cache.getMemoryUsage());
+
+        cache.removeKey(m1);
+        Assert.assertEquals(graphSize, cache.getMemoryUsage());
+        cache.clear();
+        Assert.assertEquals(0, cache.getMemoryUsage());
+    }
+
+    @Test
+    public void testStatistics() {
+        ResolvedJavaMethod m0 = getResolvedJavaMethod("method0");
+        EncodedGraphCache.Statistics statistics = new EncodedGraphCache.Statistics();
+        EncodedGraphCache cache = new EncodedGraphCache(-1, 0, statistics);
+        Assert.assertNull(cache.get(m0));
+        cache.put(m0, encodedGraph(16), 1000);
+        Assert.assertNotNull(cache.get(m0));
+        Assert.assertNotNull(cache.get(m0));
+        // peek does not count as a hit
+        Assert.assertNotNull(cache.peek(m0));
+
+        Assert.assertEquals(2, statistics.getHits());
+        Assert.assertEquals(1, statistics.getMisses());
+        Assert.assertEquals(2000, statistics.getSavedTime());
+
+        // statistics survive purging the cache
+        EncodedGraphCache purged = new EncodedGraphCache(-1, 0, statistics);
+        Assert.assertNull(purged.get(m0));
+        Assert.assertEquals(2, statistics.getMisses());
+    }
+
+    private long estimateSize(EncodedGraph graph) {
+        EncodedGraphCache cache = new EncodedGraphCache(-1, 0, new EncodedGraphCache.Statistics());
+        cache.put(getResolvedJavaMethod("method0"), graph);
+        return cache.getMemoryUsage();
+    }
+}
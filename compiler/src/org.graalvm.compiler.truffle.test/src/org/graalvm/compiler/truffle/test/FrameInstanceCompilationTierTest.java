@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameInstance;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Checks that {@link FrameInstance#getCompilationTier()} tells interpreted and compiled frames
+ * apart, also if the compiled frame is materialized.
+ */
+public class FrameInstanceCompilationTierTest extends TestWithSynchronousCompiling {
+
+    static final class TierRootNode extends RootNode {
+
+        TierRootNode() {
+            super(null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            if ((boolean) frame.getArguments()[0]) {
+                // escapes the frame
+                frame.materialize();
+            }
+            return currentTier();
+        }
+
+        @TruffleBoundary
+        private static int currentTier() {
+            return Truffle.getRuntime().getCurrentFrame().getCompilationTier();
+        }
+    }
+
+    @Test
+    public void testVirtualFrame() {
+        testTier(false);
+    }
+
+    @Test
+    public void testMaterializedFrame() {
+        testTier(true);
+    }
+
+    private static void testTier(boolean materialize) {
+        OptimizedCallTarget target = (OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(new TierRootNode());
+        Assert.assertEquals(0, target.call(materialize));
+        target.compile(true);
+        assertCompiled(target);
+        Assert.assertEquals(2, target.call(materialize));
+    }
+}
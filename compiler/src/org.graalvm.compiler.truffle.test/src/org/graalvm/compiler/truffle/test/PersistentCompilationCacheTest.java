@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget.ReturnProfile;
+import org.graalvm.polyglot.Context;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.api.test.ReflectionUtils;
+
+public class PersistentCompilationCacheTest extends TestWithPolyglotOptions {
+
+    private static final Source SOURCE = Source.newBuilder("cachetest", "function f() { return 42; }", "cachetest.src").build();
+
+    private Path cacheDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheDirectory = Files.createTempDirectory("compilation-cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(cacheDirectory);
+    }
+
+    @Test
+    public void testCachedTargetCompiledAfterWarmup() {
+        recordCompilation();
+        setupCacheContext("100000");
+        OptimizedCallTarget target = createTarget(new ConstantNode());
+        callTimes(target, 2);
+        Assert.assertTrue("cached call target must be compiled after the warm-up", target.isValid());
+    }
+
+    @Test
+    public void testChangedShapeNotCached() {
+        recordCompilation();
+        setupCacheContext("100000");
+        OptimizedCallTarget target = createTarget(new OtherConstantNode());
+        callTimes(target, 2);
+        Assert.assertFalse("call target with a different AST must use the regular thresholds", target.isValid());
+    }
+
+    @Test
+    public void testProfilesSeeded() throws ReflectiveOperationException {
+        recordCompilation();
+        setupCacheContext("100000");
+        OptimizedCallTarget target = createTarget(new ConstantNode());
+        ReturnProfile profile = (ReturnProfile) getField(target, "returnProfile");
+        Assert.assertNotNull("return profile must be seeded before the first call", profile);
+        Assert.assertEquals(Integer.class, profile.getType());
+        Assert.assertTrue(profile.getAssumption().isValid());
+    }
+
+    @Test
+    public void testProfilesDisabled() throws ReflectiveOperationException {
+        recordCompilation();
+        setupContext("engine.BackgroundCompilation", "false",
+                        "engine.MultiTier", "false",
+                        "engine.CompilationThreshold", "100000",
+                        "engine.CompilationCacheDirectory", cacheDirectory.toString(),
+                        "engine.CompilationCacheProfiles", "false");
+        OptimizedCallTarget target = createTarget(new ConstantNode());
+        Assert.assertNull(getField(target, "returnProfile"));
+    }
+
+    @Test
+    public void testSkipFirstTierResetOnInvalidation() throws ReflectiveOperationException {
+        recordCompilation();
+        setupContext("engine.BackgroundCompilation", "false",
+                        "engine.MultiTier", "true",
+                        "engine.CompilationThreshold", "100000",
+                        "engine.CompilationCacheDirectory", cacheDirectory.toString(),
+                        "engine.CompilationCacheWarmupCalls", "2");
+        OptimizedCallTarget target = createTarget(new ConstantNode());
+        Assert.assertEquals(true, getField(target, "skipFirstTier"));
+        callTimes(target, 2);
+        Assert.assertTrue(target.isValid());
+        target.invalidate("test");
+        // recompilations go through the regular tiers again
+        Assert.assertEquals(false, getField(target, "skipFirstTier"));
+    }
+
+    @Test
+    public void testNoCacheWithoutDirectory() {
+        setupContext("engine.BackgroundCompilation", "false", "engine.MultiTier", "false", "engine.CompilationThreshold", "10");
+        OptimizedCallTarget target = createTarget(new ConstantNode());
+        callTimes(target, 10);
+        Assert.assertTrue(target.isValid());
+        cleanup();
+        Assert.assertFalse(Files.exists(cacheDirectory.resolve("truffle-compilation-cache.bin")));
+    }
+
+    @Test
+    public void testNegativeEntryCount() throws IOException {
+        testCorruptEntryCount(-1);
+    }
+
+    @Test
+    public void testHugeEntryCount() throws IOException {
+        testCorruptEntryCount(Integer.MAX_VALUE);
+    }
+
+    private void testCorruptEntryCount(int count) throws IOException {
+        recordCompilation();
+        byte[] bytes = Files.readAllBytes(cacheDirectory.resolve("truffle-compilation-cache.bin"));
+        // the entry count follows the magic number, the version and the runtime name
+        int offset = 4 + 4 + 2 + GraalTruffleRuntime.getRuntime().getName().length();
+        ByteBuffer.wrap(bytes).putInt(offset, count);
+        // cache files are read once per process, so use a directory that was not read yet
+        tearDown();
+        setUp();
+        Files.write(cacheDirectory.resolve("truffle-compilation-cache.bin"), bytes);
+
+        // the corrupt file is ignored and replaced
+        setupCacheContext("100000");
+        OptimizedCallTarget target = createTarget(new ConstantNode());
+        callTimes(target, 2);
+        Assert.assertFalse(target.isValid());
+        cleanup();
+        recordCompilation();
+        setupCacheContext("100000");
+        target = createTarget(new ConstantNode());
+        callTimes(target, 2);
+        Assert.assertTrue(target.isValid());
+    }
+
+    @Test
+    public void testLongNameNotStored() {
+        char[] longName = new char[70000];
+        Arrays.fill(longName, 'f');
+        setupCacheContext("10");
+        OptimizedCallTarget longNameTarget = createTarget(new OtherConstantNode(), new String(longName));
+        OptimizedCallTarget target = createTarget(new ConstantNode());
+        callTimes(longNameTarget, 10);
+        callTimes(target, 10);
+        Assert.assertTrue(longNameTarget.isValid());
+        Assert.assertTrue(target.isValid());
+        cleanup();
+
+        // the entry with the long name is skipped, the other entries are stored
+        setupCacheContext("100000");
+        longNameTarget = createTarget(new OtherConstantNode(), new String(longName));
+        target = createTarget(new ConstantNode());
+        callTimes(longNameTarget, 2);
+        callTimes(target, 2);
+        Assert.assertFalse(longNameTarget.isValid());
+        Assert.assertTrue(target.isValid());
+    }
+
+    private void recordCompilation() {
+        setupCacheContext("10");
+        OptimizedCallTarget target = createTarget(new ConstantNode());
+        callTimes(target, 10);
+        Assert.assertTrue(target.isValid());
+        // closing the context persists the cache
+        cleanup();
+        Assert.assertTrue(Files.exists(cacheDirectory.resolve("truffle-compilation-cache.bin")));
+    }
+
+    private Context setupCacheContext(String compilationThreshold) {
+        return setupContext("engine.BackgroundCompilation", "false",
+                        "engine.MultiTier", "false",
+                        "engine.CompilationThreshold", compilationThreshold,
+                        "engine.CompilationCacheDirectory", cacheDirectory.toString(),
+                        "engine.CompilationCacheWarmupCalls", "2");
+    }
+
+    private static void callTimes(OptimizedCallTarget target, int count) {
+        for (int i = 0; i < count; i++) {
+            target.call();
+        }
+    }
+
+    private static Object getField(OptimizedCallTarget target, String name) throws ReflectiveOperationException {
+        Field field = OptimizedCallTarget.class.getDeclaredField(name);
+        ReflectionUtils.setAccessible(field, true);
+        return field.get(target);
+    }
+
+    private static OptimizedCallTarget createTarget(Node child) {
+        return createTarget(child, "f");
+    }
+
+    private static OptimizedCallTarget createTarget(Node child, String name) {
+        return (OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(new CacheTestRootNode(child, name));
+    }
+
+    static final class CacheTestRootNode extends RootNode {
+
+        @Child private Node child;
+        private final String name;
+
+        CacheTestRootNode(Node child, String name) {
+            super(null);
+            this.child = child;
+            this.name = name;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return 42;
+        }
+
+        @Override
+        public SourceSection getSourceSection() {
+            return SOURCE.createSection(1);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static final class ConstantNode extends Node {
+    }
+
+    static final class OtherConstantNode extends Node {
+    }
+}
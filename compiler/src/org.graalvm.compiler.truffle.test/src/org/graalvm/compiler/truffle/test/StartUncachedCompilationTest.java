@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import org.graalvm.compiler.truffle.runtime.AbstractGraalTruffleRuntimeListener;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.test.StartUncachedCompilationTestFactory.IncrementNodeGen;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.StartUncached;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeCost;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Checks that a node annotated with {@link StartUncached} that is first executed from compiled code
+ * specializes right away instead of invalidating the compiled code on every execution until the
+ * threshold is reached.
+ */
+public class StartUncachedCompilationTest extends TestWithSynchronousCompiling {
+
+    // below the first tier compilation threshold
+    private static final int THRESHOLD = 4;
+
+    @StartUncached(threshold = THRESHOLD)
+    abstract static class IncrementNode extends Node {
+
+        abstract Object execute(Object value);
+
+        @Specialization
+        static int doInt(int value) {
+            return value + 1;
+        }
+
+    }
+
+    static final class IncrementRootNode extends RootNode {
+
+        @Child IncrementNode increment = IncrementNodeGen.create();
+
+        IncrementRootNode() {
+            super(null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return increment.execute(frame.getArguments()[0]);
+        }
+
+    }
+
+    static final class InvalidationCounter extends AbstractGraalTruffleRuntimeListener implements AutoCloseable {
+
+        final OptimizedCallTarget focus;
+        int invalidations;
+
+        InvalidationCounter(GraalTruffleRuntime runtime, OptimizedCallTarget focus) {
+            super(runtime);
+            this.focus = focus;
+            runtime.addListener(this);
+        }
+
+        @Override
+        public void onCompilationInvalidated(OptimizedCallTarget target, Object source, CharSequence reason) {
+            if (target == focus) {
+                invalidations++;
+            }
+        }
+
+        @Override
+        public void close() {
+            runtime.removeListener(this);
+        }
+    }
+
+    @Test
+    public void testCompiledCodeSpecializesImmediately() {
+        IncrementRootNode root = new IncrementRootNode();
+        OptimizedCallTarget target = (OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(root);
+        try (InvalidationCounter counter = new InvalidationCounter(GraalTruffleRuntime.getRuntime(), target)) {
+            for (int i = 0; i < THRESHOLD * 2; i++) {
+                if (!target.isValid()) {
+                    target.compile(true);
+                    assertCompiled(target);
+                }
+                Assert.assertEquals(i + 1, target.call(i));
+            }
+            Assert.assertEquals(1, counter.invalidations);
+            Assert.assertEquals(NodeCost.MONOMORPHIC, root.increment.getCost());
+        }
+    }
+
+    @Test
+    public void testInterpreterExecutesUncached() {
+        IncrementRootNode root = new IncrementRootNode();
+        OptimizedCallTarget target = (OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(root);
+        for (int i = 0; i < THRESHOLD; i++) {
+            Assert.assertEquals(i + 1, target.call(i));
+            Assert.assertEquals(NodeCost.UNINITIALIZED, root.increment.getCost());
+        }
+        target.call(0);
+        Assert.assertEquals(NodeCost.MONOMORPHIC, root.increment.getCost());
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.compiler.test.SubprocessUtil;
+import org.graalvm.compiler.truffle.common.TruffleCompilation;
+import org.graalvm.compiler.truffle.common.TruffleCompiler;
+import org.graalvm.compiler.truffle.common.TruffleDebugContext;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntimeListener;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.runtime.TruffleInlining;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Tests the order in which the traversing compilation queue hands out competing tasks. The
+ * compilation queue and its compiler threads are created once per VM from the options of the
+ * first engine, so every test runs in a fresh subprocess.
+ */
+public class TraversingCompilationQueueTest extends TestWithPolyglotOptions {
+
+    private static final String CONFIGURED_PROPERTY = TraversingCompilationQueueTest.class.getSimpleName() + ".configured";
+
+    private static final String LAST_TIER_THRESHOLD = "100";
+
+    @Test
+    public void testTraversalOrder() throws Exception {
+        executeForked(() -> {
+            setupQueueContext();
+            OptimizedCallTarget blocker = createTarget("blocker");
+            OptimizedCallTarget last = createTarget("last");
+            OptimizedCallTarget slow = createTarget("slow");
+            OptimizedCallTarget fast = createTarget("fast");
+            try (QueueListener listener = new QueueListener(blocker, last, slow, fast)) {
+                listener.block();
+                last.compile(true);
+                slow.compile(false);
+                fast.compile(false);
+                for (int i = 0; i < 50; i++) {
+                    fast.call();
+                }
+                listener.release();
+                waitForCompilation(blocker, last, slow, fast);
+                // first tier before last tier, the faster first tier task first
+                Assert.assertEquals(Arrays.asList("fast:1", "slow:1", "last:2"), listener.started);
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void testStaleAndCoalescedTasks() throws Exception {
+        executeForked(() -> {
+            setupQueueContext();
+            OptimizedCallTarget blocker = createTarget("blocker");
+            OptimizedCallTarget stale = createTarget("stale");
+            OptimizedCallTarget invalidated = createTarget("invalidated");
+            OptimizedCallTarget coalesced = createTarget("coalesced");
+            try (QueueListener listener = new QueueListener(blocker, stale, invalidated, coalesced)) {
+                listener.block();
+                stale.compile(false);
+                invalidated.compile(false);
+                coalesced.compile(false);
+
+                // the queued task of stale is no longer needed once the target has code
+                compileSynchronously(stale);
+                Assert.assertTrue(stale.isValid());
+                // a cancelled task is dropped, the resubmitted one is compiled
+                Assert.assertTrue(invalidated.cancelCompilation("test"));
+                invalidated.compile(false);
+                // a queued first tier task is upgraded once the target is hot enough
+                for (int i = 0; i <= Integer.parseInt(LAST_TIER_THRESHOLD); i++) {
+                    coalesced.call();
+                }
+
+                listener.release();
+                waitForCompilation(blocker, stale, invalidated, coalesced);
+                Assert.assertEquals(Arrays.asList("invalidated:1", "coalesced:2"), listener.started);
+                Assert.assertEquals(Arrays.asList("invalidated:test", "coalesced:Coalesced with a last tier compilation.", "stale:Call target already compiled."), listener.dequeued);
+                Assert.assertEquals(2, stale.engine.getCompilationQueueMetrics().getAvoidedCompilationCount());
+            }
+            return null;
+        });
+    }
+
+    private void setupQueueContext() {
+        setupContext("engine.BackgroundCompilation", "true",
+                        "engine.CompilerThreads", "1",
+                        "engine.TraversingCompilationQueue", "true",
+                        "engine.MultiTier", "true",
+                        "engine.FirstTierMinInvokeThreshold", "1000",
+                        "engine.FirstTierCompilationThreshold", "1000",
+                        "engine.MinInvokeThreshold", LAST_TIER_THRESHOLD,
+                        "engine.CompilationThreshold", LAST_TIER_THRESHOLD);
+    }
+
+    private static OptimizedCallTarget createTarget(String name) {
+        return (OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(new NamedRootNode(name));
+    }
+
+    private static void compileSynchronously(OptimizedCallTarget target) {
+        GraalTruffleRuntime runtime = GraalTruffleRuntime.getRuntime();
+        TruffleCompiler compiler = runtime.getTruffleCompiler(target);
+        Map<String, Object> options = GraalTruffleRuntime.getOptionsForCompiler(target);
+        try (TruffleCompilation compilation = compiler.openCompilation(target)) {
+            TruffleDebugContext debug = compiler.openDebugContext(options, compilation);
+            compiler.doCompile(debug, compilation, options, new TruffleInlining(), null, null);
+        }
+    }
+
+    private static void waitForCompilation(OptimizedCallTarget... targets) {
+        for (OptimizedCallTarget target : targets) {
+            target.waitForCompilation();
+        }
+    }
+
+    private static final class NamedRootNode extends RootNode {
+
+        private final String name;
+
+        NamedRootNode(String name) {
+            super(null);
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return 42;
+        }
+    }
+
+    /**
+     * Records the compilations done by the compiler thread and lets the test hold the compiler
+     * thread in the compilation of the first target until all competing tasks are queued.
+     */
+    private static final class QueueListener implements GraalTruffleRuntimeListener, AutoCloseable {
+
+        private final OptimizedCallTarget blocker;
+        private final Map<OptimizedCallTarget, Boolean> tracked = Collections.synchronizedMap(new IdentityHashMap<>());
+        private final CountDownLatch blockerStarted = new CountDownLatch(1);
+        private final CountDownLatch blockerReleased = new CountDownLatch(1);
+        private final Thread testThread = Thread.currentThread();
+        final List<String> started = Collections.synchronizedList(new ArrayList<>());
+        final List<String> dequeued = Collections.synchronizedList(new ArrayList<>());
+
+        QueueListener(OptimizedCallTarget blocker, OptimizedCallTarget... targets) {
+            this.blocker = blocker;
+            for (OptimizedCallTarget target : targets) {
+                tracked.put(target, Boolean.TRUE);
+            }
+            GraalTruffleRuntime.getRuntime().addListener(this);
+        }
+
+        void block() throws InterruptedException {
+            blocker.compile(true);
+            Assert.assertTrue("compiler thread did not pick up the blocking compilation", blockerStarted.await(60, TimeUnit.SECONDS));
+        }
+
+        void release() {
+            blockerReleased.countDown();
+        }
+
+        @Override
+        public void onCompilationStarted(OptimizedCallTarget target, int tier) {
+            if (target == blocker) {
+                blockerStarted.countDown();
+                try {
+                    blockerReleased.await(60, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            } else if (tracked.containsKey(target) && Thread.currentThread() != testThread) {
+                started.add(target.getRootNode().getName() + ":" + tier);
+            }
+        }
+
+        @Override
+        public void onCompilationDequeued(OptimizedCallTarget target, Object source, CharSequence reason, int tier) {
+            if (tracked.containsKey(target)) {
+                dequeued.add(target.getRootNode().getName() + ":" + reason);
+            }
+        }
+
+        @Override
+        public void close() {
+            release();
+            GraalTruffleRuntime.getRuntime().removeListener(this);
+        }
+    }
+
+    private static void executeForked(Callable<Void> r) throws Exception {
+        if (Boolean.getBoolean(CONFIGURED_PROPERTY)) {
+            r.call();
+        } else {
+            execute(getTestName());
+        }
+    }
+
+    private static String getTestName() {
+        boolean inExecuteForked = false;
+        for (StackTraceElement frame : Thread.currentThread().getStackTrace()) {
+            String methodName = frame.getMethodName();
+            if ("executeForked".equals(methodName)) {
+                inExecuteForked = true;
+            } else if (inExecuteForked) {
+                return methodName;
+            }
+        }
+        throw new IllegalStateException("Failed to find test name");
+    }
+
+    private static void execute(String testName) throws IOException, InterruptedException {
+        List<String> vmArgs = SubprocessUtil.getVMCommandLine();
+        vmArgs.add(SubprocessUtil.PACKAGE_OPENING_OPTIONS);
+        vmArgs.add(1, String.format("-D%s=true", CONFIGURED_PROPERTY));
+        SubprocessUtil.Subprocess subprocess = SubprocessUtil.java(vmArgs,
+                        "com.oracle.mxtool.junit.MxJUnitWrapper",
+                        String.format("%s#%s", TraversingCompilationQueueTest.class.getName(), testName));
+        Assert.assertEquals(String.join("\n", subprocess.output), 0, subprocess.exitCode);
+    }
+}
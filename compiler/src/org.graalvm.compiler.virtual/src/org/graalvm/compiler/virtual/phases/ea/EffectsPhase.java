@@ -26,10 +26,11 @@ package org.graalvm.compiler.virtual.phases.ea;
 
 import static org.graalvm.compiler.phases.common.DeadCodeEliminationPhase.Optionality.Required;
 
-import org.graalvm.collections.EconomicSet;
+import java.util.List;
+
 import org.graalvm.compiler.core.common.util.CompilationAlarm;
 import org.graalvm.compiler.debug.DebugContext;
-import org.graalvm.compiler.graph.Graph.NodeEventScope;
+import org.graalvm.compiler.graph.Graph.ChangeMark;
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.StructuredGraph.ScheduleResult;
@@ -38,7 +39,6 @@ import org.graalvm.compiler.nodes.spi.CoreProviders;
 import org.graalvm.compiler.phases.BasePhase;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
 import org.graalvm.compiler.phases.common.DeadCodeEliminationPhase;
-import org.graalvm.compiler.phases.common.util.EconomicSetNodeEventListener;
 import org.graalvm.compiler.phases.graph.ReentrantBlockIterator;
 import org.graalvm.compiler.phases.schedule.SchedulePhase;
 import org.graalvm.compiler.phases.schedule.SchedulePhase.SchedulingStrategy;
@@ -103,8 +103,8 @@ public abstract class EffectsPhase<CoreProvidersT extends CoreProviders> extends
 
                     if (closure.needsApplyEffects()) {
                         // apply the effects collected during this iteration
-                        EconomicSetNodeEventListener listener = new EconomicSetNodeEventListener();
-                        try (NodeEventScope nes = graph.trackNodeEvents(listener)) {
+                        List<Node> changedNodes;
+                        try (ChangeMark changes = graph.markChanges()) {
                             closure.applyEffects();
 
                             if (debug.isDumpEnabled(DebugContext.VERBOSE_LEVEL)) {
@@ -112,9 +112,10 @@ public abstract class EffectsPhase<CoreProvidersT extends CoreProviders> extends
                             }
 
                             new DeadCodeEliminationPhase(Required).apply(graph);
+                            changedNodes = changes.getChangedNodes().snapshot();
                         }
 
-                        postIteration(graph, context, listener.getNodes());
+                        postIteration(graph, context, changedNodes);
                     }
 
                     if (closure.hasChanged()) {
@@ -130,7 +131,7 @@ public abstract class EffectsPhase<CoreProvidersT extends CoreProviders> extends
         return changed;
     }
 
-    protected void postIteration(final StructuredGraph graph, final CoreProvidersT context, EconomicSet<Node> changedNodes) {
+    protected void postIteration(final StructuredGraph graph, final CoreProvidersT context, List<Node> changedNodes) {
         if (canonicalizer != null) {
             canonicalizer.applyIncremental(graph, context, changedNodes);
         }
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.util.Arrays;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks simple counted loops over arrays that are candidates for loop vectorization. Loop
+ * vectorization is disabled by default, run with {@code -Dgraal.LoopVectorization=true} to compare.
+ */
+@State(Scope.Thread)
+public class LoopVectorizationBenchmark extends BenchmarkBase {
+
+    /** How large should the test-arrays be. */
+    private static final int TESTSIZE = 4096;
+
+    private int[] intsA;
+    private int[] intsB;
+    private int[] intsResult;
+
+    private float[] floatsX;
+    private float[] floatsY;
+
+    private byte[] bytesA;
+    private byte[] bytesB;
+    private byte[] bytesResult;
+
+    @Setup
+    public void setup() {
+        intsA = new int[TESTSIZE];
+        intsB = new int[TESTSIZE];
+        intsResult = new int[TESTSIZE];
+        floatsX = new float[TESTSIZE];
+        floatsY = new float[TESTSIZE];
+        bytesA = new byte[TESTSIZE];
+        bytesB = new byte[TESTSIZE];
+        bytesResult = new byte[TESTSIZE];
+        for (int i = 0; i < TESTSIZE; i++) {
+            intsA[i] = i * 31;
+            intsB[i] = i ^ 0x5555;
+            floatsX[i] = i * 0.5f;
+            floatsY[i] = TESTSIZE - i;
+            bytesA[i] = (byte) i;
+            bytesB[i] = (byte) i;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TESTSIZE)
+    public int[] arrayAdd() {
+        int[] a = intsA;
+        int[] b = intsB;
+        int[] c = intsResult;
+        for (int i = 0; i < c.length; i++) {
+            c[i] = a[i] + b[i];
+        }
+        return c;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TESTSIZE)
+    public int dotProduct() {
+        int[] a = intsA;
+        int[] b = intsB;
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TESTSIZE)
+    public float[] saxpy() {
+        float[] x = floatsX;
+        float[] y = floatsY;
+        for (int i = 0; i < y.length; i++) {
+            y[i] = 1.0001f * x[i] + y[i];
+        }
+        return y;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TESTSIZE)
+    public byte[] byteArrayXor() {
+        byte[] a = bytesA;
+        byte[] b = bytesB;
+        byte[] c = bytesResult;
+        for (int i = 0; i < c.length; i++) {
+            c[i] = (byte) (a[i] ^ b[i]);
+        }
+        return c;
+    }
+
+    /**
+     * The early exit keeps this loop scalar, see {@link #byteArrayCompareIntrinsic()} for the
+     * intrinsified equivalent.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TESTSIZE)
+    public boolean byteArrayCompare() {
+        byte[] a = bytesA;
+        byte[] b = bytesB;
+        if (a.length != b.length) {
+            return false;
+        }
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TESTSIZE)
+    public boolean byteArrayCompareIntrinsic() {
+        return Arrays.equals(bytesA, bytesB);
+    }
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.polyglot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A pool of pre-initialized contexts that share a single {@link Engine engine}. Creating a context
+ * and initializing its languages is a significant part of the latency of short running requests.
+ * A context pool moves this work off the request path: contexts are created and
+ * {@link Context#initialize(String) initialized} on a background thread and handed out by
+ * {@link #acquire()}. After use a context is {@link #release(Context) released}, which disposes it
+ * in the background and refills the pool with a fresh context. Released contexts are never handed
+ * out again, so no guest state can leak from one user of the pool to the next. A context that is in
+ * a bad state, e.g. because it is still executing after a timeout, can be
+ * {@link #discard(Context) discarded} instead.
+ * <p>
+ * All contexts of a pool are bound to the same engine. Language instances and parsed sources are
+ * therefore shared between the pooled contexts, as far as the languages permit it, which makes
+ * repeated evaluation of the same {@link Source source} in a fresh context cheap.
+ * <p>
+ * Usage example:
+ *
+ * <pre>
+ * try (Engine engine = Engine.create();
+ *                 ContextPool pool = ContextPool.newBuilder(engine).initialize("js").size(4).build()) {
+ *     Context context = pool.acquire();
+ *     try {
+ *         context.eval(source);
+ *     } finally {
+ *         pool.release(context);
+ *     }
+ * }
+ * </pre>
+ *
+ * Context pools are thread-safe. Contexts obtained from a pool must not be entered or executing on
+ * any thread when they are released.
+ *
+ * @see Context.Builder#engine(Engine)
+ * @since 21.1
+ */
+public final class ContextPool implements AutoCloseable {
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final Engine engine;
+    private final String[] initializedLanguages;
+    private final Consumer<Context.Builder> configuration;
+    private final int size;
+    private final ConcurrentLinkedQueue<Context> idle = new ConcurrentLinkedQueue<>();
+    private final ExecutorService initializer;
+    private final ExecutorService closer;
+
+    private int pending;
+    private RuntimeException failure;
+    private volatile boolean closed;
+
+    private ContextPool(Engine engine, String[] initializedLanguages, Consumer<Context.Builder> configuration, int size) {
+        this.engine = engine;
+        this.initializedLanguages = initializedLanguages;
+        this.configuration = configuration;
+        this.size = size;
+        this.initializer = createExecutor("Polyglot Context Pool");
+        // released contexts must not wait for, or delay, the initialization of new contexts
+        this.closer = createExecutor("Polyglot Context Pool Close");
+        refill();
+    }
+
+    private static ExecutorService createExecutor(String name) {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), (r) -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Creates a builder for a context pool that creates all of its contexts with the given engine.
+     *
+     * @param engine the engine to share between all contexts of the pool.
+     * @since 21.1
+     */
+    public static Builder newBuilder(Engine engine) {
+        Objects.requireNonNull(engine);
+        return new Builder(engine);
+    }
+
+    /**
+     * Returns the engine shared by all contexts of this pool.
+     *
+     * @since 21.1
+     */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Returns the number of contexts this pool keeps initialized for future {@link #acquire()
+     * acquire} calls.
+     *
+     * @since 21.1
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of initialized contexts that are currently ready to be acquired without
+     * creating a new context on the calling thread.
+     *
+     * @since 21.1
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Takes an initialized context from the pool. If no initialized context is available, a new
+     * context is created and initialized on the calling thread. In either case the pool starts
+     * initializing a replacement in the background. If the most recent initialization of a context
+     * in the background failed and no initialized context is available, then the failure is
+     * rethrown by this method once instead of creating a new context. The returned context must be
+     * passed to {@link #release(Context)}, {@link #discard(Context)} or {@link Context#close()
+     * closed} after use.
+     *
+     * @throws IllegalStateException if the pool is already closed.
+     * @throws PolyglotException in case the initialization of a language failed due to a guest
+     *             language error.
+     * @since 21.1
+     */
+    public Context acquire() {
+        checkClosed();
+        Context context = idle.poll();
+        RuntimeException initializationFailure = null;
+        if (context == null) {
+            synchronized (this) {
+                initializationFailure = failure;
+                failure = null;
+            }
+        }
+        refill();
+        if (initializationFailure != null) {
+            throw initializationFailure;
+        }
+        if (context == null) {
+            context = createContext();
+        }
+        return context;
+    }
+
+    /**
+     * Returns a context that was previously {@link #acquire() acquired} from this pool. The context
+     * is closed in the background and must not be used after this method was called. Contexts
+     * released after the pool was closed are closed immediately.
+     *
+     * @param context a context acquired from this pool.
+     * @since 21.1
+     */
+    public void release(Context context) {
+        Objects.requireNonNull(context);
+        if (closed) {
+            context.close();
+            return;
+        }
+        try {
+            closer.execute(context::close);
+        } catch (RejectedExecutionException e) {
+            // pool was closed concurrently
+            context.close();
+        }
+    }
+
+    /**
+     * Discards a context that was previously {@link #acquire() acquired} from this pool and is in
+     * a bad state, e.g. because it is still executing on another thread. The context is
+     * {@link Context#close(boolean) closed} on the calling thread, cancelling any execution, and
+     * must not be used after this method was called. Unlike {@link #release(Context)} this method
+     * does not return before the context is closed.
+     *
+     * @param context a context acquired from this pool.
+     * @throws PolyglotException in case the close failed due to a guest language error.
+     * @since 21.1
+     */
+    public void discard(Context context) {
+        Objects.requireNonNull(context);
+        context.close(true);
+    }
+
+    /**
+     * Closes this pool and all contexts that are currently idle. Pending background
+     * initializations are interrupted, and contexts that are released concurrently are given a
+     * bounded amount of time to close. Contexts that are currently acquired are not affected and
+     * may still be {@link #release(Context) released}. The shared engine is not closed. If the
+     * pool is already closed then this method has no effect.
+     *
+     * @since 21.1
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        // initialized contexts are no longer needed, a late one closes itself
+        initializer.shutdownNow();
+        closer.shutdown();
+        boolean interrupted = false;
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CLOSE_TIMEOUT_SECONDS);
+            initializer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            closer.awaitTermination(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        List<Context> contexts = new ArrayList<>();
+        Context context;
+        while ((context = idle.poll()) != null) {
+            contexts.add(context);
+        }
+        for (Context c : contexts) {
+            c.close();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkClosed() {
+        if (closed) {
+            throw new IllegalStateException("Context pool is already closed.");
+        }
+    }
+
+    private Context createContext() {
+        Context.Builder builder = Context.newBuilder();
+        if (configuration != null) {
+            configuration.accept(builder);
+        }
+        Context context = builder.engine(engine).build();
+        try {
+            for (String languageId : initializedLanguages) {
+                context.initialize(languageId);
+            }
+        } catch (RuntimeException e) {
+            context.close();
+            throw e;
+        }
+        return context;
+    }
+
+    private synchronized void refill() {
+        while (!closed && idle.size() + pending < size) {
+            try {
+                initializer.execute(this::initializeNext);
+            } catch (RejectedExecutionException e) {
+                return;
+            }
+            pending++;
+        }
+    }
+
+    private void initializeNext() {
+        Context context = null;
+        RuntimeException initializationFailure = null;
+        try {
+            if (!closed) {
+                context = createContext();
+            }
+        } catch (RuntimeException e) {
+            // reported by the next acquire that finds the pool empty
+            initializationFailure = e;
+        }
+        synchronized (this) {
+            pending--;
+            // only the most recent initialization tells whether the pool is healthy
+            failure = initializationFailure;
+            if (context != null && !closed) {
+                idle.add(context);
+                return;
+            }
+        }
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    /**
+     * Builder for a {@link ContextPool context pool}. Create a builder using
+     * {@link ContextPool#newBuilder(Engine)}.
+     *
+     * @since 21.1
+     */
+    public static final class Builder {
+
+        private final Engine engine;
+        private String[] initializedLanguages = new String[0];
+        private Consumer<Context.Builder> configuration;
+        private int size = 1;
+
+        Builder(Engine engine) {
+            this.engine = engine;
+        }
+
+        /**
+         * Sets the languages that are {@link Context#initialize(String) initialized} for every
+         * pooled context before it is handed out. By default no language is initialized eagerly.
+         *
+         * @param languageIds the identifiers of the languages to initialize.
+         * @since 21.1
+         */
+        public Builder initialize(String... languageIds) {
+            Objects.requireNonNull(languageIds);
+            for (String languageId : languageIds) {
+                Objects.requireNonNull(languageId);
+            }
+            this.initializedLanguages = languageIds.clone();
+            return this;
+        }
+
+        /**
+         * Sets the number of initialized contexts the pool keeps ready. The default size is
+         * <code>1</code>. A size of <code>0</code> disables pre-initialization and creates every
+         * context on the acquiring thread.
+         *
+         * @param contexts the number of idle contexts to keep.
+         * @throws IllegalArgumentException if the size is negative.
+         * @since 21.1
+         */
+        public Builder size(int contexts) {
+            if (contexts < 0) {
+                throw new IllegalArgumentException("Context pool size must not be negative.");
+            }
+            this.size = contexts;
+            return this;
+        }
+
+        /**
+         * Sets a function that configures the {@link Context.Builder builder} of every pooled
+         * context, e.g. to set options or access privileges. The {@link Context.Builder#engine(Engine)
+         * engine} is always set to the engine of the pool after the configuration was applied.
+         *
+         * @param configuration the configuration function or <code>null</code> to use the default
+         *            context configuration.
+         * @since 21.1
+         */
+        public Builder configure(Consumer<Context.Builder> configuration) {
+            this.configuration = configuration;
+            return this;
+        }
+
+        /**
+         * Creates a new context pool and starts initializing contexts in the background.
+         *
+         * @since 21.1
+         */
+        public ContextPool build() {
+            return new ContextPool(engine, initializedLanguages, configuration, size);
+        }
+    }
+}
@@ -287,6 +287,18 @@ public abstract class AbstractPolyglotImpl {
 
         public abstract PolyglotException getExecutionEventException(Object impl);
 
+        public abstract Object getSourceCacheStatistics(Engine engine);
+
+        public abstract long getSourceCacheHits(Object impl);
+
+        public abstract long getSourceCacheMisses(Object impl);
+
+        public abstract long getSourceCacheEvictions(Object impl);
+
+        public abstract long getSourceCacheParseTime(Object impl);
+
+        public abstract long getSourceCacheParseTimeSaved(Object impl);
+
     }
 
     public abstract static class AbstractSourceImpl {
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.polyglot.management;
+
+import static org.graalvm.polyglot.management.Management.IMPL;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+
+/**
+ * A snapshot of the parsed source cache counters of an engine. Sources that are
+ * {@link Source.Builder#cached(boolean) cached} are parsed once per language instance and reused
+ * for subsequent evaluations. The counters are aggregated over all languages and contexts of the
+ * engine. The size of the cache can be bounded using the <code>engine.SourceCacheSize</code> and
+ * <code>engine.SourceCacheMaxLength</code> options; the eviction policy is selected with the
+ * <code>engine.SourceCachePolicy</code> option.
+ * <p>
+ * Usage example:
+ *
+ * <pre>
+ * SourceCacheStatistics statistics = SourceCacheStatistics.collect(context.getEngine());
+ * System.out.printf("hit rate %.2f%n", statistics.getHits() / (double) (statistics.getHits() + statistics.getMisses()));
+ * </pre>
+ *
+ * @see Context#eval(Source)
+ * @since 21.1
+ */
+public final class SourceCacheStatistics {
+
+    private final Object impl;
+
+    SourceCacheStatistics(Object impl) {
+        this.impl = impl;
+    }
+
+    /**
+     * Collects the current source cache counters of an engine. The returned snapshot does not
+     * change when the engine evaluates further sources.
+     *
+     * @param engine the engine to collect the counters for.
+     * @since 21.1
+     */
+    public static SourceCacheStatistics collect(Engine engine) {
+        Objects.requireNonNull(engine);
+        return new SourceCacheStatistics(IMPL.getSourceCacheStatistics(engine));
+    }
+
+    /**
+     * Returns the number of evaluations that reused a previously parsed source.
+     *
+     * @since 21.1
+     */
+    public long getHits() {
+        return IMPL.getSourceCacheHits(impl);
+    }
+
+    /**
+     * Returns the number of evaluations that had to parse their source because it was not cached.
+     *
+     * @since 21.1
+     */
+    public long getMisses() {
+        return IMPL.getSourceCacheMisses(impl);
+    }
+
+    /**
+     * Returns the number of parsed sources that were removed from a bounded source cache to stay
+     * within its configured limits. Entries cleared by the garbage collector are not counted.
+     *
+     * @since 21.1
+     */
+    public long getEvictions() {
+        return IMPL.getSourceCacheEvictions(impl);
+    }
+
+    /**
+     * Returns the total time spent parsing sources on cache misses.
+     *
+     * @param unit the time unit of the returned value.
+     * @since 21.1
+     */
+    public long getParseTime(TimeUnit unit) {
+        return unit.convert(IMPL.getSourceCacheParseTime(impl), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the total time saved by cache hits, computed from the time it took to parse each
+     * reused source originally.
+     *
+     * @param unit the time unit of the returned value.
+     * @since 21.1
+     */
+    public long getParseTimeSaved(TimeUnit unit) {
+        return unit.convert(IMPL.getSourceCacheParseTimeSaved(impl), TimeUnit.NANOSECONDS);
+    }
+}
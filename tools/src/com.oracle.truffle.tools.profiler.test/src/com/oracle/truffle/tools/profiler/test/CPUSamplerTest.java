@@ -610,6 +610,51 @@ public class CPUSamplerTest extends AbstractProfilerTest {
         }
     }
 
+    Source busySourceForSampling = makeSource("ROOT(" +
+                    "DEFINE(foo,ROOT(STATEMENT))," +
+                    "DEFINE(bar,ROOT(BLOCK(STATEMENT,LOOP(100, CALL(foo)))))," +
+                    "DEFINE(baz,ROOT(BLOCK(STATEMENT,LOOP(100, CALL(bar)))))," +
+                    "CALL(baz)" +
+                    ")");
+
+    @Test
+    public void testSafepointSampling() {
+        sampler.setSafepointSampling(true);
+        sampler.setFilter(NO_INTERNAL_ROOT_TAG_FILTER);
+        Assert.assertTrue(sampler.isSafepointSampling());
+        sampler.setCollecting(true);
+        long start = System.currentTimeMillis();
+        while (sampler.getSampleCount() < 10 && System.currentTimeMillis() - start < 10000) {
+            eval(busySourceForSampling);
+        }
+        sampler.setCollecting(false);
+        Assert.assertNotEquals(0, sampler.getSampleCount());
+
+        Collection<ProfilerNode<CPUSampler.Payload>> children = sampler.getRootNodes();
+        Assert.assertEquals(1, children.size());
+        ProfilerNode<CPUSampler.Payload> program = children.iterator().next();
+        Assert.assertEquals("", program.getRootName());
+        for (ProfilerNode<CPUSampler.Payload> baz : program.getChildren()) {
+            Assert.assertEquals("baz", baz.getRootName());
+            for (ProfilerNode<CPUSampler.Payload> bar : baz.getChildren()) {
+                Assert.assertEquals("bar", bar.getRootName());
+                for (ProfilerNode<CPUSampler.Payload> foo : bar.getChildren()) {
+                    Assert.assertEquals("foo", foo.getRootName());
+                    Assert.assertTrue(foo.getChildren().isEmpty());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSafepointSamplingConfig() {
+        expectProfilerException(() -> {
+            sampler.setCollecting(true);
+            sampler.setSafepointSampling(true);
+        }, () -> {
+        });
+    }
+
     @Test
     public void testNegativePeriod() {
         expectProfilerException(() -> sampler.setPeriod(-1), () -> sampler.setCollecting(true));
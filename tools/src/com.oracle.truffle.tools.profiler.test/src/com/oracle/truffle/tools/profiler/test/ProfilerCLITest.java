@@ -82,6 +82,36 @@ public class ProfilerCLITest {
         deepCompare(samples, profilerNodes);
     }
 
+    @Test
+    public void testSamplerCollapsed() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        Context context = Context.newBuilder().in(System.in).out(out).err(err).allowExperimentalOptions(true).option("cpusampler", "true").option("cpusampler.Output", "collapsed").option(
+                        "cpusampler.SafepointSampling", "true").build();
+        Source defaultSourceForSampling = makeSource("ROOT(" +
+                        "DEFINE(foo,ROOT(STATEMENT))," +
+                        "DEFINE(bar,ROOT(BLOCK(STATEMENT,LOOP(100, CALL(foo)))))," +
+                        "DEFINE(baz,ROOT(BLOCK(STATEMENT,LOOP(100, CALL(bar)))))," +
+                        "CALL(baz)" +
+                        ")");
+        CPUSampler sampler = CPUSampler.find(context.getEngine());
+        long start = System.currentTimeMillis();
+        while (sampler.getSampleCount() < 10 && System.currentTimeMillis() - start < 10000) {
+            context.eval(defaultSourceForSampling);
+        }
+        context.close();
+        String[] lines = out.toString().trim().split("\\R");
+        Assert.assertNotEquals(0, lines.length);
+        for (String line : lines) {
+            int countIndex = line.lastIndexOf(' ');
+            Assert.assertTrue(line, Integer.parseInt(line.substring(countIndex + 1)) > 0);
+            String[] frames = line.substring(0, countIndex).split(";");
+            // the first frame is the thread
+            Assert.assertEquals(line, Thread.currentThread().getName(), frames[0]);
+            Assert.assertTrue(line, frames.length > 1);
+        }
+    }
+
     private void deepCompare(JSONArray samples, Collection<ProfilerNode<CPUSampler.Payload>> nodes) {
         for (int i = 0; i < samples.length(); i++) {
             JSONObject sample = (JSONObject) samples.get(i);
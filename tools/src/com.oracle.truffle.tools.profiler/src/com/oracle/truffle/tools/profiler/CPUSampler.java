@@ -63,7 +63,9 @@ import com.oracle.truffle.tools.profiler.impl.ProfilerToolFactory;
  * <p>
  * The sampler keeps a shadow stack during execution. This shadow stack is sampled at regular
  * intervals, i.e. the state of the stack is copied and saved into trees of {@linkplain ProfilerNode
- * nodes}, which represent the profile of the execution.
+ * nodes}, which represent the profile of the execution. Alternatively the sampler can
+ * {@link #setSafepointSampling(boolean) sample at safepoints}, walking the Truffle frames of each
+ * thread instead of maintaining a shadow stack.
  * <p>
  * Usage example: {@codesnippet CPUSamplerSnippets#example}
  *
@@ -214,6 +216,12 @@ public final class CPUSampler implements Closeable {
     private volatile ShadowStack shadowStack;
     private volatile EventBinding<?> stacksBinding;
 
+    private boolean safepointSampling = false;
+
+    private volatile SafepointStackSampler safepointStackSampler;
+
+    private final List<TruffleContext> contexts = new ArrayList<>();
+
     private final Map<Thread, ProfilerNode<Payload>> rootNodes = new HashMap<>();
 
     private final Env env;
@@ -229,7 +237,9 @@ public final class CPUSampler implements Closeable {
         env.getInstrumenter().attachContextsListener(new ContextsListener() {
             @Override
             public void onContextCreated(TruffleContext context) {
-
+                synchronized (contexts) {
+                    contexts.add(context);
+                }
             }
 
             @Override
@@ -256,7 +266,9 @@ public final class CPUSampler implements Closeable {
 
             @Override
             public void onContextClosed(TruffleContext context) {
-
+                synchronized (contexts) {
+                    contexts.remove(context);
+                }
             }
         }, true);
     }
@@ -386,6 +398,32 @@ public final class CPUSampler implements Closeable {
         this.delaySamplingUntilNonInternalLangInit = delaySamplingUntilNonInternalLangInit;
     }
 
+    /**
+     * Enables or disables sampling at safepoints. If enabled, samples are taken by walking the
+     * Truffle frames of each thread at its next {@link com.oracle.truffle.api.TruffleSafepoint
+     * safepoint} instead of copying a shadow stack that is maintained on every call. This avoids
+     * any overhead while no sample is taken, which makes it suitable to stay enabled in
+     * production. Safepoint sampling only resolves {@link RootTag roots}, in
+     * {@link Mode#STATEMENTS statements mode} the shadow stack is always used. Inlined roots are
+     * always included. Disabled by default.
+     *
+     * @param safepointSampling <code>true</code> to sample at safepoints
+     * @since 21.1
+     */
+    public synchronized void setSafepointSampling(boolean safepointSampling) {
+        enterChangeConfig();
+        this.safepointSampling = safepointSampling;
+    }
+
+    /**
+     * @return whether samples are taken at safepoints instead of using a shadow stack.
+     * @see #setSafepointSampling(boolean)
+     * @since 21.1
+     */
+    public synchronized boolean isSafepointSampling() {
+        return safepointSampling;
+    }
+
     /**
      * @return The filter describing which part of the source code to sample
      * @since 0.30
@@ -544,6 +582,9 @@ public final class CPUSampler implements Closeable {
      * @since 19.0
      */
     public Map<Thread, List<StackTraceEntry>> takeSample() {
+        if (usesSafepoints()) {
+            return takeSafepointSample();
+        }
         ShadowStack localShadowStack = shadowStack;
         if (localShadowStack == null) {
             localShadowStack = initializeShadowStack();
@@ -569,6 +610,41 @@ public final class CPUSampler implements Closeable {
         return Collections.unmodifiableMap(stacks);
     }
 
+    private Map<Thread, List<StackTraceEntry>> takeSafepointSample() {
+        SafepointStackSampler localSampler = safepointStackSampler;
+        if (localSampler == null) {
+            localSampler = initializeSafepointSampler();
+        }
+        if (delaySamplingUntilNonInternalLangInit && !nonInternalLanguageContextInitialized) {
+            return Collections.emptyMap();
+        }
+        Map<Thread, List<StackTraceEntry>> stacks = new HashMap<>();
+        for (Entry<Thread, List<StackTraceEntry>> entry : localSampler.sample(env, getContexts(), safepointTimeout()).entrySet()) {
+            stacks.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+        }
+        if (localSampler.hasStackOverflowed()) {
+            stackOverflowed = true;
+        }
+        return Collections.unmodifiableMap(stacks);
+    }
+
+    private synchronized boolean usesSafepoints() {
+        return safepointSampling && mode != Mode.STATEMENTS;
+    }
+
+    private List<TruffleContext> getContexts() {
+        synchronized (contexts) {
+            return new ArrayList<>(contexts);
+        }
+    }
+
+    /*
+     * Threads that do not reach a safepoint within this time are skipped for the current sample.
+     */
+    private synchronized long safepointTimeout() {
+        return Math.max(period, 10L);
+    }
+
     static Map<Thread, StackTraceElement[]> toStackTraceElement(Map<Thread, List<StackTraceEntry>> sample) {
         Map<Thread, StackTraceElement[]> converted = new HashMap<>();
         for (Entry<Thread, List<StackTraceEntry>> entry : sample.entrySet()) {
@@ -591,6 +667,18 @@ public final class CPUSampler implements Closeable {
         return localShadowStack;
     }
 
+    private synchronized SafepointStackSampler initializeSafepointSampler() {
+        SafepointStackSampler localSampler = safepointStackSampler;
+        if (localSampler == null) {
+            SourceSectionFilter f = this.filter;
+            if (f == null) {
+                f = DEFAULT_FILTER;
+            }
+            this.safepointStackSampler = localSampler = new SafepointStackSampler(env.getInstrumenter(), combine(f, Mode.ROOTS), stackLimit);
+        }
+        return localSampler;
+    }
+
     private void resetSampling() {
         assert Thread.holdsLock(this);
         cleanup();
@@ -602,7 +690,11 @@ public final class CPUSampler implements Closeable {
             samplerThread = new Timer("Sampling thread", true);
         }
         this.stackOverflowed = false;
-        initializeShadowStack();
+        if (usesSafepoints()) {
+            initializeSafepointSampler();
+        } else {
+            initializeShadowStack();
+        }
         this.samplerTask = new SamplingTimerTask();
         this.samplerThread.schedule(samplerTask, delay, period);
     }
@@ -640,6 +732,11 @@ public final class CPUSampler implements Closeable {
     }
 
     private void invalidateStack() {
+        if (safepointStackSampler != null) {
+            synchronized (this) {
+                safepointStackSampler = null;
+            }
+        }
         ShadowStack localShadowStack = this.shadowStack;
         if (localShadowStack != null) {
             synchronized (this) {
@@ -666,19 +763,23 @@ public final class CPUSampler implements Closeable {
             }
             long timestamp = System.currentTimeMillis();
             boolean sampleTaken = false;
+            SafepointStackSampler localSampler = safepointStackSampler;
+            if (localSampler != null) {
+                Map<Thread, List<StackTraceEntry>> stacks = localSampler.sample(env, getContexts(), safepointTimeout());
+                if (localSampler.hasStackOverflowed()) {
+                    stackOverflowed = true;
+                }
+                for (Entry<Thread, List<StackTraceEntry>> entry : stacks.entrySet()) {
+                    List<StackTraceEntry> stack = new ArrayList<>(entry.getValue());
+                    // the tree is built starting at the bottom most frame
+                    Collections.reverse(stack);
+                    sampleTaken |= record(stack.toArray(new StackTraceEntry[stack.size()]), timestamp, getThreadNode(entry.getKey()));
+                }
+            }
             ShadowStack localShadowStack = shadowStack;
             if (localShadowStack != null) {
                 for (ShadowStack.ThreadLocalStack stack : localShadowStack.getStacks()) {
-                    ProfilerNode<Payload> threadNode;
-                    synchronized (CPUSampler.this) {
-                        threadNode = rootNodes.computeIfAbsent(stack.getThread(), new Function<Thread, ProfilerNode<Payload>>() {
-                            @Override
-                            public ProfilerNode<Payload> apply(Thread thread) {
-                                return new ProfilerNode<>();
-                            }
-                        });
-                    }
-                    sampleTaken |= sample(stack, timestamp, threadNode);
+                    sampleTaken |= sample(stack, timestamp, getThreadNode(stack.getThread()));
                 }
             }
             if (sampleTaken) {
@@ -686,6 +787,17 @@ public final class CPUSampler implements Closeable {
             }
         }
 
+        private ProfilerNode<Payload> getThreadNode(Thread thread) {
+            synchronized (CPUSampler.this) {
+                return rootNodes.computeIfAbsent(thread, new Function<Thread, ProfilerNode<Payload>>() {
+                    @Override
+                    public ProfilerNode<Payload> apply(Thread t) {
+                        return new ProfilerNode<>();
+                    }
+                });
+            }
+        }
+
         boolean sample(ShadowStack.ThreadLocalStack stack, long timestamp, ProfilerNode<Payload> threadNode) {
             if (stack.hasStackOverflowed()) {
                 stackOverflowed = true;
@@ -699,6 +811,10 @@ public final class CPUSampler implements Closeable {
             if (stackFrames == null || stackFrames.length == 0) {
                 return false;
             }
+            return record(stackFrames, timestamp, threadNode);
+        }
+
+        private boolean record(StackTraceEntry[] stackFrames, long timestamp, ProfilerNode<Payload> threadNode) {
             synchronized (CPUSampler.this) {
                 // now traverse the stack and insert the path into the tree
                 ProfilerNode<Payload> treeNode = threadNode;
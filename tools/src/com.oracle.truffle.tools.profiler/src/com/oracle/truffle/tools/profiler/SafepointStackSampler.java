@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.profiler;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.ThreadLocalAction;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleContext;
+import com.oracle.truffle.api.TruffleSafepoint;
+import com.oracle.truffle.api.frame.FrameInstance;
+import com.oracle.truffle.api.frame.FrameInstanceVisitor;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument.Env;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeVisitor;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Samples the stacks of all threads of a set of contexts by walking the Truffle frames at the next
+ * safepoint of each thread. Unlike {@link ShadowStack} this does not need any instrumentation of
+ * the executed code, the cost is only paid when a sample is taken.
+ */
+final class SafepointStackSampler {
+
+    private static final StackTraceEntry[] NOT_SAMPLED = new StackTraceEntry[0];
+
+    private final Instrumenter instrumenter;
+    private final SourceSectionFilter rootFilter;
+    private final int stackLimit;
+    /*
+     * Interpreted and compiled entry per sampled root, NOT_SAMPLED if the root is not included.
+     * The entries reference a node of the root, so they are only weakly referenced to not keep
+     * the root alive.
+     */
+    private final Map<RootNode, WeakReference<StackTraceEntry[]>> rootEntries = new WeakHashMap<>();
+    private volatile boolean overflowed;
+
+    SafepointStackSampler(Instrumenter instrumenter, SourceSectionFilter rootFilter, int stackLimit) {
+        this.instrumenter = instrumenter;
+        this.rootFilter = rootFilter;
+        this.stackLimit = stackLimit;
+    }
+
+    boolean hasStackOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * Samples all threads active in the given contexts. Threads that do not reach a safepoint
+     * within the timeout are not included in the result. The returned stacks start with the top
+     * most frame.
+     */
+    Map<Thread, List<StackTraceEntry>> sample(Env env, Collection<TruffleContext> contexts, long timeoutMillis) {
+        Map<Thread, List<StackTraceEntry>> stacks = new ConcurrentHashMap<>();
+        SampleAction action = new SampleAction(stacks);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (TruffleContext context : contexts) {
+            if (context.isClosed()) {
+                continue;
+            }
+            try {
+                futures.add(env.submitThreadLocal(context, null, action));
+            } catch (IllegalStateException e) {
+                // context closed concurrently
+            }
+        }
+        // the current thread might be a target itself if sampled from guest code
+        TruffleSafepoint.poll(null);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (Future<Void> future : futures) {
+            try {
+                future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(false);
+            } catch (InterruptedException e) {
+                future.cancel(false);
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | CancellationException e) {
+                // no sample for this context
+            }
+        }
+        return stacks;
+    }
+
+    private StackTraceEntry[] getRootEntries(RootNode root) {
+        synchronized (rootEntries) {
+            WeakReference<StackTraceEntry[]> ref = rootEntries.get(root);
+            StackTraceEntry[] entries = ref != null ? ref.get() : null;
+            if (entries == null) {
+                Node node = findRootLocation(root);
+                if (node == null) {
+                    entries = NOT_SAMPLED;
+                } else {
+                    StackTraceEntry interpreted = new StackTraceEntry(instrumenter, node, StackTraceEntry.STATE_INTERPRETED);
+                    entries = new StackTraceEntry[]{interpreted, new StackTraceEntry(interpreted, StackTraceEntry.STATE_COMPILED)};
+                }
+                rootEntries.put(root, new WeakReference<>(entries));
+            }
+            return entries;
+        }
+    }
+
+    /*
+     * The root tag is provided by a node of the language AST, not by the root node itself.
+     */
+    private Node findRootLocation(RootNode root) {
+        Node[] found = new Node[1];
+        root.accept(new NodeVisitor() {
+            @Override
+            public boolean visit(Node node) {
+                if (node.getSourceSection() != null && rootFilter.includes(node)) {
+                    found[0] = node;
+                    return false;
+                }
+                return true;
+            }
+        });
+        return found[0];
+    }
+
+    private final class SampleAction extends ThreadLocalAction {
+
+        private final Map<Thread, List<StackTraceEntry>> stacks;
+
+        SampleAction(Map<Thread, List<StackTraceEntry>> stacks) {
+            super(false, false);
+            this.stacks = stacks;
+        }
+
+        @Override
+        protected void perform(Access access) {
+            List<StackTraceEntry> entries = new ArrayList<>();
+            boolean overflow = Truffle.getRuntime().iterateFrames(new FrameInstanceVisitor<Boolean>() {
+                @Override
+                public Boolean visitFrame(FrameInstance frameInstance) {
+                    CallTarget target = frameInstance.getCallTarget();
+                    if (!(target instanceof RootCallTarget)) {
+                        return null;
+                    }
+                    StackTraceEntry[] rootLocations = getRootEntries(((RootCallTarget) target).getRootNode());
+                    if (rootLocations == NOT_SAMPLED) {
+                        return null;
+                    }
+                    if (entries.size() >= stackLimit) {
+                        return Boolean.TRUE;
+                    }
+                    entries.add(rootLocations[frameInstance.getCompilationTier() > 0 ? 1 : 0]);
+                    return null;
+                }
+            }) != null;
+            if (overflow) {
+                overflowed = true;
+            } else if (!entries.isEmpty()) {
+                stacks.put(access.getThread(), entries);
+            }
+        }
+    }
+
+}
@@ -56,6 +56,7 @@ class CPUSamplerCLI extends ProfilerCLI {
         HISTOGRAM,
         CALLTREE,
         JSON,
+        COLLAPSED,
     }
 
     static final OptionType<Output> CLI_OUTPUT_TYPE = new OptionType<>("Output",
@@ -65,7 +66,7 @@ class CPUSamplerCLI extends ProfilerCLI {
                             try {
                                 return Output.valueOf(s.toUpperCase());
                             } catch (IllegalArgumentException e) {
-                                throw new IllegalArgumentException("Output can be: histogram, calltree or json");
+                                throw new IllegalArgumentException("Output can be: histogram, calltree, json or collapsed");
                             }
                         }
                     });
@@ -100,9 +101,12 @@ class CPUSamplerCLI extends ProfilerCLI {
     @Option(name = "StackLimit", help = "Maximum number of maximum stack elements.", category = OptionCategory.USER, stability = OptionStability.STABLE) //
     static final OptionKey<Integer> STACK_LIMIT = new OptionKey<>(10000);
 
-    @Option(name = "Output", help = "Print a 'histogram', 'calltree' or 'json' as output (default:HISTOGRAM).", category = OptionCategory.USER, stability = OptionStability.STABLE) //
+    @Option(name = "Output", help = "Print a 'histogram', 'calltree', 'json' or 'collapsed' stacks for flame graphs as output (default:HISTOGRAM).", category = OptionCategory.USER, stability = OptionStability.STABLE) //
     static final OptionKey<Output> OUTPUT = new OptionKey<>(Output.HISTOGRAM, CLI_OUTPUT_TYPE);
 
+    @Option(name = "SafepointSampling", help = "Sample by walking the stack at safepoints instead of maintaining a shadow stack. Has no overhead between samples, not supported in statements mode (default:false).", category = OptionCategory.USER) //
+    static final OptionKey<Boolean> SAFEPOINT_SAMPLING = new OptionKey<>(false);
+
     @Option(name = "FilterRootName", help = "Wildcard filter for program roots. (eg. Math.*, default:*).", category = OptionCategory.USER, stability = OptionStability.STABLE) //
     static final OptionKey<Object[]> FILTER_ROOT = new OptionKey<>(new Object[0], WILDCARD_FILTER_TYPE);
 
@@ -151,6 +155,10 @@ class CPUSamplerCLI extends ProfilerCLI {
                     break;
                 case JSON:
                     printSamplingJson(out, sampler);
+                    break;
+                case COLLAPSED:
+                    printCollapsedStacks(out, sampler, summariseThreads);
+                    break;
             }
         }
     }
@@ -174,6 +182,37 @@ class CPUSamplerCLI extends ProfilerCLI {
         out.println(output.toString());
     }
 
+    /*
+     * One line per distinct stack with self samples in the format of the flame graph tools:
+     * frames separated by ';', bottom most frame first, followed by a space and the sample count.
+     */
+    private static void printCollapsedStacks(PrintStream out, CPUSampler sampler, boolean summariseThreads) {
+        Map<Thread, Collection<ProfilerNode<CPUSampler.Payload>>> threadToNodesMap = summariseThreads ? makeOneEntryMap(sampler) : sampler.getThreadToNodesMap();
+        for (Map.Entry<Thread, Collection<ProfilerNode<CPUSampler.Payload>>> entry : threadToNodesMap.entrySet()) {
+            String prefix = summariseThreads ? "" : toCollapsedFrame(entry.getKey().getName()) + ";";
+            printCollapsedStacksRec(out, prefix, entry.getValue());
+        }
+    }
+
+    private static void printCollapsedStacksRec(PrintStream out, String prefix, Collection<ProfilerNode<CPUSampler.Payload>> nodes) {
+        for (ProfilerNode<CPUSampler.Payload> node : nodes) {
+            String rootName = node.getRootName();
+            if (!node.getTags().contains(StandardTags.RootTag.class)) {
+                rootName += "~" + formatIndices(node.getSourceSection(), true);
+            }
+            String stack = prefix + toCollapsedFrame(rootName + " (" + getShortDescription(node.getSourceSection()) + ")");
+            int selfHitCount = node.getPayload().getSelfHitCount();
+            if (selfHitCount > 0) {
+                out.println(stack + " " + selfHitCount);
+            }
+            printCollapsedStacksRec(out, stack + ";", node.getChildren());
+        }
+    }
+
+    private static String toCollapsedFrame(String name) {
+        return name.replace(';', ',').replace('\n', ' ');
+    }
+
     private static JSONArray getSamplesRec(Collection<ProfilerNode<CPUSampler.Payload>> nodes) {
         JSONArray samples = new JSONArray();
         for (ProfilerNode<CPUSampler.Payload> node : nodes) {
@@ -210,6 +210,7 @@ suite = {
       "dependencies" : [
         "com.oracle.truffle.api.instrumentation.test",
         "TRUFFLE_API",
+        "TRUFFLE_SL",
         "mx:JMH_1_21",
       ],
       "requiresConcealed" : {
@@ -408,6 +409,18 @@ suite = {
       "workingSets" : "API,Truffle",
     },
 
+    "com.oracle.truffle.api.staticobject" : {
+      "subDir" : "src",
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "com.oracle.truffle.api",
+        "truffle:TRUFFLE_ASM_7.2",
+      ],
+      "checkstyle" : "com.oracle.truffle.api",
+      "javaCompliance" : "8+",
+      "workingSets" : "API,Truffle",
+    },
+
     "com.oracle.truffle.api.object.dsl" : {
       "subDir" : "src",
       "sourceDirs" : ["src"],
@@ -827,6 +840,7 @@ suite = {
           "com.oracle.truffle.api.interop",
           "com.oracle.truffle.api.exception",
           "com.oracle.truffle.api.object",
+          "com.oracle.truffle.api.staticobject",
           "com.oracle.truffle.api.utilities",
           "com.oracle.truffle.api.library",
 
@@ -846,6 +860,7 @@ suite = {
         "com.oracle.truffle.api.utilities",
         "com.oracle.truffle.object",
         "com.oracle.truffle.api.object.dsl",
+        "com.oracle.truffle.api.staticobject",
         "com.oracle.truffle.polyglot",
       ],
       "distDependencies" : [
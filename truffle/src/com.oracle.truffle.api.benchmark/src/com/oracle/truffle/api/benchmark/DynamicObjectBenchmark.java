@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.DynamicObjectLibrary;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * Measures the allocation and initialization of objects with many properties, all of which are
+ * stored in extension arrays.
+ */
+public class DynamicObjectBenchmark extends TruffleBenchmark {
+
+    static final class MyDynamicObject extends DynamicObject {
+        MyDynamicObject(Shape shape) {
+            super(shape);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PropertyState {
+        @Param({"8", "32"}) int properties;
+
+        final Shape rootShape = Shape.newBuilder().layout(MyDynamicObject.class).build();
+        final DynamicObjectLibrary library = DynamicObjectLibrary.getUncached();
+        String[] objectKeys;
+        String[] intKeys;
+        String[] doubleKeys;
+
+        @Setup
+        public void setup() {
+            objectKeys = new String[properties];
+            intKeys = new String[properties];
+            doubleKeys = new String[properties];
+            for (int i = 0; i < properties; i++) {
+                objectKeys[i] = "o" + i;
+                intKeys[i] = "i" + i;
+                doubleKeys[i] = "d" + i;
+            }
+        }
+    }
+
+    @Benchmark
+    public Object allocateAndFillObjectProperties(PropertyState state) {
+        DynamicObject object = new MyDynamicObject(state.rootShape);
+        for (int i = 0; i < state.properties; i++) {
+            state.library.put(object, state.objectKeys[i], state);
+        }
+        return object;
+    }
+
+    @Benchmark
+    public Object allocateAndFillPrimitiveProperties(PropertyState state) {
+        DynamicObject object = new MyDynamicObject(state.rootShape);
+        for (int i = 0; i < state.properties; i++) {
+            state.library.putInt(object, state.intKeys[i], i);
+            state.library.putDouble(object, state.doubleKeys[i], i);
+        }
+        return object;
+    }
+
+    @Benchmark
+    public Object allocateAndFillMixedProperties(PropertyState state) {
+        DynamicObject object = new MyDynamicObject(state.rootShape);
+        for (int i = 0; i < state.properties; i++) {
+            state.library.put(object, state.objectKeys[i], state);
+            state.library.putInt(object, state.intKeys[i], i);
+            state.library.putDouble(object, state.doubleKeys[i], i);
+        }
+        return object;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import org.graalvm.polyglot.Context;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameSlotTypeException;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.impl.DefaultTruffleRuntime;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Compares frames of descriptors with dynamic slot kinds to frames of descriptors with
+ * {@link FrameDescriptor#createWithStaticSlotKinds(Object) static slot kinds}, both for frames
+ * created and accessed in the interpreter and for frames accessed from compiled code.
+ */
+public class FrameBenchmark extends TruffleBenchmark {
+
+    static final int SLOTS = 16;
+
+    static FrameDescriptor createDescriptor(boolean staticSlotKinds, FrameSlot[] slots) {
+        FrameDescriptor descriptor = staticSlotKinds ? FrameDescriptor.createWithStaticSlotKinds(null) : new FrameDescriptor();
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = descriptor.addFrameSlot("s" + i, i % 2 == 0 ? FrameSlotKind.Object : FrameSlotKind.Int);
+        }
+        return descriptor;
+    }
+
+    static int writeAndRead(Frame frame, FrameSlot[] slots, Object value) throws FrameSlotTypeException {
+        for (int i = 0; i < slots.length; i += 2) {
+            frame.setObject(slots[i], value);
+            frame.setInt(slots[i + 1], i);
+        }
+        int sum = 0;
+        for (int i = 0; i < slots.length; i += 2) {
+            if (frame.getObject(slots[i]) == value) {
+                sum += frame.getInt(slots[i + 1]);
+            }
+        }
+        return sum;
+    }
+
+    @State(Scope.Thread)
+    public static class InterpreterState {
+        @Param({"false", "true"}) boolean staticSlotKinds;
+
+        final FrameSlot[] slots = new FrameSlot[SLOTS];
+        final Object[] arguments = new Object[0];
+        FrameDescriptor descriptor;
+        MaterializedFrame frame;
+        Context context;
+
+        @Setup
+        public void setup() {
+            if (Truffle.getRuntime() instanceof DefaultTruffleRuntime) {
+                context = Context.newBuilder().build();
+            } else {
+                context = Context.newBuilder().allowExperimentalOptions(true).option("engine.Compilation", "false").build();
+            }
+            context.enter();
+            descriptor = createDescriptor(staticSlotKinds, slots);
+            frame = Truffle.getRuntime().createMaterializedFrame(arguments, descriptor);
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.leave();
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Object interpreterCreateFrame(InterpreterState state) {
+        return Truffle.getRuntime().createMaterializedFrame(state.arguments, state.descriptor);
+    }
+
+    @Benchmark
+    public int interpreterAccessFrame(InterpreterState state) throws FrameSlotTypeException {
+        return writeAndRead(state.frame, state.slots, state);
+    }
+
+    @Benchmark
+    public int interpreterCreateAndAccessFrame(InterpreterState state) throws FrameSlotTypeException {
+        return writeAndRead(Truffle.getRuntime().createMaterializedFrame(state.arguments, state.descriptor), state.slots, state);
+    }
+
+    static final class FrameAccessRootNode extends RootNode {
+
+        @CompilationFinal(dimensions = 1) private final FrameSlot[] slots;
+        private final boolean materialize;
+
+        FrameAccessRootNode(FrameDescriptor descriptor, FrameSlot[] slots, boolean materialize) {
+            super(null, descriptor);
+            this.slots = slots;
+            this.materialize = materialize;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            Frame accessed = materialize ? frame.materialize() : frame;
+            try {
+                return access(accessed);
+            } catch (FrameSlotTypeException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        @ExplodeLoop
+        private int access(Frame frame) throws FrameSlotTypeException {
+            Object value = frame.getArguments()[0];
+            for (int i = 0; i < slots.length; i += 2) {
+                frame.setObject(slots[i], value);
+                frame.setInt(slots[i + 1], i);
+            }
+            int sum = 0;
+            for (int i = 0; i < slots.length; i += 2) {
+                if (frame.getObject(slots[i]) == value) {
+                    sum += frame.getInt(slots[i + 1]);
+                }
+            }
+            return sum;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CompiledState {
+        @Param({"false", "true"}) boolean staticSlotKinds;
+
+        final FrameSlot[] slots = new FrameSlot[SLOTS];
+        final Object[] arguments = new Object[]{"value"};
+        final Context context = Context.create();
+        CallTarget virtualFrameTarget;
+        CallTarget materializedFrameTarget;
+
+        @Setup
+        public void setup() {
+            context.enter();
+            FrameDescriptor descriptor = createDescriptor(staticSlotKinds, slots);
+            virtualFrameTarget = Truffle.getRuntime().createCallTarget(new FrameAccessRootNode(descriptor, slots, false));
+            FrameSlot[] materializedSlots = new FrameSlot[SLOTS];
+            FrameDescriptor materializedDescriptor = createDescriptor(staticSlotKinds, materializedSlots);
+            materializedFrameTarget = Truffle.getRuntime().createCallTarget(new FrameAccessRootNode(materializedDescriptor, materializedSlots, true));
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.leave();
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Object compiledVirtualFrame(CompiledState state) {
+        return state.virtualFrameTarget.call(state.arguments);
+    }
+
+    @Benchmark
+    public Object compiledMaterializedFrame(CompiledState state) {
+        return state.materializedFrameTarget.call(state.arguments);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.dsl.GenerateBytecode;
+import com.oracle.truffle.sl.bytecode.SLBytecodeRootNodeGen;
+
+/**
+ * Compares the SimpleLanguage AST interpreter with the {@link GenerateBytecode bytecode}
+ * interpreter of its arithmetic and comparison operators on the same summation loop.
+ */
+public class SLBytecodeBenchmark extends TruffleBenchmark {
+
+    static final long ITERATIONS = 1000;
+
+    @State(Scope.Thread)
+    public static class SumState {
+
+        Context context;
+        Value astSum;
+        CallTarget bytecodeSum;
+
+        @Setup
+        public void setup() {
+            context = Context.create("sl");
+            context.eval("sl", "function sum(n) { i = 0; s = 0; while (i < n) { s = s + i; i = i + 1; } return s; }");
+            astSum = context.getBindings("sl").getMember("sum");
+            bytecodeSum = Truffle.getRuntime().createCallTarget(createSum());
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+
+        private static SLBytecodeRootNodeGen createSum() {
+            SLBytecodeRootNodeGen.Builder b = new SLBytecodeRootNodeGen.Builder(null);
+            int i = b.createLocal("i");
+            int s = b.createLocal("s");
+            SLBytecodeRootNodeGen.Label loop = b.createLabel();
+            SLBytecodeRootNodeGen.Label end = b.createLabel();
+            b.emitLoadConstant(0L);
+            b.emitStoreLocal(i);
+            b.emitLoadConstant(0L);
+            b.emitStoreLocal(s);
+            b.emitLabel(loop);
+            b.emitLoadLocal(i);
+            b.emitLoadArgument(0);
+            b.emitLessThan();
+            b.emitBranchFalse(end);
+            b.emitLoadLocal(s);
+            b.emitLoadLocal(i);
+            b.emitAdd();
+            b.emitStoreLocal(s);
+            b.emitLoadLocal(i);
+            b.emitLoadConstant(1L);
+            b.emitAdd();
+            b.emitStoreLocal(i);
+            b.emitBranch(loop);
+            b.emitLabel(end);
+            b.emitLoadLocal(s);
+            b.emitReturn();
+            return b.build();
+        }
+    }
+
+    @Benchmark
+    public long ast(SumState state) {
+        return state.astSum.execute(ITERATIONS).asLong();
+    }
+
+    @Benchmark
+    public Object bytecode(SumState state) {
+        return state.bytecodeSum.call(ITERATIONS);
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.dsl.StartUncached;
+import com.oracle.truffle.api.impl.DefaultTruffleRuntime;
+
+/**
+ * Measures the startup of SimpleLanguage programs where most of the code is executed only a few
+ * times. Every operation parses the program in a new context, so all nodes start uninitialized.
+ * The operator and property access nodes of SimpleLanguage are annotated with
+ * {@link StartUncached}, so cold code never specializes them.
+ */
+public class SLStartupBenchmark extends TruffleBenchmark {
+
+    @State(Scope.Thread)
+    public static class StartupState {
+
+        @Param({"50", "500"}) int functions;
+        @Param({"1", "20"}) int repeat;
+
+        Source source;
+
+        @Setup
+        public void setup() {
+            StringBuilder b = new StringBuilder();
+            for (int i = 0; i < functions; i++) {
+                b.append("function f").append(i).append("(o, n) {\n");
+                b.append("  i = 0;\n");
+                b.append("  while (i < n) {\n");
+                b.append("    o.a = i;\n");
+                b.append("    o.b = o.a + ").append(i).append(";\n");
+                b.append("    if (o.a < o.b) { o.c = o.b; }\n");
+                b.append("    if (o.c <= o.a) { o.c = o.a; }\n");
+                b.append("    o.s = \"f").append(i).append("\";\n");
+                b.append("    if (o.s == \"f").append(i).append("\") { o.d = o; }\n");
+                b.append("    i = i + 1;\n");
+                b.append("  }\n");
+                b.append("  return o.b;\n");
+                b.append("}\n");
+            }
+            b.append("function main() {\n");
+            b.append("  o = new();\n");
+            b.append("  o.c = 0;\n");
+            b.append("  sum = 0;\n");
+            for (int i = 0; i < functions; i++) {
+                b.append("  sum = sum + f").append(i).append("(o, ").append(repeat).append(");\n");
+            }
+            b.append("  return sum;\n");
+            b.append("}\n");
+            source = Source.newBuilder("sl", b.toString(), "startup.sl").cached(false).buildLiteral();
+        }
+    }
+
+    @Benchmark
+    public Object evalCold(StartupState state) {
+        try (Context context = createContext()) {
+            return context.eval(state.source).asLong();
+        }
+    }
+
+    private static Context createContext() {
+        if (Truffle.getRuntime() instanceof DefaultTruffleRuntime) {
+            return Context.create("sl");
+        } else {
+            return Context.newBuilder("sl").allowExperimentalOptions(true).option("engine.Compilation", "false").build();
+        }
+    }
+}
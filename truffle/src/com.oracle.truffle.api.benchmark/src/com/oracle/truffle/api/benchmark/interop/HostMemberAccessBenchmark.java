@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark.interop;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.oracle.truffle.api.benchmark.TruffleBenchmark;
+
+/**
+ * Measures the cost of invoking host methods and constructors and of reading and writing host
+ * fields through the polyglot API. Run with {@code -Dpolyglotimpl.HostAccessorThreshold=0} to
+ * compare against method handle based member access.
+ */
+public class HostMemberAccessBenchmark extends TruffleBenchmark {
+
+    public static class Point {
+        public static int instances;
+
+        public int x;
+        public int y;
+
+        public Point() {
+            instances++;
+        }
+
+        public Point(int x, int y) {
+            this();
+            this.x = x;
+            this.y = y;
+        }
+
+        public int sum() {
+            return x + y;
+        }
+
+        public int add(int dx, int dy) {
+            x += dx;
+            y += dy;
+            return x + y;
+        }
+
+        public static int distance(int x, int y) {
+            return Math.abs(x) + Math.abs(y);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class HostState {
+        final Context context = Context.newBuilder().allowHostAccess(HostAccess.ALL).build();
+        final Value point = context.asValue(new Point(1, 2));
+        final Value pointClass = context.asValue(Point.class);
+        final Value pointStatics = pointClass.getMember("static");
+        int counter;
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public int invokeNoArgs(HostState state) {
+        return state.point.invokeMember("sum").asInt();
+    }
+
+    @Benchmark
+    public int invokeArgs(HostState state) {
+        return state.point.invokeMember("add", 1, -1).asInt();
+    }
+
+    @Benchmark
+    public int invokeStatic(HostState state) {
+        return state.pointStatics.invokeMember("distance", 3, -4).asInt();
+    }
+
+    @Benchmark
+    public Object newInstance(HostState state) {
+        return state.pointClass.newInstance(3, 4);
+    }
+
+    @Benchmark
+    public int readField(HostState state) {
+        return state.point.getMember("x").asInt();
+    }
+
+    @Benchmark
+    public void writeField(HostState state) {
+        state.point.putMember("y", state.counter++);
+    }
+}
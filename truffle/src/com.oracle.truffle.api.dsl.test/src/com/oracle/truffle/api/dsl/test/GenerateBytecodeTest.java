@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.dsl.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.dsl.GenerateBytecode;
+import com.oracle.truffle.api.dsl.Operation;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.UnsupportedSpecializationException;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.StandardTags.ExpressionTag;
+import com.oracle.truffle.api.instrumentation.StandardTags.StatementTag;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+
+@SuppressWarnings("unused")
+public class GenerateBytecodeTest {
+
+    @GenerateBytecode
+    abstract static class CalcRootNode extends RootNode {
+
+        protected CalcRootNode(TruffleLanguage<?> language, FrameDescriptor frameDescriptor) {
+            super(language, frameDescriptor);
+        }
+
+        @Operation
+        abstract static class Add extends Node {
+
+            abstract Object execute(Object left, Object right);
+
+            @Specialization(rewriteOn = ArithmeticException.class)
+            static long doLong(long left, long right) {
+                return Math.addExact(left, right);
+            }
+
+            @Specialization
+            static String doString(String left, String right) {
+                return left + right;
+            }
+
+        }
+
+        @Operation
+        abstract static class LessThan extends Node {
+
+            abstract Object execute(Object left, Object right);
+
+            @Specialization
+            static boolean doLong(long left, long right) {
+                return left < right;
+            }
+
+        }
+
+        @Operation
+        abstract static class ArgumentCount extends Node {
+
+            abstract Object execute(VirtualFrame frame);
+
+            @Specialization
+            static int doDefault(VirtualFrame frame) {
+                return frame.getArguments().length;
+            }
+
+        }
+
+    }
+
+    private static Object call(CalcRootNodeGen root, Object... arguments) {
+        return Truffle.getRuntime().createCallTarget(root).call(arguments);
+    }
+
+    @Test
+    public void testOperation() {
+        CalcRootNodeGen.Builder b = new CalcRootNodeGen.Builder(null);
+        b.emitLoadArgument(0);
+        b.emitLoadConstant(42L);
+        b.emitAdd();
+        b.emitReturn();
+        CalcRootNodeGen root = b.build();
+        assertEquals(43L, call(root, 1L));
+        assertEquals(44L, call(root, 2L));
+    }
+
+    @Test
+    public void testFrameOperation() {
+        CalcRootNodeGen.Builder b = new CalcRootNodeGen.Builder(null);
+        b.emitArgumentCount();
+        b.emitReturn();
+        CalcRootNodeGen root = b.build();
+        assertEquals(3, call(root, 1, 2, 3));
+    }
+
+    /*
+     * Computes the sum of all numbers smaller than the first argument.
+     */
+    private static CalcRootNodeGen createSum() {
+        CalcRootNodeGen.Builder b = new CalcRootNodeGen.Builder(null);
+        int i = b.createLocal("i");
+        int sum = b.createLocal("sum");
+        CalcRootNodeGen.Label loop = b.createLabel();
+        CalcRootNodeGen.Label end = b.createLabel();
+        b.emitLoadConstant(0L);
+        b.emitStoreLocal(i);
+        b.emitLoadConstant(0L);
+        b.emitStoreLocal(sum);
+        b.emitLabel(loop);
+        b.emitLoadLocal(i);
+        b.emitLoadArgument(0);
+        b.emitLessThan();
+        b.emitBranchFalse(end);
+        b.emitLoadLocal(sum);
+        b.emitLoadLocal(i);
+        b.emitAdd();
+        b.emitStoreLocal(sum);
+        b.emitLoadLocal(i);
+        b.emitLoadConstant(1L);
+        b.emitAdd();
+        b.emitStoreLocal(i);
+        b.emitBranch(loop);
+        b.emitLabel(end);
+        b.emitLoadLocal(sum);
+        b.emitReturn();
+        return b.build();
+    }
+
+    @Test
+    public void testLoop() {
+        CalcRootNodeGen root = createSum();
+        assertEquals(0L, call(root, 0L));
+        assertEquals(45L, call(root, 10L));
+        assertEquals(4950L, call(root, 100L));
+        assertEquals(FrameSlotKind.Long, root.getFrameDescriptor().getFrameSlotKind(root.getFrameDescriptor().findFrameSlot("sum")));
+    }
+
+    @Test
+    public void testBranchFalse() {
+        CalcRootNodeGen.Builder b = new CalcRootNodeGen.Builder(null);
+        CalcRootNodeGen.Label otherwise = b.createLabel();
+        b.emitLoadArgument(0);
+        b.emitBranchFalse(otherwise);
+        b.emitLoadConstant(1L);
+        b.emitReturn();
+        b.emitLabel(otherwise);
+        b.emitLoadConstant(2L);
+        b.emitReturn();
+        CalcRootNodeGen root = b.build();
+        assertEquals(1L, call(root, true));
+        assertEquals(2L, call(root, false));
+        try {
+            call(root, 0L);
+            fail();
+        } catch (UnsupportedSpecializationException e) {
+            assertArrayEquals(new Object[]{0L}, e.getSuppliedValues());
+        }
+        try {
+            call(root, "false");
+            fail();
+        } catch (UnsupportedSpecializationException e) {
+            assertArrayEquals(new Object[]{"false"}, e.getSuppliedValues());
+        }
+    }
+
+    @Test
+    public void testLocalGeneralization() {
+        CalcRootNodeGen.Builder b = new CalcRootNodeGen.Builder(null);
+        int local = b.createLocal("local");
+        b.emitLoadArgument(0);
+        b.emitStoreLocal(local);
+        b.emitLoadLocal(local);
+        b.emitLoadLocal(local);
+        b.emitAdd();
+        b.emitReturn();
+        CalcRootNodeGen root = b.build();
+        assertEquals(42L, call(root, 21L));
+        assertEquals(FrameSlotKind.Long, root.getFrameDescriptor().getFrameSlotKind(root.getFrameDescriptor().findFrameSlot("local")));
+        assertEquals("abab", call(root, "ab"));
+        assertEquals(FrameSlotKind.Object, root.getFrameDescriptor().getFrameSlotKind(root.getFrameDescriptor().findFrameSlot("local")));
+        assertEquals(42L, call(root, 21L));
+    }
+
+    @Test
+    public void testTags() {
+        CalcRootNodeGen.Builder b = new CalcRootNodeGen.Builder(null);
+        b.beginTag(StatementTag.class);
+        b.beginTag(ExpressionTag.class);
+        b.emitLoadConstant(1L);
+        b.emitLoadConstant(2L);
+        b.endTag();
+        b.emitAdd();
+        b.endTag();
+        b.emitReturn();
+        CalcRootNodeGen root = b.build();
+        assertTrue(root.hasTag(0, StatementTag.class));
+        assertTrue(root.hasTag(0, ExpressionTag.class));
+        assertTrue(root.hasTag(4, StatementTag.class));
+        assertFalse(root.hasTag(4, ExpressionTag.class));
+        assertFalse(root.hasTag(6, StatementTag.class));
+        assertArrayEquals(new int[]{0, 4}, root.getTagRanges(ExpressionTag.class));
+        assertArrayEquals(new int[]{0, 6}, root.getTagRanges(StatementTag.class));
+        assertEquals(3L, call(root));
+    }
+
+    @Test
+    public void testBuilderErrors() {
+        CalcRootNodeGen.Builder b = new CalcRootNodeGen.Builder(null);
+        try {
+            b.emitAdd();
+            fail();
+        } catch (IllegalStateException e) {
+        }
+
+        b = new CalcRootNodeGen.Builder(null);
+        b.emitBranch(b.createLabel());
+        try {
+            b.build();
+            fail();
+        } catch (IllegalStateException e) {
+        }
+
+        b = new CalcRootNodeGen.Builder(null);
+        b.emitLoadConstant(42L);
+        try {
+            b.build();
+            fail();
+        } catch (IllegalStateException e) {
+        }
+
+        b = new CalcRootNodeGen.Builder(null);
+        CalcRootNodeGen.Label label = b.createLabel();
+        b.emitLoadConstant(true);
+        b.emitBranchFalse(label);
+        b.emitLoadConstant(42L);
+        try {
+            b.emitLabel(label);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+
+        b = new CalcRootNodeGen.Builder(null);
+        try {
+            b.emitLoadArgument(-1);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @ExpectError("Classes annotated with @GenerateBytecode must extend RootNode.")
+    @GenerateBytecode
+    abstract static class ErrorNotRootNode extends Node {
+    }
+
+    @ExpectError("Classes annotated with @GenerateBytecode must declare a constructor with the parameters (TruffleLanguage, FrameDescriptor).")
+    @GenerateBytecode
+    abstract static class ErrorNoConstructor extends RootNode {
+
+        protected ErrorNoConstructor(TruffleLanguage<?> language) {
+            super(language);
+        }
+
+    }
+
+    @GenerateBytecode
+    abstract static class ErrorOperationRootNode extends RootNode {
+
+        protected ErrorOperationRootNode(TruffleLanguage<?> language, FrameDescriptor frameDescriptor) {
+            super(language, frameDescriptor);
+        }
+
+        @ExpectError("Classes annotated with @Operation must declare at least one @Specialization method.")
+        @Operation
+        abstract static class ErrorNoSpecialization extends Node {
+
+            abstract Object execute(Object value);
+
+        }
+
+    }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.dsl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateInline;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.UnsupportedSpecializationException;
+import com.oracle.truffle.api.dsl.test.GenerateInlineTestFactory.MultiInstanceNodeGen;
+import com.oracle.truffle.api.dsl.test.GenerateInlineTestFactory.UseAbsNodeGen;
+import com.oracle.truffle.api.dsl.test.GenerateInlineTestFactory.UseAbsTwiceNodeGen;
+import com.oracle.truffle.api.nodes.Node;
+
+@SuppressWarnings("unused")
+public class GenerateInlineTest {
+
+    @GenerateInline
+    abstract static class AbsNode extends Node {
+
+        abstract Object execute(Node node, Object v);
+
+        @Specialization
+        static int doInt(Node node, int v) {
+            return Math.abs(v);
+        }
+
+        @Specialization
+        static double doDouble(Node node, double v) {
+            return Math.abs(v);
+        }
+
+    }
+
+    abstract static class UseAbsNode extends Node {
+
+        abstract Object execute(Object v);
+
+        @Specialization
+        Object doDefault(Object v, @Cached AbsNode abs) {
+            return abs.execute(this, v);
+        }
+
+    }
+
+    @Test
+    public void testInlined() {
+        UseAbsNode node = UseAbsNodeGen.create();
+        assertTrue(isInlined(node, AbsNode.class));
+        assertEquals(42, node.execute(-42));
+        assertEquals(42, node.execute(42));
+        assertEquals(42d, node.execute(-42d));
+        assertEquals(42, node.execute(-42));
+    }
+
+    @Test
+    public void testUnsupported() {
+        UseAbsNode node = UseAbsNodeGen.create();
+        try {
+            node.execute("");
+            fail();
+        } catch (UnsupportedSpecializationException e) {
+            assertSame(node, e.getNode());
+        }
+    }
+
+    abstract static class UseAbsTwiceNode extends Node {
+
+        abstract Object execute(Object v);
+
+        @Specialization
+        int doInt(int v, @Cached AbsNode abs) {
+            return (int) abs.execute(this, v);
+        }
+
+        @Specialization
+        Object doDouble(double v, @Cached AbsNode abs) {
+            return abs.execute(this, v);
+        }
+
+    }
+
+    @Test
+    public void testSeparateState() {
+        UseAbsTwiceNode node = UseAbsTwiceNodeGen.create();
+        assertTrue(isInlined(node, AbsNode.class));
+        assertEquals(42, node.execute(-42));
+        assertEquals(42d, node.execute(-42d));
+        assertEquals(42, node.execute(-42));
+    }
+
+    abstract static class MultiInstanceNode extends Node {
+
+        abstract Object execute(Object v);
+
+        @Specialization(guards = "v == cachedV")
+        Object doCached(int v, @Cached("v") int cachedV, @Cached AbsNode abs) {
+            return abs.execute(abs, v);
+        }
+
+    }
+
+    @Test
+    public void testMultipleInstancesNotInlined() {
+        MultiInstanceNode node = MultiInstanceNodeGen.create();
+        assertEquals(42, node.execute(-42));
+        assertEquals(41, node.execute(-41));
+        assertFalse(isInlined(node, AbsNode.class));
+    }
+
+    private static boolean isInlined(Node node, Class<?> inlinedType) {
+        for (Field field : node.getClass().getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && inlinedType.isAssignableFrom(field.getType())) {
+                return false;
+            }
+        }
+        for (Class<?> declared : node.getClass().getDeclaredClasses()) {
+            if (inlinedType.isAssignableFrom(declared)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @ExpectError("Failed to generate code for @GenerateInline: The node must not declare any instance variables. " +
+                    "Found instance variable ErrorNode1.value. Remove instance variable to resolve this.")
+    @GenerateInline
+    abstract static class ErrorNode1 extends Node {
+
+        int value;
+
+        abstract Object execute(Node node, Object v);
+
+        @Specialization
+        static int doInt(Node node, int v) {
+            return v;
+        }
+
+    }
+
+    @GenerateInline
+    abstract static class ErrorNode2 extends Node {
+
+        @ExpectError("Failed to generate code for @GenerateInline: The execute method must declare a first parameter of type Node. " +
+                        "Add a Node parameter that receives the node the inlined node is used by to resolve this.")
+        abstract Object execute(Object v);
+
+        @Specialization
+        static int doInt(int v) {
+            return v;
+        }
+
+    }
+
+    @GenerateInline
+    abstract static class ErrorNode3 extends Node {
+
+        abstract Object execute(Node node, Object v);
+
+        @Specialization(guards = "v == cachedV")
+        static int doInt(Node node, int v,
+                        @ExpectError("Failed to generate code for @GenerateInline: The specialization uses @Cached, which requires a field in the inlined node. " +
+                                        "Only @Bind parameters are supported for inlined nodes.") //
+                        @Cached("v") int cachedV) {
+            return v;
+        }
+
+    }
+
+    @ExpectError("Failed to generate code for @GenerateInline: The node must only declare constructors without parameters. " +
+                    "Remove the constructor parameters to resolve this.")
+    @GenerateInline
+    abstract static class ErrorNode4 extends Node {
+
+        ErrorNode4(Object o) {
+        }
+
+        abstract Object execute(Node node, Object v);
+
+        @Specialization
+        static int doInt(Node node, int v) {
+            return v;
+        }
+
+    }
+
+}
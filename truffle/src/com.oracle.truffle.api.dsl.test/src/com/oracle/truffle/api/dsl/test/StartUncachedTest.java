@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.dsl.test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.NodeChild;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.StartUncached;
+import com.oracle.truffle.api.dsl.test.StartUncachedTestFactory.StartUncached1NodeGen;
+import com.oracle.truffle.api.dsl.test.StartUncachedTestFactory.StartUncached2NodeGen;
+import com.oracle.truffle.api.dsl.test.StartUncachedTestFactory.StartUncached3NodeGen;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeCost;
+
+@SuppressWarnings("unused")
+public class StartUncachedTest {
+
+    @StartUncached(threshold = 2)
+    abstract static class StartUncached1Node extends Node {
+
+        abstract Object execute(Object arg);
+
+        @Specialization(guards = "v == cachedV")
+        static String s1(int v, @Cached("v") int cachedV) {
+            return "s1";
+        }
+
+        @Specialization(replaces = "s1")
+        static String s2(int v) {
+            return "s2";
+        }
+
+        @Specialization
+        static String s3(double v) {
+            return "s3";
+        }
+
+    }
+
+    @Test
+    public void testThreshold() {
+        StartUncached1Node node = StartUncached1NodeGen.create();
+        assertEquals("s2", node.execute(42));
+        assertEquals(NodeCost.UNINITIALIZED, node.getCost());
+        assertEquals("s3", node.execute(42d));
+        assertEquals(NodeCost.UNINITIALIZED, node.getCost());
+        assertEquals("s1", node.execute(42));
+        assertEquals(NodeCost.MONOMORPHIC, node.getCost());
+        assertEquals("s1", node.execute(42));
+    }
+
+    abstract static class ConstantNode extends Node {
+
+        abstract Object execute();
+
+    }
+
+    static final class IntConstantNode extends ConstantNode {
+
+        private final int value;
+
+        IntConstantNode(int value) {
+            this.value = value;
+        }
+
+        @Override
+        Object execute() {
+            return value;
+        }
+
+    }
+
+    @StartUncached(threshold = 1)
+    @NodeChild(type = ConstantNode.class)
+    abstract static class StartUncached2Node extends Node {
+
+        final int offset;
+
+        StartUncached2Node(int offset) {
+            this.offset = offset;
+        }
+
+        abstract Object execute();
+
+        @Specialization(guards = "v == offset")
+        int s0(int v) {
+            return 0;
+        }
+
+        @Specialization
+        int s1(int v) {
+            return v + offset;
+        }
+
+    }
+
+    @Test
+    public void testFieldsAndChildren() {
+        StartUncached2Node node = StartUncached2NodeGen.create(1, new IntConstantNode(41));
+        assertEquals(42, node.execute());
+        assertEquals(NodeCost.UNINITIALIZED, node.getCost());
+        assertEquals(42, node.execute());
+        assertEquals(NodeCost.MONOMORPHIC, node.getCost());
+    }
+
+    @StartUncached(threshold = 3, inherit = true)
+    abstract static class StartUncached3BaseNode extends Node {
+
+        abstract Object execute(Object arg);
+
+    }
+
+    abstract static class StartUncached3Node extends StartUncached3BaseNode {
+
+        @Specialization
+        static int s0(int v) {
+            return v;
+        }
+
+    }
+
+    @Test
+    public void testInherit() {
+        StartUncached3Node node = StartUncached3NodeGen.create();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(42, node.execute(42));
+            assertEquals(NodeCost.UNINITIALIZED, node.getCost());
+        }
+        assertEquals(42, node.execute(42));
+        assertEquals(NodeCost.MONOMORPHIC, node.getCost());
+    }
+
+    @ExpectError("The threshold of @StartUncached must be greater than zero.")
+    @StartUncached(threshold = 0)
+    abstract static class ErrorNode1 extends Node {
+
+        abstract Object execute(Object arg);
+
+        @Specialization
+        static int s0(int v) {
+            return v;
+        }
+
+    }
+
+    @StartUncached
+    abstract static class ErrorNode2 extends Node {
+
+        abstract Object execute(Object arg);
+
+        @ExpectError("Failed to generate code for @StartUncached: The specialization rewrites on exceptions and there is no specialization that replaces it. " +
+                        "Add a replaces=\"s0\" class to specialization below to resolve this problem.")
+        @Specialization(rewriteOn = ArithmeticException.class)
+        static int s0(int v) {
+            return Math.addExact(v, 1);
+        }
+
+        @Specialization
+        static double s1(double v) {
+            return v;
+        }
+
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.dsl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a bytecode interpreter for an abstract subclass of
+ * {@link com.oracle.truffle.api.nodes.RootNode RootNode}. Instead of building a tree of nodes, a
+ * guest language function is translated into a compact <code>short[]</code> bytecode array that is
+ * executed by a single generated interpreter loop. This improves interpreter locality and reduces
+ * the memory footprint of rarely executed code compared to AST interpreters.
+ * <p>
+ * The instructions of the interpreter consist of a fixed set of built-in instructions to load
+ * constants, arguments and locals, to store locals, to branch and to return, and one instruction
+ * for each nested class annotated with {@link Operation}. Operations are regular specializing nodes
+ * and therefore support the full {@link Specialization} semantics. All instructions operate on an
+ * operand stack.
+ * <p>
+ * The processor generates a final subclass with the name of the annotated class and the suffix
+ * <code>Gen</code>. It contains a nested <code>Builder</code> class that is used to emit the
+ * instructions of a function and to create the root node. The builder offers the following
+ * methods:
+ * <ul>
+ * <li><code>emitLoadConstant(Object)</code>, <code>emitLoadArgument(int)</code>,
+ * <code>emitLoadLocal(int)</code>, <code>emitStoreLocal(int)</code> and <code>emitPop()</code> to
+ * access values. Locals are allocated with <code>createLocal(Object)</code>.
+ * <li><code>emitBranch(Label)</code>, <code>emitBranchFalse(Label)</code> and
+ * <code>emitReturn()</code> for control flow. Labels are allocated with <code>createLabel()</code>
+ * and placed with <code>emitLabel(Label)</code>. The condition of <code>emitBranchFalse</code> must
+ * be a {@link Boolean}, otherwise an {@link UnsupportedSpecializationException} is thrown.
+ * <li><code>emitOperationName()</code> for each operation, which pops the operands of the operation
+ * and pushes its result unless the execute method returns <code>void</code>.
+ * <li><code>beginTag(Class)</code> and <code>endTag()</code> to associate the instructions emitted
+ * in between with an instrumentation tag. The generated root node answers whether an instruction
+ * is tagged with <code>hasTag(int, Class)</code> and returns the tagged bytecode ranges with
+ * <code>getTagRanges(Class)</code>.
+ * <li><code>build()</code> to create the root node.
+ * </ul>
+ * <p>
+ * The generated interpreter loop is annotated with {@link com.oracle.truffle.api.nodes.ExplodeLoop
+ * ExplodeLoop} using the merge explode strategy, so partial evaluation unrolls the bytecode of a
+ * function into a single compilation unit. Local variable instructions are quickened: they rewrite
+ * themselves to a typed variant for <code>long</code>, <code>boolean</code> or <code>Object</code>
+ * values the first time they are executed and only fall back to the generic variant if a value of
+ * another type is observed.
+ * <p>
+ * The annotated class must declare a constructor with a
+ * {@link com.oracle.truffle.api.TruffleLanguage TruffleLanguage} and a
+ * {@link com.oracle.truffle.api.frame.FrameDescriptor FrameDescriptor} parameter. The language
+ * parameter may use a subclass of <code>TruffleLanguage</code>, in which case the builder requires
+ * the same type. If the annotated class does not implement <code>execute(VirtualFrame)</code> then
+ * the generated class implements it by running the interpreter loop.
+ * <p>
+ * <b>Example:</b>
+ *
+ * <pre>
+ * &#64;GenerateBytecode
+ * abstract static class CalculatorRootNode extends RootNode {
+ *
+ *     protected CalculatorRootNode(TruffleLanguage&lt;?&gt; language, FrameDescriptor descriptor) {
+ *         super(language, descriptor);
+ *     }
+ *
+ *     &#64;Operation
+ *     abstract static class Add extends Node {
+ *
+ *         abstract Object execute(Object left, Object right);
+ *
+ *         &#64;Specialization
+ *         static int doInt(int left, int right) {
+ *             return left + right;
+ *         }
+ *     }
+ * }
+ *
+ * CalculatorRootNodeGen.Builder b = new CalculatorRootNodeGen.Builder(language);
+ * b.emitLoadArgument(0);
+ * b.emitLoadConstant(42);
+ * b.emitAdd();
+ * b.emitReturn();
+ * CalculatorRootNodeGen root = b.build();
+ * </pre>
+ *
+ * @see Operation
+ * @since 21.1
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.TYPE})
+public @interface GenerateBytecode {
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.dsl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Allows the state of a node to be inlined into the generated code of nodes that use it as a
+ * {@link Cached} parameter. Instead of allocating a separate child node for every use, the
+ * specialization state of an inlined node is stored in fields of the generated parent node and a
+ * single shared node instance, generated per use, operates on these fields. This avoids the object
+ * header, the parent pointer and the cached field of each child node and therefore reduces the
+ * memory footprint of ASTs.
+ * <p>
+ * Inlining is currently limited to leaf nodes whose only state are their specialization bits. Nodes
+ * with cached values, cached libraries or nested {@link Cached} nodes cannot be inlined, and neither
+ * can nodes used from another package. Most cached nodes of real languages do not fulfill these
+ * requirements yet, so the footprint of their ASTs is unchanged.
+ * <p>
+ * A {@link Cached} parameter of an inlinable node type is inlined if it uses the default
+ * initializer, is neither {@linkplain Cached#weak() weak} nor {@linkplain Cached.Shared shared}, the
+ * parent node is declared in the same package and is not generated with {@link GenerateAOT}, and
+ * the specialization of the parent allows only one instance. Otherwise a regular child node is
+ * created.
+ * <p>
+ * A node subclass must fulfill the following requirements in order to be inlinable:
+ * <ul>
+ * <li>All execute methods declare a first parameter of type {@link com.oracle.truffle.api.nodes.Node
+ * Node}. The caller passes the node that uses the inlined node, typically <code>this</code>. The
+ * inlined state is stored in that node, so a node inlined into a parent must always be executed
+ * with that parent.
+ * <li>The node has no instance fields, no {@link NodeChild children} and no {@link NodeField
+ * fields}.
+ * <li>Specializations only use {@link Bind} parameters and no {@linkplain Specialization#assumptions()
+ * assumptions}, as cached values would require additional fields in the parent.
+ * <li>The node is not annotated with {@link ReportPolymorphism}, {@link GenerateAOT},
+ * {@link Introspectable} or {@link StartUncached}.
+ * <li>The node declares a constructor without parameters.
+ * </ul>
+ * If any of these requirements are violated then an error will be shown. Specializations of
+ * inlined nodes are executed on the shared node instance. They should use the node passed as first
+ * parameter instead of <code>this</code>, for example to report errors at the right location.
+ * <p>
+ * <b>Example:</b>
+ *
+ * <pre>
+ * &#64;GenerateInline
+ * abstract static class NegateNode extends Node {
+ *
+ *     abstract Object execute(Node node, Object value);
+ *
+ *     &#64;Specialization
+ *     static int doInt(Node node, int value) {
+ *         return -value;
+ *     }
+ *
+ *     &#64;Specialization
+ *     static double doDouble(Node node, double value) {
+ *         return -value;
+ *     }
+ * }
+ *
+ * abstract static class UserNode extends Node {
+ *
+ *     abstract Object execute(Object value);
+ *
+ *     &#64;Specialization
+ *     Object doDefault(Object value, &#64;Cached NegateNode negate) {
+ *         return negate.execute(this, value);
+ *     }
+ * }
+ * </pre>
+ *
+ * @see Cached
+ * @since 21.1
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.TYPE})
+public @interface GenerateInline {
+
+    /**
+     * Whether cached uses of the node are inlined. Set to <code>false</code> to disable inlining
+     * for a node.
+     *
+     * @since 21.1
+     */
+    boolean value() default true;
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.dsl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lets nodes created by the generated node class start in an uncached state. Until the node was
+ * executed {@link #threshold()} times, specializations are not activated and no caches are
+ * initialized. Instead the node executes the specializations of the uncached specialization closure
+ * as if it was generated with {@link GenerateUncached}, i.e. {@link Cached} parameters are
+ * initialized with their {@linkplain Cached#uncached() uncached} initializer on every execution.
+ * Only after the threshold is reached the node specializes as usual. This reduces the cost of the
+ * first executions of nodes that are executed only a few times, for example nodes of large scripts
+ * that run once during startup. StartUncached is inherited to subclasses if {@link #inherit()} is
+ * set to <code>true</code> (default <code>false</code>).
+ * <p>
+ * Unlike {@link GenerateUncached}, the node may declare instance fields and child nodes, and guards
+ * may bind the node receiver, as the uncached executions are performed by the node instance itself.
+ * All {@link Cached} parameters of the uncached specialization closure must provide valid
+ * {@linkplain Cached#uncached() uncached} initializers, and specializations of the closure must not
+ * use the {@linkplain Specialization#rewriteOn() rewriteOn} attribute.
+ * <p>
+ * Uncached executions are only performed in the interpreter. A node that is executed from compiled
+ * code before it reached the threshold deoptimizes once and specializes immediately, like an
+ * uninitialized node without this annotation.
+ *
+ * @see GenerateUncached
+ * @since 21.1
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.TYPE})
+public @interface StartUncached {
+
+    /**
+     * Number of executions performed in the uncached state before the node specializes. Must be
+     * greater than zero.
+     *
+     * @since 21.1
+     */
+    int threshold() default 8;
+
+    /**
+     * Inherits the semantics of the annotation to subclasses.
+     *
+     * @since 21.1
+     */
+    boolean inherit() default false;
+
+}
@@ -57,6 +57,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.ServiceLoader;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.graalvm.options.OptionDescriptor;
@@ -74,6 +75,7 @@ import com.oracle.truffle.api.ContextLocal;
 import com.oracle.truffle.api.ContextThreadLocal;
 import com.oracle.truffle.api.InstrumentInfo;
 import com.oracle.truffle.api.Option;
+import com.oracle.truffle.api.ThreadLocalAction;
 import com.oracle.truffle.api.TruffleContext;
 import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.TruffleLanguage;
@@ -1341,6 +1343,28 @@ public abstract class TruffleInstrument {
         public long calculateContextHeapSize(TruffleContext truffleContext, long stopAtBytes, AtomicBoolean cancelled) {
             return InstrumentAccessor.engineAccess().calculateContextHeapSize(InstrumentAccessor.langAccess().getPolyglotContext(truffleContext), stopAtBytes, cancelled);
         }
+
+        /**
+         * Submits a thread local action to be performed on the given threads of a polyglot
+         * context. If <code>threads</code> is <code>null</code> then the action is submitted to
+         * all threads that are currently active in the context. See
+         * {@link com.oracle.truffle.api.TruffleLanguage.Env#submitThreadLocal(Thread[], ThreadLocalAction)}
+         * for details.
+         *
+         * @param truffleContext the context the action is performed in
+         * @param threads the target threads or <code>null</code> for all active threads
+         * @param action the action to perform
+         * @since 21.1
+         */
+        public Future<Void> submitThreadLocal(TruffleContext truffleContext, Thread[] threads, ThreadLocalAction action) {
+            Objects.requireNonNull(truffleContext);
+            Objects.requireNonNull(action);
+            try {
+                return InstrumentAccessor.engineAccess().submitThreadLocal(InstrumentAccessor.langAccess().getPolyglotContext(truffleContext), threads, action);
+            } catch (Throwable t) {
+                throw engineToInstrumentException(t);
+            }
+        }
     }
 
     /**
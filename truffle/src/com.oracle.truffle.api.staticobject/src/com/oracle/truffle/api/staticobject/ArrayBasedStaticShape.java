@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.staticobject;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+
+import sun.misc.Unsafe;
+
+/**
+ * Shape whose properties are stored in a primitive {@code byte[]} and an {@code Object[]} of a
+ * precompiled storage class. No classes are defined when such a shape is built, so it can be used
+ * in a native image. All array-based shapes share the storage class, therefore objects also
+ * reference the factory that created them and accesses check it in addition to the class.
+ * <p>
+ * Properties store the byte offset of primitives and the index of references. Both are turned into
+ * an address with the array constants of {@link Unsafe} on access, which keeps shapes built at
+ * image build time valid for the array layout of the image.
+ */
+final class ArrayBasedStaticShape extends StaticShape<DefaultStaticObjectFactory> {
+
+    private ArrayBasedStaticShape(Factory factory) {
+        super(Storage.class, factory);
+    }
+
+    static ArrayBasedStaticShape create(StaticProperty[] properties) {
+        CompilerAsserts.neverPartOfCompilation();
+        // lay out primitives by decreasing size so that every value is naturally aligned
+        StaticProperty[] sorted = properties.clone();
+        Arrays.sort(sorted, new Comparator<StaticProperty>() {
+            @Override
+            public int compare(StaticProperty a, StaticProperty b) {
+                return Integer.compare(b.getKind().byteSize, a.getKind().byteSize);
+            }
+        });
+        long[] offsets = new long[sorted.length];
+        int primitiveSize = 0;
+        int objectSize = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            StaticPropertyKind kind = sorted[i].getKind();
+            if (kind.isPrimitive()) {
+                offsets[i] = primitiveSize;
+                primitiveSize += kind.byteSize;
+            } else {
+                offsets[i] = objectSize++;
+            }
+        }
+        ArrayBasedStaticShape shape = new ArrayBasedStaticShape(new Factory(primitiveSize, objectSize));
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i].initShape(shape, offsets[i]);
+        }
+        return shape;
+    }
+
+    @Override
+    Object getStorage(Object obj, boolean primitive) {
+        Storage storage = (Storage) checkReceiver(obj);
+        if (storage.factory != getFactory()) {
+            CompilerDirectives.transferToInterpreter();
+            throw new IllegalArgumentException("Object of type " + obj.getClass().getName() + " was not created by the factory of this shape");
+        }
+        return primitive ? storage.primitive : storage.object;
+    }
+
+    @Override
+    long getOffset(long shapeOffset, boolean primitive) {
+        if (primitive) {
+            return Unsafe.ARRAY_BYTE_BASE_OFFSET + shapeOffset;
+        } else {
+            return Unsafe.ARRAY_OBJECT_BASE_OFFSET + shapeOffset * Unsafe.ARRAY_OBJECT_INDEX_SCALE;
+        }
+    }
+
+    static final class Storage {
+        final Factory factory;
+        final byte[] primitive;
+        final Object[] object;
+
+        Storage(Factory factory) {
+            this.factory = factory;
+            this.primitive = new byte[factory.primitiveSize];
+            this.object = new Object[factory.objectSize];
+        }
+    }
+
+    static final class Factory implements DefaultStaticObjectFactory {
+        final int primitiveSize;
+        final int objectSize;
+
+        Factory(int primitiveSize, int objectSize) {
+            this.primitiveSize = primitiveSize;
+            this.objectSize = objectSize;
+        }
+
+        @Override
+        public Object create() {
+            return new Storage(this);
+        }
+    }
+}
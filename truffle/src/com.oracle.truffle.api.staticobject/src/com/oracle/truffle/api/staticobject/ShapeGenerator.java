@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.staticobject;
+
+import static com.oracle.truffle.api.impl.asm.Opcodes.ACC_FINAL;
+import static com.oracle.truffle.api.impl.asm.Opcodes.ACC_PUBLIC;
+import static com.oracle.truffle.api.impl.asm.Opcodes.ACC_SUPER;
+import static com.oracle.truffle.api.impl.asm.Opcodes.ALOAD;
+import static com.oracle.truffle.api.impl.asm.Opcodes.ARETURN;
+import static com.oracle.truffle.api.impl.asm.Opcodes.DUP;
+import static com.oracle.truffle.api.impl.asm.Opcodes.ILOAD;
+import static com.oracle.truffle.api.impl.asm.Opcodes.INVOKESPECIAL;
+import static com.oracle.truffle.api.impl.asm.Opcodes.NEW;
+import static com.oracle.truffle.api.impl.asm.Opcodes.RETURN;
+import static com.oracle.truffle.api.impl.asm.Opcodes.V1_8;
+import static com.oracle.truffle.api.staticobject.StaticProperty.UNSAFE;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.impl.asm.ClassWriter;
+import com.oracle.truffle.api.impl.asm.MethodVisitor;
+import com.oracle.truffle.api.impl.asm.Type;
+
+/**
+ * Generates the storage class and the factory class of a {@link StaticShape}. Both classes are
+ * defined in a fresh class loader so that they can be unloaded together with the shape.
+ */
+final class ShapeGenerator {
+
+    private static final String GENERATED_PACKAGE = "com/oracle/truffle/api/staticobject/generated/";
+    private static final String OBJECT = Type.getInternalName(Object.class);
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    private ShapeGenerator() {
+    }
+
+    static <T> StaticShape<T> generate(Class<?> superClass, Class<T> factoryInterface, StaticProperty[] properties) {
+        CompilerAsserts.neverPartOfCompilation();
+        Map<Method, Constructor<?>> factoryMethods = collectFactoryMethods(superClass, factoryInterface);
+        int id = nextId.incrementAndGet();
+        String storageName = GENERATED_PACKAGE + "StaticObject$" + id;
+        String factoryName = GENERATED_PACKAGE + "StaticObjectFactory$" + id;
+
+        GeneratorClassLoader loader = new GeneratorClassLoader(superClass, factoryInterface);
+        byte[] storageBytes = generateStorageClass(storageName, superClass, factoryMethods, properties);
+        byte[] factoryBytes = generateFactoryClass(factoryName, storageName, factoryInterface, factoryMethods);
+        Class<?> storageClass = loader.define(storageName, storageBytes);
+        Class<?> factoryClass = loader.define(factoryName, factoryBytes);
+
+        T factory;
+        try {
+            factory = factoryInterface.cast(factoryClass.getConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate the static object factory", e);
+        }
+
+        StaticShape<T> shape = new FieldBasedStaticShape<>(storageClass, factory);
+        long[] offsets = new long[properties.length];
+        try {
+            for (int i = 0; i < properties.length; i++) {
+                offsets[i] = UNSAFE.objectFieldOffset(storageClass.getDeclaredField(fieldName(i)));
+            }
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+        for (int i = 0; i < properties.length; i++) {
+            properties[i].initShape(shape, offsets[i]);
+        }
+        return shape;
+    }
+
+    private static Map<Method, Constructor<?>> collectFactoryMethods(Class<?> superClass, Class<?> factoryInterface) {
+        Map<Method, Constructor<?>> factoryMethods = new LinkedHashMap<>();
+        for (Method method : factoryInterface.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers())) {
+                continue;
+            }
+            if (!method.getReturnType().isAssignableFrom(superClass)) {
+                throw new IllegalArgumentException("Factory method " + method + " must return a supertype of " + superClass.getName());
+            }
+            Constructor<?> constructor;
+            try {
+                constructor = superClass.getDeclaredConstructor(method.getParameterTypes());
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("Factory method " + method + " has no matching constructor in " + superClass.getName());
+            }
+            if (!Modifier.isPublic(constructor.getModifiers()) && !Modifier.isProtected(constructor.getModifiers())) {
+                throw new IllegalArgumentException("Constructor " + constructor + " must be public or protected");
+            }
+            factoryMethods.put(method, constructor);
+        }
+        return factoryMethods;
+    }
+
+    private static byte[] generateStorageClass(String className, Class<?> superClass, Map<Method, Constructor<?>> factoryMethods, StaticProperty[] properties) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        String superName = Type.getInternalName(superClass);
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, superName, null);
+        for (int i = 0; i < properties.length; i++) {
+            cw.visitField(ACC_PUBLIC, fieldName(i), Type.getDescriptor(properties[i].getKind().type), null, null).visitEnd();
+        }
+        List<Constructor<?>> constructors = new ArrayList<>();
+        for (Constructor<?> constructor : factoryMethods.values()) {
+            if (!constructors.contains(constructor)) {
+                constructors.add(constructor);
+            }
+        }
+        for (Constructor<?> constructor : constructors) {
+            String descriptor = Type.getConstructorDescriptor(constructor);
+            MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", descriptor, null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            loadArguments(mv, constructor.getParameterTypes());
+            mv.visitMethodInsn(INVOKESPECIAL, superName, "<init>", descriptor, false);
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static byte[] generateFactoryClass(String className, String storageName, Class<?> factoryInterface, Map<Method, Constructor<?>> factoryMethods) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, OBJECT, new String[]{Type.getInternalName(factoryInterface)});
+        MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(ALOAD, 0);
+        init.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        init.visitInsn(RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+        for (Map.Entry<Method, Constructor<?>> entry : factoryMethods.entrySet()) {
+            Method method = entry.getKey();
+            MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_FINAL, method.getName(), Type.getMethodDescriptor(method), null, null);
+            mv.visitCode();
+            mv.visitTypeInsn(NEW, storageName);
+            mv.visitInsn(DUP);
+            loadArguments(mv, method.getParameterTypes());
+            mv.visitMethodInsn(INVOKESPECIAL, storageName, "<init>", Type.getConstructorDescriptor(entry.getValue()), false);
+            mv.visitInsn(ARETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void loadArguments(MethodVisitor mv, Class<?>[] parameterTypes) {
+        int slot = 1;
+        for (Class<?> parameterType : parameterTypes) {
+            Type type = Type.getType(parameterType);
+            mv.visitVarInsn(type.getOpcode(ILOAD), slot);
+            slot += type.getSize();
+        }
+    }
+
+    private static String fieldName(int index) {
+        return "field" + index;
+    }
+
+    /**
+     * Resolves classes from the loader of the super class first and falls back to the loader of
+     * the factory interface.
+     */
+    private static final class GeneratorClassLoader extends ClassLoader {
+        private final ClassLoader factoryLoader;
+
+        GeneratorClassLoader(Class<?> superClass, Class<?> factoryInterface) {
+            super(superClass.getClassLoader());
+            this.factoryLoader = factoryInterface.getClassLoader();
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            if (factoryLoader != null) {
+                return factoryLoader.loadClass(name);
+            }
+            return super.findClass(name);
+        }
+
+        Class<?> define(String internalName, byte[] bytes) {
+            return defineClass(internalName.replace('/', '.'), bytes, 0, bytes.length);
+        }
+    }
+}
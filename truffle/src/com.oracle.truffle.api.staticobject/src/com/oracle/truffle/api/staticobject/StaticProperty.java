@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.staticobject;
+
+import java.lang.reflect.Field;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+
+import sun.misc.Unsafe;
+
+/**
+ * A property of objects created by the factory of a {@link StaticShape}. A static property is
+ * registered with exactly one shape via {@link StaticShape.Builder#property(StaticProperty)}. Once
+ * the shape is built, the property accesses the field generated for it in the objects of that
+ * shape.
+ * <p>
+ * Static properties are meant to be stored in compilation-final locations, e.g. in final fields of
+ * AST nodes. Partial evaluation then folds the receiver check and the field offset, and an access
+ * compiles to a single type check followed by a field load or store.
+ * <p>
+ * Accessing a property with an accessor that does not match its {@link StaticPropertyKind kind}
+ * throws {@link IllegalArgumentException}. Accessing it on an object that was not created by the
+ * factory of its shape throws {@link IllegalArgumentException} as well.
+ *
+ * @see DefaultStaticProperty
+ * @since 21.1
+ */
+public abstract class StaticProperty {
+    private final StaticPropertyKind kind;
+    @CompilationFinal private StaticShape<?> shape;
+    @CompilationFinal private long offset;
+
+    /**
+     * Constructor for subclasses.
+     *
+     * @param kind the kind of values stored by this property
+     * @since 21.1
+     */
+    protected StaticProperty(StaticPropertyKind kind) {
+        if (kind == null) {
+            throw new NullPointerException("kind");
+        }
+        this.kind = kind;
+    }
+
+    /**
+     * Returns the identifier of this property. Identifiers must be unique within a shape.
+     *
+     * @since 21.1
+     */
+    protected abstract String getId();
+
+    /**
+     * Returns the kind of values stored by this property.
+     *
+     * @since 21.1
+     */
+    public final StaticPropertyKind getKind() {
+        return kind;
+    }
+
+    final boolean isRegistered() {
+        return shape != null;
+    }
+
+    /**
+     * Registers this property with a shape. The meaning of {@code shapeOffset} is defined by the
+     * shape, see {@link StaticShape#getOffset(long, boolean)}.
+     */
+    final synchronized void initShape(StaticShape<?> s, long shapeOffset) {
+        if (this.shape != null) {
+            throw new IllegalArgumentException("Static property '" + getId() + "' is already registered with another shape");
+        }
+        this.offset = shapeOffset;
+        this.shape = s;
+    }
+
+    private Object storage(Object obj, StaticPropertyKind accessKind) {
+        if (kind != accessKind) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw new IllegalArgumentException("Static property '" + getId() + "' of kind " + kind + " cannot be accessed as " + accessKind);
+        }
+        StaticShape<?> s = shape;
+        if (s == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw new IllegalStateException("Static property '" + getId() + "' is not registered with a shape");
+        }
+        return s.getStorage(obj, kind.isPrimitive());
+    }
+
+    /**
+     * Returns the offset of the value in the storage object. Must only be called after
+     * {@link #storage(Object, StaticPropertyKind)} checked that this property is registered.
+     */
+    private long offset() {
+        return shape.getOffset(offset, kind.isPrimitive());
+    }
+
+    /**
+     * Reads the value of an {@link StaticPropertyKind#Object Object} property.
+     *
+     * @since 21.1
+     */
+    public final Object getObject(Object obj) {
+        return UNSAFE.getObject(storage(obj, StaticPropertyKind.Object), offset());
+    }
+
+    /**
+     * Reads the value of an {@link StaticPropertyKind#Object Object} property with volatile
+     * semantics.
+     *
+     * @since 21.1
+     */
+    public final Object getObjectVolatile(Object obj) {
+        return UNSAFE.getObjectVolatile(storage(obj, StaticPropertyKind.Object), offset());
+    }
+
+    /**
+     * Writes the value of an {@link StaticPropertyKind#Object Object} property.
+     *
+     * @since 21.1
+     */
+    public final void setObject(Object obj, Object value) {
+        UNSAFE.putObject(storage(obj, StaticPropertyKind.Object), offset(), value);
+    }
+
+    /**
+     * Writes the value of an {@link StaticPropertyKind#Object Object} property with volatile
+     * semantics.
+     *
+     * @since 21.1
+     */
+    public final void setObjectVolatile(Object obj, Object value) {
+        UNSAFE.putObjectVolatile(storage(obj, StaticPropertyKind.Object), offset(), value);
+    }
+
+    /**
+     * Atomically sets an {@link StaticPropertyKind#Object Object} property to {@code value} if it
+     * currently is {@code expect}.
+     *
+     * @return {@code true} if successful
+     * @since 21.1
+     */
+    public final boolean compareAndSwapObject(Object obj, Object expect, Object value) {
+        return UNSAFE.compareAndSwapObject(storage(obj, StaticPropertyKind.Object), offset(), expect, value);
+    }
+
+    /**
+     * Reads the value of an {@link StaticPropertyKind#Int Int} property.
+     *
+     * @since 21.1
+     */
+    public final int getInt(Object obj) {
+        return UNSAFE.getInt(storage(obj, StaticPropertyKind.Int), offset());
+    }
+
+    /**
+     * Reads the value of an {@link StaticPropertyKind#Int Int} property with volatile semantics.
+     *
+     * @since 21.1
+     */
+    public final int getIntVolatile(Object obj) {
+        return UNSAFE.getIntVolatile(storage(obj, StaticPropertyKind.Int), offset());
+    }
+
+    /**
+     * Writes the value of an {@link StaticPropertyKind#Int Int} property.
+     *
+     * @since 21.1
+     */
+    public final void setInt(Object obj, int value) {
+        UNSAFE.putInt(storage(obj, StaticPropertyKind.Int), offset(), value);
+    }
+
+    /**
+     * Writes the value of an {@link StaticPropertyKind#Int Int} property with volatile semantics.
+     *
+     * @since 21.1
+     */
+    public final void setIntVolatile(Object obj, int value) {
+        UNSAFE.putIntVolatile(storage(obj, StaticPropertyKind.Int), offset(), value);
+    }
+
+    /**
+     * Atomically sets an {@link StaticPropertyKind#Int Int} property to {@code value} if it
+     * currently is {@code expect}.
+     *
+     * @return {@code true} if successful
+     * @since 21.1
+     */
+    public final boolean compareAndSwapInt(Object obj, int expect, int value) {
+        return UNSAFE.compareAndSwapInt(storage(obj, StaticPropertyKind.Int), offset(), expect, value);
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Long Long} property.
+     *
+     * @since 21.1
+     */
+    public final long getLong(Object obj) {
+        return UNSAFE.getLong(storage(obj, StaticPropertyKind.Long), offset());
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Long Long} property with volatile semantics.
+     *
+     * @since 21.1
+     */
+    public final long getLongVolatile(Object obj) {
+        return UNSAFE.getLongVolatile(storage(obj, StaticPropertyKind.Long), offset());
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Long Long} property.
+     *
+     * @since 21.1
+     */
+    public final void setLong(Object obj, long value) {
+        UNSAFE.putLong(storage(obj, StaticPropertyKind.Long), offset(), value);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Long Long} property with volatile semantics.
+     *
+     * @since 21.1
+     */
+    public final void setLongVolatile(Object obj, long value) {
+        UNSAFE.putLongVolatile(storage(obj, StaticPropertyKind.Long), offset(), value);
+    }
+
+    /**
+     * Atomically sets a {@link StaticPropertyKind#Long Long} property to {@code value} if it
+     * currently is {@code expect}.
+     *
+     * @return {@code true} if successful
+     * @since 21.1
+     */
+    public final boolean compareAndSwapLong(Object obj, long expect, long value) {
+        return UNSAFE.compareAndSwapLong(storage(obj, StaticPropertyKind.Long), offset(), expect, value);
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Double Double} property.
+     *
+     * @since 21.1
+     */
+    public final double getDouble(Object obj) {
+        return UNSAFE.getDouble(storage(obj, StaticPropertyKind.Double), offset());
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Double Double} property.
+     *
+     * @since 21.1
+     */
+    public final void setDouble(Object obj, double value) {
+        UNSAFE.putDouble(storage(obj, StaticPropertyKind.Double), offset(), value);
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Float Float} property.
+     *
+     * @since 21.1
+     */
+    public final float getFloat(Object obj) {
+        return UNSAFE.getFloat(storage(obj, StaticPropertyKind.Float), offset());
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Float Float} property.
+     *
+     * @since 21.1
+     */
+    public final void setFloat(Object obj, float value) {
+        UNSAFE.putFloat(storage(obj, StaticPropertyKind.Float), offset(), value);
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Short Short} property.
+     *
+     * @since 21.1
+     */
+    public final short getShort(Object obj) {
+        return UNSAFE.getShort(storage(obj, StaticPropertyKind.Short), offset());
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Short Short} property.
+     *
+     * @since 21.1
+     */
+    public final void setShort(Object obj, short value) {
+        UNSAFE.putShort(storage(obj, StaticPropertyKind.Short), offset(), value);
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Char Char} property.
+     *
+     * @since 21.1
+     */
+    public final char getChar(Object obj) {
+        return UNSAFE.getChar(storage(obj, StaticPropertyKind.Char), offset());
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Char Char} property.
+     *
+     * @since 21.1
+     */
+    public final void setChar(Object obj, char value) {
+        UNSAFE.putChar(storage(obj, StaticPropertyKind.Char), offset(), value);
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Byte Byte} property.
+     *
+     * @since 21.1
+     */
+    public final byte getByte(Object obj) {
+        return UNSAFE.getByte(storage(obj, StaticPropertyKind.Byte), offset());
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Byte Byte} property.
+     *
+     * @since 21.1
+     */
+    public final void setByte(Object obj, byte value) {
+        UNSAFE.putByte(storage(obj, StaticPropertyKind.Byte), offset(), value);
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Boolean Boolean} property.
+     *
+     * @since 21.1
+     */
+    public final boolean getBoolean(Object obj) {
+        return UNSAFE.getBoolean(storage(obj, StaticPropertyKind.Boolean), offset());
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Boolean Boolean} property.
+     *
+     * @since 21.1
+     */
+    public final void setBoolean(Object obj, boolean value) {
+        UNSAFE.putBoolean(storage(obj, StaticPropertyKind.Boolean), offset(), value);
+    }
+
+    static final Unsafe UNSAFE = getUnsafe();
+
+    private static Unsafe getUnsafe() {
+        try {
+            return Unsafe.getUnsafe();
+        } catch (SecurityException e) {
+        }
+        try {
+            Field theUnsafeInstance = Unsafe.class.getDeclaredField("theUnsafe");
+            theUnsafeInstance.setAccessible(true);
+            return (Unsafe) theUnsafeInstance.get(Unsafe.class);
+        } catch (Exception e) {
+            throw new RuntimeException("exception while trying to get Unsafe.theUnsafe via reflection:", e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.staticobject;
+
+/**
+ * The kind of a {@link StaticProperty}, which determines the type of the field that stores it and
+ * the accessor methods that can be used to read and write it.
+ *
+ * @since 21.1
+ */
+public enum StaticPropertyKind {
+    /**
+     * The property stores a {@code long} value.
+     *
+     * @since 21.1
+     */
+    Long(long.class, 8),
+    /**
+     * The property stores a {@code double} value.
+     *
+     * @since 21.1
+     */
+    Double(double.class, 8),
+    /**
+     * The property stores an {@code int} value.
+     *
+     * @since 21.1
+     */
+    Int(int.class, 4),
+    /**
+     * The property stores a {@code float} value.
+     *
+     * @since 21.1
+     */
+    Float(float.class, 4),
+    /**
+     * The property stores a {@code short} value.
+     *
+     * @since 21.1
+     */
+    Short(short.class, 2),
+    /**
+     * The property stores a {@code char} value.
+     *
+     * @since 21.1
+     */
+    Char(char.class, 2),
+    /**
+     * The property stores a {@code byte} value.
+     *
+     * @since 21.1
+     */
+    Byte(byte.class, 1),
+    /**
+     * The property stores a {@code boolean} value.
+     *
+     * @since 21.1
+     */
+    Boolean(boolean.class, 1),
+    /**
+     * The property stores an {@link java.lang.Object} reference.
+     *
+     * @since 21.1
+     */
+    Object(java.lang.Object.class, 0);
+
+    final Class<?> type;
+    final int byteSize;
+
+    StaticPropertyKind(Class<?> type, int byteSize) {
+        this.type = type;
+        this.byteSize = byteSize;
+    }
+
+    boolean isPrimitive() {
+        return this != Object;
+    }
+}
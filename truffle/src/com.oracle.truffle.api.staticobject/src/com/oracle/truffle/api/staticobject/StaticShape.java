@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.staticobject;
+
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.TruffleOptions;
+
+/**
+ * A layout of objects with a fixed set of {@link StaticProperty static properties}. Building a
+ * shape generates a Java class that stores the properties, and a factory that allocates instances
+ * of that class.
+ * <p>
+ * By default every property is stored in a dedicated field of the generated class with the type of
+ * the {@link StaticPropertyKind property kind}, so objects carry no boxing and no extension arrays.
+ * When running ahead-of-time compiled, or when the {@code truffle.staticobject.ArrayBasedStorage}
+ * system property is set to {@code true}, shapes built with {@link Builder#build()} generate no
+ * classes. Their objects are instances of a single precompiled class that stores primitive values
+ * in a {@code byte[]} and references in an {@code Object[]}. Shapes with a custom super class
+ * always need a generated class and therefore cannot be built when running ahead-of-time compiled.
+ *
+ * <pre>
+ * StaticProperty x = new DefaultStaticProperty("x", StaticPropertyKind.Int);
+ * StaticProperty name = new DefaultStaticProperty("name", StaticPropertyKind.Object);
+ * StaticShape&lt;DefaultStaticObjectFactory&gt; shape = StaticShape.newBuilder().property(x).property(name).build();
+ * Object point = shape.getFactory().create();
+ * x.setInt(point, 42);
+ * name.setObject(point, "origin");
+ * </pre>
+ *
+ * @param <T> the type of the factory of this shape
+ * @since 21.1
+ */
+public abstract class StaticShape<T> {
+    final Class<?> storageClass;
+    private final T factory;
+
+    StaticShape(Class<?> storageClass, T factory) {
+        this.storageClass = storageClass;
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the factory that allocates objects of this shape. For shapes built with
+     * {@link Builder#build()}, the factory is a {@link DefaultStaticObjectFactory}.
+     *
+     * @since 21.1
+     */
+    public final T getFactory() {
+        return factory;
+    }
+
+    /**
+     * Returns the object from which a property of this shape is loaded at its offset.
+     */
+    abstract Object getStorage(Object obj, boolean primitive);
+
+    /**
+     * Returns the offset at which a property is accessed in the object returned by
+     * {@link #getStorage(Object, boolean)}, given the offset the property was registered with.
+     */
+    abstract long getOffset(long shapeOffset, boolean primitive);
+
+    final Object checkReceiver(Object obj) {
+        if (CompilerDirectives.isExact(obj, storageClass)) {
+            return CompilerDirectives.castExact(obj, storageClass);
+        }
+        CompilerDirectives.transferToInterpreter();
+        throw new IllegalArgumentException("Object of type " + (obj == null ? "null" : obj.getClass().getName()) + " was not created by the factory of this shape");
+    }
+
+    /**
+     * Creates a new builder for a static shape.
+     *
+     * @since 21.1
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link StaticShape static shapes}.
+     *
+     * @since 21.1
+     */
+    public static final class Builder {
+        private final Map<String, StaticProperty> properties = new LinkedHashMap<>();
+
+        Builder() {
+        }
+
+        /**
+         * Adds a property to the shape. A property can only be added to a single shape.
+         *
+         * @throws IllegalArgumentException if the property is already registered with another
+         *             shape, or if a property with the same id was already added
+         * @since 21.1
+         */
+        public Builder property(StaticProperty property) {
+            Objects.requireNonNull(property);
+            String id = Objects.requireNonNull(property.getId(), "id");
+            if (property.isRegistered()) {
+                throw new IllegalArgumentException("Static property '" + id + "' is already registered with another shape");
+            }
+            if (properties.containsKey(id)) {
+                throw new IllegalArgumentException("This builder already contains a static property with id '" + id + "'");
+            }
+            properties.put(id, property);
+            return this;
+        }
+
+        /**
+         * Builds a shape whose factory is a {@link DefaultStaticObjectFactory} creating instances
+         * of a subclass of {@link Object}.
+         *
+         * @since 21.1
+         */
+        public StaticShape<DefaultStaticObjectFactory> build() {
+            if (TruffleOptions.AOT || Boolean.getBoolean("truffle.staticobject.ArrayBasedStorage")) {
+                return ArrayBasedStaticShape.create(properties.values().toArray(new StaticProperty[0]));
+            }
+            return build(Object.class, DefaultStaticObjectFactory.class);
+        }
+
+        /**
+         * Builds a shape whose objects are instances of a generated subclass of
+         * {@code superClass}. The generated factory implements {@code factoryInterface}: every
+         * abstract method of the interface must return a supertype of {@code superClass} and have
+         * the parameter types of a public or protected constructor of {@code superClass}, which
+         * the factory method invokes.
+         *
+         * @param superClass a public, non-final class
+         * @param factoryInterface a public interface
+         * @throws IllegalArgumentException if the classes do not meet the requirements above
+         * @throws UnsupportedOperationException if running ahead-of-time compiled
+         * @since 21.1
+         */
+        public <T> StaticShape<T> build(Class<?> superClass, Class<T> factoryInterface) {
+            Objects.requireNonNull(superClass);
+            Objects.requireNonNull(factoryInterface);
+            int modifiers = superClass.getModifiers();
+            if (superClass.isInterface() || superClass.isArray() || superClass.isPrimitive() || !Modifier.isPublic(modifiers) || Modifier.isFinal(modifiers)) {
+                throw new IllegalArgumentException("The super class must be a public non-final class: " + superClass.getName());
+            }
+            if (!factoryInterface.isInterface() || !Modifier.isPublic(factoryInterface.getModifiers())) {
+                throw new IllegalArgumentException("The factory must be a public interface: " + factoryInterface.getName());
+            }
+            if (TruffleOptions.AOT) {
+                throw new UnsupportedOperationException("Static shapes with a custom super class or factory interface are not supported when running ahead-of-time compiled");
+            }
+            return ShapeGenerator.generate(superClass, factoryInterface, properties.values().toArray(new StaticProperty[0]));
+        }
+    }
+}
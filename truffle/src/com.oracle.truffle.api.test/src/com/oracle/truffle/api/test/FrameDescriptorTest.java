@@ -207,4 +207,95 @@ public class FrameDescriptorTest {
         assertEquals("c", frame.getObject(slot3));
         assertEquals("d", frame.getObject(slot4));
     }
+
+    @Test
+    public void staticSlotKinds() throws FrameSlotTypeException {
+        FrameDescriptor d = FrameDescriptor.createWithStaticSlotKinds("default");
+        assertTrue(d.hasStaticSlotKinds());
+        assertFalse(new FrameDescriptor().hasStaticSlotKinds());
+        s1 = d.addFrameSlot("v1", FrameSlotKind.Object);
+        s2 = d.addFrameSlot("v2", FrameSlotKind.Int);
+        s3 = d.addFrameSlot("v3", FrameSlotKind.Double);
+        try {
+            d.addFrameSlot("v4");
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        VirtualFrame f = Truffle.getRuntime().createVirtualFrame(new Object[0], d);
+        assertStaticFrame(f);
+        assertStaticFrame(Truffle.getRuntime().createMaterializedFrame(new Object[0], d));
+        assertStaticFrame(Truffle.getRuntime().createVirtualFrame(new Object[0], d).materialize());
+
+        Assumption version = d.getVersion();
+        d.setFrameSlotKind(s2, FrameSlotKind.Int);
+        assertTrue(version.isValid());
+        try {
+            d.setFrameSlotKind(s2, FrameSlotKind.Object);
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertTrue(version.isValid());
+        assertEquals(FrameSlotKind.Int, d.getFrameSlotKind(s2));
+
+        FrameDescriptor copy = d.copy();
+        assertTrue(copy.hasStaticSlotKinds());
+        assertEquals("Kind is copied", FrameSlotKind.Double, copy.getFrameSlotKind(copy.getSlots().get(2)));
+    }
+
+    private void assertStaticFrame(Frame f) throws FrameSlotTypeException {
+        assertEquals("default", f.getObject(s1));
+        assertEquals(0, f.getInt(s2));
+        assertEquals(0d, f.getDouble(s3), 0d);
+        assertEquals(0, f.getValue(s2));
+        assertTrue(f.isObject(s1));
+        assertTrue(f.isInt(s2));
+        assertTrue(f.isDouble(s3));
+
+        f.setObject(s1, "a");
+        f.setInt(s2, 42);
+        f.setDouble(s3, 4.2d);
+        assertEquals("a", f.getObject(s1));
+        assertEquals(42, f.getInt(s2));
+        assertEquals(4.2d, f.getDouble(s3), 0d);
+        assertEquals(42, f.getValue(s2));
+        try {
+            f.getObject(s2);
+            fail("expected FrameSlotTypeException");
+        } catch (FrameSlotTypeException e) {
+            // expected
+        }
+        try {
+            f.setLong(s2, 42L);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        f.clear(s1);
+        f.clear(s2);
+        assertNull(f.getObject(s1));
+        assertEquals(0, f.getInt(s2));
+        assertTrue(f.isInt(s2));
+    }
+
+    @Test
+    public void staticSlotKindsAddedLater() throws FrameSlotTypeException {
+        FrameDescriptor d = FrameDescriptor.createWithStaticSlotKinds(null);
+        s1 = d.addFrameSlot("v1", FrameSlotKind.Long);
+        Frame f = Truffle.getRuntime().createMaterializedFrame(new Object[0], d);
+        f.setLong(s1, 42L);
+
+        s2 = d.addFrameSlot("v2", FrameSlotKind.Object);
+        s3 = d.addFrameSlot("v3", FrameSlotKind.Long);
+        assertNull(f.getObject(s2));
+        assertEquals(0L, f.getLong(s3));
+        f.setObject(s2, "a");
+        f.setLong(s3, 43L);
+        assertEquals(42L, f.getLong(s1));
+        assertEquals("a", f.getObject(s2));
+        assertEquals(43L, f.getLong(s3));
+    }
 }
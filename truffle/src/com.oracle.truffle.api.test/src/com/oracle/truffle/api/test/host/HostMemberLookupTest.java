@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.test.host;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.Value;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * Host members are collected per name on first lookup. Every test uses a new context, so the
+ * lookups by name run before the complete member tables of a class exist.
+ */
+public class HostMemberLookupTest {
+
+    private Context context;
+
+    @Before
+    public void setup() {
+        context = Context.newBuilder().allowHostAccess(HostAccess.ALL).build();
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    public static class Base {
+        public String inherited() {
+            return "base";
+        }
+
+        public String overridden() {
+            return "base";
+        }
+    }
+
+    public static class Derived extends Base {
+        public int field = 42;
+
+        @Override
+        public String overridden() {
+            return "derived";
+        }
+
+        public String overloaded(int value) {
+            return "int";
+        }
+
+        public String overloaded(String value) {
+            return "string";
+        }
+    }
+
+    abstract static class HiddenBase {
+        public String hidden() {
+            return "hidden";
+        }
+    }
+
+    // javac generates a public bridge method for hidden()
+    public static class Visible extends HiddenBase {
+    }
+
+    public interface Identity<T> {
+        T identity(T value);
+    }
+
+    // javac generates a bridge method identity(Object)
+    public static class StringIdentity implements Identity<String> {
+        public String identity(String value) {
+            return value;
+        }
+    }
+
+    @Test
+    public void testUnknownName() {
+        Value value = context.asValue(new Derived());
+        assertFalse(value.hasMember("unknown"));
+        assertNull(value.getMember("unknown"));
+        // unknown names are not mistaken for members of another kind
+        assertFalse(value.canInvokeMember("field"));
+        assertTrue(value.hasMember("field"));
+        assertFalse(value.getMemberKeys().contains("unknown"));
+    }
+
+    @Test
+    public void testInherited() {
+        Value value = context.asValue(new Derived());
+        assertEquals("base", value.invokeMember("inherited").asString());
+        assertEquals("derived", value.invokeMember("overridden").asString());
+        assertTrue(value.canInvokeMember("hashCode"));
+    }
+
+    @Test
+    public void testOverloaded() {
+        Value value = context.asValue(new Derived());
+        assertEquals("int", value.invokeMember("overloaded", 42).asString());
+        assertEquals("string", value.invokeMember("overloaded", "42").asString());
+    }
+
+    @Test
+    public void testBridgeMethods() {
+        assertEquals("hidden", context.asValue(new Visible()).invokeMember("hidden").asString());
+        assertEquals("42", context.asValue(new StringIdentity()).invokeMember("identity", "42").asString());
+    }
+
+    @Test
+    public void testLookupBeforeEnumeration() {
+        Value value = context.asValue(new Derived());
+        assertEquals("int", value.invokeMember("overloaded", 42).asString());
+        assertEquals(42, value.getMember("field").asInt());
+        Set<String> keys = value.getMemberKeys();
+        assertTrue(keys.containsAll(new HashSet<>(Arrays.asList("inherited", "overridden", "overloaded", "field", "hashCode"))));
+        // members collected by name are shared with the complete member tables
+        assertEquals("string", value.invokeMember("overloaded", "42").asString());
+    }
+}
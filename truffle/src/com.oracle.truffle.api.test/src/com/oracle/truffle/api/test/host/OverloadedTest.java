@@ -232,6 +232,24 @@ public class OverloadedTest extends ProxyLanguageEnvTest {
         assertEquals("int", num.parameter);
     }
 
+    @Test
+    public void testCachedOverloadsRespectValues() throws InteropException {
+        Num num = new Num();
+        TruffleObject numobj = asTruffleObject(num);
+        for (int i = 0; i < 3; i++) {
+            INTEROP.invokeMember(numobj, "d", 42L);
+            assertEquals("int", num.parameter);
+            INTEROP.invokeMember(numobj, "d", 0x8000_0000L);
+            assertEquals("double", num.parameter);
+            INTEROP.invokeMember(numobj, "x", new UnboxableToInt(21));
+            assertEquals("int", num.parameter);
+            INTEROP.invokeMember(numobj, "x", asTruffleObject(BigInteger.TEN));
+            assertEquals("BigInteger", num.parameter);
+            INTEROP.invokeMember(numobj, "x", asTruffleObject(new AtomicInteger(22)));
+            assertEquals("Number", num.parameter);
+        }
+    }
+
     @Test
     public void testNarrowing() throws InteropException {
         Num num = new Num();
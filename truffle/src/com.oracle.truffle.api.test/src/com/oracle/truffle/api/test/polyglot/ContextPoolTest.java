@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.test.polyglot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.ContextPool;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.PolyglotException;
+import org.junit.Test;
+
+import com.oracle.truffle.api.test.polyglot.ProxyLanguage.LanguageContext;
+
+public class ContextPoolTest extends AbstractPolyglotTest {
+
+    static final class CountingLanguage extends ProxyLanguage {
+
+        final AtomicInteger initialized = new AtomicInteger();
+        final AtomicInteger disposed = new AtomicInteger();
+
+        @Override
+        protected void initializeContext(LanguageContext context) throws Exception {
+            initialized.incrementAndGet();
+        }
+
+        @Override
+        protected void disposeContext(LanguageContext context) {
+            disposed.incrementAndGet();
+        }
+    }
+
+    static final class FailingLanguage extends ProxyLanguage {
+
+        final CountDownLatch markerDisposed = new CountDownLatch(1);
+        volatile boolean fail;
+
+        @Override
+        protected void initializeContext(LanguageContext context) throws Exception {
+            if (fail) {
+                throw new IllegalStateException("initialization failed");
+            }
+        }
+
+        @Override
+        protected void disposeContext(LanguageContext context) {
+            String[] arguments = context.getEnv().getApplicationArguments();
+            if (arguments.length > 0 && arguments[0].equals("marker")) {
+                markerDisposed.countDown();
+            }
+        }
+    }
+
+    private static void awaitIdle(ContextPool pool, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (pool.getIdleCount() < count) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timeout waiting for pooled contexts.");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void testAcquirePreInitialized() throws Exception {
+        CountingLanguage lang = ProxyLanguage.setDelegate(new CountingLanguage());
+        try (Engine engine = Engine.create();
+                        ContextPool pool = ContextPool.newBuilder(engine).initialize(ProxyLanguage.ID).size(2).build()) {
+            assertSame(engine, pool.getEngine());
+            assertEquals(2, pool.getSize());
+            awaitIdle(pool, 2);
+            assertEquals(2, lang.initialized.get());
+
+            Context context = pool.acquire();
+            // the language is already initialized
+            assertEquals(false, context.initialize(ProxyLanguage.ID));
+            context.enter();
+            context.leave();
+            pool.release(context);
+
+            // the pool is refilled in the background
+            awaitIdle(pool, 2);
+            assertEquals(3, lang.initialized.get());
+        }
+        assertEquals(3, lang.disposed.get());
+    }
+
+    @Test
+    public void testReleasedNotReused() throws Exception {
+        ProxyLanguage.setDelegate(new CountingLanguage());
+        try (Engine engine = Engine.create();
+                        ContextPool pool = ContextPool.newBuilder(engine).initialize(ProxyLanguage.ID).size(1).build()) {
+            Context first = pool.acquire();
+            pool.release(first);
+            Context second = pool.acquire();
+            assertNotSame(first, second);
+            pool.release(second);
+        }
+    }
+
+    @Test
+    public void testEmptyPool() throws Exception {
+        CountingLanguage lang = ProxyLanguage.setDelegate(new CountingLanguage());
+        try (Engine engine = Engine.create();
+                        ContextPool pool = ContextPool.newBuilder(engine).initialize(ProxyLanguage.ID).size(0).build()) {
+            assertEquals(0, pool.getIdleCount());
+            Context context = pool.acquire();
+            assertEquals(1, lang.initialized.get());
+            assertEquals(0, pool.getIdleCount());
+            context.close();
+        }
+    }
+
+    @Test
+    public void testConfigure() throws Exception {
+        ProxyLanguage.setDelegate(new CountingLanguage());
+        try (Engine engine = Engine.create();
+                        ContextPool pool = ContextPool.newBuilder(engine).configure((b) -> b.arguments(ProxyLanguage.ID, new String[]{"pooled"})).build()) {
+            Context context = pool.acquire();
+            context.initialize(ProxyLanguage.ID);
+            context.enter();
+            try {
+                assertEquals("pooled", ProxyLanguage.getCurrentContext().getEnv().getApplicationArguments()[0]);
+            } finally {
+                context.leave();
+            }
+            pool.release(context);
+        }
+    }
+
+    @Test
+    public void testInitializationError() {
+        ProxyLanguage.setDelegate(new CountingLanguage());
+        try (Engine engine = Engine.create();
+                        ContextPool pool = ContextPool.newBuilder(engine).initialize("$$$unknown$$$").build()) {
+            try {
+                pool.acquire();
+                fail();
+            } catch (IllegalArgumentException e) {
+            }
+        }
+    }
+
+    /*
+     * Runs before each context initialization of a pool. Initializations on pool threads after the
+     * first free ones wait until proceed is counted down. A waiting initialization also tells that
+     * all previous ones are complete, as a pool initializes one context at a time.
+     */
+    static final class PoolConfiguration implements Consumer<Context.Builder> {
+
+        final Thread testThread = Thread.currentThread();
+        final CountDownLatch waiting = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final AtomicInteger backgroundCount = new AtomicInteger();
+        final FailingLanguage lang;
+        final int free;
+        final int failing;
+
+        PoolConfiguration(FailingLanguage lang, int free, int failing) {
+            this.lang = lang;
+            this.free = free;
+            this.failing = failing;
+        }
+
+        @Override
+        public void accept(Context.Builder builder) {
+            if (Thread.currentThread() == testThread) {
+                lang.fail = false;
+                return;
+            }
+            int index = backgroundCount.incrementAndGet();
+            if (index > free) {
+                waiting.countDown();
+                try {
+                    proceed.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            lang.fail = index <= failing;
+        }
+    }
+
+    @Test
+    public void testBackgroundInitializationError() throws Exception {
+        FailingLanguage lang = ProxyLanguage.setDelegate(new FailingLanguage());
+        PoolConfiguration configuration = new PoolConfiguration(lang, 1, 1);
+        try (Engine engine = Engine.create();
+                        ContextPool pool = ContextPool.newBuilder(engine).initialize(ProxyLanguage.ID).configure(configuration).size(2).build()) {
+            assertTrue(configuration.waiting.await(10, TimeUnit.SECONDS));
+            try {
+                pool.acquire();
+                fail();
+            } catch (PolyglotException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("initialization failed"));
+            }
+            // the failure is only reported once
+            Context context = pool.acquire();
+            context.enter();
+            context.leave();
+            pool.release(context);
+            configuration.proceed.countDown();
+        }
+    }
+
+    @Test
+    public void testBackgroundInitializationRecovered() throws Exception {
+        FailingLanguage lang = ProxyLanguage.setDelegate(new FailingLanguage());
+        PoolConfiguration configuration = new PoolConfiguration(lang, 2, 1);
+        try (Engine engine = Engine.create();
+                        ContextPool pool = ContextPool.newBuilder(engine).initialize(ProxyLanguage.ID).configure(configuration).size(2).build()) {
+            awaitIdle(pool, 1);
+            Context first = pool.acquire();
+            assertTrue(configuration.waiting.await(10, TimeUnit.SECONDS));
+            // the failed initialization was followed by a successful one, so it is not reported
+            Context second = pool.acquire();
+            pool.release(first);
+            pool.release(second);
+            configuration.proceed.countDown();
+        }
+    }
+
+    @Test
+    public void testReleaseDuringInitialization() throws Exception {
+        FailingLanguage lang = ProxyLanguage.setDelegate(new FailingLanguage());
+        PoolConfiguration configuration = new PoolConfiguration(lang, 0, 0);
+        try (Engine engine = Engine.create()) {
+            Context marker = Context.newBuilder().engine(engine).arguments(ProxyLanguage.ID, new String[]{"marker"}).build();
+            marker.initialize(ProxyLanguage.ID);
+            try (ContextPool pool = ContextPool.newBuilder(engine).initialize(ProxyLanguage.ID).configure(configuration).size(1).build()) {
+                assertTrue(configuration.waiting.await(10, TimeUnit.SECONDS));
+                // released contexts are closed while the initialization is still pending
+                pool.release(marker);
+                assertTrue(lang.markerDisposed.await(10, TimeUnit.SECONDS));
+                configuration.proceed.countDown();
+            }
+        }
+    }
+
+    @Test
+    public void testCloseInterruptsInitialization() throws Exception {
+        FailingLanguage lang = ProxyLanguage.setDelegate(new FailingLanguage());
+        PoolConfiguration configuration = new PoolConfiguration(lang, 0, 0);
+        try (Engine engine = Engine.create()) {
+            ContextPool pool = ContextPool.newBuilder(engine).initialize(ProxyLanguage.ID).configure(configuration).size(1).build();
+            assertTrue(configuration.waiting.await(10, TimeUnit.SECONDS));
+            long start = System.nanoTime();
+            // the initialization only continues if it is interrupted
+            pool.close();
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            assertEquals(0, pool.getIdleCount());
+        }
+    }
+
+    @Test
+    public void testDiscard() throws Exception {
+        CountingLanguage lang = ProxyLanguage.setDelegate(new CountingLanguage());
+        try (Engine engine = Engine.create();
+                        ContextPool pool = ContextPool.newBuilder(engine).initialize(ProxyLanguage.ID).size(1).build()) {
+            Context first = pool.acquire();
+            first.getPolyglotBindings().putMember("state", "corrupted");
+            pool.discard(first);
+            // the context is closed before discard returns
+            assertEquals(1, lang.disposed.get());
+            try {
+                first.getPolyglotBindings();
+                fail();
+            } catch (PolyglotException e) {
+                assertTrue(e.isCancelled());
+            }
+            Context second = pool.acquire();
+            assertNotSame(first, second);
+            assertFalse(second.getPolyglotBindings().hasMember("state"));
+            pool.release(second);
+        }
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        CountingLanguage lang = ProxyLanguage.setDelegate(new CountingLanguage());
+        Engine engine = Engine.create();
+        ContextPool pool = ContextPool.newBuilder(engine).initialize(ProxyLanguage.ID).size(3).build();
+        Context acquired = pool.acquire();
+        pool.close();
+        pool.close();
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(lang.initialized.get() - 1, lang.disposed.get());
+        try {
+            pool.acquire();
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        // contexts acquired before close remain usable
+        acquired.enter();
+        acquired.leave();
+        pool.release(acquired);
+        assertEquals(lang.initialized.get(), lang.disposed.get());
+        assertTrue(lang.initialized.get() >= 1);
+        engine.close();
+    }
+
+    @Test
+    public void testInvalidSize() {
+        try (Engine engine = Engine.create()) {
+            try {
+                ContextPool.newBuilder(engine).size(-1);
+                fail();
+            } catch (IllegalArgumentException e) {
+            }
+        }
+    }
+}
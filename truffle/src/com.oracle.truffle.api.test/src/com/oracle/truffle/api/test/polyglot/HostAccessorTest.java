@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.test.polyglot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Value;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.TruffleOptions;
+
+/**
+ * Tests that host members keep their semantics once they are hot enough for a bytecode accessor
+ * to be generated.
+ */
+public class HostAccessorTest {
+
+    private static final int ITERATIONS = 2 * Integer.getInteger("polyglotimpl.HostAccessorThreshold", 1000) + 10;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = Context.newBuilder().allowHostAccess(HostAccess.ALL).build();
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    public static class Counter {
+        public static int staticValue;
+        public static final String CONSTANT = "constant";
+
+        public int value;
+        public final long finalValue;
+        public String text;
+
+        public Counter() {
+            this(0);
+        }
+
+        public Counter(long finalValue) {
+            this.finalValue = finalValue;
+        }
+
+        public int add(int delta) {
+            value += delta;
+            return value;
+        }
+
+        public void reset() {
+            value = 0;
+        }
+
+        public double mix(byte b, short s, char c, long l, float f, double d, boolean z) {
+            return z ? b + s + c + l + f + d : 0;
+        }
+
+        public String concat(String a, Object b) {
+            return a + b;
+        }
+
+        public static int twice(int x) {
+            return 2 * x;
+        }
+
+        public void fail(String message) {
+            throw new IllegalStateException(message);
+        }
+
+        public void failOther(String message) {
+            throw new IllegalStateException(message);
+        }
+
+        public Hidden failHidden(String message) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static final class Hidden {
+    }
+
+    @Test
+    public void testInstanceMethods() {
+        Counter counter = new Counter();
+        Value value = context.asValue(counter);
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertEquals(i + 1, value.invokeMember("add", 1).asInt());
+        }
+        assertNull(value.invokeMember("reset").as(Object.class));
+        assertEquals(0, counter.value);
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertEquals("a" + i, value.invokeMember("concat", "a", i).asString());
+            assertEquals(1 + 2 + 'c' + 4L + 5f + 6d, value.invokeMember("mix", (byte) 1, (short) 2, 'c', 4L, 5f, 6d, true).asDouble(), 0d);
+        }
+    }
+
+    @Test
+    public void testStaticMethodsAndConstructors() {
+        Value clazz = context.asValue(Counter.class);
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertEquals(2 * i, clazz.getMember("static").invokeMember("twice", i).asInt());
+            Counter created = clazz.newInstance(i).asHostObject();
+            assertEquals(i, created.finalValue);
+            created = clazz.newInstance().asHostObject();
+            assertEquals(0, created.finalValue);
+        }
+    }
+
+    @Test
+    public void testFields() {
+        Counter counter = new Counter(42);
+        Value value = context.asValue(counter);
+        Value statics = context.asValue(Counter.class).getMember("static");
+        for (int i = 0; i < ITERATIONS; i++) {
+            value.putMember("value", i);
+            assertEquals(i, value.getMember("value").asInt());
+            value.putMember("text", "t" + i);
+            assertEquals("t" + i, value.getMember("text").asString());
+            value.putMember("text", null);
+            assertTrue(value.getMember("text").isNull());
+            assertEquals(42L, value.getMember("finalValue").asLong());
+            statics.putMember("staticValue", i);
+            assertEquals(i, Counter.staticValue);
+            assertEquals(i, statics.getMember("staticValue").asInt());
+            assertEquals("constant", statics.getMember("CONSTANT").asString());
+        }
+        assertEquals(ITERATIONS - 1, counter.value);
+    }
+
+    @Test
+    public void testExceptions() {
+        Value value = context.asValue(new Counter());
+        for (int i = 0; i < ITERATIONS; i++) {
+            try {
+                value.invokeMember("fail", "m" + i);
+                fail();
+            } catch (PolyglotException e) {
+                assertTrue(e.isHostException());
+                assertSame(IllegalStateException.class, e.asHostException().getClass());
+                assertEquals("m" + i, e.asHostException().getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testAccessorInstalled() {
+        Assume.assumeFalse(TruffleOptions.AOT);
+        Assume.assumeTrue(Integer.getInteger("polyglotimpl.HostAccessorThreshold", 1000) > 0);
+        Value value = context.asValue(new Counter());
+        for (int i = 0; i < ITERATIONS; i++) {
+            invokeFail(value, "fail");
+        }
+        assertTrue(awaitAccessorFrame(value, "fail"));
+    }
+
+    @Test
+    public void testFallbackToMethodHandles() {
+        Assume.assumeFalse(TruffleOptions.AOT);
+        Assume.assumeTrue(Integer.getInteger("polyglotimpl.HostAccessorThreshold", 1000) > 0);
+        Value value = context.asValue(new Counter());
+        for (int i = 0; i < ITERATIONS; i++) {
+            // the return type is not visible to the accessor
+            assertFalse(hasAccessorFrame(invokeFail(value, "failHidden")));
+        }
+        for (int i = 0; i < ITERATIONS; i++) {
+            invokeFail(value, "failOther");
+        }
+        // accessors are generated in order, so failHidden was processed once failOther is swapped
+        assertTrue(awaitAccessorFrame(value, "failOther"));
+        assertFalse(hasAccessorFrame(invokeFail(value, "failHidden")));
+    }
+
+    private static Throwable invokeFail(Value value, String member) {
+        try {
+            value.invokeMember(member, "m");
+        } catch (PolyglotException e) {
+            assertEquals("m", e.asHostException().getMessage());
+            return e.asHostException();
+        }
+        throw new AssertionError();
+    }
+
+    private static boolean awaitAccessorFrame(Value value, String member) {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!hasAccessorFrame(invokeFail(value, member))) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testInterfaceMethods() {
+        Value value = context.asValue(new PrivateGreeter());
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertEquals("hello " + i, value.invokeMember("greet", String.valueOf(i)).asString());
+        }
+    }
+
+    private static boolean hasAccessorFrame(Throwable t) {
+        for (StackTraceElement element : t.getStackTrace()) {
+            if (element.getClassName().startsWith("com.oracle.truffle.polyglot.hostaccessors.HostAccessor$")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public interface Greeter {
+        String greet(String name);
+    }
+
+    private static class PrivateGreeter implements Greeter {
+        @Override
+        public String greet(String name) {
+            return "hello " + name;
+        }
+    }
+}
@@ -52,12 +52,14 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.management.SourceCacheStatistics;
 import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.Test;
@@ -215,6 +217,150 @@ public class PolyglotCachingTest {
         engine.close();
     }
 
+    /*
+     * Test that the bounded cache keeps parsed sources alive even if the source instance was
+     * collected.
+     */
+    @Test
+    public void testBoundedCacheSourceFree() {
+        Assume.assumeFalse("This test is too slow in fastdebug.", System.getProperty("java.vm.version").contains("fastdebug"));
+        setupTestLang(false);
+
+        Context context = Context.newBuilder().allowExperimentalOptions(true).option("engine.SourceCacheSize", "2").build();
+        assertParsedEval(context, Source.create(ProxyLanguage.ID, "0"));
+        for (int i = 0; i < GCUtils.GC_TEST_ITERATIONS; i++) {
+            System.gc();
+            assertCachedEval(context, Source.create(ProxyLanguage.ID, "0"));
+        }
+        context.close();
+    }
+
+    @Test
+    public void testBoundedCacheLRU() {
+        setupTestLang(false);
+        Context context = Context.newBuilder().allowExperimentalOptions(true).option("engine.SourceCacheSize", "2").option("engine.SourceCachePolicy", "LRU").build();
+        Source s0 = Source.create(ProxyLanguage.ID, "0");
+        Source s1 = Source.create(ProxyLanguage.ID, "1");
+        Source s2 = Source.create(ProxyLanguage.ID, "2");
+        assertParsedEval(context, s0);
+        assertParsedEval(context, s1);
+        assertCachedEval(context, s0);
+        // evicts s1, the least recently used source
+        assertParsedEval(context, s2);
+        assertCachedEval(context, s0);
+        assertCachedEval(context, s2);
+        assertParsedEval(context, s1);
+
+        SourceCacheStatistics statistics = SourceCacheStatistics.collect(context.getEngine());
+        assertEquals(3, statistics.getHits());
+        assertEquals(4, statistics.getMisses());
+        assertEquals(2, statistics.getEvictions());
+        context.close();
+    }
+
+    @Test
+    public void testBoundedCacheLFU() {
+        setupTestLang(false);
+        Context context = Context.newBuilder().allowExperimentalOptions(true).option("engine.SourceCacheSize", "2").option("engine.SourceCachePolicy", "LFU").build();
+        Source s0 = Source.create(ProxyLanguage.ID, "0");
+        Source s1 = Source.create(ProxyLanguage.ID, "1");
+        Source s2 = Source.create(ProxyLanguage.ID, "2");
+        assertParsedEval(context, s0);
+        assertCachedEval(context, s0);
+        assertCachedEval(context, s0);
+        assertParsedEval(context, s1);
+        assertCachedEval(context, s1);
+        // s0 was used more often than s1, even though it was not used recently
+        assertParsedEval(context, s2);
+        assertCachedEval(context, s0);
+        assertParsedEval(context, s1);
+        context.close();
+    }
+
+    @Test
+    public void testBoundedCacheLFUAging() {
+        setupTestLang(false);
+        Context context = Context.newBuilder().allowExperimentalOptions(true).option("engine.SourceCacheSize", "2").option("engine.SourceCachePolicy", "LFU").build();
+        Source s0 = Source.create(ProxyLanguage.ID, "0");
+        Source s1 = Source.create(ProxyLanguage.ID, "1");
+        Source s2 = Source.create(ProxyLanguage.ID, "2");
+        assertParsedEval(context, s0);
+        for (int i = 0; i < 100; i++) {
+            assertCachedEval(context, s0);
+        }
+        assertParsedEval(context, s1);
+        for (int i = 0; i < 60; i++) {
+            assertCachedEval(context, s1);
+        }
+        // s1 is hot now, s0 was used more often but only a long time ago
+        assertParsedEval(context, s2);
+        assertCachedEval(context, s1);
+        assertParsedEval(context, s0);
+        context.close();
+    }
+
+    @Test
+    public void testBoundedCacheLFUTie() {
+        setupTestLang(false);
+        Context context = Context.newBuilder().allowExperimentalOptions(true).option("engine.SourceCacheSize", "2").option("engine.SourceCachePolicy", "LFU").build();
+        Source s0 = Source.create(ProxyLanguage.ID, "0");
+        Source s1 = Source.create(ProxyLanguage.ID, "1");
+        Source s2 = Source.create(ProxyLanguage.ID, "2");
+        assertParsedEval(context, s0);
+        assertParsedEval(context, s1);
+        assertCachedEval(context, s1);
+        assertCachedEval(context, s0);
+        // equally often used, evicts s1 which was used less recently
+        assertParsedEval(context, s2);
+        assertCachedEval(context, s0);
+        assertParsedEval(context, s1);
+        context.close();
+    }
+
+    @Test
+    public void testBoundedCacheMaxLength() {
+        setupTestLang(false);
+        Context context = Context.newBuilder().allowExperimentalOptions(true).option("engine.SourceCacheMaxLength", "3").build();
+        Source s0 = Source.create(ProxyLanguage.ID, "0");
+        Source s1 = Source.create(ProxyLanguage.ID, "10");
+        Source s2 = Source.create(ProxyLanguage.ID, "100");
+        assertParsedEval(context, s0);
+        assertParsedEval(context, s1);
+        assertCachedEval(context, s0);
+        assertCachedEval(context, s1);
+        // exceeds the total length of three characters, all other entries are evicted
+        assertParsedEval(context, s2);
+        assertCachedEval(context, s2);
+        assertParsedEval(context, s0);
+        assertEquals(3, SourceCacheStatistics.collect(context.getEngine()).getEvictions());
+        context.close();
+    }
+
+    @Test
+    public void testSourceCacheStatistics() {
+        setupTestLang(false);
+        Context context = Context.create();
+        Source source = Source.create(ProxyLanguage.ID, "0");
+        SourceCacheStatistics statistics = SourceCacheStatistics.collect(context.getEngine());
+        assertEquals(0, statistics.getHits());
+        assertEquals(0, statistics.getMisses());
+
+        assertParsedEval(context, source);
+        assertCachedEval(context, source);
+        assertCachedEval(context, source);
+        context.eval(Source.newBuilder(ProxyLanguage.ID, "0", "uncached").cached(false).buildLiteral());
+
+        // snapshots do not change
+        assertEquals(0, statistics.getHits());
+        statistics = SourceCacheStatistics.collect(context.getEngine());
+        assertEquals(2, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(0, statistics.getEvictions());
+        Assert.assertTrue(statistics.getParseTime(TimeUnit.NANOSECONDS) > 0);
+        Assert.assertTrue(statistics.getParseTimeSaved(TimeUnit.NANOSECONDS) >= 2 * statistics.getParseTime(TimeUnit.NANOSECONDS));
+        context.close();
+    }
+
     long parseCount;
     CallTarget lastParsedTarget;
     ProxyLanguage lastLanguage;
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.test.polyglot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.ThreadLocalAction;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleContext;
+import com.oracle.truffle.api.TruffleSafepoint;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+
+public class ThreadLocalActionTest extends AbstractPolyglotTest {
+
+    @Before
+    public void setup() {
+        setupEnv();
+    }
+
+    @Test
+    public void testPerformedOnPoll() throws Exception {
+        List<Thread> performed = new ArrayList<>();
+        Future<Void> future = languageEnv.submitThreadLocal(null, new ThreadLocalAction(false, false) {
+            @Override
+            protected void perform(Access access) {
+                assertNull(access.getLocation());
+                performed.add(access.getThread());
+            }
+        });
+        assertFalse(future.isDone());
+        TruffleSafepoint.poll(null);
+        assertTrue(future.isDone());
+        assertNull(future.get());
+        assertEquals(1, performed.size());
+        assertSame(Thread.currentThread(), performed.get(0));
+
+        // actions are only performed once
+        TruffleSafepoint.poll(null);
+        assertEquals(1, performed.size());
+    }
+
+    @Test
+    public void testPerformedOnCall() throws Exception {
+        List<Node> locations = new ArrayList<>();
+        RootNode root = new RootNode(language) {
+            @Override
+            public Object execute(VirtualFrame frame) {
+                return 42;
+            }
+        };
+        CallTarget target = Truffle.getRuntime().createCallTarget(root);
+        Future<Void> future = languageEnv.submitThreadLocal(new Thread[]{Thread.currentThread()}, new ThreadLocalAction(false, false) {
+            @Override
+            protected void perform(Access access) {
+                locations.add(access.getLocation());
+            }
+        });
+        assertEquals(42, target.call());
+        assertTrue(future.isDone());
+        assertEquals(1, locations.size());
+        assertSame(root, locations.get(0));
+    }
+
+    @Test
+    public void testSideEffectsDisabled() {
+        List<Thread> performed = new ArrayList<>();
+        boolean prev = TruffleSafepoint.setAllowSideEffects(false);
+        try {
+            assertTrue(prev);
+            languageEnv.submitThreadLocal(null, new ThreadLocalAction(true, false) {
+                @Override
+                protected void perform(Access access) {
+                    performed.add(access.getThread());
+                }
+            });
+            TruffleSafepoint.poll(null);
+            assertTrue(performed.isEmpty());
+        } finally {
+            assertFalse(TruffleSafepoint.setAllowSideEffects(prev));
+        }
+        TruffleSafepoint.poll(null);
+        assertEquals(1, performed.size());
+    }
+
+    @Test
+    public void testDeferredInInnerContext() {
+        List<Thread> performed = new ArrayList<>();
+        TruffleContext inner = languageEnv.newContextBuilder().build();
+        try {
+            Object prev = inner.enter();
+            try {
+                languageEnv.submitThreadLocal(null, new ThreadLocalAction(false, false) {
+                    @Override
+                    protected void perform(Access access) {
+                        performed.add(access.getThread());
+                    }
+                });
+                // the action is only performed with the outer context entered
+                TruffleSafepoint.poll(null);
+                TruffleSafepoint.poll(null);
+                assertTrue(performed.isEmpty());
+            } finally {
+                inner.leave(prev);
+            }
+            TruffleSafepoint.poll(null);
+            assertEquals(1, performed.size());
+        } finally {
+            inner.close();
+        }
+    }
+
+    @Test
+    public void testPendingOnOtherThreadKeepsFastPath() throws Exception {
+        Method isPending = Class.forName("com.oracle.truffle.api.ThreadLocalHandshake").getDeclaredMethod("isPending");
+        isPending.setAccessible(true);
+        boolean[] otherPending = new boolean[1];
+        Runnable pollOther = () -> {
+            try {
+                otherPending[0] = (boolean) isPending.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new AssertionError(e);
+            }
+        };
+        List<Thread> performed = new ArrayList<>();
+        boolean prev = TruffleSafepoint.setAllowSideEffects(false);
+        try {
+            languageEnv.submitThreadLocal(new Thread[]{Thread.currentThread()}, new ThreadLocalAction(true, false) {
+                @Override
+                protected void perform(Access access) {
+                    performed.add(access.getThread());
+                }
+            });
+            // an action blocked by disabled side-effects does not mark any thread
+            assertFalse((boolean) isPending.invoke(null));
+        } finally {
+            TruffleSafepoint.setAllowSideEffects(prev);
+        }
+        assertTrue((boolean) isPending.invoke(null));
+
+        // the fast path of another thread is not affected by the pending action
+        Thread other = new Thread(pollOther);
+        other.start();
+        other.join();
+        assertFalse(otherPending[0]);
+
+        TruffleSafepoint.poll(null);
+        assertEquals(1, performed.size());
+        assertFalse((boolean) isPending.invoke(null));
+    }
+
+    @Test
+    public void testExceptionPropagated() throws InterruptedException {
+        Future<Void> future = languageEnv.submitThreadLocal(null, new ThreadLocalAction(false, false) {
+            @Override
+            protected void perform(Access access) {
+                throw new IllegalStateException("action failed");
+            }
+        });
+        try {
+            TruffleSafepoint.poll(null);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("action failed", e.getMessage());
+        }
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testInactiveThreadIgnored() throws Exception {
+        Thread other = new Thread(() -> {
+        });
+        Future<Void> future = languageEnv.submitThreadLocal(new Thread[]{other}, new ThreadLocalAction(false, true) {
+            @Override
+            protected void perform(Access access) {
+                fail();
+            }
+        });
+        assertTrue(future.isDone());
+        assertNull(future.get());
+    }
+
+    @Test
+    public void testDiscardedOnLeave() {
+        List<Thread> performed = new ArrayList<>();
+        Future<Void> future = languageEnv.submitThreadLocal(null, new ThreadLocalAction(false, false) {
+            @Override
+            protected void perform(Access access) {
+                performed.add(access.getThread());
+            }
+        });
+        context.leave();
+        try {
+            assertTrue(future.isDone());
+            TruffleSafepoint.poll(null);
+            assertTrue(performed.isEmpty());
+        } finally {
+            context.enter();
+        }
+    }
+
+    @Test
+    public void testCancel() {
+        List<Thread> performed = new ArrayList<>();
+        Future<Void> future = languageEnv.submitThreadLocal(null, new ThreadLocalAction(false, false) {
+            @Override
+            protected void perform(Access access) {
+                performed.add(access.getThread());
+            }
+        });
+        assertTrue(future.cancel(false));
+        assertTrue(future.isCancelled());
+        TruffleSafepoint.poll(null);
+        assertTrue(performed.isEmpty());
+    }
+
+}
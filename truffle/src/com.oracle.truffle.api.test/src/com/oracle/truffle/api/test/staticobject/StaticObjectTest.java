@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.test.staticobject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.staticobject.DefaultStaticObjectFactory;
+import com.oracle.truffle.api.staticobject.DefaultStaticProperty;
+import com.oracle.truffle.api.staticobject.StaticProperty;
+import com.oracle.truffle.api.staticobject.StaticPropertyKind;
+import com.oracle.truffle.api.staticobject.StaticShape;
+
+public class StaticObjectTest {
+
+    private static final String ARRAY_BASED_STORAGE = "truffle.staticobject.ArrayBasedStorage";
+
+    public static class CustomBase {
+        final String name;
+
+        public CustomBase(String name) {
+            this.name = name;
+        }
+
+        protected CustomBase(int id) {
+            this.name = String.valueOf(id);
+        }
+    }
+
+    public interface CustomFactory {
+        CustomBase create(String name);
+
+        Object create(int id);
+    }
+
+    public interface InvalidFactory {
+        CustomBase create(long unknown);
+    }
+
+    @Test
+    public void testAllKinds() {
+        assertAllKinds();
+    }
+
+    @Test
+    public void testArrayBasedStorage() {
+        String previous = System.setProperty(ARRAY_BASED_STORAGE, "true");
+        try {
+            assertAllKinds();
+
+            StaticProperty property1 = new DefaultStaticProperty("property", StaticPropertyKind.Int);
+            StaticProperty property2 = new DefaultStaticProperty("property", StaticPropertyKind.Int);
+            StaticShape<DefaultStaticObjectFactory> shape1 = StaticShape.newBuilder().property(property1).build();
+            StaticShape<DefaultStaticObjectFactory> shape2 = StaticShape.newBuilder().property(property2).build();
+            Object object1 = shape1.getFactory().create();
+            Object object2 = shape2.getFactory().create();
+            // array-based shapes share a precompiled storage class
+            assertSame(object1.getClass(), object2.getClass());
+            property1.setInt(object1, 42);
+            assertEquals(42, property1.getInt(object1));
+            assertEquals(0, property2.getInt(object2));
+            try {
+                property1.getInt(object2);
+                fail();
+            } catch (IllegalArgumentException e) {
+            }
+        } finally {
+            if (previous == null) {
+                System.clearProperty(ARRAY_BASED_STORAGE);
+            } else {
+                System.setProperty(ARRAY_BASED_STORAGE, previous);
+            }
+        }
+    }
+
+    private static void assertAllKinds() {
+        StaticProperty booleanProperty = new DefaultStaticProperty("boolean", StaticPropertyKind.Boolean);
+        StaticProperty byteProperty = new DefaultStaticProperty("byte", StaticPropertyKind.Byte);
+        StaticProperty charProperty = new DefaultStaticProperty("char", StaticPropertyKind.Char);
+        StaticProperty shortProperty = new DefaultStaticProperty("short", StaticPropertyKind.Short);
+        StaticProperty intProperty = new DefaultStaticProperty("int", StaticPropertyKind.Int);
+        StaticProperty floatProperty = new DefaultStaticProperty("float", StaticPropertyKind.Float);
+        StaticProperty longProperty = new DefaultStaticProperty("long", StaticPropertyKind.Long);
+        StaticProperty doubleProperty = new DefaultStaticProperty("double", StaticPropertyKind.Double);
+        StaticProperty objectProperty = new DefaultStaticProperty("object", StaticPropertyKind.Object);
+        StaticShape<DefaultStaticObjectFactory> shape = StaticShape.newBuilder().property(booleanProperty).property(byteProperty).property(charProperty).property(shortProperty).property(
+                        intProperty).property(floatProperty).property(longProperty).property(doubleProperty).property(objectProperty).build();
+
+        Object object = shape.getFactory().create();
+        assertFalse(booleanProperty.getBoolean(object));
+        assertEquals(0, intProperty.getInt(object));
+        assertNull(objectProperty.getObject(object));
+
+        booleanProperty.setBoolean(object, true);
+        byteProperty.setByte(object, (byte) 42);
+        charProperty.setChar(object, 'c');
+        shortProperty.setShort(object, (short) 4242);
+        intProperty.setInt(object, 424242);
+        floatProperty.setFloat(object, 4.2f);
+        longProperty.setLong(object, 42424242424242L);
+        doubleProperty.setDouble(object, 42.42);
+        objectProperty.setObject(object, "value");
+
+        assertTrue(booleanProperty.getBoolean(object));
+        assertEquals((byte) 42, byteProperty.getByte(object));
+        assertEquals('c', charProperty.getChar(object));
+        assertEquals((short) 4242, shortProperty.getShort(object));
+        assertEquals(424242, intProperty.getInt(object));
+        assertEquals(4.2f, floatProperty.getFloat(object), 0);
+        assertEquals(42424242424242L, longProperty.getLong(object));
+        assertEquals(42.42, doubleProperty.getDouble(object), 0);
+        assertEquals("value", objectProperty.getObject(object));
+
+        Object other = shape.getFactory().create();
+        assertNotSame(object, other);
+        assertEquals(0, intProperty.getInt(other));
+        assertNull(objectProperty.getObject(other));
+    }
+
+    @Test
+    public void testAtomicAccess() {
+        StaticProperty intProperty = new DefaultStaticProperty("int", StaticPropertyKind.Int);
+        StaticProperty longProperty = new DefaultStaticProperty("long", StaticPropertyKind.Long);
+        StaticProperty objectProperty = new DefaultStaticProperty("object", StaticPropertyKind.Object);
+        StaticShape<DefaultStaticObjectFactory> shape = StaticShape.newBuilder().property(intProperty).property(longProperty).property(objectProperty).build();
+        Object object = shape.getFactory().create();
+
+        assertTrue(intProperty.compareAndSwapInt(object, 0, 1));
+        assertFalse(intProperty.compareAndSwapInt(object, 0, 2));
+        assertEquals(1, intProperty.getIntVolatile(object));
+        assertTrue(longProperty.compareAndSwapLong(object, 0L, 1L));
+        assertEquals(1L, longProperty.getLongVolatile(object));
+        assertTrue(objectProperty.compareAndSwapObject(object, null, "value"));
+        assertFalse(objectProperty.compareAndSwapObject(object, null, "other"));
+        assertEquals("value", objectProperty.getObjectVolatile(object));
+    }
+
+    @Test
+    public void testCustomFactory() {
+        StaticProperty property = new DefaultStaticProperty("property", StaticPropertyKind.Double);
+        StaticShape<CustomFactory> shape = StaticShape.newBuilder().property(property).build(CustomBase.class, CustomFactory.class);
+
+        CustomBase named = shape.getFactory().create("name");
+        assertEquals("name", named.name);
+        property.setDouble(named, 1.5);
+        assertEquals(1.5, property.getDouble(named), 0);
+
+        CustomBase numbered = (CustomBase) shape.getFactory().create(42);
+        assertEquals("42", numbered.name);
+        assertEquals(0, property.getDouble(numbered), 0);
+        assertSame(named.getClass(), numbered.getClass());
+    }
+
+    @Test
+    public void testWrongKind() {
+        StaticProperty property = new DefaultStaticProperty("property", StaticPropertyKind.Int);
+        StaticShape<DefaultStaticObjectFactory> shape = StaticShape.newBuilder().property(property).build();
+        Object object = shape.getFactory().create();
+        try {
+            property.getLong(object);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            property.setObject(object, "value");
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testWrongReceiver() {
+        StaticProperty property1 = new DefaultStaticProperty("property", StaticPropertyKind.Int);
+        StaticProperty property2 = new DefaultStaticProperty("property", StaticPropertyKind.Int);
+        StaticShape.newBuilder().property(property1).build();
+        StaticShape<DefaultStaticObjectFactory> shape2 = StaticShape.newBuilder().property(property2).build();
+        Object object = shape2.getFactory().create();
+        try {
+            property1.setInt(object, 42);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            property1.getInt(new Object());
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testUnregisteredProperty() {
+        StaticProperty property = new DefaultStaticProperty("property", StaticPropertyKind.Int);
+        try {
+            property.getInt(new Object());
+            fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void testInvalidBuilderArguments() {
+        StaticProperty property = new DefaultStaticProperty("property", StaticPropertyKind.Int);
+        StaticShape.Builder builder = StaticShape.newBuilder().property(property);
+        try {
+            builder.property(new DefaultStaticProperty("property", StaticPropertyKind.Long));
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        builder.build();
+        try {
+            StaticShape.newBuilder().property(property);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            StaticShape.newBuilder().build(String.class, DefaultStaticObjectFactory.class);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            StaticShape.newBuilder().build(CustomBase.class, InvalidFactory.class);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            StaticShape.newBuilder().build(Object.class, CustomBase.class);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
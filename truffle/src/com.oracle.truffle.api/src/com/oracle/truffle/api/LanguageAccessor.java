@@ -52,6 +52,8 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
 import java.util.logging.Level;
 
 import org.graalvm.options.OptionDescriptor;
@@ -595,5 +597,17 @@ final class LanguageAccessor extends Accessor {
             return truffleFile.getSPIPath();
         }
 
+        @Override
+        public Future<Void> submitThreadLocal(Object owner, Thread[] threads, ThreadLocalAction action, BooleanSupplier filter) {
+            return ThreadLocalHandshake.submit(owner, threads, action, filter);
+        }
+
+        @Override
+        public void discardThreadLocalActions(Object owner, Thread thread) {
+            if (ThreadLocalHandshake.QUEUED.get() != 0) {
+                ThreadLocalHandshake.discard(owner, thread);
+            }
+        }
+
     }
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api;
+
+import com.oracle.truffle.api.nodes.Node;
+
+/**
+ * Represents an action that is performed on a set of threads that are active in a polyglot
+ * context. Thread local actions are submitted using
+ * {@link TruffleLanguage.Env#submitThreadLocal(Thread[], ThreadLocalAction)} or
+ * {@link com.oracle.truffle.api.instrumentation.TruffleInstrument.Env#submitThreadLocal(TruffleContext, Thread[], ThreadLocalAction)}
+ * and are performed cooperatively by each target thread the next time it reaches a
+ * {@link TruffleSafepoint#poll(Node) safepoint}. Safepoints are polled automatically by the Truffle
+ * runtime on method entry and loop back-edges, so language implementations do not need to insert
+ * polls themselves unless they execute long running code without calls or loops.
+ * <p>
+ * Actions may be <i>synchronous</i>, in which case every target thread waits after performing
+ * the action until all other target threads have performed it as well, or <i>asynchronous</i>, in
+ * which case each thread continues immediately. Actions that have <i>side-effects</i> are deferred
+ * while a thread has disabled side-effects using {@link TruffleSafepoint#setAllowSideEffects(boolean)}.
+ * <p>
+ * Usage example:
+ *
+ * <pre>
+ * env.submitThreadLocal(null, new ThreadLocalAction(false, false) {
+ *     &#64;Override
+ *     protected void perform(Access access) {
+ *         Node location = access.getLocation();
+ *         // inspect the location of the current thread
+ *     }
+ * });
+ * </pre>
+ *
+ * @since 21.1
+ */
+public abstract class ThreadLocalAction {
+
+    private final boolean hasSideEffects;
+    private final boolean synchronous;
+
+    /**
+     * Creates a new thread local action.
+     *
+     * @param hasSideEffects <code>true</code> if the action may modify guest visible state, e.g.
+     *            throw a guest exception or run guest code. Such actions are not performed while
+     *            side-effects are disabled for the current thread.
+     * @param synchronous <code>true</code> if all target threads should wait for each other after
+     *            the action was performed.
+     * @since 21.1
+     */
+    protected ThreadLocalAction(boolean hasSideEffects, boolean synchronous) {
+        this.hasSideEffects = hasSideEffects;
+        this.synchronous = synchronous;
+    }
+
+    final boolean hasSideEffects() {
+        return hasSideEffects;
+    }
+
+    final boolean isSynchronous() {
+        return synchronous;
+    }
+
+    /**
+     * Performs the action on the current thread. This method is invoked once for every target
+     * thread, on that thread, while the polyglot context is entered. Exceptions thrown by this
+     * method are propagated to the guest code at the location of the safepoint.
+     *
+     * @param access provides information about the current thread and location
+     * @since 21.1
+     */
+    protected abstract void perform(Access access);
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 21.1
+     */
+    @Override
+    public String toString() {
+        return getClass().getName() + "[sideEffects=" + hasSideEffects + ", synchronous=" + synchronous + "]";
+    }
+
+    /**
+     * Argument class for {@link ThreadLocalAction#perform(Access)}.
+     *
+     * @since 21.1
+     */
+    public abstract static class Access {
+
+        /**
+         * Constructor for framework use only.
+         *
+         * @since 21.1
+         */
+        protected Access(Object secret) {
+            if (secret != ThreadLocalHandshake.SECRET) {
+                throw new IllegalStateException("No custom subclasses of Access allowed.");
+            }
+        }
+
+        /**
+         * Returns the node that polled the safepoint or <code>null</code> if the location is not
+         * known.
+         *
+         * @since 21.1
+         */
+        public abstract Node getLocation();
+
+        /**
+         * Returns the thread the action is performed on. Always the current thread.
+         *
+         * @since 21.1
+         */
+        public abstract Thread getThread();
+
+    }
+
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.Node;
+
+/**
+ * Implementation of {@link ThreadLocalAction} submission and processing. Every submitted action
+ * is enqueued for each target thread. A thread is marked pending only while its queue contains an
+ * entry it can process, entries blocked because side-effects are disabled or because the thread
+ * has a different context entered do not mark it. The mark is kept per thread, so a pending action
+ * of one thread never sends other threads to the slow path of {@link TruffleSafepoint#poll(Node)}.
+ * Optimizing runtimes additionally publish the mark in a location of the thread that compiled code
+ * reads directly, see {@link #isPending()}.
+ */
+final class ThreadLocalHandshake {
+
+    static final Object SECRET = new Object();
+
+    /*
+     * Number of handshake entries of all threads, including blocked ones.
+     */
+    static final AtomicInteger QUEUED = new AtomicInteger();
+
+    private static final Map<Thread, ThreadState> STATES = new WeakHashMap<>();
+    private static final ThreadLocal<ThreadState> CURRENT = new ThreadLocal<ThreadState>() {
+        @Override
+        protected ThreadState initialValue() {
+            ThreadState state = getOrCreateState(Thread.currentThread());
+            // the mark may have been set before the thread was started
+            state.publishPending();
+            return state;
+        }
+    };
+
+    private ThreadLocalHandshake() {
+    }
+
+    private static ThreadState getOrCreateState(Thread thread) {
+        synchronized (STATES) {
+            return STATES.computeIfAbsent(thread, ThreadState::new);
+        }
+    }
+
+    private static ThreadState getState(Thread thread) {
+        synchronized (STATES) {
+            return STATES.get(thread);
+        }
+    }
+
+    /**
+     * Submits an action to the given threads. The filter is evaluated on the target thread before
+     * the action is performed; entries are kept pending while it returns <code>false</code>.
+     */
+    static Future<Void> submit(Object owner, Thread[] threads, ThreadLocalAction action, BooleanSupplier filter) {
+        ThreadState[] states = new ThreadState[threads.length];
+        for (int i = 0; i < threads.length; i++) {
+            states[i] = getOrCreateState(threads[i]);
+        }
+        Handshake handshake = new Handshake(owner, action, filter, states);
+        for (ThreadState state : states) {
+            QUEUED.incrementAndGet();
+            state.queue.add(handshake);
+            state.updatePending();
+        }
+        return handshake;
+    }
+
+    /**
+     * Returns <code>true</code> if the current thread has a pending action it can process. This is
+     * the fast path of {@link TruffleSafepoint#poll(Node)}. Optimizing runtimes intrinsify this
+     * method with a read of the pending mark published for the current thread.
+     */
+    @TruffleBoundary
+    static boolean isPending() {
+        return CURRENT.get().pending;
+    }
+
+    @TruffleBoundary
+    static void processHandshakes(Node location) {
+        ThreadState state = CURRENT.get();
+        if (state.processing || !state.pending) {
+            return;
+        }
+        state.processing = true;
+        try {
+            for (Handshake handshake : state.queue) {
+                if (handshake.action.hasSideEffects() && !state.sideEffectsAllowed) {
+                    continue;
+                }
+                if (!handshake.filter.getAsBoolean()) {
+                    state.reject(handshake);
+                    continue;
+                }
+                if (!state.remove(handshake)) {
+                    // cancelled or discarded concurrently
+                    continue;
+                }
+                handshake.perform(location);
+            }
+        } finally {
+            state.processing = false;
+            state.updatePending();
+        }
+    }
+
+    /**
+     * Discards all pending actions of an owner for a thread, e.g. because the thread left the
+     * owning context. If the thread is <code>null</code> then the pending actions of all threads
+     * are discarded. Discarded actions count as performed for synchronous actions. Entries of other
+     * owners that were rejected by their filter on the given thread are retried at the next poll,
+     * as the thread now has a different context entered.
+     */
+    @TruffleBoundary
+    static void discard(Object owner, Thread thread) {
+        ThreadState[] states;
+        if (thread == null) {
+            synchronized (STATES) {
+                states = STATES.values().toArray(new ThreadState[0]);
+            }
+        } else {
+            ThreadState state = getState(thread);
+            if (state == null) {
+                return;
+            }
+            states = new ThreadState[]{state};
+        }
+        for (ThreadState state : states) {
+            for (Handshake handshake : state.queue) {
+                if (handshake.owner == owner && state.remove(handshake)) {
+                    handshake.arrive();
+                }
+            }
+            if (thread != null) {
+                state.clearRejected();
+            }
+            state.updatePending();
+        }
+    }
+
+    static boolean setAllowSideEffects(boolean enabled) {
+        ThreadState state = CURRENT.get();
+        boolean prev = state.sideEffectsAllowed;
+        if (prev != enabled) {
+            state.sideEffectsAllowed = enabled;
+            state.updatePending();
+        }
+        return prev;
+    }
+
+    private static final class ThreadState {
+
+        /*
+         * Weak as the state is the value of a weak map keyed by the thread.
+         */
+        private final WeakReference<Thread> thread;
+        final ConcurrentLinkedQueue<Handshake> queue = new ConcurrentLinkedQueue<>();
+        /*
+         * Whether the queue contains an entry the thread can process. Only written while holding
+         * the lock of this state.
+         */
+        volatile boolean pending;
+        /*
+         * Entries whose filter rejected the thread. Guarded by the lock of this state.
+         */
+        private final List<Handshake> rejected = new ArrayList<>();
+        /*
+         * Only written by the owning thread.
+         */
+        volatile boolean sideEffectsAllowed = true;
+        boolean processing;
+
+        ThreadState(Thread thread) {
+            this.thread = new WeakReference<>(thread);
+        }
+
+        boolean remove(Handshake handshake) {
+            if (!queue.remove(handshake)) {
+                return false;
+            }
+            QUEUED.decrementAndGet();
+            synchronized (this) {
+                rejected.remove(handshake);
+            }
+            return true;
+        }
+
+        synchronized void reject(Handshake handshake) {
+            if (!rejected.contains(handshake)) {
+                rejected.add(handshake);
+            }
+        }
+
+        synchronized void clearRejected() {
+            rejected.clear();
+        }
+
+        synchronized void updatePending() {
+            boolean newPending = false;
+            for (Handshake handshake : queue) {
+                if ((sideEffectsAllowed || !handshake.action.hasSideEffects()) && !rejected.contains(handshake)) {
+                    newPending = true;
+                    break;
+                }
+            }
+            if (newPending != pending) {
+                pending = newPending;
+                publishPending();
+            }
+        }
+
+        synchronized void publishPending() {
+            Thread t = thread.get();
+            if (t != null) {
+                LanguageAccessor.ACCESSOR.runtimeSupport().setThreadLocalActionPending(t, pending);
+            }
+        }
+
+    }
+
+    private static final class Handshake implements Future<Void> {
+
+        final Object owner;
+        final ThreadLocalAction action;
+        final BooleanSupplier filter;
+        private final ThreadState[] states;
+        private int remaining;
+        private boolean cancelled;
+        private Throwable failure;
+
+        Handshake(Object owner, ThreadLocalAction action, BooleanSupplier filter, ThreadState[] states) {
+            this.owner = owner;
+            this.action = action;
+            this.filter = filter;
+            this.states = states;
+            this.remaining = states.length;
+        }
+
+        void perform(Node location) {
+            boolean performed = false;
+            try {
+                if (!isCancelled()) {
+                    action.perform(new AccessImpl(location));
+                }
+                performed = true;
+            } catch (Throwable t) {
+                synchronized (this) {
+                    if (failure == null) {
+                        failure = t;
+                    }
+                }
+                throw t;
+            } finally {
+                arrive();
+                if (performed && action.isSynchronous()) {
+                    awaitBarrier();
+                }
+            }
+        }
+
+        synchronized void arrive() {
+            remaining--;
+            if (remaining <= 0) {
+                notifyAll();
+            }
+        }
+
+        private synchronized void awaitBarrier() {
+            boolean interrupted = false;
+            while (remaining > 0 && !cancelled) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            synchronized (this) {
+                if (remaining <= 0 || cancelled) {
+                    return false;
+                }
+                cancelled = true;
+                notifyAll();
+            }
+            for (ThreadState state : states) {
+                if (state.remove(this)) {
+                    state.updatePending();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public synchronized boolean isDone() {
+            return cancelled || remaining <= 0;
+        }
+
+        @Override
+        public synchronized Void get() throws InterruptedException, ExecutionException {
+            while (!isDone()) {
+                wait();
+            }
+            return result();
+        }
+
+        @Override
+        public synchronized Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isDone()) {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    throw new TimeoutException();
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+            }
+            return result();
+        }
+
+        private Void result() throws ExecutionException {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            if (failure != null) {
+                throw new ExecutionException(failure);
+            }
+            return null;
+        }
+
+    }
+
+    private static final class AccessImpl extends ThreadLocalAction.Access {
+
+        private final Node location;
+
+        AccessImpl(Node location) {
+            super(SECRET);
+            this.location = location;
+        }
+
+        @Override
+        public Node getLocation() {
+            return location;
+        }
+
+        @Override
+        public Thread getThread() {
+            return Thread.currentThread();
+        }
+
+    }
+
+}
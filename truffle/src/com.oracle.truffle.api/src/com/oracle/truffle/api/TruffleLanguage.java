@@ -93,6 +93,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.ServiceLoader;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static com.oracle.truffle.api.LanguageAccessor.ENGINE;
 
@@ -1895,6 +1896,36 @@ public abstract class TruffleLanguage<C> {
             }
         }
 
+        /**
+         * Submits a thread local action to be performed on the given threads of the context of
+         * this environment. If <code>threads</code> is <code>null</code> then the action is
+         * submitted to all threads that are currently active in the context. Threads that are not
+         * active in the context are ignored. Actions are performed cooperatively at the next
+         * {@link TruffleSafepoint#poll(com.oracle.truffle.api.nodes.Node) safepoint} of each
+         * target thread while the context is entered. Threads that leave the context before
+         * performing the action discard it. Pending actions are discarded when the context is
+         * closed.
+         * <p>
+         * The returned future completes once all target threads performed or discarded the
+         * action. Waiting for the future on a thread that is itself a target thread will not
+         * terminate unless that thread polls a safepoint in between.
+         *
+         * @param threads the target threads or <code>null</code> for all active threads
+         * @param action the action to perform
+         * @see ThreadLocalAction
+         * @since 21.1
+         */
+        @TruffleBoundary
+        public Future<Void> submitThreadLocal(Thread[] threads, ThreadLocalAction action) {
+            Objects.requireNonNull(action);
+            try {
+                Object polyglotContext = getContext().polyglotContext;
+                return LanguageAccessor.engineAccess().submitThreadLocal(polyglotContext, threads, action);
+            } catch (Throwable t) {
+                throw engineToLanguageException(t);
+            }
+        }
+
         /**
          * Creates a new thread that has access to the current language context. See
          * {@link #createThread(Runnable, TruffleContext, ThreadGroup, long)} for a detailed
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api;
+
+import static com.oracle.truffle.api.CompilerDirectives.SLOWPATH_PROBABILITY;
+import static com.oracle.truffle.api.CompilerDirectives.injectBranchProbability;
+
+import com.oracle.truffle.api.nodes.Node;
+
+/**
+ * Cooperative safepoints for Truffle guest code. A safepoint poll checks whether any
+ * {@link ThreadLocalAction thread local actions} are pending for the current thread and performs
+ * them if so. The fast path only reads a pending flag of the current thread, which compiled code
+ * reads directly, and is therefore cheap enough to be placed on every method entry and loop
+ * back-edge. Actions pending for other threads do not affect it. The Truffle runtime polls automatically in
+ * those places; languages only need to call {@link #poll(Node)} in long running intrinsics or
+ * blocking operations that do not execute guest calls or loops.
+ *
+ * @since 21.1
+ */
+public final class TruffleSafepoint {
+
+    private TruffleSafepoint() {
+    }
+
+    /**
+     * Polls a safepoint at the provided location. Performs all pending thread local actions for
+     * the current thread that are allowed to run at this point. This method is intended to be used
+     * in compiled code, the fast path folds to a single read of the pending flag of the current
+     * thread.
+     *
+     * @param location the node that polls the safepoint, may be <code>null</code> if not known.
+     * @since 21.1
+     */
+    public static void poll(Node location) {
+        if (injectBranchProbability(SLOWPATH_PROBABILITY, ThreadLocalHandshake.isPending())) {
+            ThreadLocalHandshake.processHandshakes(location);
+        }
+    }
+
+    /**
+     * Enables or disables the execution of {@link ThreadLocalAction actions} with side-effects for
+     * the current thread. Actions with side-effects remain pending while disabled and are performed
+     * at the next safepoint after side-effects were enabled again. Returns the previous value.
+     * Typical usage:
+     *
+     * <pre>
+     * boolean prev = TruffleSafepoint.setAllowSideEffects(false);
+     * try {
+     *     // code that must not observe guest side-effects
+     * } finally {
+     *     TruffleSafepoint.setAllowSideEffects(prev);
+     * }
+     * </pre>
+     *
+     * @since 21.1
+     */
+    @CompilerDirectives.TruffleBoundary
+    public static boolean setAllowSideEffects(boolean enabled) {
+        return ThreadLocalHandshake.setAllowSideEffects(enabled);
+    }
+
+}
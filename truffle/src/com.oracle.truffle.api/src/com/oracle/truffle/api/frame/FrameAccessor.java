@@ -56,5 +56,21 @@ final class FrameAccessor extends Accessor {
         public boolean getMaterializeCalled(FrameDescriptor descriptor) {
             return descriptor.materializeCalled;
         }
+
+        @Override
+        public boolean hasStaticObjectSlots(FrameDescriptor descriptor) {
+            return descriptor.staticObjectSlots;
+        }
+
+        @Override
+        public boolean hasStaticPrimitiveSlots(FrameDescriptor descriptor) {
+            return descriptor.staticPrimitiveSlots;
+        }
+
+        @Override
+        public byte getStaticSlotTag(FrameSlot slot) {
+            assert slot.descriptor.hasStaticSlotKinds();
+            return slot.kind.tag;
+        }
     }
 }
@@ -74,6 +74,7 @@ public final class FrameDescriptor implements Cloneable {
     private EconomicMap<Object, Assumption> identifierToNotInFrameAssumptionMap;
     @CompilationFinal private volatile int size;
     private final Object lock;
+    private final boolean staticSlotKinds;
 
     /**
      * Flag that can be used by the runtime to track that {@link Frame#materialize()} was called on
@@ -84,6 +85,14 @@ public final class FrameDescriptor implements Cloneable {
      */
     boolean materializeCalled;
 
+    /*
+     * Whether slots of object respectively primitive kind were ever added to a descriptor with
+     * static slot kinds, so that frames only allocate the locals they need. Accessed by the runtime
+     * through the frame accessor.
+     */
+    @CompilationFinal volatile boolean staticObjectSlots;
+    @CompilationFinal volatile boolean staticPrimitiveSlots;
+
     private static final String NEVER_PART_OF_COMPILATION_MESSAGE = "interpreter-only. includes hashmap operations.";
 
     /**
@@ -102,18 +111,50 @@ public final class FrameDescriptor implements Cloneable {
      * @since 0.8 or earlier
      */
     public FrameDescriptor(Object defaultValue) {
-        this(defaultValue, null);
+        this(defaultValue, null, false);
     }
 
-    private FrameDescriptor(Object defaultValue, Object lock) {
+    private FrameDescriptor(Object defaultValue, Object lock, boolean staticSlotKinds) {
         CompilerAsserts.neverPartOfCompilation("do not create a FrameDescriptor from compiled code");
         this.defaultValue = defaultValue;
         this.slots = new ArrayList<>();
         this.identifierToSlotMap = EconomicMap.create();
         this.lock = lock == null ? this : lock;
+        this.staticSlotKinds = staticSlotKinds;
         newVersion(this);
     }
 
+    /**
+     * Constructs an empty descriptor whose slots declare their {@link FrameSlotKind kind} up front
+     * and never change it. Every slot must be added with a kind other than
+     * {@link FrameSlotKind#Illegal} and {@link #setFrameSlotKind(FrameSlot, FrameSlotKind)} cannot
+     * change it afterwards. In exchange, frames created for such a descriptor do not need to track
+     * the kind of each slot dynamically: they store object slots and primitive slots in separate
+     * arrays that are only allocated if the descriptor contains slots of the respective kind.
+     * <p>
+     * Object slots are initialized with the {@link #getDefaultValue() default value}, primitive
+     * slots with zero (or <code>false</code>). Accessing a slot with a different kind than declared
+     * throws a {@link FrameSlotTypeException}.
+     *
+     * @param defaultValue to be returned from {@link #getDefaultValue()}
+     * @see #hasStaticSlotKinds()
+     * @since 21.1
+     */
+    public static FrameDescriptor createWithStaticSlotKinds(Object defaultValue) {
+        return new FrameDescriptor(defaultValue, null, true);
+    }
+
+    /**
+     * Returns <code>true</code> if this descriptor was created with
+     * {@link #createWithStaticSlotKinds(Object)}, i.e., if the kinds of its slots are fixed when the
+     * slots are added.
+     *
+     * @since 21.1
+     */
+    public boolean hasStaticSlotKinds() {
+        return staticSlotKinds;
+    }
+
     /**
      * Adds frame slot. Delegates to
      * {@link #addFrameSlot(java.lang.Object, java.lang.Object, FrameSlotKind) addFrameSlot}
@@ -170,7 +211,9 @@ public final class FrameDescriptor implements Cloneable {
      * @param info additional {@linkplain FrameSlot#getInfo() information for the slot}, may be null
      * @param kind the kind of the new slot
      * @return the newly created slot
-     * @throws IllegalArgumentException if a frame slot with the same identifier exists
+     * @throws IllegalArgumentException if a frame slot with the same identifier exists, or if
+     *             {@code kind} is {@link FrameSlotKind#Illegal} and this descriptor
+     *             {@link #hasStaticSlotKinds() has static slot kinds}
      * @throws NullPointerException if {@code identifier} or {@code kind} is {@code null}
      * @since 0.8 or earlier
      */
@@ -179,11 +222,21 @@ public final class FrameDescriptor implements Cloneable {
         CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
         Objects.requireNonNull(identifier, "identifier");
         Objects.requireNonNull(kind, "kind");
+        if (staticSlotKinds && kind == FrameSlotKind.Illegal) {
+            throw new IllegalArgumentException("frame slots with static kinds must not be Illegal: " + identifier);
+        }
         synchronized (lock) {
             if (identifierToSlotMap.containsKey(identifier)) {
                 throw new IllegalArgumentException("duplicate frame slot: " + identifier);
             }
             FrameSlot slot = new FrameSlot(this, identifier, info, kind, size);
+            if (staticSlotKinds) {
+                if (kind == FrameSlotKind.Object) {
+                    staticObjectSlots = true;
+                } else {
+                    staticPrimitiveSlots = true;
+                }
+            }
             size++;
             slots.add(slot);
             identifierToSlotMap.put(identifier, slot);
@@ -313,6 +366,8 @@ public final class FrameDescriptor implements Cloneable {
      *
      * @param frameSlot the slot
      * @param kind new kind of the slot
+     * @throws IllegalStateException if this descriptor {@link #hasStaticSlotKinds() has static slot
+     *             kinds} and {@code kind} differs from the current kind of the slot
      * @since 19.0
      */
     public void setFrameSlotKind(final FrameSlot frameSlot, final FrameSlotKind kind) {
@@ -324,6 +379,9 @@ public final class FrameDescriptor implements Cloneable {
 
     private void setFrameSlotKindSlow(FrameSlot frameSlot, FrameSlotKind kind) {
         CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
+        if (staticSlotKinds) {
+            throw new IllegalStateException("cannot change the kind of frame slot " + frameSlot + " with static kind to " + kind);
+        }
         synchronized (lock) {
             assert checkFrameSlotOwnershipUnsafe(frameSlot);
             /*
@@ -467,7 +525,8 @@ public final class FrameDescriptor implements Cloneable {
     /**
      * Deeper copy of the descriptor. Copies all slots in the descriptor, but only their
      * {@linkplain FrameSlot#getIdentifier() identifier} and {@linkplain FrameSlot#getInfo() info}
-     * but not their {@linkplain FrameDescriptor#getFrameSlotKind(FrameSlot) kind}!
+     * but not their {@linkplain FrameDescriptor#getFrameSlotKind(FrameSlot) kind}! Descriptors
+     * with {@link #hasStaticSlotKinds() static slot kinds} also copy the slot kinds.
      *
      * @return new instance of a descriptor with copies of values from this one
      * @since 0.8 or earlier
@@ -475,10 +534,10 @@ public final class FrameDescriptor implements Cloneable {
     public FrameDescriptor copy() {
         CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
         synchronized (lock) {
-            FrameDescriptor clonedFrameDescriptor = new FrameDescriptor(this.defaultValue);
+            FrameDescriptor clonedFrameDescriptor = new FrameDescriptor(this.defaultValue, null, staticSlotKinds);
             for (int i = 0; i < slots.size(); i++) {
                 FrameSlot slot = slots.get(i);
-                clonedFrameDescriptor.addFrameSlot(slot.getIdentifier(), slot.getInfo(), FrameSlotKind.Illegal);
+                clonedFrameDescriptor.addFrameSlot(slot.getIdentifier(), slot.getInfo(), staticSlotKinds ? slot.kind : FrameSlotKind.Illegal);
             }
             return clonedFrameDescriptor;
         }
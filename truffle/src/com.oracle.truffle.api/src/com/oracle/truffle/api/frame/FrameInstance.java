@@ -99,6 +99,19 @@ public interface FrameInstance {
     /** @since 0.8 or earlier */
     boolean isVirtualFrame();
 
+    /**
+     * Returns the tier of the code that executes this frame. Returns <code>0</code> if the frame
+     * is executed in the interpreter, <code>1</code> for first tier compiled code and
+     * <code>2</code> for last tier compiled code. Unlike {@link #isVirtualFrame()} this does not
+     * depend on whether the compiler was able to virtualize the frame. Runtimes without a compiler
+     * always return <code>0</code>.
+     *
+     * @since 21.1
+     */
+    default int getCompilationTier() {
+        return 0;
+    }
+
     /**
      * Returns a node representing the callsite of the next new target on the stack.
      *
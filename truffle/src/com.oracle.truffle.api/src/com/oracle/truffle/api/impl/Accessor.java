@@ -55,8 +55,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
+import java.util.function.BooleanSupplier;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Handler;
@@ -78,6 +80,7 @@ import com.oracle.truffle.api.ContextLocal;
 import com.oracle.truffle.api.ContextThreadLocal;
 import com.oracle.truffle.api.InstrumentInfo;
 import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.ThreadLocalAction;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleContext;
 import com.oracle.truffle.api.TruffleFile;
@@ -89,8 +92,10 @@ import com.oracle.truffle.api.TruffleLanguage.LanguageReference;
 import com.oracle.truffle.api.TruffleLogger;
 import com.oracle.truffle.api.TruffleRuntime;
 import com.oracle.truffle.api.TruffleStackTraceElement;
+
 import com.oracle.truffle.api.frame.Frame;
 import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.io.TruffleProcessBuilder;
 import com.oracle.truffle.api.nodes.BlockNode;
@@ -542,6 +547,8 @@ public abstract class Accessor {
         public abstract Object getEngineLock(Object polyglotEngine);
 
         public abstract long calculateContextHeapSize(Object polyglotContext, long stopAtBytes, AtomicBoolean cancelled);
+
+        public abstract Future<Void> submitThreadLocal(Object polyglotContext, Thread[] threads, ThreadLocalAction action);
     }
 
     public abstract static class LanguageSupport extends Support {
@@ -684,6 +691,10 @@ public abstract class Accessor {
 
         public abstract Object getScope(Env env);
 
+        public abstract Future<Void> submitThreadLocal(Object owner, Thread[] threads, ThreadLocalAction action, BooleanSupplier filter);
+
+        public abstract void discardThreadLocalActions(Object owner, Thread thread);
+
     }
 
     public abstract static class InstrumentSupport extends Support {
@@ -800,6 +811,12 @@ public abstract class Accessor {
         public abstract void markMaterializeCalled(FrameDescriptor descriptor);
 
         public abstract boolean getMaterializeCalled(FrameDescriptor descriptor);
+
+        public abstract boolean hasStaticObjectSlots(FrameDescriptor descriptor);
+
+        public abstract boolean hasStaticPrimitiveSlots(FrameDescriptor descriptor);
+
+        public abstract byte getStaticSlotTag(FrameSlot slot);
     }
 
     public abstract static class ExceptionSupport extends Support {
@@ -934,6 +951,12 @@ public abstract class Accessor {
         public abstract Object[] getNonPrimitiveResolvedFields(Class<?> type);
 
         public abstract Object getFieldValue(Object resolvedJavaField, Object obj);
+
+        /**
+         * Publishes whether a thread has pending thread local actions, such that compiled code of
+         * the thread can read it without a thread local lookup.
+         */
+        public abstract void setThreadLocalActionPending(Thread thread, boolean pending);
     }
 
     public static final class JDKSupport {
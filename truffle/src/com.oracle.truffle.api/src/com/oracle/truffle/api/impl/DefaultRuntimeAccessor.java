@@ -213,6 +213,11 @@ final class DefaultRuntimeAccessor extends Accessor {
         public Object getFieldValue(Object resolvedJavaField, Object obj) {
             throw new UnsupportedOperationException();
         }
+
+        @Override
+        public void setThreadLocalActionPending(Thread thread, boolean pending) {
+            // nothing to publish without compiled code
+        }
     }
 
 }
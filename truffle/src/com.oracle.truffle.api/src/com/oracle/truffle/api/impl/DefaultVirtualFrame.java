@@ -60,6 +60,9 @@ final class DefaultVirtualFrame implements VirtualFrame {
     private final FrameDescriptor descriptor;
     private final Object[] arguments;
     private Object[] locals;
+    /*
+     * Null if the descriptor has static slot kinds.
+     */
     private byte[] tags;
 
     DefaultVirtualFrame(FrameDescriptor descriptor, Object[] arguments) {
@@ -72,7 +75,7 @@ final class DefaultVirtualFrame implements VirtualFrame {
         if (defaultValue != null) {
             Arrays.fill(locals, defaultValue);
         }
-        this.tags = new byte[size];
+        this.tags = descriptor.hasStaticSlotKinds() ? null : new byte[size];
     }
 
     @Override
@@ -100,7 +103,7 @@ final class DefaultVirtualFrame implements VirtualFrame {
     @Override
     public byte getByte(FrameSlot slot) throws FrameSlotTypeException {
         verifyGet(slot, FrameSlotKind.Byte);
-        return (byte) locals[getFrameSlotIndex(slot)];
+        return (byte) getPrimitive(getFrameSlotIndex(slot), FrameSlotKind.Byte);
     }
 
     @Override
@@ -112,7 +115,7 @@ final class DefaultVirtualFrame implements VirtualFrame {
     @Override
     public boolean getBoolean(FrameSlot slot) throws FrameSlotTypeException {
         verifyGet(slot, FrameSlotKind.Boolean);
-        return (boolean) locals[getFrameSlotIndex(slot)];
+        return (boolean) getPrimitive(getFrameSlotIndex(slot), FrameSlotKind.Boolean);
     }
 
     @Override
@@ -124,7 +127,7 @@ final class DefaultVirtualFrame implements VirtualFrame {
     @Override
     public int getInt(FrameSlot slot) throws FrameSlotTypeException {
         verifyGet(slot, FrameSlotKind.Int);
-        return (int) locals[getFrameSlotIndex(slot)];
+        return (int) getPrimitive(getFrameSlotIndex(slot), FrameSlotKind.Int);
     }
 
     @Override
@@ -136,7 +139,7 @@ final class DefaultVirtualFrame implements VirtualFrame {
     @Override
     public long getLong(FrameSlot slot) throws FrameSlotTypeException {
         verifyGet(slot, FrameSlotKind.Long);
-        return (long) locals[getFrameSlotIndex(slot)];
+        return (long) getPrimitive(getFrameSlotIndex(slot), FrameSlotKind.Long);
     }
 
     @Override
@@ -148,7 +151,7 @@ final class DefaultVirtualFrame implements VirtualFrame {
     @Override
     public float getFloat(FrameSlot slot) throws FrameSlotTypeException {
         verifyGet(slot, FrameSlotKind.Float);
-        return (float) locals[getFrameSlotIndex(slot)];
+        return (float) getPrimitive(getFrameSlotIndex(slot), FrameSlotKind.Float);
     }
 
     @Override
@@ -160,7 +163,7 @@ final class DefaultVirtualFrame implements VirtualFrame {
     @Override
     public double getDouble(FrameSlot slot) throws FrameSlotTypeException {
         verifyGet(slot, FrameSlotKind.Double);
-        return (double) locals[getFrameSlotIndex(slot)];
+        return (double) getPrimitive(getFrameSlotIndex(slot), FrameSlotKind.Double);
     }
 
     @Override
@@ -177,12 +180,45 @@ final class DefaultVirtualFrame implements VirtualFrame {
     @Override
     public Object getValue(FrameSlot slot) {
         int slotIndex = getSlotIndexChecked(slot);
+        if (tags == null) {
+            FrameSlotKind kind = descriptor.getFrameSlotKind(slot);
+            if (kind != FrameSlotKind.Object) {
+                return getPrimitive(slotIndex, kind);
+            }
+        }
         return locals[slotIndex];
     }
 
+    /*
+     * With static slot kinds, primitive slots that were never written (or cleared) still hold the
+     * default value and read as zero.
+     */
+    private Object getPrimitive(int slotIndex, FrameSlotKind kind) {
+        Object value = locals[slotIndex];
+        if (tags != null) {
+            return value;
+        }
+        switch (kind) {
+            case Byte:
+                return value instanceof Byte ? value : (byte) 0;
+            case Boolean:
+                return value instanceof Boolean ? value : false;
+            case Int:
+                return value instanceof Integer ? value : 0;
+            case Long:
+                return value instanceof Long ? value : 0L;
+            case Float:
+                return value instanceof Float ? value : 0f;
+            case Double:
+                return value instanceof Double ? value : 0d;
+            default:
+                return value;
+        }
+    }
+
     private int getSlotIndexChecked(FrameSlot slot) {
         int slotIndex = getFrameSlotIndex(slot);
-        if (slotIndex >= tags.length) {
+        if (slotIndex >= locals.length) {
             if (!resize()) {
                 throw new IllegalArgumentException(String.format("The frame slot '%s' is not known by the frame descriptor.", slot));
             }
@@ -192,11 +228,23 @@ final class DefaultVirtualFrame implements VirtualFrame {
 
     private void verifySet(FrameSlot slot, FrameSlotKind accessKind) {
         int slotIndex = getSlotIndexChecked(slot);
+        if (tags == null) {
+            if (accessKind != FrameSlotKind.Illegal && descriptor.getFrameSlotKind(slot) != accessKind) {
+                throw new IllegalArgumentException(String.format("Cannot set the frame slot '%s' with static kind %s to a value of kind %s.", slot, descriptor.getFrameSlotKind(slot), accessKind));
+            }
+            return;
+        }
         tags[slotIndex] = (byte) accessKind.ordinal();
     }
 
     private void verifyGet(FrameSlot slot, FrameSlotKind accessKind) throws FrameSlotTypeException {
         int slotIndex = getSlotIndexChecked(slot);
+        if (tags == null) {
+            if (descriptor.getFrameSlotKind(slot) != accessKind) {
+                throw new FrameSlotTypeException();
+            }
+            return;
+        }
         byte tag = tags[slotIndex];
         if (accessKind == FrameSlotKind.Object ? tag != 0 : tag != accessKind.ordinal()) {
             throw new FrameSlotTypeException();
@@ -204,12 +252,14 @@ final class DefaultVirtualFrame implements VirtualFrame {
     }
 
     private boolean resize() {
-        int oldSize = tags.length;
+        int oldSize = locals.length;
         int newSize = descriptor.getSize();
         if (newSize > oldSize) {
             locals = Arrays.copyOf(locals, newSize);
             Arrays.fill(locals, oldSize, newSize, descriptor.getDefaultValue());
-            tags = Arrays.copyOf(tags, newSize);
+            if (tags != null) {
+                tags = Arrays.copyOf(tags, newSize);
+            }
             return true;
         }
         return false;
@@ -217,6 +267,9 @@ final class DefaultVirtualFrame implements VirtualFrame {
 
     private byte getTag(FrameSlot slot) {
         int slotIndex = getSlotIndexChecked(slot);
+        if (tags == null) {
+            return (byte) descriptor.getFrameSlotKind(slot).ordinal();
+        }
         return tags[slotIndex];
     }
 
@@ -0,0 +1,681 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.dsl.processor.bytecode;
+
+import static com.oracle.truffle.dsl.processor.java.ElementUtils.modifiers;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+
+import com.oracle.truffle.dsl.processor.AnnotationProcessor;
+import com.oracle.truffle.dsl.processor.ProcessorContext;
+import com.oracle.truffle.dsl.processor.generator.CodeTypeElementFactory;
+import com.oracle.truffle.dsl.processor.generator.GeneratorUtils;
+import com.oracle.truffle.dsl.processor.java.ElementUtils;
+import com.oracle.truffle.dsl.processor.java.model.CodeAnnotationMirror;
+import com.oracle.truffle.dsl.processor.java.model.CodeAnnotationValue;
+import com.oracle.truffle.dsl.processor.java.model.CodeExecutableElement;
+import com.oracle.truffle.dsl.processor.java.model.CodeTree;
+import com.oracle.truffle.dsl.processor.java.model.CodeTreeBuilder;
+import com.oracle.truffle.dsl.processor.java.model.CodeTypeElement;
+import com.oracle.truffle.dsl.processor.java.model.CodeTypeMirror.ArrayCodeTypeMirror;
+import com.oracle.truffle.dsl.processor.java.model.CodeTypeMirror.WildcardTypeMirror;
+import com.oracle.truffle.dsl.processor.java.model.CodeVariableElement;
+
+/**
+ * Generates the bytecode interpreter for classes annotated with <code>@GenerateBytecode</code>.
+ * The generated root node holds the bytecode, the constant pool, the frame slots of the locals
+ * and one specialized node per operation instruction. Instructions are encoded as an opcode
+ * followed by at most one operand in a <code>short[]</code>.
+ */
+public class BytecodeGenerator extends CodeTypeElementFactory<BytecodeData> {
+
+    private static final String POP = "INSTR_POP";
+    private static final String LOAD_CONSTANT = "INSTR_LOAD_CONSTANT";
+    private static final String LOAD_ARGUMENT = "INSTR_LOAD_ARGUMENT";
+    private static final String LOAD_LOCAL = "INSTR_LOAD_LOCAL";
+    private static final String LOAD_LOCAL_LONG = "INSTR_LOAD_LOCAL_LONG";
+    private static final String LOAD_LOCAL_BOOLEAN = "INSTR_LOAD_LOCAL_BOOLEAN";
+    private static final String LOAD_LOCAL_OBJECT = "INSTR_LOAD_LOCAL_OBJECT";
+    private static final String STORE_LOCAL = "INSTR_STORE_LOCAL";
+    private static final String STORE_LOCAL_LONG = "INSTR_STORE_LOCAL_LONG";
+    private static final String STORE_LOCAL_BOOLEAN = "INSTR_STORE_LOCAL_BOOLEAN";
+    private static final String STORE_LOCAL_OBJECT = "INSTR_STORE_LOCAL_OBJECT";
+    private static final String BRANCH = "INSTR_BRANCH";
+    private static final String BRANCH_FALSE = "INSTR_BRANCH_FALSE";
+    private static final String RETURN = "INSTR_RETURN";
+
+    private static final List<String> BUILTIN_INSTRUCTIONS = Collections.unmodifiableList(Arrays.asList(POP, LOAD_CONSTANT, LOAD_ARGUMENT,
+                    LOAD_LOCAL, LOAD_LOCAL_LONG, LOAD_LOCAL_BOOLEAN, LOAD_LOCAL_OBJECT,
+                    STORE_LOCAL, STORE_LOCAL_LONG, STORE_LOCAL_BOOLEAN, STORE_LOCAL_OBJECT,
+                    BRANCH, BRANCH_FALSE, RETURN));
+
+    private final ProcessorContext context = ProcessorContext.getInstance();
+
+    private BytecodeData model;
+    private CodeTypeElement genClass;
+    private CodeTypeElement labelClass;
+
+    @Override
+    public List<CodeTypeElement> create(ProcessorContext context1, AnnotationProcessor<?> processor, BytecodeData data) {
+        if (data.hasErrors()) {
+            return Collections.emptyList();
+        }
+        this.model = data;
+        TypeMirror templateType = model.getTemplateType().asType();
+        genClass = GeneratorUtils.createClass(model, null, modifiers(FINAL), model.getTemplateType().getSimpleName() + "Gen", templateType);
+        if (model.getTemplateType().getModifiers().contains(PUBLIC)) {
+            ElementUtils.setVisibility(genClass.getModifiers(), PUBLIC);
+        }
+
+        short opcode = 0;
+        for (String instruction : BUILTIN_INSTRUCTIONS) {
+            genClass.add(createOpcode(instruction, opcode++));
+        }
+        for (BytecodeOperationData operation : model.getOperations()) {
+            genClass.add(createOpcode(opcodeName(operation), opcode++));
+        }
+
+        genClass.add(compilationFinal(new CodeVariableElement(modifiers(PRIVATE, FINAL), arrayOf(context.getType(short.class)), "bc")));
+        genClass.add(compilationFinal(new CodeVariableElement(modifiers(PRIVATE, FINAL), arrayOf(context.getType(Object.class)), "constants")));
+        genClass.add(compilationFinal(new CodeVariableElement(modifiers(PRIVATE, FINAL), arrayOf(types.FrameSlot), "locals")));
+        CodeVariableElement nodes = new CodeVariableElement(modifiers(PRIVATE, FINAL), arrayOf(types.Node), "nodes");
+        nodes.addAnnotationMirror(new CodeAnnotationMirror(types.Node_Children));
+        genClass.add(nodes);
+        genClass.add(compilationFinal(new CodeVariableElement(modifiers(PRIVATE, FINAL), arrayOf(context.getType(int.class)), "tagRanges")));
+        genClass.add(compilationFinal(new CodeVariableElement(modifiers(PRIVATE, FINAL), arrayOf(classType()), "tags")));
+        genClass.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), context.getType(int.class), "maxStack"));
+
+        CodeExecutableElement constructor = new CodeExecutableElement(modifiers(PRIVATE), null, genClass.getSimpleName().toString());
+        constructor.addParameter(new CodeVariableElement(model.getLanguageType(), "language"));
+        constructor.addParameter(new CodeVariableElement(types.FrameDescriptor, "frameDescriptor"));
+        CodeTreeBuilder b = constructor.createBuilder();
+        b.statement("super(language, frameDescriptor)");
+        for (VariableElement field : genClass.getFields()) {
+            if (field.getModifiers().contains(STATIC)) {
+                continue;
+            }
+            String name = field.getSimpleName().toString();
+            constructor.addParameter(new CodeVariableElement(field.asType(), name));
+            b.statement("this." + name + " = " + name);
+        }
+        genClass.add(constructor);
+
+        if (model.isGenerateExecute()) {
+            CodeExecutableElement execute = new CodeExecutableElement(modifiers(PUBLIC), context.getType(Object.class), "execute");
+            execute.addParameter(new CodeVariableElement(types.VirtualFrame, "frame"));
+            execute.addAnnotationMirror(new CodeAnnotationMirror(context.getDeclaredType(Override.class)));
+            execute.createBuilder().startReturn().string("executeBytecode(frame)").end();
+            genClass.add(execute);
+        }
+        genClass.add(createExecuteBytecode());
+        genClass.add(createHasTag());
+        genClass.add(createGetTagRanges());
+
+        labelClass = createLabel();
+        genClass.add(labelClass);
+        genClass.add(createBuilder());
+        return Arrays.asList(genClass);
+    }
+
+    private static String opcodeName(BytecodeOperationData operation) {
+        return "INSTR_OP_" + ElementUtils.createConstantName(operation.getName());
+    }
+
+    private CodeVariableElement createOpcode(String name, short opcode) {
+        CodeVariableElement field = new CodeVariableElement(modifiers(PRIVATE, STATIC, FINAL), context.getType(short.class), name);
+        field.createInitBuilder().string(String.valueOf(opcode));
+        return field;
+    }
+
+    private static ArrayType arrayOf(TypeMirror component) {
+        return new ArrayCodeTypeMirror(component);
+    }
+
+    private DeclaredType classType() {
+        return ElementUtils.getDeclaredType(ElementUtils.castTypeElement(context.getDeclaredType(Class.class)), new WildcardTypeMirror(null, null));
+    }
+
+    private DeclaredType listOf(TypeMirror element) {
+        return ElementUtils.getDeclaredType(ElementUtils.castTypeElement(context.getDeclaredType(ArrayList.class)), element);
+    }
+
+    private CodeVariableElement compilationFinal(CodeVariableElement field) {
+        CodeAnnotationMirror annotation = new CodeAnnotationMirror(types.CompilerDirectives_CompilationFinal);
+        annotation.setElementValue(annotation.findExecutableElement("dimensions"), new CodeAnnotationValue(1));
+        field.addAnnotationMirror(annotation);
+        return field;
+    }
+
+    private CodeExecutableElement createExecuteBytecode() {
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(Modifier.PROTECTED, FINAL), context.getType(Object.class), "executeBytecode");
+        method.addParameter(new CodeVariableElement(types.VirtualFrame, "frame"));
+        CodeAnnotationMirror explodeLoop = new CodeAnnotationMirror(types.ExplodeLoop);
+        explodeLoop.setElementValue(explodeLoop.findExecutableElement("kind"),
+                        new CodeAnnotationValue(ElementUtils.findVariableElement(types.ExplodeLoop_LoopExplosionKind, "MERGE_EXPLODE")));
+        method.addAnnotationMirror(explodeLoop);
+
+        CodeTreeBuilder b = method.createBuilder();
+        b.declaration(arrayOf(context.getType(Object.class)), "stack", "new Object[maxStack]");
+        b.declaration(context.getType(int.class), "sp", "0");
+        b.declaration(context.getType(int.class), "bci", "0");
+        b.declaration(context.getType(int.class), "loopCount", "0");
+        b.startWhile().string("true").end().startBlock();
+        b.startStatement().startStaticCall(types.CompilerAsserts, "partialEvaluationConstant").string("bci").end().end();
+        b.startStatement().startStaticCall(types.CompilerAsserts, "partialEvaluationConstant").string("sp").end().end();
+        b.startSwitch().string("bc[bci]").end().startBlock();
+
+        startInstruction(b, POP);
+        b.statement("stack[sp - 1] = null");
+        b.statement("sp -= 1");
+        endInstruction(b, 1);
+
+        startInstruction(b, LOAD_CONSTANT);
+        b.statement("stack[sp] = constants[bc[bci + 1]]");
+        b.statement("sp += 1");
+        endInstruction(b, 2);
+
+        startInstruction(b, LOAD_ARGUMENT);
+        b.statement("stack[sp] = frame.getArguments()[bc[bci + 1]]");
+        b.statement("sp += 1");
+        endInstruction(b, 2);
+
+        createLoadLocal(b);
+        createStoreLocal(b);
+
+        startInstruction(b, BRANCH);
+        b.declaration(context.getType(int.class), "target", "bc[bci + 1]");
+        b.startIf().string("target <= bci").end().startBlock();
+        b.startStatement().startStaticCall(types.TruffleSafepoint, "poll").string("this").end().end();
+        b.startIf().startStaticCall(types.CompilerDirectives, "inInterpreter").end().end().startBlock();
+        b.statement("loopCount++");
+        b.end();
+        b.end();
+        b.statement("bci = target");
+        b.statement("continue");
+        b.end();
+
+        startInstruction(b, BRANCH_FALSE);
+        b.declaration(context.getType(Object.class), "condition", "stack[sp - 1]");
+        b.statement("stack[sp - 1] = null");
+        b.statement("sp -= 1");
+        b.startIf().string("!(condition instanceof Boolean)").end().startBlock();
+        b.startStatement().startStaticCall(types.CompilerDirectives, "transferToInterpreter").end().end();
+        b.startThrow().startNew(types.UnsupportedSpecializationException).string("this").startNewArray(arrayOf(types.Node), null).string("null").end().string("condition").end().end();
+        b.end().startElseIf().string("(boolean) condition").end().startBlock();
+        b.statement("bci += 2");
+        b.end().startElseBlock();
+        b.statement("bci = bc[bci + 1]");
+        b.end();
+        b.statement("continue");
+        b.end();
+
+        startInstruction(b, RETURN);
+        b.startIf().startStaticCall(types.CompilerDirectives, "inInterpreter").end().string(" && loopCount > 0").end().startBlock();
+        b.startStatement().startStaticCall(types.LoopNode, "reportLoopCount").string("this").string("loopCount").end().end();
+        b.end();
+        b.startReturn().string("stack[sp - 1]").end();
+        b.end();
+
+        for (BytecodeOperationData operation : model.getOperations()) {
+            createOperation(b, operation);
+        }
+
+        b.caseDefault();
+        b.startIndention();
+        b.startThrow().startStaticCall(types.CompilerDirectives, "shouldNotReachHere").end().end();
+        b.end();
+
+        b.end(); // switch
+        b.end(); // while
+        return method;
+    }
+
+    private static void startInstruction(CodeTreeBuilder b, String opcode) {
+        b.startCase().string(opcode).end().startBlock();
+    }
+
+    private static void endInstruction(CodeTreeBuilder b, int length) {
+        b.statement("bci += " + length);
+        b.statement("continue");
+        b.end();
+    }
+
+    private void createLoadLocal(CodeTreeBuilder b) {
+        startInstruction(b, LOAD_LOCAL);
+        transferToInterpreterAndInvalidate(b);
+        b.declaration(types.FrameSlot, "slot", "locals[bc[bci + 1]]");
+        b.startIf().string("frame.isLong(slot)").end().startBlock();
+        b.statement("bc[bci] = " + LOAD_LOCAL_LONG);
+        b.end().startElseIf().string("frame.isBoolean(slot)").end().startBlock();
+        b.statement("bc[bci] = " + LOAD_LOCAL_BOOLEAN);
+        b.end().startElseBlock();
+        b.statement("bc[bci] = " + LOAD_LOCAL_OBJECT);
+        b.end();
+        b.statement("continue");
+        b.end();
+
+        createTypedLoadLocal(b, LOAD_LOCAL_LONG, "isLong", "getLongSafe");
+        createTypedLoadLocal(b, LOAD_LOCAL_BOOLEAN, "isBoolean", "getBooleanSafe");
+
+        startInstruction(b, LOAD_LOCAL_OBJECT);
+        b.statement("stack[sp] = frame.getValue(locals[bc[bci + 1]])");
+        b.statement("sp += 1");
+        endInstruction(b, 2);
+    }
+
+    private void createTypedLoadLocal(CodeTreeBuilder b, String opcode, String isMethod, String getMethod) {
+        startInstruction(b, opcode);
+        b.declaration(types.FrameSlot, "slot", "locals[bc[bci + 1]]");
+        b.startIf().string("!frame." + isMethod + "(slot)").end().startBlock();
+        transferToInterpreterAndInvalidate(b);
+        b.statement("bc[bci] = " + LOAD_LOCAL_OBJECT);
+        b.statement("continue");
+        b.end();
+        b.startStatement().string("stack[sp] = ").startStaticCall(types.FrameUtil, getMethod).string("frame").string("slot").end().end();
+        b.statement("sp += 1");
+        endInstruction(b, 2);
+    }
+
+    private void createStoreLocal(CodeTreeBuilder b) {
+        startInstruction(b, STORE_LOCAL);
+        transferToInterpreterAndInvalidate(b);
+        b.declaration(types.FrameSlot, "slot", "locals[bc[bci + 1]]");
+        b.declaration(context.getType(Object.class), "value", "stack[sp - 1]");
+        b.declaration(types.FrameSlotKind, "kind", "getFrameDescriptor().getFrameSlotKind(slot)");
+        b.startIf().string("value instanceof Long && (kind == ").staticReference(types.FrameSlotKind, "Illegal").string(" || kind == ").staticReference(types.FrameSlotKind,
+                        "Long").string(")").end().startBlock();
+        setFrameSlotKind(b, "Long");
+        b.statement("bc[bci] = " + STORE_LOCAL_LONG);
+        b.end().startElseIf().string("value instanceof Boolean && (kind == ").staticReference(types.FrameSlotKind, "Illegal").string(" || kind == ").staticReference(types.FrameSlotKind,
+                        "Boolean").string(")").end().startBlock();
+        setFrameSlotKind(b, "Boolean");
+        b.statement("bc[bci] = " + STORE_LOCAL_BOOLEAN);
+        b.end().startElseBlock();
+        setFrameSlotKind(b, "Object");
+        b.statement("bc[bci] = " + STORE_LOCAL_OBJECT);
+        b.end();
+        b.statement("continue");
+        b.end();
+
+        createTypedStoreLocal(b, STORE_LOCAL_LONG, "Long", "setLong", "long");
+        createTypedStoreLocal(b, STORE_LOCAL_BOOLEAN, "Boolean", "setBoolean", "boolean");
+
+        startInstruction(b, STORE_LOCAL_OBJECT);
+        b.statement("frame.setObject(locals[bc[bci + 1]], stack[sp - 1])");
+        b.statement("stack[sp - 1] = null");
+        b.statement("sp -= 1");
+        endInstruction(b, 2);
+    }
+
+    private void createTypedStoreLocal(CodeTreeBuilder b, String opcode, String boxedType, String setMethod, String primitiveType) {
+        startInstruction(b, opcode);
+        b.declaration(types.FrameSlot, "slot", "locals[bc[bci + 1]]");
+        b.declaration(context.getType(Object.class), "value", "stack[sp - 1]");
+        b.startIf().string("!(value instanceof " + boxedType + ")").end().startBlock();
+        transferToInterpreterAndInvalidate(b);
+        setFrameSlotKind(b, "Object");
+        b.statement("bc[bci] = " + STORE_LOCAL_OBJECT);
+        b.statement("continue");
+        b.end();
+        b.statement("frame." + setMethod + "(slot, (" + primitiveType + ") value)");
+        b.statement("stack[sp - 1] = null");
+        b.statement("sp -= 1");
+        endInstruction(b, 2);
+    }
+
+    private void setFrameSlotKind(CodeTreeBuilder b, String kind) {
+        b.startStatement().string("getFrameDescriptor().setFrameSlotKind(slot, ").staticReference(types.FrameSlotKind, kind).string(")").end();
+    }
+
+    private void transferToInterpreterAndInvalidate(CodeTreeBuilder b) {
+        b.startStatement().startStaticCall(types.CompilerDirectives, "transferToInterpreterAndInvalidate").end().end();
+    }
+
+    private void createOperation(CodeTreeBuilder b, BytecodeOperationData operation) {
+        startInstruction(b, opcodeName(operation));
+        int operands = operation.getOperandCount();
+        b.startStatement();
+        if (!operation.isVoid()) {
+            b.string(stackSlot(operands), " = ");
+        }
+        b.startCall(CodeTreeBuilder.createBuilder().startParantheses().cast(operation.getType().asType()).string("nodes[bc[bci + 1]]").end().build(),
+                        operation.getExecuteMethod().getSimpleName().toString());
+        if (operation.needsFrame()) {
+            b.string("frame");
+        }
+        for (int i = 0; i < operands; i++) {
+            b.string(stackSlot(operands - i));
+        }
+        b.end();
+        b.end();
+        int pushed = operation.isVoid() ? 0 : 1;
+        for (int i = pushed; i < operands; i++) {
+            b.statement(stackSlot(operands - i) + " = null");
+        }
+        if (pushed > operands) {
+            b.statement("sp += " + (pushed - operands));
+        } else if (pushed < operands) {
+            b.statement("sp -= " + (operands - pushed));
+        }
+        endInstruction(b, 2);
+    }
+
+    private static String stackSlot(int offset) {
+        return offset == 0 ? "stack[sp]" : "stack[sp - " + offset + "]";
+    }
+
+    private CodeExecutableElement createHasTag() {
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(PUBLIC), context.getType(boolean.class), "hasTag");
+        method.addParameter(new CodeVariableElement(context.getType(int.class), "bci"));
+        method.addParameter(new CodeVariableElement(classType(), "tag"));
+        CodeTreeBuilder b = method.createBuilder();
+        b.startFor().string("int i = 0; i < tagRanges.length; i += 3").end().startBlock();
+        b.startIf().string("tags[tagRanges[i + 2]] == tag && tagRanges[i] <= bci && bci < tagRanges[i + 1]").end().startBlock();
+        b.returnTrue();
+        b.end();
+        b.end();
+        b.returnFalse();
+        return method;
+    }
+
+    private CodeExecutableElement createGetTagRanges() {
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(PUBLIC), arrayOf(context.getType(int.class)), "getTagRanges");
+        method.addParameter(new CodeVariableElement(classType(), "tag"));
+        CodeTreeBuilder b = method.createBuilder();
+        b.declaration(arrayOf(context.getType(int.class)), "result", "new int[tagRanges.length / 3 * 2]");
+        b.declaration(context.getType(int.class), "length", "0");
+        b.startFor().string("int i = 0; i < tagRanges.length; i += 3").end().startBlock();
+        b.startIf().string("tags[tagRanges[i + 2]] == tag").end().startBlock();
+        b.statement("result[length++] = tagRanges[i]");
+        b.statement("result[length++] = tagRanges[i + 1]");
+        b.end();
+        b.end();
+        b.startReturn().startStaticCall(context.getType(Arrays.class), "copyOf").string("result").string("length").end().end();
+        return method;
+    }
+
+    private CodeTypeElement createLabel() {
+        CodeTypeElement label = new CodeTypeElement(modifiers(PUBLIC, STATIC, FINAL), ElementKind.CLASS, null, "Label");
+        label.add(new CodeVariableElement(modifiers(PRIVATE), context.getType(int.class), "bci", "-1"));
+        label.add(new CodeVariableElement(modifiers(PRIVATE), context.getType(int.class), "stackHeight", "-1"));
+        label.add(new CodeVariableElement(modifiers(PRIVATE), arrayOf(context.getType(int.class)), "fixups", "new int[0]"));
+        label.add(new CodeExecutableElement(modifiers(PRIVATE), null, "Label"));
+        return label;
+    }
+
+    private CodeTypeElement createBuilder() {
+        CodeTypeElement builder = new CodeTypeElement(modifiers(PUBLIC, STATIC, FINAL), ElementKind.CLASS, null, "Builder");
+        TypeMirror intType = context.getType(int.class);
+        TypeMirror objectType = context.getType(Object.class);
+        builder.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), model.getLanguageType(), "language"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), types.FrameDescriptor, "frameDescriptor", "new FrameDescriptor()"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), listOf(objectType), "constants", "new ArrayList<>()"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), listOf(types.FrameSlot), "locals", "new ArrayList<>()"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), listOf(types.Node), "nodes", "new ArrayList<>()"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), listOf(labelClass.asType()), "labels", "new ArrayList<>()"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), listOf(classType()), "tags", "new ArrayList<>()"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), listOf(arrayOf(intType)), "openTags", "new ArrayList<>()"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), arrayOf(intType), "tagRanges", "new int[0]"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), arrayOf(context.getType(short.class)), "bc", "new short[16]"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "bci"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "sp"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "maxStack"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), context.getType(boolean.class), "reachable", "true"));
+
+        CodeExecutableElement constructor = new CodeExecutableElement(modifiers(PUBLIC), null, "Builder");
+        constructor.addParameter(new CodeVariableElement(model.getLanguageType(), "language"));
+        constructor.createBuilder().statement("this.language = language");
+        builder.add(constructor);
+
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(PUBLIC), intType, "createLocal");
+        method.addParameter(new CodeVariableElement(objectType, "identifier"));
+        CodeTreeBuilder b = method.createBuilder();
+        b.statement("locals.add(frameDescriptor.addFrameSlot(identifier))");
+        b.startReturn().string("locals.size() - 1").end();
+        builder.add(method);
+
+        method = new CodeExecutableElement(modifiers(PUBLIC), labelClass.asType(), "createLabel");
+        b = method.createBuilder();
+        b.declaration(labelClass.asType(), "label", "new Label()");
+        b.statement("labels.add(label)");
+        b.startReturn().string("label").end();
+        builder.add(method);
+
+        method = new CodeExecutableElement(modifiers(PUBLIC), context.getType(void.class), "emitLabel");
+        method.addParameter(new CodeVariableElement(labelClass.asType(), "label"));
+        b = method.createBuilder();
+        b.startIf().string("label.bci != -1").end().startBlock();
+        throwIllegalState(b, "The label was already emitted.");
+        b.end();
+        b.startIf().string("reachable").end().startBlock();
+        b.statement("mergeStackHeight(label)");
+        b.end().startElseIf().string("label.stackHeight != -1").end().startBlock();
+        b.statement("sp = label.stackHeight");
+        b.end().startElseBlock();
+        b.statement("sp = 0");
+        b.statement("label.stackHeight = 0");
+        b.end();
+        b.statement("reachable = true");
+        b.statement("label.bci = bci");
+        b.startFor().string("int fixup : label.fixups").end().startBlock();
+        b.statement("bc[fixup] = (short) bci");
+        b.end();
+        b.statement("label.fixups = null");
+        builder.add(method);
+
+        builder.add(createEmit("emitLoadConstant", "constant", objectType, statement("constants.add(constant)"), "constants.size() - 1", LOAD_CONSTANT, 0, 1, false));
+        builder.add(createEmit("emitLoadArgument", "index", intType, statement("checkArgument(index)"), "index", LOAD_ARGUMENT, 0, 1, false));
+        builder.add(createEmit("emitLoadLocal", "local", intType, statement("checkLocal(local)"), "local", LOAD_LOCAL, 0, 1, false));
+        builder.add(createEmit("emitStoreLocal", "local", intType, statement("checkLocal(local)"), "local", STORE_LOCAL, 1, 0, false));
+        builder.add(createEmit("emitPop", null, null, null, null, POP, 1, 0, false));
+        builder.add(createEmit("emitBranch", "label", labelClass.asType(), null, "branchTarget(label)", BRANCH, 0, 0, true));
+        builder.add(createEmit("emitBranchFalse", "label", labelClass.asType(), null, "branchTarget(label)", BRANCH_FALSE, 1, 0, false));
+        builder.add(createEmit("emitReturn", null, null, null, null, RETURN, 1, 0, true));
+
+        for (BytecodeOperationData operation : model.getOperations()) {
+            CodeTree createNode = CodeTreeBuilder.createBuilder().startStatement().string("nodes.add(").startStaticCall(operation.getNodeGenType(), "create").end().string(")").end().build();
+            builder.add(createEmit("emit" + operation.getName(), null, null, createNode, "nodes.size() - 1", opcodeName(operation), operation.getOperandCount(),
+                            operation.isVoid() ? 0 : 1, false));
+        }
+
+        method = new CodeExecutableElement(modifiers(PUBLIC), context.getType(void.class), "beginTag");
+        method.addParameter(new CodeVariableElement(classType(), "tag"));
+        b = method.createBuilder();
+        b.declaration(intType, "index", "tags.indexOf(tag)");
+        b.startIf().string("index == -1").end().startBlock();
+        b.statement("tags.add(tag)");
+        b.statement("index = tags.size() - 1");
+        b.end();
+        b.statement("openTags.add(new int[]{bci, index})");
+        builder.add(method);
+
+        method = new CodeExecutableElement(modifiers(PUBLIC), context.getType(void.class), "endTag");
+        b = method.createBuilder();
+        b.startIf().string("openTags.isEmpty()").end().startBlock();
+        throwIllegalState(b, "No tag was begun.");
+        b.end();
+        b.declaration(arrayOf(intType), "openTag", "openTags.remove(openTags.size() - 1)");
+        b.declaration(intType, "length", "tagRanges.length");
+        b.startStatement().string("tagRanges = ").startStaticCall(context.getType(Arrays.class), "copyOf").string("tagRanges").string("length + 3").end().end();
+        b.statement("tagRanges[length] = openTag[0]");
+        b.statement("tagRanges[length + 1] = bci");
+        b.statement("tagRanges[length + 2] = openTag[1]");
+        builder.add(method);
+
+        method = new CodeExecutableElement(modifiers(PUBLIC), genClass.asType(), "build");
+        b = method.createBuilder();
+        b.startIf().string("reachable").end().startBlock();
+        throwIllegalState(b, "The last instruction must be a return or a branch.");
+        b.end();
+        b.startIf().string("!openTags.isEmpty()").end().startBlock();
+        throwIllegalState(b, "Not all tags were ended.");
+        b.end();
+        b.startFor().type(labelClass.asType()).string(" label : labels").end().startBlock();
+        b.startIf().string("label.bci == -1 && label.fixups.length > 0").end().startBlock();
+        throwIllegalState(b, "A label was used as branch target but was never emitted.");
+        b.end();
+        b.end();
+        b.startReturn().startNew(genClass.asType());
+        b.string("language").string("frameDescriptor");
+        b.startStaticCall(context.getType(Arrays.class), "copyOf").string("bc").string("bci").end();
+        b.string("constants.toArray()");
+        b.string("locals.toArray(new FrameSlot[0])");
+        b.string("nodes.toArray(new Node[0])");
+        b.string("tagRanges");
+        b.string("tags.toArray(new Class<?>[0])");
+        b.string("maxStack");
+        b.end().end();
+        builder.add(method);
+
+        method = new CodeExecutableElement(modifiers(PRIVATE), context.getType(void.class), "emitInstruction");
+        method.addParameter(new CodeVariableElement(context.getType(short.class), "opcode"));
+        method.addParameter(new CodeVariableElement(intType, "operand"));
+        method.addParameter(new CodeVariableElement(context.getType(boolean.class), "hasOperand"));
+        b = method.createBuilder();
+        b.startIf().string("bci + 2 > Short.MAX_VALUE || operand > Short.MAX_VALUE").end().startBlock();
+        throwIllegalState(b, "The bytecode is too large.");
+        b.end();
+        b.startIf().string("bci + 2 > bc.length").end().startBlock();
+        b.startStatement().string("bc = ").startStaticCall(context.getType(Arrays.class), "copyOf").string("bc").string("bc.length * 2").end().end();
+        b.end();
+        b.statement("bc[bci++] = opcode");
+        b.startIf().string("hasOperand").end().startBlock();
+        b.statement("bc[bci++] = (short) operand");
+        b.end();
+        builder.add(method);
+
+        method = new CodeExecutableElement(modifiers(PRIVATE), context.getType(void.class), "updateStack");
+        method.addParameter(new CodeVariableElement(intType, "pop"));
+        method.addParameter(new CodeVariableElement(intType, "push"));
+        b = method.createBuilder();
+        b.startIf().string("sp < pop").end().startBlock();
+        throwIllegalState(b, "Stack underflow.");
+        b.end();
+        b.statement("sp = sp - pop + push");
+        b.statement("maxStack = Math.max(maxStack, sp)");
+        builder.add(method);
+
+        method = new CodeExecutableElement(modifiers(PRIVATE), context.getType(void.class), "checkLocal");
+        method.addParameter(new CodeVariableElement(intType, "local"));
+        b = method.createBuilder();
+        b.startIf().string("local < 0 || local >= locals.size()").end().startBlock();
+        throwIllegalState(b, "Invalid local index.");
+        b.end();
+        builder.add(method);
+
+        method = new CodeExecutableElement(modifiers(PRIVATE), context.getType(void.class), "checkArgument");
+        method.addParameter(new CodeVariableElement(intType, "index"));
+        b = method.createBuilder();
+        b.startIf().string("index < 0").end().startBlock();
+        throwIllegalState(b, "Invalid argument index.");
+        b.end();
+        builder.add(method);
+
+        method = new CodeExecutableElement(modifiers(PRIVATE), context.getType(void.class), "mergeStackHeight");
+        method.addParameter(new CodeVariableElement(labelClass.asType(), "label"));
+        b = method.createBuilder();
+        b.startIf().string("label.stackHeight == -1").end().startBlock();
+        b.statement("label.stackHeight = sp");
+        b.end().startElseIf().string("label.stackHeight != sp").end().startBlock();
+        throwIllegalState(b, "The stack height does not match at the label.");
+        b.end();
+        builder.add(method);
+
+        method = new CodeExecutableElement(modifiers(PRIVATE), intType, "branchTarget");
+        method.addParameter(new CodeVariableElement(labelClass.asType(), "label"));
+        b = method.createBuilder();
+        b.statement("mergeStackHeight(label)");
+        b.startIf().string("label.bci != -1").end().startBlock();
+        b.startReturn().string("label.bci").end();
+        b.end();
+        b.lineComment("the operand is patched when the label is emitted");
+        b.statement("label.fixups = Arrays.copyOf(label.fixups, label.fixups.length + 1)");
+        b.statement("label.fixups[label.fixups.length - 1] = bci + 1");
+        b.startReturn().string("0").end();
+        builder.add(method);
+        return builder;
+    }
+
+    private CodeExecutableElement createEmit(String name, String parameterName, TypeMirror parameterType, CodeTree prefix, String operand, String opcode, int pop, int push,
+                    boolean terminal) {
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(PUBLIC), context.getType(void.class), name);
+        if (parameterName != null) {
+            method.addParameter(new CodeVariableElement(parameterType, parameterName));
+        }
+        CodeTreeBuilder b = method.createBuilder();
+        if (prefix != null) {
+            b.tree(prefix);
+        }
+        b.statement("updateStack(" + pop + ", " + push + ")");
+        if (operand != null) {
+            b.statement("emitInstruction(" + opcode + ", " + operand + ", true)");
+        } else {
+            b.statement("emitInstruction(" + opcode + ", 0, false)");
+        }
+        if (terminal) {
+            b.statement("reachable = false");
+        }
+        return method;
+    }
+
+    private static CodeTree statement(String statement) {
+        return CodeTreeBuilder.createBuilder().statement(statement).build();
+    }
+
+    private static void throwIllegalState(CodeTreeBuilder b, String message) {
+        b.startThrow().startNew("IllegalStateException").doubleQuote(message).end().end();
+    }
+
+}
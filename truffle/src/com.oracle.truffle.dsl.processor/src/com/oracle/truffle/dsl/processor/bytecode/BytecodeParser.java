@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.dsl.processor.bytecode;
+
+import static com.oracle.truffle.dsl.processor.java.ElementUtils.getSimpleName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+
+import com.oracle.truffle.dsl.processor.generator.GeneratorUtils;
+import com.oracle.truffle.dsl.processor.generator.NodeCodeGenerator;
+import com.oracle.truffle.dsl.processor.java.ElementUtils;
+import com.oracle.truffle.dsl.processor.model.NodeData;
+import com.oracle.truffle.dsl.processor.parser.AbstractParser;
+import com.oracle.truffle.dsl.processor.parser.NodeParser;
+
+public class BytecodeParser extends AbstractParser<BytecodeData> {
+
+    @Override
+    protected BytecodeData parse(Element element, List<AnnotationMirror> mirrors) {
+        if (mirrors.isEmpty()) {
+            return null;
+        }
+        TypeElement type = (TypeElement) element;
+        BytecodeData model = new BytecodeData(type, mirrors.iterator().next());
+        String annotationName = getSimpleName(types.GenerateBytecode);
+
+        if (!ElementUtils.isAssignable(type.asType(), types.RootNode)) {
+            model.addError("Classes annotated with @%s must extend %s.", annotationName, getSimpleName(types.RootNode));
+            return model;
+        }
+        if (type.getModifiers().contains(Modifier.FINAL) || type.getModifiers().contains(Modifier.PRIVATE)) {
+            model.addError("Classes annotated with @%s must not be final or private.", annotationName);
+            return model;
+        }
+        TypeMirror languageType = findLanguageType(type);
+        if (languageType == null) {
+            model.addError("Classes annotated with @%s must declare a constructor with the parameters (%s, %s).", annotationName,
+                            types.TruffleLanguage.asElement().getSimpleName().toString(), getSimpleName(types.FrameDescriptor));
+            return model;
+        }
+        model.setLanguageType(languageType);
+        model.setGenerateExecute(!implementsExecute(type));
+
+        for (TypeElement enclosed : ElementFilter.typesIn(type.getEnclosedElements())) {
+            if (ElementUtils.findAnnotationMirror(enclosed, types.Operation) != null) {
+                model.getOperations().add(parseOperation(enclosed));
+            }
+        }
+        return model;
+    }
+
+    private TypeMirror findLanguageType(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                continue;
+            }
+            List<? extends VariableElement> parameters = constructor.getParameters();
+            if (parameters.size() == 2 &&
+                            ElementUtils.isAssignable(ElementUtils.eraseGenericTypes(parameters.get(0).asType()), ElementUtils.eraseGenericTypes(types.TruffleLanguage)) &&
+                            ElementUtils.typeEquals(parameters.get(1).asType(), types.FrameDescriptor)) {
+                return parameters.get(0).asType();
+            }
+        }
+        return null;
+    }
+
+    private boolean implementsExecute(TypeElement type) {
+        TypeElement current = type;
+        while (current != null && !ElementUtils.typeEquals(current.asType(), types.RootNode)) {
+            for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                if (method.getSimpleName().toString().equals("execute") && !method.getModifiers().contains(Modifier.ABSTRACT) &&
+                                method.getParameters().size() == 1 && ElementUtils.typeEquals(method.getParameters().get(0).asType(), types.VirtualFrame)) {
+                    return true;
+                }
+            }
+            current = ElementUtils.getSuperType(current);
+        }
+        return false;
+    }
+
+    private BytecodeOperationData parseOperation(TypeElement type) {
+        BytecodeOperationData operation = new BytecodeOperationData(type);
+        String annotationName = getSimpleName(types.Operation);
+        if (!type.getModifiers().contains(Modifier.STATIC) || type.getModifiers().contains(Modifier.PRIVATE)) {
+            operation.addError("Classes annotated with @%s must be static and not private.", annotationName);
+            return operation;
+        }
+        if (!ElementUtils.isAssignable(type.asType(), types.Node)) {
+            operation.addError("Classes annotated with @%s must extend %s.", annotationName, getSimpleName(types.Node));
+            return operation;
+        }
+        if (!NodeCodeGenerator.isSpecializedNode(type.asType())) {
+            operation.addError("Classes annotated with @%s must declare at least one @%s method.", annotationName, getSimpleName(types.Specialization));
+            return operation;
+        }
+
+        List<ExecutableElement> executeMethods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(context.getEnvironment().getElementUtils().getAllMembers(type))) {
+            if (method.getModifiers().contains(Modifier.ABSTRACT) && method.getSimpleName().toString().startsWith("execute")) {
+                executeMethods.add(method);
+            }
+        }
+        if (executeMethods.size() != 1) {
+            operation.addError("Classes annotated with @%s must declare exactly one abstract execute method, but found %s.", annotationName, executeMethods.size());
+            return operation;
+        }
+        ExecutableElement executeMethod = executeMethods.get(0);
+        operation.setExecuteMethod(executeMethod);
+        List<? extends VariableElement> parameters = executeMethod.getParameters();
+        int operandIndex = 0;
+        if (!parameters.isEmpty() && ElementUtils.typeEquals(parameters.get(0).asType(), types.VirtualFrame)) {
+            operation.setNeedsFrame(true);
+            operandIndex = 1;
+        }
+        for (int i = operandIndex; i < parameters.size(); i++) {
+            if (!ElementUtils.typeEquals(parameters.get(i).asType(), context.getType(Object.class))) {
+                operation.addError(executeMethod, "The operands of the execute method must be of type Object, but parameter %s is of type %s.",
+                                parameters.get(i).getSimpleName().toString(), getSimpleName(parameters.get(i).asType()));
+            }
+        }
+        operation.setOperandCount(parameters.size() - operandIndex);
+
+        for (ExecutableElement constructor : GeneratorUtils.findUserConstructors(type.asType())) {
+            if (!constructor.getParameters().isEmpty()) {
+                operation.addError("Classes annotated with @%s must declare a constructor without parameters.", annotationName);
+                break;
+            }
+        }
+
+        NodeData node = NodeParser.createDefaultParser().parse(type, false);
+        if (node == null || node.hasErrors()) {
+            operation.addError("The node of the operation could not be parsed. Resolve the errors of the node to resolve this.");
+        } else if (!node.getChildren().isEmpty() || !node.getFields().isEmpty()) {
+            operation.addError("Classes annotated with @%s must not declare any @%s or @%s annotations.", annotationName,
+                            getSimpleName(types.NodeChild), getSimpleName(types.NodeField));
+        } else {
+            operation.setNodeGenType(NodeCodeGenerator.nodeType(node));
+        }
+        return operation;
+    }
+
+    @Override
+    public DeclaredType getAnnotationType() {
+        return types.GenerateBytecode;
+    }
+
+}
@@ -68,6 +68,8 @@ class BitSet {
     private final Object[] objects;
     private final long allMask;
     private final TypeMirror type;
+    private CodeTree receiver = CodeTreeBuilder.singleString("this");
+    private String fieldPrefix = "";
 
     BitSet(String name, Object[] objects) {
         this.name = name;
@@ -96,6 +98,19 @@ class BitSet {
         return bitIndex;
     }
 
+    /**
+     * Stores the bits in a field of the given receiver instead of <code>this</code>. Used for
+     * inlined nodes that keep their state in the node they are inlined into.
+     */
+    public void setFieldOwner(CodeTree fieldReceiver, String prefix) {
+        this.receiver = fieldReceiver;
+        this.fieldPrefix = prefix;
+    }
+
+    public String getFieldName() {
+        return fieldPrefix + name + "_";
+    }
+
     public Object[] getObjects() {
         return objects;
     }
@@ -128,7 +143,7 @@ class BitSet {
     public CodeTree createReference(FrameState frameState) {
         CodeTree ref = createLocalReference(frameState);
         if (ref == null) {
-            ref = CodeTreeBuilder.createBuilder().string("this.", getName(), "_").build();
+            ref = CodeTreeBuilder.createBuilder().tree(receiver).string(".", getFieldName()).build();
         }
         return ref;
     }
@@ -164,10 +179,9 @@ class BitSet {
             return CodeTreeBuilder.singleString("");
         }
         CodeTreeBuilder builder = CodeTreeBuilder.createBuilder();
-        String fieldName = name + "_";
         LocalVariable var = new LocalVariable(type, name, null);
         CodeTreeBuilder init = builder.create();
-        init.string("this.").tree(CodeTreeBuilder.singleString(fieldName));
+        init.tree(receiver).string(".", getFieldName());
         builder.tree(var.createDeclaration(init.build()));
         frameState.set(name, var);
         return builder.build();
@@ -352,7 +366,7 @@ class BitSet {
         CodeTreeBuilder builder = CodeTreeBuilder.createBuilder();
         builder.startStatement();
         if (persist) {
-            builder.string("this.", name, "_ = ");
+            builder.tree(receiver).string(".", getFieldName(), " = ");
 
             // if there is a local variable we need to update it as well
             CodeTree localReference = createLocalReference(frameState);
@@ -161,6 +161,12 @@ public class FlatNodeGenFactory {
 
     private static final String VARARGS_NAME = "args";
 
+    private static final String UNCACHED_COUNT = "uncachedCount_";
+    private static final String EXECUTE_UNCACHED = "executeUncached";
+    private static final String COUNT_UNCACHED = "countUncached";
+    private static final String SKIP_UNCACHED = "skipUncached";
+    private static final String START_UNCACHED = "startUncached";
+
     private static final Object AOT_PREPARED = new Object() {
         @Override
         public String toString() {
@@ -199,6 +205,13 @@ public class FlatNodeGenFactory {
     private final boolean needsSpecializeLocking;
     private final GeneratorMode generatorMode;
 
+    /*
+     * Non-null if the node is inlined into another generated node. Inlined nodes store their
+     * state in fields of the node passed as first execute argument.
+     */
+    private final CodeTree inlineReceiver;
+    private final String inlinePrefix;
+
     public enum GeneratorMode {
         DEFAULT,
         EXPORTED_MESSAGE
@@ -212,6 +225,13 @@ public class FlatNodeGenFactory {
                     Collection<NodeData> stateSharingNodes,
                     Map<CacheExpression, String> sharedCaches,
                     Map<String, CodeVariableElement> libraryConstants) {
+        this(context, mode, node, stateSharingNodes, sharedCaches, libraryConstants, null, null);
+    }
+
+    private FlatNodeGenFactory(ProcessorContext context, GeneratorMode mode, NodeData node,
+                    Collection<NodeData> stateSharingNodes,
+                    Map<CacheExpression, String> sharedCaches,
+                    Map<String, CodeVariableElement> libraryConstants, TypeMirror inlineTarget, String inlinePrefix) {
         Objects.requireNonNull(node);
         this.generatorMode = mode;
         this.context = context;
@@ -278,6 +298,18 @@ public class FlatNodeGenFactory {
         }
         this.multiState = createMultiStateBitset(stateObjects, activeStateStartIndex, activeStateEndIndex, volatileState);
         this.exclude = new ExcludeBitSet(excludeObjects.toArray(new SpecializationData[0]), volatileState);
+        this.inlinePrefix = inlinePrefix;
+        if (inlineTarget != null) {
+            CodeTreeBuilder receiver = CodeTreeBuilder.createBuilder();
+            receiver.startParantheses().cast(inlineTarget, CodeTreeBuilder.singleString(FrameState.valueName(node.getChildExecutions().get(0)))).end();
+            this.inlineReceiver = receiver.build();
+            for (BitSet set : multiState.all) {
+                set.setFieldOwner(inlineReceiver, inlinePrefix);
+            }
+            exclude.setFieldOwner(inlineReceiver, inlinePrefix);
+        } else {
+            this.inlineReceiver = null;
+        }
         this.executeAndSpecializeType = createExecuteAndSpecializeType();
         this.needsSpecializeLocking = exclude.getCapacity() != 0 || reachableSpecializations.stream().anyMatch((s) -> !s.getCaches().isEmpty());
 
@@ -343,10 +375,26 @@ public class FlatNodeGenFactory {
         return node.needsRewrites(context);
     }
 
+    private boolean isInlined() {
+        return inlineReceiver != null;
+    }
+
+    private CodeTree createGetLock() {
+        CodeTreeBuilder builder = CodeTreeBuilder.createBuilder();
+        if (isInlined()) {
+            builder.tree(inlineReceiver).string(".");
+        }
+        return builder.string("getLock()").build();
+    }
+
     private boolean needsAOTReset() {
         return node.isGenerateAOT() && needsRewrites();
     }
 
+    private boolean isStartUncached() {
+        return primaryNode && !isInlined() && node.isStartUncached() && needsRewrites() && !hasMultipleNodes();
+    }
+
     private boolean hasMultipleNodes() {
         return sharingNodes.size() > 1;
     }
@@ -551,6 +599,7 @@ public class FlatNodeGenFactory {
         }
 
         createFields(clazz);
+        createInlinedNodes(clazz);
 
         TypeMirror genericReturnType = node.getPolymorphicSpecialization().getReturnType().getType();
 
@@ -611,6 +660,9 @@ public class FlatNodeGenFactory {
         }
 
         clazz.addOptional(createExecuteAndSpecialize());
+        clazz.addOptional(createExecuteUncached());
+        clazz.addOptional(createCountUncached());
+        clazz.addOptional(createSkipUncached());
         final ReportPolymorphismAction reportPolymorphismAction = reportPolymorphismAction(node, reachableSpecializations);
         if (reportPolymorphismAction.required()) {
             clazz.addOptional(createCheckForPolymorphicSpecialize(reportPolymorphismAction));
@@ -626,7 +678,7 @@ public class FlatNodeGenFactory {
         }
         String cost = nodeInfo != null ? ElementUtils.getAnnotationValue(VariableElement.class, nodeInfo, "cost").getSimpleName().toString() : null;
         if (cost == null || cost.equals("MONOMORPHIC") /* the default */) {
-            if (primaryNode) {
+            if (primaryNode && !isInlined()) {
                 clazz.add(createGetCostMethod(false));
             }
         }
@@ -658,7 +710,7 @@ public class FlatNodeGenFactory {
             generateAOT(clazz);
         }
 
-        if (node.isUncachable() && node.isGenerateUncached()) {
+        if (node.isUncachable() && node.isGenerateUncached() && !isInlined()) {
             CodeTypeElement uncached = GeneratorUtils.createClass(node, null, modifiers(PRIVATE, STATIC, FINAL), "Uncached", node.getTemplateType().asType());
             uncached.getEnclosedElements().addAll(createUncachedFields());
 
@@ -1139,7 +1191,7 @@ public class FlatNodeGenFactory {
     }
 
     private void createFields(CodeTypeElement clazz) {
-        if (primaryNode) {
+        if (primaryNode && !isInlined()) {
             if (multiState.getAllCapacity() > 0) {
                 multiState.declareFields(clazz);
             }
@@ -1149,6 +1201,10 @@ public class FlatNodeGenFactory {
             }
         }
 
+        if (isStartUncached()) {
+            clazz.add(new CodeVariableElement(modifiers(PRIVATE), context.getType(int.class), UNCACHED_COUNT));
+        }
+
         if (primaryNode && !sharedCaches.isEmpty()) {
             Set<String> expressions = new HashSet<>();
             for (Entry<CacheExpression, String> entry : sharedCaches.entrySet()) {
@@ -1302,6 +1358,53 @@ public class FlatNodeGenFactory {
 
     }
 
+    private void createInlinedNodes(CodeTypeElement clazz) {
+        if (generatorMode != GeneratorMode.DEFAULT || !primaryNode) {
+            return;
+        }
+        for (SpecializationData specialization : reachableSpecializations) {
+            for (CacheExpression cache : specialization.getCaches()) {
+                NodeData inlinedNode = cache.getInlinedNode();
+                if (inlinedNode == null) {
+                    continue;
+                }
+                String prefix = createInlinedNodePrefix(specialization, cache);
+                FlatNodeGenFactory factory = new FlatNodeGenFactory(context, GeneratorMode.DEFAULT, inlinedNode, Arrays.asList(inlinedNode),
+                                inlinedNode.getSharedCaches(), libraryConstants, clazz.asType(), prefix);
+                if (factory.multiState.getAllCapacity() > 0) {
+                    factory.multiState.declareFields(clazz);
+                }
+                if (factory.exclude.getCapacity() > 0) {
+                    factory.exclude.declareFields(clazz);
+                }
+
+                String className = createInlinedNodeClassName(specialization, cache);
+                CodeTypeElement inlinedClass = GeneratorUtils.createClass(inlinedNode, null, modifiers(PRIVATE, STATIC, FINAL), className, inlinedNode.getTemplateType().asType());
+                clazz.add(factory.create(inlinedClass));
+
+                GeneratedTypeMirror inlinedType = new GeneratedTypeMirror("", className);
+                CodeVariableElement constant = clazz.add(new CodeVariableElement(modifiers(PRIVATE, STATIC, FINAL), inlinedType, ElementUtils.createConstantName(className)));
+                constant.createInitBuilder().startNew(inlinedType).end();
+            }
+        }
+    }
+
+    private String createInlinedNodePrefix(SpecializationData specialization, CacheExpression cache) {
+        String prefix = "";
+        if (reachableSpecializations.size() > 1) {
+            prefix = firstLetterLowerCase(specialization.getId()) + "_";
+        }
+        return prefix + cache.getParameter().getLocalName() + "_";
+    }
+
+    private String createInlinedNodeClassName(SpecializationData specialization, CacheExpression cache) {
+        String name = ElementUtils.firstLetterUpperCase(cache.getParameter().getLocalName()) + "Inlined";
+        if (reachableSpecializations.size() > 1) {
+            name = ElementUtils.firstLetterUpperCase(specialization.getId()) + name;
+        }
+        return name;
+    }
+
     private void generateStatisticsFields(CodeTypeElement clazz) {
         if (isGenerateStatistics()) {
             CodeTreeBuilder b;
@@ -1322,15 +1425,15 @@ public class FlatNodeGenFactory {
     }
 
     private boolean isGenerateAOT() {
-        return generatorMode == GeneratorMode.DEFAULT && primaryNode && node.isGenerateAOT();
+        return generatorMode == GeneratorMode.DEFAULT && primaryNode && !isInlined() && node.isGenerateAOT();
     }
 
     private boolean isGenerateStatistics() {
-        return generatorMode == GeneratorMode.DEFAULT && primaryNode && node.isGenerateStatistics();
+        return generatorMode == GeneratorMode.DEFAULT && primaryNode && !isInlined() && node.isGenerateStatistics();
     }
 
     private boolean isGenerateIntrospection() {
-        return generatorMode == GeneratorMode.DEFAULT && primaryNode && node.isGenerateIntrospection();
+        return generatorMode == GeneratorMode.DEFAULT && primaryNode && !isInlined() && node.isGenerateIntrospection();
     }
 
     private List<CacheExpression> computeUniqueReferenceCaches(boolean uncached) {
@@ -1945,10 +2048,14 @@ public class FlatNodeGenFactory {
 
         final CodeTreeBuilder builder = method.createBuilder();
         if (needsSpecializeLocking) {
-            builder.declaration(context.getType(Lock.class), "lock", "getLock()");
+            builder.declaration(context.getType(Lock.class), "lock", createGetLock());
             builder.declaration(context.getType(boolean.class), "hasLock", "true");
             builder.statement("lock.lock()");
         }
+        if (isStartUncached()) {
+            // the node specializes, e.g. when called from compiled code, do not execute uncached anymore
+            builder.startStatement().string("this.", UNCACHED_COUNT, " = ").string(String.valueOf(node.getStartUncachedThreshold())).end();
+        }
 
         if (needsAOTReset()) {
             builder.startIf();
@@ -1996,6 +2103,105 @@ public class FlatNodeGenFactory {
         return method;
     }
 
+    /*
+     * Executes the uncached specializations of a node annotated with @StartUncached until the
+     * execution threshold is reached. No state is modified, so the node stays uninitialized.
+     */
+    private CodeExecutableElement createExecuteUncached() {
+        if (!isStartUncached()) {
+            return null;
+        }
+        String frame = null;
+        if (needsFrameToExecute(reachableSpecializations)) {
+            frame = FRAME_VALUE;
+        }
+        final Collection<SpecializationData> uncachedSpecializations = node.computeUncachedSpecializations(reachableSpecializations);
+        TypeMirror returnType = executeAndSpecializeType.getReturnType();
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(PRIVATE), returnType, EXECUTE_UNCACHED);
+        final FrameState frameState = FrameState.load(this, NodeExecutionMode.UNCACHED, method);
+        frameState.addParametersTo(method, Integer.MAX_VALUE, frame);
+        frameState.setBoolean(START_UNCACHED, true);
+
+        boolean pushEncapsulatingNode = false;
+        for (SpecializationData specialization : uncachedSpecializations) {
+            if (specialization.needsPushEncapsulatingNode()) {
+                pushEncapsulatingNode = true;
+                break;
+            }
+        }
+
+        final CodeTreeBuilder builder = method.createBuilder();
+        if (pushEncapsulatingNode) {
+            GeneratorUtils.pushEncapsulatingNode(builder, "this");
+            builder.startTryBlock();
+        }
+        FrameState originalFrameState = frameState.copy();
+        SpecializationGroup group = SpecializationGroup.create(filterCompatibleSpecializations(uncachedSpecializations, executeAndSpecializeType));
+        builder.tree(visitSpecializationGroup(builder, null, group, executeAndSpecializeType, frameState, uncachedSpecializations));
+        if (group.hasFallthrough()) {
+            builder.tree(createThrowUnsupported(builder, originalFrameState));
+        }
+        if (pushEncapsulatingNode) {
+            builder.end().startFinallyBlock();
+            GeneratorUtils.popEncapsulatingNode(builder);
+            builder.end();
+        }
+        return method;
+    }
+
+    /*
+     * Counts an uncached execution of a node annotated with @StartUncached. Returns false once the
+     * threshold is reached or the node was specialized.
+     */
+    private CodeExecutableElement createCountUncached() {
+        if (!isStartUncached()) {
+            return null;
+        }
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(PRIVATE), context.getType(boolean.class), COUNT_UNCACHED);
+        CodeTreeBuilder builder = method.createBuilder();
+        if (needsSpecializeLocking) {
+            builder.declaration(context.getType(Lock.class), "lock", createGetLock());
+            builder.statement("lock.lock()");
+            builder.startTryBlock();
+        }
+        builder.startIf().string("this.", UNCACHED_COUNT, " < ").string(String.valueOf(node.getStartUncachedThreshold())).end().startBlock();
+        builder.startStatement().string("this.", UNCACHED_COUNT, "++").end();
+        builder.returnTrue();
+        builder.end();
+        builder.returnFalse();
+        if (needsSpecializeLocking) {
+            builder.end().startFinallyBlock();
+            builder.statement("lock.unlock()");
+            builder.end();
+        }
+        return method;
+    }
+
+    /*
+     * Stops uncached executions of a node annotated with @StartUncached. Called from compiled code
+     * before it deoptimizes.
+     */
+    private CodeExecutableElement createSkipUncached() {
+        if (!isStartUncached()) {
+            return null;
+        }
+        CodeExecutableElement method = new CodeExecutableElement(modifiers(PRIVATE), context.getType(void.class), SKIP_UNCACHED);
+        method.getAnnotationMirrors().add(new CodeAnnotationMirror(types.CompilerDirectives_TruffleBoundary));
+        CodeTreeBuilder builder = method.createBuilder();
+        if (needsSpecializeLocking) {
+            builder.declaration(context.getType(Lock.class), "lock", createGetLock());
+            builder.statement("lock.lock()");
+            builder.startTryBlock();
+        }
+        builder.startStatement().string("this.", UNCACHED_COUNT, " = ").string(String.valueOf(node.getStartUncachedThreshold())).end();
+        if (needsSpecializeLocking) {
+            builder.end().startFinallyBlock();
+            builder.statement("lock.unlock()");
+            builder.end();
+        }
+        return method;
+    }
+
     // Polymorphism reporting constants
     private static final String OLD_PREFIX = "old";
     private static final String NEW_PREFIX = "new";
@@ -2177,6 +2383,8 @@ public class FlatNodeGenFactory {
         ExecutableElement method = parent.findMethod();
         if (method != null && method.getModifiers().contains(STATIC)) {
             builder.string("null");
+        } else if (isInlined()) {
+            builder.tree(inlineReceiver);
         } else {
             builder.string("this");
         }
@@ -2186,7 +2394,7 @@ public class FlatNodeGenFactory {
         for (NodeExecutionData execution : node.getChildExecutions()) {
             NodeChildData child = execution.getChild();
             LocalVariable var = frameState.getValue(execution);
-            if (child != null && !frameState.getMode().isUncached()) {
+            if (child != null && (!frameState.getMode().isUncached() || frameState.getBoolean(START_UNCACHED, false))) {
                 builder.string(accessNodeField(execution));
             } else {
                 builder.string("null");
@@ -2342,6 +2550,21 @@ public class FlatNodeGenFactory {
         builder.tree(visitSpecializationGroup(builder, null, group, currentType, frameState, allowedSpecializations));
 
         if (group.hasFallthrough()) {
+            if (isStartUncached()) {
+                builder.startIf().startStaticCall(types.CompilerDirectives, "inInterpreter").end().end().startBlock();
+                builder.startIf().startCall(COUNT_UNCACHED).end().end().startBlock();
+                builder.tree(createCallSlowPath(EXECUTE_UNCACHED, currentType, originalFrameState));
+                builder.end();
+                builder.end().startElseBlock();
+                /*
+                 * Executed from compiled code. The interpreter resumes before this check after
+                 * the deoptimization, so make it specialize right away. A plain field write
+                 * would be dropped together with the deoptimizing branch, the boundary call is
+                 * not.
+                 */
+                builder.startStatement().startCall(SKIP_UNCACHED).end().end();
+                builder.end();
+            }
             builder.tree(createTransferToInterpreterAndInvalidate());
             builder.tree(createCallExecuteAndSpecialize(currentType, originalFrameState));
         }
@@ -4278,7 +4501,7 @@ public class FlatNodeGenFactory {
 
         // slow path might be already already locked
         if (!frameState.getMode().isSlowPath()) {
-            builder.declaration(context.getType(Lock.class), "lock", "getLock()");
+            builder.declaration(context.getType(Lock.class), "lock", createGetLock());
         }
 
         if (needsSpecializeLocking) {
@@ -4341,7 +4564,7 @@ public class FlatNodeGenFactory {
             }
             CodeTreeBuilder builder = method.createBuilder();
             if (needsSpecializeLocking) {
-                builder.declaration(context.getType(Lock.class), "lock", "getLock()");
+                builder.declaration(context.getType(Lock.class), "lock", createGetLock());
                 builder.statement("lock.lock()");
                 builder.startTryBlock();
             }
@@ -4447,6 +4670,10 @@ public class FlatNodeGenFactory {
     }
 
     private CodeTree createCallExecuteAndSpecialize(ExecutableTypeData forType, FrameState frameState) {
+        return createCallSlowPath(createExecuteAndSpecializeName(), forType, frameState);
+    }
+
+    private CodeTree createCallSlowPath(String methodName, ExecutableTypeData forType, FrameState frameState) {
         TypeMirror returnType = node.getPolymorphicSpecialization().getReturnType().getType();
         String frame = null;
         if (needsFrameToExecute(reachableSpecializations)) {
@@ -4454,7 +4681,7 @@ public class FlatNodeGenFactory {
         }
 
         CodeTreeBuilder builder = CodeTreeBuilder.createBuilder();
-        builder.startCall(createExecuteAndSpecializeName());
+        builder.startCall(methodName);
         frameState.addReferencesTo(builder, frame);
         builder.end();
         CodeTree call = builder.build();
@@ -4692,7 +4919,7 @@ public class FlatNodeGenFactory {
         }
 
         String method = cache.isCachedContext() ? "super.lookupContextReference" : "super.lookupLanguageReference";
-        if (frameState.getMode().isSlowPath()) {
+        if (frameState.getMode().isSlowPath() || frameState.getBoolean(START_UNCACHED, false)) {
             builder.declaration(cache.getReferenceType(), supplierLocalName, "this." + supplierName);
             builder.startIf().string(supplierLocalName).string(" == null").end().startBlock();
             builder.startStatement().string("this.", supplierName).string(" = ").string(supplierLocalName).string(" = ").startCall(method).typeLiteral(cache.getLanguageType()).end().end();
@@ -4820,6 +5047,8 @@ public class FlatNodeGenFactory {
                 builder.string(".get()");
             }
             tree = builder.build();
+        } else if (cache.getInlinedNode() != null && !frameState.getMode().isUncached()) {
+            tree = CodeTreeBuilder.singleString(ElementUtils.createConstantName(createInlinedNodeClassName(specialization, cache)));
         } else {
             DSLExpression expression;
             if (frameState.getMode().isUncached()) {
@@ -5385,7 +5614,7 @@ public class FlatNodeGenFactory {
         }
 
         void declareFields(CodeTypeElement clazz) {
-            CodeVariableElement var = clazz.add(FlatNodeGenFactory.createNodeField(PRIVATE, getType(), getName() + "_", ProcessorContext.getInstance().getTypes().CompilerDirectives_CompilationFinal));
+            CodeVariableElement var = clazz.add(FlatNodeGenFactory.createNodeField(PRIVATE, getType(), getFieldName(), ProcessorContext.getInstance().getTypes().CompilerDirectives_CompilationFinal));
             if (needsVolatile) {
                 var.getModifiers().add(Modifier.VOLATILE);
             }
@@ -302,7 +302,7 @@ public class GeneratorUtils {
         }
     }
 
-    static List<ExecutableElement> findUserConstructors(TypeMirror nodeType) {
+    public static List<ExecutableElement> findUserConstructors(TypeMirror nodeType) {
         List<ExecutableElement> constructors = new ArrayList<>();
         for (ExecutableElement constructor : ElementFilter.constructorsIn(ElementUtils.fromTypeMirror(nodeType).getEnclosedElements())) {
             if (constructor.getModifiers().contains(PRIVATE)) {
@@ -78,6 +78,7 @@ public final class CacheExpression extends MessageContainer {
     private TypeMirror referenceType;
 
     private LibraryData cachedlibrary;
+    private NodeData inlinedNode;
 
     public CacheExpression(Parameter sourceParameter, AnnotationMirror sourceAnnotationMirror) {
         this.sourceParameter = sourceParameter;
@@ -90,6 +91,7 @@ public final class CacheExpression extends MessageContainer {
         copy.defaultExpression = this.defaultExpression;
         copy.uncachedExpression = this.uncachedExpression;
         copy.alwaysInitialized = this.alwaysInitialized;
+        copy.inlinedNode = this.inlinedNode;
         return copy;
     }
 
@@ -339,4 +341,16 @@ public final class CacheExpression extends MessageContainer {
         this.cachedlibrary = cachedlibrary;
     }
 
+    /**
+     * Returns the node whose state is inlined into the parent node for this cache, or
+     * <code>null</code> if the cache is not inlined.
+     */
+    public NodeData getInlinedNode() {
+        return inlinedNode;
+    }
+
+    public void setInlinedNode(NodeData inlinedNode) {
+        this.inlinedNode = inlinedNode;
+    }
+
 }
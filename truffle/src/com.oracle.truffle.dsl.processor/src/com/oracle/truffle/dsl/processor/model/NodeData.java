@@ -88,6 +88,8 @@ public class NodeData extends Template implements Comparable<NodeData> {
     private boolean isUncachable;
     private boolean isNodeBound;
     private boolean generateUncached;
+    private int startUncachedThreshold;
+    private boolean generateInline;
     private Set<String> allowedCheckedExceptions;
     private Map<CacheExpression, String> sharedCaches = Collections.emptyMap();
 
@@ -150,6 +152,33 @@ public class NodeData extends Template implements Comparable<NodeData> {
         return generateUncached;
     }
 
+    public void setStartUncachedThreshold(int startUncachedThreshold) {
+        this.startUncachedThreshold = startUncachedThreshold;
+    }
+
+    /**
+     * Returns the number of uncached executions before the node specializes, or zero if the node
+     * does not start uncached.
+     */
+    public int getStartUncachedThreshold() {
+        return startUncachedThreshold;
+    }
+
+    public boolean isStartUncached() {
+        return startUncachedThreshold != 0;
+    }
+
+    public void setGenerateInline(boolean generateInline) {
+        this.generateInline = generateInline;
+    }
+
+    /**
+     * Returns true if cached uses of this node may be inlined into the generated parent node.
+     */
+    public boolean isGenerateInline() {
+        return generateInline;
+    }
+
     /**
      * Returns true if the node is uncachable. It is uncachable if it does not require any state to
      * be implemented. For example inline caches are uncachable.
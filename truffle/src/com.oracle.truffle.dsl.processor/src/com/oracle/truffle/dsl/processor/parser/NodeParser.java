@@ -115,6 +115,7 @@ import com.oracle.truffle.dsl.processor.expression.DSLExpression.Negate;
 import com.oracle.truffle.dsl.processor.expression.DSLExpression.Variable;
 import com.oracle.truffle.dsl.processor.expression.DSLExpressionResolver;
 import com.oracle.truffle.dsl.processor.expression.InvalidExpressionException;
+import com.oracle.truffle.dsl.processor.generator.GeneratorUtils;
 import com.oracle.truffle.dsl.processor.generator.NodeCodeGenerator;
 import com.oracle.truffle.dsl.processor.generator.NodeFactoryFactory;
 import com.oracle.truffle.dsl.processor.java.ElementUtils;
@@ -352,6 +353,9 @@ public final class NodeParser extends AbstractParser<NodeData> {
         }
 
         initializeUncachable(node);
+        initializeStartUncached(node);
+        initializeInlinable(node);
+        initializeInlinedCaches(node);
         initializeAOT(node);
 
         if (mode == ParseMode.DEFAULT) {
@@ -705,6 +709,130 @@ public final class NodeParser extends AbstractParser<NodeData> {
         node.setNodeBound(nodeBound);
     }
 
+    private void initializeStartUncached(NodeData node) {
+        if (!node.isStartUncached()) {
+            return;
+        }
+        String annotationName = types.StartUncached.asElement().getSimpleName().toString();
+        for (SpecializationData specialization : node.computeUncachedSpecializations(node.getSpecializations())) {
+            if (!specialization.isReachable()) {
+                continue;
+            }
+            for (CacheExpression cache : specialization.getCaches()) {
+                if (cache.getUncachedExpression() == null) {
+                    cache.addError("Failed to generate code for @%s: The specialization uses @%s without valid uncached expression. %s. " +
+                                    "To resolve this specify the uncached or allowUncached attribute in @%s.",
+                                    annotationName,
+                                    types.Cached.asElement().getSimpleName().toString(),
+                                    cache.getUncachedExpresionError() != null ? cache.getUncachedExpresionError().getText() : "",
+                                    types.Cached.asElement().getSimpleName().toString());
+                    break;
+                }
+            }
+            if (!specialization.getExceptions().isEmpty()) {
+                specialization.addError(getAnnotationValue(specialization.getMarkerAnnotation(), "rewriteOn"),
+                                "Failed to generate code for @%s: The specialization rewrites on exceptions and there is no specialization that replaces it. " +
+                                                "Add a replaces=\"%s\" class to specialization below to resolve this problem.",
+                                annotationName, specialization.getMethodName());
+            }
+        }
+    }
+
+    private void initializeInlinable(NodeData node) {
+        AnnotationMirror generateInline = findAnnotationMirror(node.getTemplateType().getAnnotationMirrors(), types.GenerateInline);
+        if (generateInline == null || !getAnnotationValue(Boolean.class, generateInline, "value")) {
+            return;
+        }
+        String annotationName = types.GenerateInline.asElement().getSimpleName().toString();
+        if (!node.getChildren().isEmpty() || !node.getFields().isEmpty()) {
+            node.addError(generateInline, null, "Failed to generate code for @%s: The node must not declare any %s or %s annotations. " +
+                            "Pass the values as execute method parameters to resolve this.",
+                            annotationName, types.NodeChild.asElement().getSimpleName().toString(), types.NodeField.asElement().getSimpleName().toString());
+        }
+        TypeElement type = node.getTemplateType();
+        outer: while (type != null) {
+            if (ElementUtils.typeEquals(type.asType(), types.Node)) {
+                break;
+            }
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                if (!field.getModifiers().contains(Modifier.STATIC)) {
+                    node.addError(generateInline, null, "Failed to generate code for @%s: The node must not declare any instance variables. " +
+                                    "Found instance variable %s.%s. Remove instance variable to resolve this.",
+                                    annotationName, getSimpleName(field.getEnclosingElement().asType()), field.getSimpleName().toString());
+                    break outer;
+                }
+            }
+            type = ElementUtils.getSuperType(type);
+        }
+        for (ExecutableElement constructor : GeneratorUtils.findUserConstructors(node.getTemplateType().asType())) {
+            if (!constructor.getParameters().isEmpty()) {
+                node.addError(generateInline, null, "Failed to generate code for @%s: The node must only declare constructors without parameters. " +
+                                "Remove the constructor parameters to resolve this.", annotationName);
+                break;
+            }
+        }
+        List<DeclaredType> unsupported = new ArrayList<>();
+        if (node.isReportPolymorphism()) {
+            unsupported.add(types.ReportPolymorphism);
+        }
+        if (node.isGenerateAOT()) {
+            unsupported.add(types.GenerateAOT);
+        }
+        if (node.isGenerateIntrospection()) {
+            unsupported.add(types.Introspectable);
+        }
+        if (node.isStartUncached()) {
+            unsupported.add(types.StartUncached);
+        }
+        for (DeclaredType annotation : unsupported) {
+            node.addError(generateInline, null, "Failed to generate code for @%s: The node must not be annotated with @%s.",
+                            annotationName, annotation.asElement().getSimpleName().toString());
+        }
+        for (ExecutableTypeData executableType : node.getExecutableTypes()) {
+            if (executableType.getMethod() == null) {
+                continue;
+            }
+            List<TypeMirror> parameters = executableType.getEvaluatedParameters();
+            if (parameters.isEmpty() || !ElementUtils.typeEquals(parameters.get(0), types.Node)) {
+                executableType.addError("Failed to generate code for @%s: The execute method must declare a first parameter of type %s. " +
+                                "Add a %s parameter that receives the node the inlined node is used by to resolve this.",
+                                annotationName, getSimpleName(types.Node), getSimpleName(types.Node));
+            }
+        }
+        for (SpecializationData specialization : node.getSpecializations()) {
+            if (!specialization.isReachable() || !specialization.isSpecialized()) {
+                continue;
+            }
+            for (CacheExpression cache : specialization.getCaches()) {
+                if (!cache.isBind()) {
+                    cache.addError("Failed to generate code for @%s: The specialization uses @%s, which requires a field in the inlined node. " +
+                                    "Only @%s parameters are supported for inlined nodes.",
+                                    annotationName, getSimpleName(cache.getMessageAnnotation().getAnnotationType()), types.Bind.asElement().getSimpleName().toString());
+                }
+            }
+            if (!specialization.getAssumptionExpressions().isEmpty()) {
+                specialization.addError("Failed to generate code for @%s: The specialization uses assumptions, which require a field in the inlined node. " +
+                                "Remove the assumptions to resolve this.", annotationName);
+            }
+        }
+        node.setGenerateInline(!node.hasErrors());
+    }
+
+    /*
+     * Inlined caches store their state in the generated node class, which is only possible if
+     * there is a single instance of the specialization and the cache is not shared.
+     */
+    private static void initializeInlinedCaches(NodeData node) {
+        for (SpecializationData specialization : node.getSpecializations()) {
+            for (CacheExpression cache : specialization.getCaches()) {
+                if (cache.getInlinedNode() != null && (specialization.getMaximumNumberOfInstances() > 1 || cache.getSharedGroup() != null)) {
+                    cache.setInlinedNode(null);
+                    cache.setAlwaysInitialized(false);
+                }
+            }
+        }
+    }
+
     private void initializeUncachable(NodeData node) {
         AnnotationMirror generateUncached = findAnnotationMirror(node.getTemplateType().getAnnotationMirrors(), types.GenerateUncached);
 
@@ -1157,7 +1285,27 @@ public final class NodeParser extends AbstractParser<NodeData> {
         } else {
             generateUncached = false;
         }
-        return new NodeData(context, templateType, typeSystem, useNodeFactory, generateUncached);
+
+        AnnotationMirror startUncachedMirror = null;
+        needsInherit = false;
+        for (Element element : typeHierarchy) {
+            AnnotationMirror mirror = findAnnotationMirror(element, types.StartUncached);
+            if (mirror != null) {
+                startUncachedMirror = mirror;
+                break;
+            }
+            needsInherit = true;
+        }
+        NodeData nodeData = new NodeData(context, templateType, typeSystem, useNodeFactory, generateUncached);
+        if (startUncachedMirror != null && (!needsInherit || ElementUtils.getAnnotationValue(Boolean.class, startUncachedMirror, "inherit"))) {
+            int threshold = ElementUtils.getAnnotationValue(Integer.class, startUncachedMirror, "threshold");
+            if (threshold <= 0) {
+                nodeData.addError(startUncachedMirror, null, "The threshold of @%s must be greater than zero.", types.StartUncached.asElement().getSimpleName().toString());
+            } else {
+                nodeData.setStartUncachedThreshold(threshold);
+            }
+        }
+        return nodeData;
 
     }
 
@@ -2642,7 +2790,7 @@ public final class NodeParser extends AbstractParser<NodeData> {
         if (!cache.hasErrors()) {
             cache.setDefaultExpression(parseCachedExpression(resolver, cache, parameter.getType(), initializer));
         }
-        boolean requireUncached = specialization.getNode().isGenerateUncached() || mode == ParseMode.EXPORTED_MESSAGE;
+        boolean requireUncached = specialization.getNode().isGenerateUncached() || specialization.getNode().isStartUncached() || mode == ParseMode.EXPORTED_MESSAGE;
         if (cache.hasErrors()) {
             return; // error sync point
         }
@@ -2683,6 +2831,48 @@ public final class NodeParser extends AbstractParser<NodeData> {
             }
         }
         cache.setAdopt(getAnnotationValue(Boolean.class, cachedAnnotation, "adopt", true));
+
+        if (mode == ParseMode.DEFAULT && !specialization.getNode().isGenerateAOT() && getAnnotationValue(cachedAnnotation, "value", false) == null &&
+                        !getAnnotationValue(Boolean.class, cachedAnnotation, "weak") && !cache.hasErrors()) {
+            NodeData inlinedNode = parseInlinedNode(specialization.getNode(), parameter.getType());
+            if (inlinedNode != null) {
+                cache.setInlinedNode(inlinedNode);
+                cache.setAlwaysInitialized(true);
+            }
+        }
+    }
+
+    private static class InlinedNodeCacheKey {
+    }
+
+    /*
+     * Returns the fully parsed node of an inlinable cached node type, or null if the type cannot be
+     * inlined into the given node.
+     */
+    private NodeData parseInlinedNode(NodeData node, TypeMirror nodeType) {
+        if (nodeOnly || nodeType.getKind() != TypeKind.DECLARED || !NodeCodeGenerator.isSpecializedNode(nodeType)) {
+            return null;
+        }
+        TypeElement element = ElementUtils.castTypeElement(nodeType);
+        AnnotationMirror generateInline = findAnnotationMirror(element.getAnnotationMirrors(), types.GenerateInline);
+        if (generateInline == null || !getAnnotationValue(Boolean.class, generateInline, "value")) {
+            return null;
+        }
+        if (!ElementUtils.getPackageName(element).equals(ElementUtils.getPackageName(node.getTemplateType()))) {
+            return null;
+        }
+        Map<TypeMirror, NodeData> cache = ProcessorContext.getInstance().getCacheMap(InlinedNodeCacheKey.class);
+        if (cache.containsKey(nodeType)) {
+            return cache.get(nodeType);
+        }
+        // nodes currently being parsed are not inlined
+        cache.put(nodeType, null);
+        NodeData parsedNode = NodeParser.createDefaultParser().parse(element);
+        if (parsedNode == null || parsedNode.hasErrors() || !parsedNode.isGenerateInline()) {
+            parsedNode = null;
+        }
+        cache.put(nodeType, parsedNode);
+        return parsedNode;
     }
 
     private static class FactoryMethodCacheKey {
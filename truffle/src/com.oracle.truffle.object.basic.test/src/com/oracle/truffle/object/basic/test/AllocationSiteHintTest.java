@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.DynamicObjectLibrary;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.api.test.AbstractParametrizedLibraryTest;
+import com.oracle.truffle.object.ShapeImpl;
+
+@RunWith(Parameterized.class)
+public class AllocationSiteHintTest extends AbstractParametrizedLibraryTest {
+
+    private static final int PROPERTIES = 20;
+
+    @Parameters(name = "{0}")
+    public static List<TestRun> data() {
+        return Arrays.asList(TestRun.values());
+    }
+
+    final Shape rootShape = Shape.newBuilder().layout(TestDynamicObjectMinimal.class).build();
+
+    private void fill(DynamicObject obj) {
+        DynamicObjectLibrary lib = createLibrary(DynamicObjectLibrary.class, obj);
+        for (int i = 0; i < PROPERTIES; i++) {
+            lib.put(obj, "o" + i, "value" + i);
+            lib.put(obj, "i" + i, i);
+            lib.put(obj, "d" + i, i + 0.5);
+        }
+    }
+
+    private static void verify(DynamicObject obj) {
+        DynamicObjectLibrary lib = DynamicObjectLibrary.getUncached();
+        for (int i = 0; i < PROPERTIES; i++) {
+            assertEquals("value" + i, lib.getOrDefault(obj, "o" + i, null));
+            assertEquals(i, lib.getOrDefault(obj, "i" + i, null));
+            assertEquals(i + 0.5, lib.getOrDefault(obj, "d" + i, null));
+        }
+    }
+
+    private static int arrayLength(DynamicObject obj, String name) {
+        try {
+            Field field = DynamicObject.class.getDeclaredField(name);
+            field.setAccessible(true);
+            Object array = field.get(obj);
+            return array == null ? 0 : Array.getLength(array);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void testPreSizedExtensionArrays() {
+        DynamicObject first = new TestDynamicObjectMinimal(rootShape);
+        fill(first);
+        verify(first);
+
+        DynamicObject second = new TestDynamicObjectMinimal(rootShape);
+        DynamicObjectLibrary lib = createLibrary(DynamicObjectLibrary.class, second);
+        lib.put(second, "o0", "value0");
+        lib.put(second, "i0", 0);
+        // the first extension arrays are allocated with the capacity reached by the first object
+        assertEquals(arrayLength(first, "extRef"), arrayLength(second, "extRef"));
+        assertEquals(arrayLength(first, "extVal"), arrayLength(second, "extVal"));
+
+        fill(second);
+        verify(second);
+        assertEquals(first.getShape(), second.getShape());
+    }
+
+    @Test
+    public void testRemoveFromPreSizedObject() {
+        DynamicObject first = new TestDynamicObjectMinimal(rootShape);
+        fill(first);
+
+        DynamicObject second = new TestDynamicObjectMinimal(rootShape);
+        fill(second);
+        Map<Object, Object> archive = DOTestAsserts.archive(second);
+
+        DynamicObjectLibrary lib = createLibrary(DynamicObjectLibrary.class, second);
+        for (int i = 0; i < PROPERTIES; i += 2) {
+            assertTrue(lib.removeKey(second, "o" + i));
+            assertTrue(lib.removeKey(second, "i" + i));
+            archive.remove("o" + i);
+            archive.remove("i" + i);
+        }
+        DOTestAsserts.verifyValues(second, archive);
+        assertEquals(archive.size(), lib.getKeyArray(second).length);
+    }
+
+    @Test
+    public void testGrowClearsPreSizedArray() throws ReflectiveOperationException {
+        DynamicObject first = new TestDynamicObjectMinimal(rootShape);
+        fill(first);
+
+        DynamicObject second = new TestDynamicObjectMinimal(rootShape);
+        DynamicObjectLibrary lib = createLibrary(DynamicObjectLibrary.class, second);
+        lib.put(second, "o0", "value0");
+        Field field = DynamicObject.class.getDeclaredField("extRef");
+        field.setAccessible(true);
+        Object[] extRef = (Object[]) field.get(second);
+        // simulate values left behind by earlier shapes in the unused part of the array
+        Object stale = new Object();
+        ShapeImpl shape = (ShapeImpl) second.getShape();
+        int initialCapacity = shape.getObjectArrayCapacity();
+        Arrays.fill(extRef, shape.getObjectArraySize(), extRef.length, stale);
+
+        for (int i = 1; shape.getObjectArrayCapacity() == initialCapacity; i++) {
+            lib.put(second, "o" + i, "value" + i);
+            shape = (ShapeImpl) second.getShape();
+        }
+        assertSame(extRef, field.get(second));
+        for (int i = shape.getObjectArraySize(); i < shape.getObjectArrayCapacity(); i++) {
+            assertNull(extRef[i]);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.api.test.GCUtils;
+import com.oracle.truffle.object.ShapeImpl;
+import com.oracle.truffle.object.Transition;
+
+@SuppressWarnings("deprecation")
+public class ShapeTransitionTest {
+    private static final com.oracle.truffle.api.object.Layout LAYOUT = com.oracle.truffle.api.object.Layout.createLayout();
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> newTransitionMap() throws ReflectiveOperationException {
+        Constructor<?> constructor = Class.forName("com.oracle.truffle.object.TransitionMap").getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return (Map<Object, Object>) constructor.newInstance();
+    }
+
+    @Test
+    public void testTransitionMapSize() throws ReflectiveOperationException {
+        Map<Object, Object> map = newTransitionMap();
+        Object key1 = new Object();
+        Object value1 = new Object();
+        Object key2 = new Object();
+        Object value2 = new Object();
+        map.put(key1, value1);
+        map.put(key2, value2);
+        assertEquals(2, map.size());
+
+        WeakReference<Object> value2Ref = new WeakReference<>(value2);
+        WeakReference<Object> key2Ref = new WeakReference<>(key2);
+        value2 = null;
+        key2 = null;
+        GCUtils.assertGc("value must be collected", value2Ref);
+        // the size only counts live values and expunges the stale entry
+        assertEquals(1, map.size());
+        GCUtils.assertGc("key of a stale entry must be released", key2Ref);
+        assertSame(value1, map.get(key1));
+    }
+
+    @Test
+    public void testTransitionMapExpungedOnGet() throws ReflectiveOperationException {
+        Map<Object, Object> map = newTransitionMap();
+        Object key1 = new Object();
+        Object value1 = new Object();
+        Object key2 = new Object();
+        Object value2 = new Object();
+        map.put(key1, value1);
+        map.put(key2, value2);
+
+        WeakReference<Object> value2Ref = new WeakReference<>(value2);
+        WeakReference<Object> key2Ref = new WeakReference<>(key2);
+        value2 = null;
+        key2 = null;
+        GCUtils.assertGc("value must be collected", value2Ref);
+        assertSame(value1, map.get(key1));
+        GCUtils.assertGc("key of a stale entry must be released", key2Ref);
+    }
+
+    @Test
+    public void testSingleEntryCleared() {
+        Shape rootShape = LAYOUT.createShape(new ObjectType());
+        Object key = new Object();
+        Shape successor = rootShape.defineProperty(key, 42, 0);
+        WeakReference<Object> keyRef = new WeakReference<>(key);
+        WeakReference<Shape> successorRef = new WeakReference<>(successor);
+        key = null;
+        successor = null;
+        GCUtils.assertGc("successor shape must be collected", successorRef);
+
+        // a lookup clears the transition to the collected successor
+        assertNull(((ShapeImpl) rootShape).queryTransition(new Transition.AddPropertyTransition("other", 0, int.class)));
+        GCUtils.assertGc("transition key must be released", keyRef);
+        assertTrue(((ShapeImpl) rootShape).getTransitionMapForRead().isEmpty());
+    }
+
+    @Test
+    public void testShapeTreeStats() throws ReflectiveOperationException {
+        Shape rootShape = LAYOUT.createShape(new ObjectType());
+        Shape a = rootShape.defineProperty("a", 1, 0);
+        Shape ab = a.defineProperty("b", 2, 0);
+        Shape b = rootShape.defineProperty("b", 2, 0);
+
+        Class<?> statsClass = Class.forName("com.oracle.truffle.object.ShapeProfiler$ShapeTreeStats");
+        Constructor<?> constructor = statsClass.getDeclaredConstructor(String.class);
+        constructor.setAccessible(true);
+        Object stats = constructor.newInstance("test trees");
+        Method profile = statsClass.getDeclaredMethod("profile", ShapeImpl.class);
+        profile.setAccessible(true);
+        profile.invoke(stats, rootShape);
+        Method dump = statsClass.getDeclaredMethod("dump", PrintWriter.class);
+        dump.setAccessible(true);
+        StringWriter output = new StringWriter();
+        dump.invoke(stats, new PrintWriter(output));
+
+        String dumped = output.toString();
+        assertTrue(dumped, dumped.contains("* test trees\n"));
+        assertTrue(dumped, dumped.contains("* Shape trees:\t1\n"));
+        assertTrue(dumped, dumped.contains("* Total shapes:\t4\n"));
+        assertTrue(dumped, dumped.contains("* Total invalid shapes:\t0\n"));
+        assertTrue(dumped, dumped.contains("* Total leaf shapes:\t2\n"));
+        assertTrue(dumped, dumped.contains("* Total branching shapes:\t1\n"));
+        assertTrue(dumped, dumped.contains("* Total transitions:\t3\n"));
+        assertTrue(dumped, dumped.contains("* Maximum tree depth:\t2\n"));
+        assertTrue(dumped, dumped.contains("* Maximum transitions per shape:\t2\n"));
+        assertTrue(dumped, dumped.contains("* Maximum property count:\t2\n"));
+        // keep alive
+        assertEquals(2, ab.getPropertyCount());
+        assertEquals(1, b.getPropertyCount());
+    }
+}
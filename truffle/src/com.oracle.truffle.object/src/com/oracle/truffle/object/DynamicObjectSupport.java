@@ -42,10 +42,12 @@ package com.oracle.truffle.object;
 
 import static com.oracle.truffle.object.LayoutImpl.ACCESS;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.DynamicObjectLibrary;
@@ -92,10 +94,19 @@ final class DynamicObjectSupport {
         int sourceCapacity = getObjectArrayCapacity(oldShape);
         int destinationCapacity = getObjectArrayCapacity(newShape);
         if (sourceCapacity < destinationCapacity) {
-            Object[] newObjectStore = new Object[destinationCapacity];
+            Object[] oldObjectStore = ACCESS.getObjectArray(object);
+            if (oldObjectStore != null && oldObjectStore.length >= destinationCapacity) {
+                // pre-sized according to the allocation site hint, clear slots of earlier shapes
+                Arrays.fill(oldObjectStore, getObjectArraySize(oldShape), destinationCapacity, null);
+                return;
+            }
+            int newCapacity = destinationCapacity;
+            if (ObjectStorageOptions.AllocationSiteHints && CompilerDirectives.inInterpreter()) {
+                newCapacity = objectArrayAllocationCapacity(object, (ShapeImpl) oldShape, sourceCapacity, destinationCapacity);
+            }
+            Object[] newObjectStore = new Object[newCapacity];
             if (sourceCapacity != 0) {
                 int sourceSize = getObjectArraySize(oldShape);
-                Object[] oldObjectStore = ACCESS.getObjectArray(object);
                 ACCESS.arrayCopy(oldObjectStore, newObjectStore, sourceSize);
             }
             ACCESS.setObjectArray(object, newObjectStore);
@@ -126,16 +137,54 @@ final class DynamicObjectSupport {
         int sourceCapacity = getPrimitiveArrayCapacity(oldShape);
         int destinationCapacity = getPrimitiveArrayCapacity(newShape);
         if (sourceCapacity < destinationCapacity) {
-            int[] newPrimitiveArray = new int[destinationCapacity];
+            int[] oldPrimitiveArray = ACCESS.getPrimitiveArray(object);
+            if (oldPrimitiveArray != null && oldPrimitiveArray.length >= destinationCapacity) {
+                // pre-sized according to the allocation site hint, clear slots of earlier shapes
+                Arrays.fill(oldPrimitiveArray, getPrimitiveArraySize(oldShape), destinationCapacity, 0);
+                return;
+            }
+            int newCapacity = destinationCapacity;
+            if (ObjectStorageOptions.AllocationSiteHints && CompilerDirectives.inInterpreter()) {
+                newCapacity = primitiveArrayAllocationCapacity(object, (ShapeImpl) oldShape, sourceCapacity, destinationCapacity);
+            }
+            int[] newPrimitiveArray = new int[newCapacity];
             if (sourceCapacity != 0) {
                 int sourceSize = getPrimitiveArraySize(oldShape);
-                int[] oldPrimitiveArray = ACCESS.getPrimitiveArray(object);
                 ACCESS.arrayCopy(oldPrimitiveArray, newPrimitiveArray, sourceSize);
             }
             ACCESS.setPrimitiveArray(object, newPrimitiveArray);
         }
     }
 
+    /*
+     * Records the capacity an object grows to at the shape its extension array was first allocated
+     * from, and returns the capacity to allocate. Objects allocating their first extension array
+     * are pre-sized to the capacity earlier objects eventually needed, which saves the intermediate
+     * growth steps. Legacy objects require the array length to match the shape's capacity.
+     *
+     * Only consulted in the interpreter so that compiled code allocates arrays of the constant
+     * capacity of the new shape, which keeps them virtualizable.
+     */
+    private static int objectArrayAllocationCapacity(DynamicObject object, ShapeImpl oldShape, int sourceCapacity, int destinationCapacity) {
+        ShapeImpl site = oldShape.getObjectArrayAllocationSite();
+        int hint = site.getObjectArrayCapacityHint();
+        site.updateObjectArrayCapacityHint(destinationCapacity);
+        if (sourceCapacity == 0 && !(object instanceof DynamicObjectImpl)) {
+            return Math.max(destinationCapacity, hint);
+        }
+        return destinationCapacity;
+    }
+
+    private static int primitiveArrayAllocationCapacity(DynamicObject object, ShapeImpl oldShape, int sourceCapacity, int destinationCapacity) {
+        ShapeImpl site = oldShape.getPrimitiveArrayAllocationSite();
+        int hint = site.getPrimitiveArrayCapacityHint();
+        site.updatePrimitiveArrayCapacityHint(destinationCapacity);
+        if (sourceCapacity == 0 && !(object instanceof DynamicObjectImpl)) {
+            return Math.max(destinationCapacity, hint);
+        }
+        return destinationCapacity;
+    }
+
     private static void resizePrimitiveStore(DynamicObject object, Shape oldShape, Shape newShape) {
         assert hasPrimitiveArray(newShape);
         int destinationCapacity = getPrimitiveArrayCapacity(newShape);
@@ -70,6 +70,13 @@ public final class ObjectStorageOptions {
 
     static final boolean TriePropertyMap = booleanOption(OPTION_PREFIX + "TriePropertyMap", true);
 
+    /**
+     * Pre-size extension arrays of objects based on the capacities reached by earlier objects
+     * taking the same shape transitions.
+     */
+    static final boolean AllocationSiteHints = booleanOption(OPTION_PREFIX + "AllocationSiteHints", true);
+    static final int MaxAllocationSiteHint = Integer.getInteger(OPTION_PREFIX + "MaxAllocationSiteHint", 128);
+
     // Debug options (should be final)
     /** @since 0.17 or earlier */
     public static final boolean TraceReshape = booleanOption(OPTION_PREFIX + "TraceReshape", false);
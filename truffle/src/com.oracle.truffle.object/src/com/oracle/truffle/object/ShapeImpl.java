@@ -52,6 +52,7 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -127,6 +128,13 @@ public abstract class ShapeImpl extends Shape {
     /** @since 0.17 or earlier */
     protected final boolean hasPrimitiveArray;
 
+    /*
+     * Allocation site hints: the extension array capacities eventually reached by objects that
+     * allocated their first extension array when leaving this shape. Only grows.
+     */
+    private volatile int objectArrayCapacityHint;
+    private volatile int primitiveArrayCapacityHint;
+
     /** @since 0.17 or earlier */
     protected final int depth;
     /** @since 0.17 or earlier */
@@ -158,6 +166,10 @@ public abstract class ShapeImpl extends Shape {
     private static final AtomicReferenceFieldUpdater<ShapeImpl, Assumption> LEAF_ASSUMPTION_UPDATER = AtomicReferenceFieldUpdater.newUpdater(ShapeImpl.class, Assumption.class, "leafAssumption");
     private static final AtomicReferenceFieldUpdater<ShapeImpl, PropertyAssumptions> PROPERTY_ASSUMPTIONS_UPDATER = //
                     AtomicReferenceFieldUpdater.newUpdater(ShapeImpl.class, PropertyAssumptions.class, "sharedPropertyAssumptions");
+    private static final AtomicIntegerFieldUpdater<ShapeImpl> OBJECT_ARRAY_CAPACITY_HINT_UPDATER = //
+                    AtomicIntegerFieldUpdater.newUpdater(ShapeImpl.class, "objectArrayCapacityHint");
+    private static final AtomicIntegerFieldUpdater<ShapeImpl> PRIMITIVE_ARRAY_CAPACITY_HINT_UPDATER = //
+                    AtomicIntegerFieldUpdater.newUpdater(ShapeImpl.class, "primitiveArrayCapacityHint");
 
     /** Shared shape flag. */
     protected static final int FLAG_SHARED_SHAPE = 1 << 16;
@@ -221,6 +233,9 @@ public abstract class ShapeImpl extends Shape {
         if (ObjectStorageOptions.DumpShapes) {
             Debug.trackShape(this);
         }
+        if (ObjectStorageOptions.Profile && parent == null) {
+            ShapeProfiler.getInstance().trackRootShape(this);
+        }
     }
 
     /** @since 0.17 or earlier */
@@ -331,6 +346,57 @@ public abstract class ShapeImpl extends Shape {
         return primitiveArrayCapacity;
     }
 
+    final int getObjectArrayCapacityHint() {
+        return objectArrayCapacityHint;
+    }
+
+    final int getPrimitiveArrayCapacityHint() {
+        return primitiveArrayCapacityHint;
+    }
+
+    final void updateObjectArrayCapacityHint(int capacity) {
+        updateCapacityHint(OBJECT_ARRAY_CAPACITY_HINT_UPDATER, capacity);
+    }
+
+    final void updatePrimitiveArrayCapacityHint(int capacity) {
+        updateCapacityHint(PRIMITIVE_ARRAY_CAPACITY_HINT_UPDATER, capacity);
+    }
+
+    private void updateCapacityHint(AtomicIntegerFieldUpdater<ShapeImpl> updater, int capacity) {
+        int newHint = Math.min(capacity, ObjectStorageOptions.MaxAllocationSiteHint);
+        int oldHint;
+        do {
+            oldHint = updater.get(this);
+            if (newHint <= oldHint) {
+                return;
+            }
+        } while (!updater.compareAndSet(this, oldHint, newHint));
+    }
+
+    /**
+     * Returns the shape from which objects with this shape allocated their object extension array,
+     * i.e. the closest ancestor without one.
+     */
+    final ShapeImpl getObjectArrayAllocationSite() {
+        ShapeImpl site = this;
+        while (site.objectArrayCapacity != 0 && site.parent != null) {
+            site = site.parent;
+        }
+        return site;
+    }
+
+    /**
+     * Returns the shape from which objects with this shape allocated their primitive extension
+     * array, i.e. the closest ancestor without one.
+     */
+    final ShapeImpl getPrimitiveArrayAllocationSite() {
+        ShapeImpl site = this;
+        while (site.primitiveArrayCapacity != 0 && site.parent != null) {
+            site = site.parent;
+        }
+        return site;
+    }
+
     /** @since 0.17 or earlier */
     public final int getPrimitiveArraySize() {
         return primitiveArraySize;
@@ -512,6 +578,21 @@ public abstract class ShapeImpl extends Shape {
         return null;
     }
 
+    /**
+     * Returns the number of live transitions from this shape.
+     */
+    final int getTransitionCount() {
+        Object trans = transitionMap;
+        if (trans == null) {
+            return 0;
+        } else if (isSingleEntry(trans)) {
+            return asSingleEntry(trans).getValue() != null ? 1 : 0;
+        } else {
+            assert isTransitionMap(trans);
+            return asTransitionMap(trans).size();
+        }
+    }
+
     public final <R> R iterateTransitions(BiFunction<Transition, ShapeImpl, R> consumer) {
         Object trans = transitionMap;
         if (trans == null) {
@@ -42,12 +42,17 @@ package com.oracle.truffle.object;
 
 import java.io.PrintWriter;
 import java.text.DecimalFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
 
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Shape;
@@ -58,15 +63,26 @@ class ShapeProfiler {
     private static final String BULLET = "* ";
     private static final String TOKEN_SEPARATOR = "\t";
     private final ConcurrentLinkedQueue<DynamicObject> queue;
+    /*
+     * Weak, so profiling does not keep otherwise unreachable shape trees alive. Guarded by itself.
+     */
+    private final Set<ShapeImpl> rootShapes;
 
     ShapeProfiler() {
         queue = new ConcurrentLinkedQueue<>();
+        rootShapes = Collections.newSetFromMap(new WeakHashMap<>());
     }
 
     public void track(DynamicObject obj) {
         queue.add(obj);
     }
 
+    public void trackRootShape(ShapeImpl rootShape) {
+        synchronized (rootShapes) {
+            rootShapes.add(rootShape);
+        }
+    }
+
     public void dump(PrintWriter out) {
         ShapeStats globalStats = new ShapeStats("Cumulative results for all shapes");
         for (DynamicObject obj : queue) {
@@ -75,6 +91,19 @@ class ShapeProfiler {
         }
 
         globalStats.dump(out);
+        dumpShapeTrees(out);
+    }
+
+    private void dumpShapeTrees(PrintWriter out) {
+        ShapeTreeStats treeStats = new ShapeTreeStats("Shape transition trees");
+        List<ShapeImpl> roots;
+        synchronized (rootShapes) {
+            roots = new ArrayList<>(rootShapes);
+        }
+        for (ShapeImpl rootShape : roots) {
+            treeStats.profile(rootShape);
+        }
+        treeStats.dump(out);
     }
 
     public void dump(PrintWriter out, int topResults) {
@@ -223,6 +252,82 @@ class ShapeProfiler {
         }
     }
 
+    /**
+     * Size metrics of the shape transition trees reachable from the tracked root shapes. Shapes
+     * that have been garbage collected are not included.
+     */
+    private static class ShapeTreeStats {
+        private final String label;
+        private long trees;
+        private long shapes;
+        private long invalidShapes;
+        private long leafShapes;
+        private long branchShapes;
+        private long transitions;
+        private long maxShapes;
+        private int maxDepth;
+        private int maxTransitions;
+        private int maxPropertyCount;
+
+        ShapeTreeStats(String label) {
+            this.label = label;
+        }
+
+        public void profile(ShapeImpl rootShape) {
+            Set<ShapeImpl> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            Deque<ShapeImpl> worklist = new ArrayDeque<>();
+            worklist.push(rootShape);
+            visited.add(rootShape);
+            while (!worklist.isEmpty()) {
+                ShapeImpl shape = worklist.pop();
+                int transitionCount = shape.getTransitionCount();
+                if (!shape.isValid()) {
+                    invalidShapes++;
+                }
+                if (transitionCount == 0) {
+                    leafShapes++;
+                } else if (transitionCount > 1) {
+                    branchShapes++;
+                }
+                transitions += transitionCount;
+                maxTransitions = Math.max(maxTransitions, transitionCount);
+                maxDepth = Math.max(maxDepth, shape.getDepth());
+                maxPropertyCount = Math.max(maxPropertyCount, shape.getPropertyCount());
+                shape.forEachTransition(new BiConsumer<Transition, ShapeImpl>() {
+                    @Override
+                    public void accept(Transition transition, ShapeImpl successor) {
+                        if (visited.add(successor)) {
+                            worklist.push(successor);
+                        }
+                    }
+                });
+            }
+            trees++;
+            shapes += visited.size();
+            maxShapes = Math.max(maxShapes, visited.size());
+        }
+
+        public void dump(PrintWriter out) {
+            DecimalFormat format = new DecimalFormat("###.####");
+            out.println(LINE_SEPARATOR);
+            out.println(BULLET + label);
+            out.println(LINE_SEPARATOR);
+            out.println(BULLET + "Shape trees:\t" + trees);
+            out.println(BULLET + "Total shapes:\t" + shapes);
+            out.println(BULLET + "Total invalid shapes:\t" + invalidShapes);
+            out.println(BULLET + "Total leaf shapes:\t" + leafShapes);
+            out.println(BULLET + "Total branching shapes:\t" + branchShapes);
+            out.println(BULLET + "Total transitions:\t" + transitions);
+            out.println(BULLET + "Average shapes per tree:\t" + format.format(trees == 0 ? 0 : (double) shapes / trees));
+            out.println(BULLET + "Maximum shapes per tree:\t" + maxShapes);
+            out.println(BULLET + "Maximum tree depth:\t" + maxDepth);
+            out.println(BULLET + "Maximum transitions per shape:\t" + maxTransitions);
+            out.println(BULLET + "Maximum property count:\t" + maxPropertyCount);
+            out.println(LINE_SEPARATOR + "\n");
+            out.flush();
+        }
+    }
+
     public static ShapeProfiler getInstance() {
         return shapeProf;
     }
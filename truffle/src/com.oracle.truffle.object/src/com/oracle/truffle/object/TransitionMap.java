@@ -148,9 +148,22 @@ final class TransitionMap<K, V> implements Map<K, V> {
         return null;
     }
 
+    /**
+     * Returns the number of entries whose values have not been garbage collected yet.
+     */
     @Override
     public int size() {
-        throw new UnsupportedOperationException();
+        synchronized (queue) {
+            expungeStaleEntries();
+            int size = 0;
+            MapCursor<K, StrongKeyWeakValueEntry<K, V>> cursor = map.getEntries();
+            while (cursor.advance()) {
+                if (cursor.getValue().get() != null) {
+                    size++;
+                }
+            }
+            return size;
+        }
     }
 
     @Override
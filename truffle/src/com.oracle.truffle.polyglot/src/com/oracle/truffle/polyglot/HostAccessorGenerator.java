@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.polyglot;
+
+import static com.oracle.truffle.api.impl.asm.Opcodes.AALOAD;
+import static com.oracle.truffle.api.impl.asm.Opcodes.ACC_FINAL;
+import static com.oracle.truffle.api.impl.asm.Opcodes.ACC_PUBLIC;
+import static com.oracle.truffle.api.impl.asm.Opcodes.ACC_SUPER;
+import static com.oracle.truffle.api.impl.asm.Opcodes.ACONST_NULL;
+import static com.oracle.truffle.api.impl.asm.Opcodes.ALOAD;
+import static com.oracle.truffle.api.impl.asm.Opcodes.ARETURN;
+import static com.oracle.truffle.api.impl.asm.Opcodes.ASTORE;
+import static com.oracle.truffle.api.impl.asm.Opcodes.CHECKCAST;
+import static com.oracle.truffle.api.impl.asm.Opcodes.DUP;
+import static com.oracle.truffle.api.impl.asm.Opcodes.GETFIELD;
+import static com.oracle.truffle.api.impl.asm.Opcodes.GETSTATIC;
+import static com.oracle.truffle.api.impl.asm.Opcodes.INVOKEINTERFACE;
+import static com.oracle.truffle.api.impl.asm.Opcodes.INVOKESPECIAL;
+import static com.oracle.truffle.api.impl.asm.Opcodes.INVOKESTATIC;
+import static com.oracle.truffle.api.impl.asm.Opcodes.INVOKEVIRTUAL;
+import static com.oracle.truffle.api.impl.asm.Opcodes.NEW;
+import static com.oracle.truffle.api.impl.asm.Opcodes.PUTFIELD;
+import static com.oracle.truffle.api.impl.asm.Opcodes.PUTSTATIC;
+import static com.oracle.truffle.api.impl.asm.Opcodes.RETURN;
+import static com.oracle.truffle.api.impl.asm.Opcodes.V1_8;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.SecureClassLoader;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.TruffleOptions;
+import com.oracle.truffle.api.impl.asm.ClassWriter;
+import com.oracle.truffle.api.impl.asm.MethodVisitor;
+import com.oracle.truffle.api.impl.asm.Type;
+
+/**
+ * Generates small bytecode accessor classes for frequently used host methods, constructors and
+ * fields. A generated accessor invokes its member directly with a single {@code invoke*},
+ * {@code get*} or {@code put*} instruction, so that the call is as cheap as a regular Java call in
+ * the interpreter and trivially inlinable by the compiler. Accessors are only generated for members
+ * that are reachable by name and public from the class loader of the declaring class; for all
+ * other members {@code null} is returned and the caller keeps using method handles. Accessors are
+ * generated on a background thread, see {@link #generateLater(Runnable)}, and are only used in the
+ * interpreter. Compiled code keeps using the constant method handles, which the compiler inlines
+ * just as well.
+ * <p>
+ * The number of invocations after which an accessor is generated can be configured with the
+ * {@code polyglotimpl.HostAccessorThreshold} system property. A value less than or equal to zero
+ * disables accessor generation.
+ */
+final class HostAccessorGenerator {
+
+    static final int THRESHOLD = TruffleOptions.AOT ? 0 : Integer.getInteger("polyglotimpl.HostAccessorThreshold", 1000);
+
+    private static final String ACCESSOR_PACKAGE = "com/oracle/truffle/polyglot/hostaccessors/";
+    private static final String OBJECT = Type.getInternalName(Object.class);
+    private static final String OBJECT_DESCRIPTOR = Type.getDescriptor(Object.class);
+    private static final String OBJECT_ARRAY = Type.getInternalName(Object[].class);
+    private static final AtomicInteger nextId = new AtomicInteger();
+    /*
+     * One accessor loader per declaring class loader. The loader is only weakly referenced, it is
+     * kept alive by the accessor classes it defined.
+     */
+    private static final Map<ClassLoader, WeakReference<AccessorClassLoader>> loaders = new WeakHashMap<>();
+    private static ThreadPoolExecutor executor;
+
+    private HostAccessorGenerator() {
+    }
+
+    static boolean isEnabled() {
+        return THRESHOLD > 0;
+    }
+
+    /**
+     * Runs a task generating an accessor on a background thread, so that the guest thread that
+     * made the member hot does not wait for the class to be generated and loaded. The task is
+     * dropped if the thread cannot be started; the member then keeps using method handles.
+     */
+    static void generateLater(Runnable task) {
+        try {
+            getExecutor().execute(task);
+        } catch (Throwable t) {
+            // e.g. a security manager preventing thread creation
+        }
+    }
+
+    private static synchronized ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            ThreadPoolExecutor e = new ThreadPoolExecutor(1, 1, 1L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), (r) -> {
+                Thread t = new Thread(r, "Truffle Host Accessor Generator");
+                t.setDaemon(true);
+                return t;
+            });
+            e.allowCoreThreadTimeOut(true);
+            executor = e;
+        }
+        return executor;
+    }
+
+    /**
+     * Generates an accessor invoking a method or constructor. The accessor takes the receiver and
+     * the argument array. The receiver is ignored for static methods and constructors.
+     */
+    @SuppressWarnings("unchecked")
+    static BiFunction<Object, Object[], Object> generateInvoker(Executable executable) {
+        CompilerAsserts.neverPartOfCompilation();
+        Class<?> declaringClass = executable.getDeclaringClass();
+        Class<?> returnType = executable instanceof Method ? ((Method) executable).getReturnType() : void.class;
+        Class<?>[] parameterTypes = executable.getParameterTypes();
+        Class<?>[] signatureTypes = Arrays.copyOf(parameterTypes, parameterTypes.length + 1);
+        signatureTypes[parameterTypes.length] = returnType;
+        AccessorClassLoader loader = createLoader(declaringClass, executable.getModifiers(), signatureTypes);
+        if (loader == null) {
+            return null;
+        }
+        String className = newClassName(executable.getName());
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, OBJECT, new String[]{Type.getInternalName(BiFunction.class)});
+        generateConstructor(cw);
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "apply", "(" + OBJECT_DESCRIPTOR + OBJECT_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitTypeInsn(CHECKCAST, OBJECT_ARRAY);
+        mv.visitVarInsn(ASTORE, 3);
+        String owner = Type.getInternalName(declaringClass);
+        boolean isInterface = declaringClass.isInterface();
+        if (executable instanceof Constructor<?>) {
+            mv.visitTypeInsn(NEW, owner);
+            mv.visitInsn(DUP);
+            loadArguments(mv, parameterTypes);
+            mv.visitMethodInsn(INVOKESPECIAL, owner, "<init>", Type.getConstructorDescriptor((Constructor<?>) executable), false);
+            returnType = declaringClass;
+        } else {
+            Method method = (Method) executable;
+            String descriptor = Type.getMethodDescriptor(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                loadArguments(mv, parameterTypes);
+                mv.visitMethodInsn(INVOKESTATIC, owner, method.getName(), descriptor, isInterface);
+            } else {
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitTypeInsn(CHECKCAST, owner);
+                loadArguments(mv, parameterTypes);
+                mv.visitMethodInsn(isInterface ? INVOKEINTERFACE : INVOKEVIRTUAL, owner, method.getName(), descriptor, isInterface);
+            }
+        }
+        box(mv, returnType);
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        return (BiFunction<Object, Object[], Object>) instantiate(loader, className, cw.toByteArray());
+    }
+
+    /**
+     * Generates an accessor reading a field. The accessor takes the receiver, which is ignored for
+     * static fields.
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> generateGetter(Field field) {
+        CompilerAsserts.neverPartOfCompilation();
+        Class<?> declaringClass = field.getDeclaringClass();
+        AccessorClassLoader loader = createLoader(declaringClass, field.getModifiers(), field.getType());
+        if (loader == null) {
+            return null;
+        }
+        String className = newClassName(field.getName());
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, OBJECT, new String[]{Type.getInternalName(Function.class)});
+        generateConstructor(cw);
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "apply", "(" + OBJECT_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR, null, null);
+        mv.visitCode();
+        String owner = Type.getInternalName(declaringClass);
+        String descriptor = Type.getDescriptor(field.getType());
+        if (Modifier.isStatic(field.getModifiers())) {
+            mv.visitFieldInsn(GETSTATIC, owner, field.getName(), descriptor);
+        } else {
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitTypeInsn(CHECKCAST, owner);
+            mv.visitFieldInsn(GETFIELD, owner, field.getName(), descriptor);
+        }
+        box(mv, field.getType());
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        return (Function<Object, Object>) instantiate(loader, className, cw.toByteArray());
+    }
+
+    /**
+     * Generates an accessor writing a non-final field. The accessor takes the receiver, which is
+     * ignored for static fields, and the new value.
+     */
+    @SuppressWarnings("unchecked")
+    static BiConsumer<Object, Object> generateSetter(Field field) {
+        CompilerAsserts.neverPartOfCompilation();
+        if (Modifier.isFinal(field.getModifiers())) {
+            return null;
+        }
+        Class<?> declaringClass = field.getDeclaringClass();
+        AccessorClassLoader loader = createLoader(declaringClass, field.getModifiers(), field.getType());
+        if (loader == null) {
+            return null;
+        }
+        String className = newClassName(field.getName());
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, OBJECT, new String[]{Type.getInternalName(BiConsumer.class)});
+        generateConstructor(cw);
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "accept", "(" + OBJECT_DESCRIPTOR + OBJECT_DESCRIPTOR + ")V", null, null);
+        mv.visitCode();
+        String owner = Type.getInternalName(declaringClass);
+        String descriptor = Type.getDescriptor(field.getType());
+        if (Modifier.isStatic(field.getModifiers())) {
+            mv.visitVarInsn(ALOAD, 2);
+            unbox(mv, field.getType());
+            mv.visitFieldInsn(PUTSTATIC, owner, field.getName(), descriptor);
+        } else {
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitTypeInsn(CHECKCAST, owner);
+            mv.visitVarInsn(ALOAD, 2);
+            unbox(mv, field.getType());
+            mv.visitFieldInsn(PUTFIELD, owner, field.getName(), descriptor);
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        return (BiConsumer<Object, Object>) instantiate(loader, className, cw.toByteArray());
+    }
+
+    private static void generateConstructor(ClassWriter cw) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void loadArguments(MethodVisitor mv, Class<?>[] parameterTypes) {
+        for (int i = 0; i < parameterTypes.length; i++) {
+            mv.visitVarInsn(ALOAD, 3);
+            mv.visitLdcInsn(i);
+            mv.visitInsn(AALOAD);
+            unbox(mv, parameterTypes[i]);
+        }
+    }
+
+    private static void unbox(MethodVisitor mv, Class<?> type) {
+        if (type.isPrimitive()) {
+            String boxed = Type.getInternalName(boxedType(type));
+            mv.visitTypeInsn(CHECKCAST, boxed);
+            mv.visitMethodInsn(INVOKEVIRTUAL, boxed, type.getName() + "Value", "()" + Type.getDescriptor(type), false);
+        } else if (type != Object.class) {
+            mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+        }
+    }
+
+    private static void box(MethodVisitor mv, Class<?> type) {
+        if (type == void.class) {
+            mv.visitInsn(ACONST_NULL);
+        } else if (type.isPrimitive()) {
+            Class<?> boxed = boxedType(type);
+            mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(boxed), "valueOf", "(" + Type.getDescriptor(type) + ")" + Type.getDescriptor(boxed), false);
+        }
+    }
+
+    private static Class<?> boxedType(Class<?> type) {
+        if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == char.class) {
+            return Character.class;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == double.class) {
+            return Double.class;
+        }
+        throw new IllegalArgumentException(type.getName());
+    }
+
+    private static String newClassName(String memberName) {
+        StringBuilder name = new StringBuilder(ACCESSOR_PACKAGE).append("HostAccessor$");
+        for (int i = 0; i < memberName.length(); i++) {
+            char c = memberName.charAt(i);
+            name.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        return name.append('$').append(nextId.incrementAndGet()).toString();
+    }
+
+    /**
+     * Returns the loader for an accessor of a member with the given modifiers, or {@code null} if
+     * the member cannot be linked from generated code.
+     */
+    private static AccessorClassLoader createLoader(Class<?> declaringClass, int modifiers, Class<?>... types) {
+        if (!Modifier.isPublic(modifiers)) {
+            return null;
+        }
+        try {
+            AccessorClassLoader loader = getLoader(declaringClass.getClassLoader());
+            Object module = EngineAccessor.JDKSERVICES.getUnnamedModule(loader);
+            if (!isLinkable(loader, module, declaringClass)) {
+                return null;
+            }
+            for (Class<?> type : types) {
+                if (!isLinkable(loader, module, type)) {
+                    return null;
+                }
+            }
+            return loader;
+        } catch (Throwable t) {
+            // e.g. a security manager preventing class loader creation
+            return null;
+        }
+    }
+
+    private static AccessorClassLoader getLoader(ClassLoader parent) {
+        synchronized (loaders) {
+            WeakReference<AccessorClassLoader> ref = loaders.get(parent);
+            AccessorClassLoader loader = ref != null ? ref.get() : null;
+            if (loader == null) {
+                loader = new AccessorClassLoader(parent);
+                loaders.put(parent, new WeakReference<>(loader));
+            }
+            return loader;
+        }
+    }
+
+    private static boolean isLinkable(ClassLoader loader, Object module, Class<?> type) throws ClassNotFoundException {
+        Class<?> elementType = type;
+        while (elementType.isArray()) {
+            elementType = elementType.getComponentType();
+        }
+        if (elementType.isPrimitive()) {
+            return true;
+        }
+        if (!Modifier.isPublic(elementType.getModifiers()) || !EngineAccessor.JDKSERVICES.verifyModuleVisibility(module, elementType)) {
+            return false;
+        }
+        return Class.forName(elementType.getName(), false, loader) == elementType;
+    }
+
+    private static Object instantiate(AccessorClassLoader loader, String className, byte[] bytes) {
+        try {
+            Class<?> accessorClass = loader.define(className.replace('/', '.'), bytes);
+            return accessorClass.getConstructor().newInstance();
+        } catch (Throwable t) {
+            // fall back to method handles
+            return null;
+        }
+    }
+
+    private static final class AccessorClassLoader extends SecureClassLoader {
+
+        AccessorClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length, HostAdapterClassLoader.GENERATED_PROTECTION_DOMAIN);
+        }
+    }
+}
@@ -51,9 +51,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 
 import org.graalvm.collections.EconomicMap;
@@ -75,6 +77,11 @@ final class HostClassDesc {
 
     private final Class<?> type;
     private final HostClassCache cache;
+    private volatile MemberNames memberNames;
+    private final ConcurrentHashMap<String, MethodsByName> methodsByName = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, FieldsByName> fieldsByName = new ConcurrentHashMap<>();
+    private volatile LazyMethod constructor;
+    private volatile LazyMethod functionalMethod;
     private volatile Members members;
     private volatile JNIMembers jniMembers;
     private volatile MethodsBySignature methodsBySignature;
@@ -115,13 +122,86 @@ final class HostClassDesc {
         }
     }
 
+    /**
+     * Names of all public members of a class. Used to answer lookups of unknown names without
+     * reflecting on the class and to bound the number of lazily collected member tables. The public
+     * methods are read once and grouped by name, so collecting the methods of every name takes
+     * linear time.
+     */
+    private static final class MemberNames {
+        final Map<String, List<Method>> methods = new LinkedHashMap<>();
+        final Set<String> fieldNames = new LinkedHashSet<>();
+        /*
+         * Whether a public method is a bridge method or is declared in an inaccessible class, which
+         * requires a search of the supertypes for accessible methods. Static interface methods are
+         * never inherited and therefore ignored.
+         */
+        final boolean allMethodsPublic;
+
+        MemberNames(HostClassCache hostAccess, Class<?> type) {
+            boolean allPublic = true;
+            for (Method m : type.getMethods()) {
+                List<Method> overloads = methods.get(m.getName());
+                if (overloads == null) {
+                    overloads = new ArrayList<>(1);
+                    methods.put(m.getName(), overloads);
+                }
+                overloads.add(m);
+                if (Modifier.isStatic(m.getModifiers()) && Modifier.isInterface(m.getDeclaringClass().getModifiers())) {
+                    continue;
+                }
+                if (m.isBridge() || !Members.isClassAccessible(m.getDeclaringClass(), hostAccess)) {
+                    allPublic = false;
+                }
+            }
+            this.allMethodsPublic = allPublic;
+            for (Field f : type.getFields()) {
+                fieldNames.add(f.getName());
+            }
+        }
+    }
+
+    private static final class MethodsByName {
+        static final MethodsByName NONE = new MethodsByName(null, null);
+
+        final HostMethodDesc method;
+        final HostMethodDesc staticMethod;
+
+        MethodsByName(HostMethodDesc method, HostMethodDesc staticMethod) {
+            this.method = method;
+            this.staticMethod = staticMethod;
+        }
+    }
+
+    private static final class FieldsByName {
+        static final FieldsByName NONE = new FieldsByName(null, null);
+
+        final HostFieldDesc field;
+        final HostFieldDesc staticField;
+
+        FieldsByName(HostFieldDesc field, HostFieldDesc staticField) {
+            this.field = field;
+            this.staticField = staticField;
+        }
+    }
+
+    private static final class LazyMethod {
+        final HostMethodDesc method;
+
+        LazyMethod(HostMethodDesc method) {
+            this.method = method;
+        }
+    }
+
+    /**
+     * Complete member tables of a class. Only needed to enumerate members or to look them up by
+     * signature or JNI name; the entries are shared with the lazily collected per-name tables.
+     */
     private static class Members {
         final Map<String, HostMethodDesc> methods;
         final Map<String, HostMethodDesc> staticMethods;
-        final HostMethodDesc constructor;
         final Map<String, HostFieldDesc> fields;
         final Map<String, HostFieldDesc> staticFields;
-        final HostMethodDesc functionalMethod;
 
         private static final BiFunction<HostMethodDesc, HostMethodDesc, HostMethodDesc> MERGE = new BiFunction<HostMethodDesc, HostMethodDesc, HostMethodDesc>() {
             @Override
@@ -130,38 +210,61 @@ final class HostClassDesc {
             }
         };
 
-        Members(HostClassCache hostAccess, Class<?> type) {
+        Members(HostClassDesc desc) {
             Map<String, HostMethodDesc> methodMap = new LinkedHashMap<>();
             Map<String, HostMethodDesc> staticMethodMap = new LinkedHashMap<>();
             Map<String, HostFieldDesc> fieldMap = new LinkedHashMap<>();
             Map<String, HostFieldDesc> staticFieldMap = new LinkedHashMap<>();
-            HostMethodDesc functionalInterfaceMethod = null;
-
-            collectPublicMethods(hostAccess, type, methodMap, staticMethodMap);
-            collectPublicFields(hostAccess, type, fieldMap, staticFieldMap);
 
-            HostMethodDesc ctor = collectPublicConstructors(hostAccess, type);
-
-            if (!Modifier.isInterface(type.getModifiers()) && !Modifier.isAbstract(type.getModifiers())) {
-                String functionalInterfaceMethodName = findFunctionalInterfaceMethodName(type);
-                if (functionalInterfaceMethodName != null) {
-                    functionalInterfaceMethod = methodMap.get(functionalInterfaceMethodName);
+            MemberNames names = desc.getMemberNames();
+            for (String name : names.methods.keySet()) {
+                MethodsByName byName = desc.getMethodsByName(name);
+                if (byName.method != null) {
+                    methodMap.put(name, byName.method);
+                }
+                if (byName.staticMethod != null) {
+                    staticMethodMap.put(name, byName.staticMethod);
+                }
+            }
+            for (String name : names.fieldNames) {
+                FieldsByName byName = desc.getFieldsByName(name);
+                if (byName.field != null) {
+                    fieldMap.put(name, byName.field);
+                }
+                if (byName.staticField != null) {
+                    staticFieldMap.put(name, byName.staticField);
                 }
             }
 
             this.methods = methodMap;
             this.staticMethods = staticMethodMap;
-            this.constructor = ctor;
             this.fields = fieldMap;
             this.staticFields = staticFieldMap;
-            this.functionalMethod = functionalInterfaceMethod;
         }
 
-        private static boolean isClassAccessible(Class<?> declaringClass, HostClassCache hostAccess) {
+        static MethodsByName collectMethods(HostClassCache hostAccess, Class<?> type, String name) {
+            Map<String, HostMethodDesc> methodMap = new LinkedHashMap<>();
+            Map<String, HostMethodDesc> staticMethodMap = new LinkedHashMap<>();
+            collectPublicMethods(hostAccess, type, name, methodMap, staticMethodMap);
+            HostMethodDesc method = methodMap.get(name);
+            HostMethodDesc staticMethod = staticMethodMap.get(name);
+            return method == null && staticMethod == null ? MethodsByName.NONE : new MethodsByName(method, staticMethod);
+        }
+
+        static FieldsByName collectFields(HostClassCache hostAccess, Class<?> type, String name) {
+            Map<String, HostFieldDesc> fieldMap = new LinkedHashMap<>();
+            Map<String, HostFieldDesc> staticFieldMap = new LinkedHashMap<>();
+            collectPublicFields(hostAccess, type, name, fieldMap, staticFieldMap);
+            HostFieldDesc field = fieldMap.get(name);
+            HostFieldDesc staticField = staticFieldMap.get(name);
+            return field == null && staticField == null ? FieldsByName.NONE : new FieldsByName(field, staticField);
+        }
+
+        static boolean isClassAccessible(Class<?> declaringClass, HostClassCache hostAccess) {
             return Modifier.isPublic(declaringClass.getModifiers()) && EngineAccessor.JDKSERVICES.verifyModuleVisibility(hostAccess.getUnnamedModule(), declaringClass);
         }
 
-        private static HostMethodDesc collectPublicConstructors(HostClassCache hostAccess, Class<?> type) {
+        static HostMethodDesc collectPublicConstructors(HostClassCache hostAccess, Class<?> type) {
             HostMethodDesc ctor = null;
             if (isClassAccessible(type, hostAccess)) {
                 for (Constructor<?> c : type.getConstructors()) {
@@ -175,17 +278,23 @@ final class HostClassDesc {
             return ctor;
         }
 
-        private static void collectPublicMethods(HostClassCache hostAccess, Class<?> type, Map<String, HostMethodDesc> methodMap, Map<String, HostMethodDesc> staticMethodMap) {
-            collectPublicMethods(hostAccess, type, methodMap, staticMethodMap, new HashSet<>(), type);
+        /**
+         * Collects the public methods named {@code name} into the given maps.
+         */
+        private static void collectPublicMethods(HostClassCache hostAccess, Class<?> type, String name, Map<String, HostMethodDesc> methodMap, Map<String, HostMethodDesc> staticMethodMap) {
+            collectPublicMethods(hostAccess, type, name, methodMap, staticMethodMap, new HashSet<>(), type);
         }
 
-        private static void collectPublicMethods(HostClassCache hostAccess, Class<?> type, Map<String, HostMethodDesc> methodMap, Map<String, HostMethodDesc> staticMethodMap, Set<Object> visited,
-                        Class<?> startType) {
+        private static void collectPublicMethods(HostClassCache hostAccess, Class<?> type, String name, Map<String, HostMethodDesc> methodMap, Map<String, HostMethodDesc> staticMethodMap,
+                        Set<Object> visited, Class<?> startType) {
             boolean isPublicType = isClassAccessible(type, hostAccess) && !Proxy.isProxyClass(type);
             boolean allMethodsPublic = true;
             List<Method> bridgeMethods = null;
             if (isPublicType) {
-                for (Method m : type.getMethods()) {
+                MemberNames names = hostAccess.forClass(type).getMemberNames();
+                allMethodsPublic = names.allMethodsPublic;
+                List<Method> overloads = names.methods.get(name);
+                for (Method m : overloads != null ? overloads : Collections.<Method> emptyList()) {
                     Class<?> declaringClass = m.getDeclaringClass();
                     if (Modifier.isStatic(m.getModifiers()) && (declaringClass != startType && Modifier.isInterface(declaringClass.getModifiers()))) {
                         // do not inherit static interface methods
@@ -199,7 +308,6 @@ final class HostClassDesc {
                          * an interface (i.e. a default method), no bridge method is generated, so
                          * search the whole inheritance hierarchy for accessible methods.
                          */
-                        allMethodsPublic = false;
                         continue;
                     } else if (m.isBridge()) {
                         /*
@@ -210,7 +318,6 @@ final class HostClassDesc {
                          * As a workaround, stash away all bridge methods and only consider them at
                          * the end if no equivalent public non-bridge method was found.
                          */
-                        allMethodsPublic = false;
                         if (bridgeMethods == null) {
                             bridgeMethods = new ArrayList<>();
                         }
@@ -228,11 +335,11 @@ final class HostClassDesc {
              */
             if (!isPublicType || !allMethodsPublic) {
                 if (type.getSuperclass() != null) {
-                    collectPublicMethods(hostAccess, type.getSuperclass(), methodMap, staticMethodMap, visited, startType);
+                    collectPublicMethods(hostAccess, type.getSuperclass(), name, methodMap, staticMethodMap, visited, startType);
                 }
                 for (Class<?> intf : type.getInterfaces()) {
                     if (visited.add(intf)) {
-                        collectPublicMethods(hostAccess, intf, methodMap, staticMethodMap, visited, startType);
+                        collectPublicMethods(hostAccess, intf, name, methodMap, staticMethodMap, visited, startType);
                     }
                 }
             }
@@ -296,11 +403,17 @@ final class HostClassDesc {
             }
         }
 
-        private static void collectPublicFields(HostClassCache hostAccess, Class<?> type, Map<String, HostFieldDesc> fieldMap, Map<String, HostFieldDesc> staticFieldMap) {
+        /**
+         * Collects the public fields named {@code name} into the given maps.
+         */
+        private static void collectPublicFields(HostClassCache hostAccess, Class<?> type, String name, Map<String, HostFieldDesc> fieldMap, Map<String, HostFieldDesc> staticFieldMap) {
             if (isClassAccessible(type, hostAccess)) {
                 boolean inheritedPublicInstanceFields = false;
                 boolean inheritedPublicInaccessibleFields = false;
                 for (Field f : type.getFields()) {
+                    if (!name.equals(f.getName())) {
+                        continue;
+                    }
                     if (!Modifier.isStatic(f.getModifiers())) {
                         if (f.getDeclaringClass() == type) {
                             assert !fieldMap.containsKey(f.getName());
@@ -322,16 +435,16 @@ final class HostClassDesc {
                     }
                 }
                 if (inheritedPublicInstanceFields) {
-                    collectPublicInstanceFields(hostAccess, type, fieldMap, inheritedPublicInaccessibleFields);
+                    collectPublicInstanceFields(hostAccess, type, name, fieldMap, inheritedPublicInaccessibleFields);
                 }
             } else {
                 if (!Modifier.isInterface(type.getModifiers())) {
-                    collectPublicInstanceFields(hostAccess, type, fieldMap, true);
+                    collectPublicInstanceFields(hostAccess, type, name, fieldMap, true);
                 }
             }
         }
 
-        private static void collectPublicInstanceFields(HostClassCache hostAccess, Class<?> type, Map<String, HostFieldDesc> fieldMap, boolean mayHaveInaccessibleFields) {
+        private static void collectPublicInstanceFields(HostClassCache hostAccess, Class<?> type, String name, Map<String, HostFieldDesc> fieldMap, boolean mayHaveInaccessibleFields) {
             Set<String> fieldNames = new HashSet<>();
             for (Class<?> superclass = type; superclass != null && superclass != Object.class; superclass = superclass.getSuperclass()) {
                 boolean inheritedPublicInstanceFields = false;
@@ -345,6 +458,9 @@ final class HostClassDesc {
                         }
                         continue;
                     }
+                    if (!name.equals(f.getName())) {
+                        continue;
+                    }
                     // a public field in a non-public class hides fields further up the hierarchy
                     if (mayHaveInaccessibleFields && !fieldNames.add(f.getName())) {
                         continue;
@@ -363,7 +479,7 @@ final class HostClassDesc {
             }
         }
 
-        private static String findFunctionalInterfaceMethodName(Class<?> clazz) {
+        static String findFunctionalInterfaceMethodName(Class<?> clazz) {
             for (Class<?> iface : clazz.getInterfaces()) {
                 if (Modifier.isPublic(iface.getModifiers()) && iface.isAnnotationPresent(FunctionalInterface.class)) {
                     for (Method m : iface.getMethods()) {
@@ -435,6 +551,57 @@ final class HostClassDesc {
         }
     }
 
+    private MemberNames getMemberNames() {
+        MemberNames names = memberNames;
+        if (names == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            synchronized (this) {
+                names = memberNames;
+                if (names == null) {
+                    memberNames = names = new MemberNames(cache, type);
+                }
+            }
+        }
+        return names;
+    }
+
+    /*
+     * Methods and fields are collected lazily for each name on first lookup. Names that do not
+     * denote a public member are answered from the member names without being cached, so the
+     * tables never grow beyond the number of public members of the class.
+     */
+    private MethodsByName getMethodsByName(String name) {
+        MethodsByName byName = methodsByName.get(name);
+        if (byName == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            if (!getMemberNames().methods.containsKey(name)) {
+                return MethodsByName.NONE;
+            }
+            byName = Members.collectMethods(cache, type, name);
+            MethodsByName existing = methodsByName.putIfAbsent(name, byName);
+            if (existing != null) {
+                byName = existing;
+            }
+        }
+        return byName;
+    }
+
+    private FieldsByName getFieldsByName(String name) {
+        FieldsByName byName = fieldsByName.get(name);
+        if (byName == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            if (!getMemberNames().fieldNames.contains(name)) {
+                return FieldsByName.NONE;
+            }
+            byName = Members.collectFields(cache, type, name);
+            FieldsByName existing = fieldsByName.putIfAbsent(name, byName);
+            if (existing != null) {
+                byName = existing;
+            }
+        }
+        return byName;
+    }
+
     private Members getMembers() {
         Members m = members;
         if (m == null) {
@@ -442,7 +609,7 @@ final class HostClassDesc {
             synchronized (this) {
                 m = members;
                 if (m == null) {
-                    members = m = new Members(cache, type);
+                    members = m = new Members(this);
                 }
             }
         }
@@ -484,7 +651,7 @@ final class HostClassDesc {
      * @return method descriptor or {@code null} if there is no such method
      */
     public HostMethodDesc lookupMethod(String name) {
-        return getMembers().methods.get(name);
+        return getMethodsByName(name).method;
     }
 
     /**
@@ -494,7 +661,7 @@ final class HostClassDesc {
      * @return method descriptor or {@code null} if there is no such method
      */
     public HostMethodDesc lookupStaticMethod(String name) {
-        return getMembers().staticMethods.get(name);
+        return getMethodsByName(name).staticMethod;
     }
 
     public HostMethodDesc lookupMethod(String name, boolean onlyStatic) {
@@ -532,7 +699,17 @@ final class HostClassDesc {
      * @return method descriptor or {@code null} if there is no public constructor
      */
     public HostMethodDesc lookupConstructor() {
-        return getMembers().constructor;
+        LazyMethod c = constructor;
+        if (c == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            synchronized (this) {
+                c = constructor;
+                if (c == null) {
+                    constructor = c = new LazyMethod(Members.collectPublicConstructors(cache, type));
+                }
+            }
+        }
+        return c.method;
     }
 
     /**
@@ -542,7 +719,7 @@ final class HostClassDesc {
      * @return field or {@code null} if there is no such field
      */
     public HostFieldDesc lookupField(String name) {
-        return getMembers().fields.get(name);
+        return getFieldsByName(name).field;
     }
 
     /**
@@ -552,7 +729,7 @@ final class HostClassDesc {
      * @return field or {@code null} if there is no such field
      */
     public HostFieldDesc lookupStaticField(String name) {
-        return getMembers().staticFields.get(name);
+        return getFieldsByName(name).staticField;
     }
 
     public HostFieldDesc lookupField(String name, boolean onlyStatic) {
@@ -564,7 +741,19 @@ final class HostClassDesc {
     }
 
     public HostMethodDesc getFunctionalMethod() {
-        return getMembers().functionalMethod;
+        LazyMethod f = functionalMethod;
+        if (f == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            HostMethodDesc method = null;
+            if (!Modifier.isInterface(type.getModifiers()) && !Modifier.isAbstract(type.getModifiers())) {
+                String functionalInterfaceMethodName = Members.findFunctionalInterfaceMethodName(type);
+                if (functionalInterfaceMethodName != null) {
+                    method = lookupMethod(functionalInterfaceMethodName);
+                }
+            }
+            functionalMethod = f = new LazyMethod(method);
+        }
+        return f.method;
     }
 
     public AdapterResult getAdapter(HostContext hostContext) {
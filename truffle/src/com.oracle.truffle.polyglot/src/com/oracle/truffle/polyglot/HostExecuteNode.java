@@ -53,6 +53,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -250,10 +252,11 @@ abstract class HostExecuteNode extends Node {
                     @Shared("hostMethodProfile") @Cached HostMethodProfileNode methodProfile,
                     @Shared("errorBranch") @Cached BranchProfile errorBranch,
                     @Shared("engine") @Cached(value = "languageContext.context.engine", allowUncached = true) PolyglotEngineImpl engine) throws ArityException, UnsupportedTypeException {
-        SingleMethod overload = selectOverload(method, args, languageContext);
+        CachedOverload selected = selectCachedOverload(method, args, languageContext);
+        SingleMethod overload = selected.overload;
         Object[] convertedArguments;
         try {
-            convertedArguments = prepareArgumentsUncached(overload, args, languageContext, toJavaNode, isVarArgsProfile);
+            convertedArguments = convertArguments(overload, args, languageContext, toJavaNode, isVarArgsProfile.profile(selected.asVarArgs));
         } catch (PolyglotEngineException e) {
             errorBranch.enter();
             throw HostInteropErrors.unsupportedTypeException(args, e.e);
@@ -262,10 +265,15 @@ abstract class HostExecuteNode extends Node {
     }
 
     private static Object[] prepareArgumentsUncached(SingleMethod method, Object[] args, PolyglotLanguageContext languageContext, ToHostNode toJavaNode, ConditionProfile isVarArgsProfile) {
+        boolean asVarArgs = isVarArgsProfile.profile(method.isVarArgs()) && asVarArgs(args, method, languageContext);
+        return convertArguments(method, args, languageContext, toJavaNode, asVarArgs);
+    }
+
+    private static Object[] convertArguments(SingleMethod method, Object[] args, PolyglotLanguageContext languageContext, ToHostNode toJavaNode, boolean asVarArgs) {
         Class<?>[] types = method.getParameterTypes();
         Type[] genericTypes = method.getGenericParameterTypes();
         Object[] convertedArguments = new Object[args.length];
-        if (isVarArgsProfile.profile(method.isVarArgs()) && asVarArgs(args, method, languageContext)) {
+        if (asVarArgs) {
             int parameterCount = method.getParameterCount();
             for (int i = 0; i < args.length; i++) {
                 Class<?> expectedType = i < parameterCount - 1 ? types[i] : types[parameterCount - 1].getComponentType();
@@ -288,9 +296,30 @@ abstract class HostExecuteNode extends Node {
         return nodes;
     }
 
+    /**
+     * Selects the overload for the uncached path. The result is cached in the overloaded method
+     * and guarded by the same type checks that guard {@link #doOverloadedCached}, so megamorphic
+     * call sites only pay for overload resolution once per argument type vector.
+     */
+    @TruffleBoundary
+    CachedOverload selectCachedOverload(OverloadedMethod method, Object[] args, PolyglotLanguageContext languageContext) throws ArityException, UnsupportedTypeException {
+        OverloadCache cache = method.getOverloadCache();
+        ArgumentTypes key = new ArgumentTypes(args);
+        CachedOverload cached = cache.lookup(key, args, languageContext);
+        if (cached != null) {
+            assert cached.overload == selectOverload(method, args, languageContext);
+            return cached;
+        }
+        TypeCheckNode[] argTypes = createArgTypesArray(args);
+        SingleMethod overload = selectOverload(method, args, languageContext, argTypes, false);
+        CachedOverload selected = new CachedOverload(argTypes, overload, asVarArgs(args, overload, languageContext), null);
+        cache.put(key, selected);
+        return selected;
+    }
+
     @SuppressWarnings("unchecked")
     private void fillArgTypesArray(Object[] args, TypeCheckNode[] cachedArgTypes, SingleMethod selected, boolean varArgs, List<SingleMethod> applicable, int priority,
-                    PolyglotLanguageContext languageContext) {
+                    PolyglotLanguageContext languageContext, boolean adopt) {
         if (cachedArgTypes == null) {
             return;
         }
@@ -348,7 +377,7 @@ abstract class HostExecuteNode extends Node {
              * We need to eagerly insert as the cachedArgTypes might be used before they are adopted
              * by the DSL.
              */
-            cachedArgTypes[i] = insert(argType);
+            cachedArgTypes[i] = adopt ? insert(argType) : argType;
         }
 
         assert checkArgTypes(args, cachedArgTypes, InteropLibrary.getFactory().getUncached(), languageContext, false) : Arrays.toString(cachedArgTypes);
@@ -471,6 +500,11 @@ abstract class HostExecuteNode extends Node {
     @TruffleBoundary
     SingleMethod selectOverload(OverloadedMethod method, Object[] args, PolyglotLanguageContext languageContext, TypeCheckNode[] cachedArgTypes)
                     throws ArityException, UnsupportedTypeException {
+        return selectOverload(method, args, languageContext, cachedArgTypes, true);
+    }
+
+    private SingleMethod selectOverload(OverloadedMethod method, Object[] args, PolyglotLanguageContext languageContext, TypeCheckNode[] cachedArgTypes, boolean adopt)
+                    throws ArityException, UnsupportedTypeException {
         SingleMethod[] overloads = method.getOverloads();
         List<SingleMethod> applicableByArity = new ArrayList<>();
         int minOverallArity = Integer.MAX_VALUE;
@@ -501,14 +535,14 @@ abstract class HostExecuteNode extends Node {
 
         SingleMethod best;
         for (int priority : ToHostNode.PRIORITIES) {
-            best = findBestCandidate(applicableByArity, args, languageContext, false, priority, cachedArgTypes);
+            best = findBestCandidate(applicableByArity, args, languageContext, false, priority, cachedArgTypes, adopt);
             if (best != null) {
                 return best;
             }
         }
         if (anyVarArgs) {
             for (int priority : ToHostNode.PRIORITIES) {
-                best = findBestCandidate(applicableByArity, args, languageContext, true, priority, cachedArgTypes);
+                best = findBestCandidate(applicableByArity, args, languageContext, true, priority, cachedArgTypes, adopt);
                 if (best != null) {
                     return best;
                 }
@@ -520,7 +554,7 @@ abstract class HostExecuteNode extends Node {
 
     @SuppressWarnings("static-method")
     private SingleMethod findBestCandidate(List<SingleMethod> applicableByArity, Object[] args, PolyglotLanguageContext languageContext, boolean varArgs, int priority,
-                    TypeCheckNode[] cachedArgTypes) throws UnsupportedTypeException {
+                    TypeCheckNode[] cachedArgTypes, boolean adopt) throws UnsupportedTypeException {
         List<SingleMethod> candidates = new ArrayList<>();
 
         if (!varArgs) {
@@ -589,7 +623,7 @@ abstract class HostExecuteNode extends Node {
                 SingleMethod best = candidates.get(0);
 
                 if (cachedArgTypes != null) {
-                    fillArgTypesArray(args, cachedArgTypes, best, varArgs, applicableByArity, priority, languageContext);
+                    fillArgTypesArray(args, cachedArgTypes, best, varArgs, applicableByArity, priority, languageContext, adopt);
                 }
 
                 return best;
@@ -597,7 +631,7 @@ abstract class HostExecuteNode extends Node {
                 SingleMethod best = findMostSpecificOverload(languageContext, candidates, args, varArgs, priority);
                 if (best != null) {
                     if (cachedArgTypes != null) {
-                        fillArgTypesArray(args, cachedArgTypes, best, varArgs, applicableByArity, priority, languageContext);
+                        fillArgTypesArray(args, cachedArgTypes, best, varArgs, applicableByArity, priority, languageContext, adopt);
                     }
 
                     return best;
@@ -818,6 +852,113 @@ abstract class HostExecuteNode extends Node {
         return sj.toString();
     }
 
+    /**
+     * Key of an {@link OverloadCache} bucket: the classes of the arguments, distinguishing host
+     * objects by their host class.
+     */
+    static final class ArgumentTypes {
+        private final Class<?>[] classes;
+        private final boolean[] hostObjects;
+        private final int hash;
+
+        ArgumentTypes(Object[] args) {
+            this.classes = new Class<?>[args.length];
+            this.hostObjects = new boolean[args.length];
+            for (int i = 0; i < args.length; i++) {
+                Object arg = args[i];
+                if (arg instanceof HostObject) {
+                    classes[i] = ((HostObject) arg).getObjectClass();
+                    hostObjects[i] = true;
+                } else if (arg != null) {
+                    classes[i] = arg.getClass();
+                }
+            }
+            this.hash = 31 * Arrays.hashCode(classes) + Arrays.hashCode(hostObjects);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ArgumentTypes)) {
+                return false;
+            }
+            ArgumentTypes other = (ArgumentTypes) obj;
+            return hash == other.hash && Arrays.equals(classes, other.classes) && Arrays.equals(hostObjects, other.hostObjects);
+        }
+    }
+
+    /**
+     * An overload selected for the argument types checked by {@link #argTypes}, together with
+     * whether the arguments are passed as varargs. Entries of the same bucket are chained.
+     */
+    static final class CachedOverload {
+        final TypeCheckNode[] argTypes;
+        final SingleMethod overload;
+        final boolean asVarArgs;
+        final CachedOverload next;
+
+        CachedOverload(TypeCheckNode[] argTypes, SingleMethod overload, boolean asVarArgs, CachedOverload next) {
+            this.argTypes = argTypes;
+            this.overload = overload;
+            this.asVarArgs = asVarArgs;
+            this.next = next;
+        }
+
+        /*
+         * Only entries whose type checks do not have child nodes can be evaluated detached from an
+         * AST and concurrently; target mapping checks are therefore never cached.
+         */
+        boolean isCacheable() {
+            for (TypeCheckNode argType : argTypes) {
+                if (argType instanceof TargetMappingType) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Overloads selected by the uncached path of an {@link OverloadedMethod}. The number of
+     * entries is bounded; once the limit is reached further selections are not cached.
+     */
+    static final class OverloadCache {
+        static final int MAX_ENTRIES = 64;
+
+        private final ConcurrentHashMap<ArgumentTypes, CachedOverload> buckets = new ConcurrentHashMap<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        CachedOverload lookup(ArgumentTypes key, Object[] args, PolyglotLanguageContext languageContext) {
+            InteropLibrary interop = InteropLibrary.getFactory().getUncached();
+            for (CachedOverload entry = buckets.get(key); entry != null; entry = entry.next) {
+                if (checkArgTypes(args, entry.argTypes, interop, languageContext, false)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        void put(ArgumentTypes key, CachedOverload entry) {
+            if (!entry.isCacheable() || size.incrementAndGet() > MAX_ENTRIES) {
+                return;
+            }
+            while (true) {
+                CachedOverload head = buckets.get(key);
+                CachedOverload newHead = new CachedOverload(entry.argTypes, entry.overload, entry.asVarArgs, head);
+                if (head == null ? buckets.putIfAbsent(key, newHead) == null : buckets.replace(key, head, newHead)) {
+                    return;
+                }
+            }
+        }
+    }
+
     abstract static class TypeCheckNode extends Node {
 
         abstract boolean execute(Object test, InteropLibrary interop, PolyglotLanguageContext languageContext);
@@ -48,6 +48,9 @@ import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -145,9 +148,20 @@ abstract class HostFieldDesc {
     }
 
     private static final class MHImpl extends HostFieldDesc {
+        private static final AtomicIntegerFieldUpdater<MHImpl> GET_COUNTDOWN_UPDATER = AtomicIntegerFieldUpdater.newUpdater(MHImpl.class, "getCountdown");
+        private static final AtomicIntegerFieldUpdater<MHImpl> SET_COUNTDOWN_UPDATER = AtomicIntegerFieldUpdater.newUpdater(MHImpl.class, "setCountdown");
+
         private final Field field;
         @CompilationFinal private MethodHandle getHandle;
         @CompilationFinal private MethodHandle setHandle;
+        /*
+         * Accessors are only used in the interpreter, compiled code inlines the constant method
+         * handles.
+         */
+        private volatile Function<Object, Object> getAccessor;
+        private volatile BiConsumer<Object, Object> setAccessor;
+        private volatile int getCountdown = HostAccessorGenerator.THRESHOLD;
+        private volatile int setCountdown = HostAccessorGenerator.THRESHOLD;
 
         MHImpl(Field field) {
             super(field.getType(), field.getGenericType(), field.getName(), Modifier.isFinal(field.getModifiers()));
@@ -156,6 +170,19 @@ abstract class HostFieldDesc {
 
         @Override
         public Object get(Object receiver) {
+            if (CompilerDirectives.inInterpreter()) {
+                Function<Object, Object> accessor = getAccessor;
+                if (accessor != null) {
+                    try {
+                        return invokeGetAccessor(accessor, receiver);
+                    } catch (Throwable e) {
+                        throw HostInteropReflect.rethrow(e);
+                    }
+                }
+                if (getCountdown > 0 && GET_COUNTDOWN_UPDATER.decrementAndGet(this) == 0) {
+                    HostAccessorGenerator.generateLater(() -> getAccessor = HostAccessorGenerator.generateGetter(field));
+                }
+            }
             if (getHandle == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 getHandle = makeGetMethodHandle();
@@ -169,6 +196,20 @@ abstract class HostFieldDesc {
 
         @Override
         public void set(Object receiver, Object value) {
+            if (CompilerDirectives.inInterpreter()) {
+                BiConsumer<Object, Object> accessor = setAccessor;
+                if (accessor != null) {
+                    try {
+                        invokeSetAccessor(accessor, receiver, value);
+                    } catch (Throwable e) {
+                        throw HostInteropReflect.rethrow(e);
+                    }
+                    return;
+                }
+                if (setCountdown > 0 && SET_COUNTDOWN_UPDATER.decrementAndGet(this) == 0) {
+                    HostAccessorGenerator.generateLater(() -> setAccessor = HostAccessorGenerator.generateSetter(field));
+                }
+            }
             if (setHandle == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 setHandle = makeSetMethodHandle();
@@ -190,6 +231,16 @@ abstract class HostFieldDesc {
             invokeHandle.invokeExact(receiver, value);
         }
 
+        @TruffleBoundary(allowInlining = true)
+        private static Object invokeGetAccessor(Function<Object, Object> accessor, Object receiver) {
+            return accessor.apply(receiver);
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static void invokeSetAccessor(BiConsumer<Object, Object> accessor, Object receiver, Object value) {
+            accessor.accept(receiver, value);
+        }
+
         private MethodHandle makeGetMethodHandle() {
             CompilerAsserts.neverPartOfCompilation();
             try {
@@ -50,6 +50,8 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.BiFunction;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerAsserts;
@@ -270,7 +272,14 @@ abstract class HostMethodDesc {
         }
 
         abstract static class MHBase extends SingleMethod {
+            private static final AtomicIntegerFieldUpdater<MHBase> ACCESSOR_COUNTDOWN_UPDATER = AtomicIntegerFieldUpdater.newUpdater(MHBase.class, "accessorCountdown");
+
             @CompilationFinal private MethodHandle methodHandle;
+            /*
+             * Only used in the interpreter, compiled code inlines the constant method handle.
+             */
+            private volatile BiFunction<Object, Object[], Object> accessor;
+            private volatile int accessorCountdown = HostAccessorGenerator.THRESHOLD;
 
             MHBase(Executable executable) {
                 super(executable);
@@ -278,6 +287,13 @@ abstract class HostMethodDesc {
 
             @Override
             public final Object invoke(Object receiver, Object[] arguments) throws Throwable {
+                if (CompilerDirectives.inInterpreter()) {
+                    BiFunction<Object, Object[], Object> acc = accessor;
+                    if (acc != null) {
+                        return invokeAccessor(acc, receiver, arguments);
+                    }
+                    countInvocation();
+                }
                 MethodHandle handle = methodHandle;
                 if (handle == null) {
                     CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -292,6 +308,22 @@ abstract class HostMethodDesc {
                 return invokeHandle.invokeExact(receiver, arguments);
             }
 
+            @TruffleBoundary(allowInlining = true)
+            static Object invokeAccessor(BiFunction<Object, Object[], Object> invokeAccessor, Object receiver, Object[] arguments) {
+                return invokeAccessor.apply(receiver, arguments);
+            }
+
+            /*
+             * Generates an accessor in the background once the method is hot. Exactly one thread
+             * observes the countdown reaching zero.
+             */
+            private void countInvocation() {
+                if (accessorCountdown > 0 && ACCESSOR_COUNTDOWN_UPDATER.decrementAndGet(this) == 0) {
+                    Executable executable = getReflectionMethod();
+                    HostAccessorGenerator.generateLater(() -> accessor = HostAccessorGenerator.generateInvoker(executable));
+                }
+            }
+
             protected abstract MethodHandle makeMethodHandle();
 
             protected static MethodHandle adaptSignature(MethodHandle originalHandle, boolean isStatic, int parameterCount) {
@@ -308,6 +340,14 @@ abstract class HostMethodDesc {
 
             @Override
             public Object invokeGuestToHost(Object receiver, Object[] arguments, PolyglotEngineImpl engine, PolyglotLanguageContext languageContext, Node node) {
+                if (CompilerDirectives.inInterpreter()) {
+                    BiFunction<Object, Object[], Object> acc = accessor;
+                    if (acc != null) {
+                        CallTarget target = engine.getHostToGuestCodeCache().accessorHostInvoke;
+                        return GuestToHostRootNode.guestToHostCall(node, target, languageContext, receiver, acc, arguments);
+                    }
+                    countInvocation();
+                }
                 MethodHandle handle = methodHandle;
                 if (handle == null) {
                     CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -392,6 +432,7 @@ abstract class HostMethodDesc {
 
     static final class OverloadedMethod extends HostMethodDesc {
         private final SingleMethod[] overloads;
+        private volatile HostExecuteNode.OverloadCache overloadCache;
 
         OverloadedMethod(SingleMethod[] overloads) {
             this.overloads = overloads;
@@ -403,6 +444,20 @@ abstract class HostMethodDesc {
             return overloads;
         }
 
+        HostExecuteNode.OverloadCache getOverloadCache() {
+            CompilerAsserts.neverPartOfCompilation();
+            HostExecuteNode.OverloadCache cache = overloadCache;
+            if (cache == null) {
+                synchronized (this) {
+                    cache = overloadCache;
+                    if (cache == null) {
+                        overloadCache = cache = new HostExecuteNode.OverloadCache();
+                    }
+                }
+            }
+            return cache;
+        }
+
         @Override
         public String getName() {
             return getOverloads()[0].getName();
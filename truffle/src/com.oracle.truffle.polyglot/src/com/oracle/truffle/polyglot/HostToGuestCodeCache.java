@@ -49,6 +49,7 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
 
 import com.oracle.truffle.api.interop.StopIterationException;
 import org.graalvm.polyglot.Value;
@@ -95,6 +96,22 @@ final class HostToGuestCodeCache {
         }
     });
 
+    final CallTarget accessorHostInvoke = GuestToHostRootNode.createGuestToHost(new GuestToHostRootNode(HostObject.class, "doInvoke") {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Object executeImpl(Object receiver, Object[] callArguments) {
+            BiFunction<Object, Object[], Object> accessor = (BiFunction<Object, Object[], Object>) callArguments[ARGUMENT_OFFSET];
+            Object[] arguments = (Object[]) callArguments[ARGUMENT_OFFSET + 1];
+            Object ret;
+            try {
+                ret = MHBase.invokeAccessor(accessor, receiver, arguments);
+            } catch (Throwable e) {
+                throw HostInteropReflect.rethrow(e);
+            }
+            return ret;
+        }
+    });
+
     final CallTarget reflectionHostInvoke = GuestToHostRootNode.createGuestToHost(new GuestToHostRootNode(HostObject.class, "doInvoke") {
         @Override
         protected Object executeImpl(Object obj, Object[] callArguments) {
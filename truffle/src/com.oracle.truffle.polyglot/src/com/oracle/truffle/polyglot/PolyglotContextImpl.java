@@ -63,6 +63,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
@@ -83,6 +84,7 @@ import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.ThreadLocalAction;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleContext;
 import com.oracle.truffle.api.TruffleLanguage;
@@ -1304,6 +1306,50 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
         }
     }
 
+    /**
+     * Submits a thread local action to the given threads or to all active threads if
+     * <code>threads</code> is <code>null</code>. Threads that are not active in this context are
+     * ignored.
+     */
+    Future<Void> submitThreadLocal(Thread[] threads, ThreadLocalAction action) {
+        List<PolyglotThreadInfo> targets = new ArrayList<>();
+        Future<Void> future;
+        synchronized (this) {
+            if (closed || invalid) {
+                throw PolyglotEngineException.illegalState("The context is already closed.");
+            }
+            if (threads == null) {
+                for (PolyglotThreadInfo info : this.threads.values()) {
+                    if (info.isActiveNotCancelled()) {
+                        targets.add(info);
+                    }
+                }
+            } else {
+                for (Thread thread : threads) {
+                    PolyglotThreadInfo info = this.threads.get(thread);
+                    if (info != null && info.isActiveNotCancelled()) {
+                        targets.add(info);
+                    }
+                }
+            }
+            Thread[] targetThreads = new Thread[targets.size()];
+            for (int i = 0; i < targetThreads.length; i++) {
+                targetThreads[i] = targets.get(i).getThread();
+            }
+            future = EngineAccessor.LANGUAGE.submitThreadLocal(this, targetThreads, action, () -> currentNotEntered() == this);
+        }
+        for (PolyglotThreadInfo info : targets) {
+            if (!info.isActive()) {
+                /*
+                 * The thread left the context concurrently before the action was enqueued. Leaving
+                 * discards pending actions only if they were already visible.
+                 */
+                EngineAccessor.LANGUAGE.discardThreadLocalActions(this, info.getThread());
+            }
+        }
+        return future;
+    }
+
     long calculateHeapSize(long stopAtBytes, AtomicBoolean calculationCancelled) {
         try {
             ObjectSizeCalculator localObjectSizeCalculator;
@@ -1515,6 +1561,9 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
                         closed = true;
                         invalid = true;
                     }
+                    if (success) {
+                        EngineAccessor.LANGUAGE.discardThreadLocalActions(this, null);
+                    }
                     // triggers a thread changed event which requires slow path enter
                     setCachedThreadInfo(PolyglotThreadInfo.NULL);
                 }
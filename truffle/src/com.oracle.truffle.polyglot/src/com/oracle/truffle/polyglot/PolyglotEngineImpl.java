@@ -213,6 +213,7 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
     @CompilationFinal private HostToGuestCodeCache hostToGuestCodeCache;
 
     final SpecializationStatistics specializationStatistics;
+    final PolyglotSourceCache.Statistics sourceCacheStatistics = new PolyglotSourceCache.Statistics();
     final Function<String, TruffleLogger> engineLoggerSupplier;
     private volatile TruffleLogger engineLogger;
 
@@ -1122,6 +1123,10 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
                     getEngineLogger().log(Level.INFO, String.format("Specialization histogram: %n%s", logMessage.toString()));
                 }
 
+                if (engineOptionValues.get(PolyglotEngineOptions.TraceSourceCache)) {
+                    getEngineLogger().log(Level.INFO, String.format("Source cache statistics: %s", sourceCacheStatistics));
+                }
+
                 if (!inShutdownHook) {
                     RUNTIME.onEngineClosed(this.runtimeData);
 
@@ -74,4 +74,20 @@ final class PolyglotEngineOptions {
                     "Enabling this flag and the compiler option has major implications on the performance and footprint of the interpreter." + //
                     "Do not use in production environments.")//
     static final OptionKey<Boolean> SpecializationStatistics = new OptionKey<>(false);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Maximum number of parsed sources kept alive in the source cache of each language instance. " +
+                    "Setting a limit replaces the default cache, which is cleared by the garbage collector, with a bounded cache that evicts entries according to the SourceCachePolicy. " +
+                    "0 means no limit. (default: 0)")//
+    static final OptionKey<Integer> SourceCacheSize = new OptionKey<>(0);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Maximum total number of characters or bytes of the sources kept alive in the source cache of each language instance. " +
+                    "Setting a limit replaces the default cache, which is cleared by the garbage collector, with a bounded cache. 0 means no limit. (default: 0)")//
+    static final OptionKey<Long> SourceCacheMaxLength = new OptionKey<>(0L);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Eviction policy of the bounded source cache. " +
+                    "Accepted values are LRU to evict the least recently used source and LFU to evict the least frequently used source, where older uses count less. (default: LRU)")//
+    static final OptionKey<PolyglotSourceCache.EvictionPolicy> SourceCachePolicy = new OptionKey<>(PolyglotSourceCache.EvictionPolicy.LRU);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Print source cache hits, misses, evictions and parse time saved when the engine is closed.")//
+    static final OptionKey<Boolean> TraceSourceCache = new OptionKey<>(false);
 }
@@ -95,7 +95,9 @@ final class PolyglotLanguageInstance implements VMObject {
     @SuppressWarnings("unchecked")
     PolyglotLanguageInstance(PolyglotLanguage language) {
         this.language = language;
-        this.sourceCache = new PolyglotSourceCache();
+        OptionValuesImpl engineOptions = language.engine.engineOptionValues;
+        this.sourceCache = new PolyglotSourceCache(language.engine.sourceCacheStatistics, engineOptions.get(PolyglotEngineOptions.SourceCacheSize),
+                        engineOptions.get(PolyglotEngineOptions.SourceCacheMaxLength), engineOptions.get(PolyglotEngineOptions.SourceCachePolicy));
         this.valueCodeCache = new ConcurrentHashMap<>();
         this.hostInteropCodeCache = new ConcurrentHashMap<>();
         try {
@@ -627,6 +627,38 @@ final class PolyglotManagement extends AbstractManagementImpl {
 
     // implementation for org.graalvm.polyglot.management.Limits
 
+    // implementation for org.graalvm.polyglot.management.SourceCacheStatistics
+
+    @Override
+    public Object getSourceCacheStatistics(Engine engineAPI) {
+        return getEngine(engineAPI).sourceCacheStatistics.snapshot();
+    }
+
+    @Override
+    public long getSourceCacheHits(Object impl) {
+        return ((PolyglotSourceCache.Statistics) impl).hits.sum();
+    }
+
+    @Override
+    public long getSourceCacheMisses(Object impl) {
+        return ((PolyglotSourceCache.Statistics) impl).misses.sum();
+    }
+
+    @Override
+    public long getSourceCacheEvictions(Object impl) {
+        return ((PolyglotSourceCache.Statistics) impl).evictions.sum();
+    }
+
+    @Override
+    public long getSourceCacheParseTime(Object impl) {
+        return ((PolyglotSourceCache.Statistics) impl).parseTime.sum();
+    }
+
+    @Override
+    public long getSourceCacheParseTimeSaved(Object impl) {
+        return ((PolyglotSourceCache.Statistics) impl).parseTimeSaved.sum();
+    }
+
     private PolyglotEngineImpl getEngine(Engine engineAPI) {
         return (PolyglotEngineImpl) engineImpl.getAPIAccess().getImpl(engineAPI);
     }
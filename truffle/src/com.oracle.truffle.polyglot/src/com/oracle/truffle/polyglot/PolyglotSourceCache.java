@@ -47,8 +47,13 @@ import java.lang.ref.WeakReference;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.source.Source;
@@ -57,10 +62,16 @@ final class PolyglotSourceCache {
 
     private final Cache strongCache;
     private final Cache weakCache;
+    private final Cache boundedCache;
 
-    PolyglotSourceCache() {
-        this.weakCache = new WeakCache();
-        this.strongCache = new StrongCache();
+    PolyglotSourceCache(Statistics statistics, int maxSize, long maxLength, EvictionPolicy policy) {
+        this.weakCache = new WeakCache(statistics);
+        this.strongCache = new StrongCache(statistics);
+        if (maxSize > 0 || maxLength > 0) {
+            this.boundedCache = new BoundedCache(statistics, maxSize, maxLength, policy);
+        } else {
+            this.boundedCache = null;
+        }
     }
 
     CallTarget parseCached(PolyglotLanguageContext context, Source source, String[] argumentNames) {
@@ -74,10 +85,11 @@ final class PolyglotSourceCache {
                     // target found in strong cache
                     return target;
                 } else {
-                    // fallback to weak cache.
+                    // fallback to bounded or weak cache.
                 }
             }
-            target = weakCache.lookup(context, source, argumentNames, true);
+            Cache fallback = boundedCache != null ? boundedCache : weakCache;
+            target = fallback.lookup(context, source, argumentNames, true);
         } else {
             target = parseImpl(context, argumentNames, source);
         }
@@ -87,6 +99,9 @@ final class PolyglotSourceCache {
     void listCachedSources(PolyglotLanguageInstance language, Collection<org.graalvm.polyglot.Source> source) {
         strongCache.listSources(language, source);
         weakCache.listSources(language, source);
+        if (boundedCache != null) {
+            boundedCache.listSources(language, source);
+        }
     }
 
     private static CallTarget parseImpl(PolyglotLanguageContext context, String[] argumentNames, Source source) {
@@ -98,6 +113,15 @@ final class PolyglotSourceCache {
         return parsedTarget;
     }
 
+    private static CacheValue parseValue(Statistics statistics, PolyglotLanguageContext context, String[] argumentNames, Source source) {
+        long start = System.nanoTime();
+        CallTarget target = parseImpl(context, argumentNames, source);
+        long parseTime = System.nanoTime() - start;
+        statistics.misses.increment();
+        statistics.parseTime.add(parseTime);
+        return new CacheValue(target, source, parseTime);
+    }
+
     private static void validateSource(PolyglotLanguageContext context, Source source) {
         if (!source.hasBytes() && !source.hasCharacters()) {
             throw PolyglotEngineException.illegalArgument(String.format("Error evaluating the source. The source does not specify characters nor bytes."));
@@ -166,29 +190,51 @@ final class PolyglotSourceCache {
 
     private abstract static class Cache {
 
+        final Statistics statistics;
+
+        Cache(Statistics statistics) {
+            this.statistics = statistics;
+        }
+
         abstract boolean isEmpty();
 
         abstract CallTarget lookup(PolyglotLanguageContext context, Source source, String[] argumentNames, boolean parse);
 
         abstract void listSources(PolyglotLanguageInstance language, Collection<org.graalvm.polyglot.Source> source);
+
+        final CallTarget hit(CacheValue value) {
+            statistics.hits.increment();
+            statistics.parseTimeSaved.add(value.parseTime);
+            return value.target;
+        }
     }
 
     private static final class StrongCache extends Cache {
 
-        private final ConcurrentHashMap<SourceKey, CallTarget> sourceCache = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<SourceKey, CacheValue> sourceCache = new ConcurrentHashMap<>();
+
+        StrongCache(Statistics statistics) {
+            super(statistics);
+        }
 
         @Override
         CallTarget lookup(PolyglotLanguageContext context, Source source, String[] argumentNames, boolean parse) {
             SourceKey key = new SourceKey(source, argumentNames);
-            CallTarget target = sourceCache.get(key);
-            if (target == null && parse) {
-                target = parseImpl(context, argumentNames, source);
-                CallTarget prevTarget = sourceCache.putIfAbsent(key, target);
-                if (prevTarget != null) {
-                    target = prevTarget;
+            CacheValue value = sourceCache.get(key);
+            if (value == null) {
+                if (parse) {
+                    value = parseValue(statistics, context, argumentNames, source);
+                    CacheValue prev = sourceCache.putIfAbsent(key, value);
+                    if (prev != null) {
+                        value = prev;
+                    }
+                } else {
+                    return null;
                 }
+            } else {
+                return hit(value);
             }
-            return target;
+            return value.target;
         }
 
         @Override
@@ -208,20 +254,24 @@ final class PolyglotSourceCache {
 
     private static final class WeakCache extends Cache {
 
-        private final ConcurrentHashMap<WeakSourceKey, WeakCacheValue> sourceCache = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<WeakSourceKey, CacheValue> sourceCache = new ConcurrentHashMap<>();
         private final ReferenceQueue<Source> deadSources = new ReferenceQueue<>();
 
+        WeakCache(Statistics statistics) {
+            super(statistics);
+        }
+
         @Override
         CallTarget lookup(PolyglotLanguageContext context, Source source, String[] argumentNames, boolean parse) {
             cleanupStaleEntries();
             Object sourceId = EngineAccessor.SOURCE.getSourceIdentifier(source);
             Source sourceValue = EngineAccessor.SOURCE.copySource(source);
             WeakSourceKey ref = new WeakSourceKey(new SourceKey(sourceId, argumentNames), source, deadSources);
-            WeakCacheValue value = sourceCache.get(ref);
+            CacheValue value = sourceCache.get(ref);
             if (value == null) {
                 if (parse) {
-                    value = new WeakCacheValue(parseImpl(context, argumentNames, sourceValue), sourceValue);
-                    WeakCacheValue prev = sourceCache.putIfAbsent(ref, value);
+                    value = parseValue(statistics, context, argumentNames, sourceValue);
+                    CacheValue prev = sourceCache.putIfAbsent(ref, value);
                     if (prev != null) {
                         /*
                          * Parsed twice -> discard the one not in the cache.
@@ -231,6 +281,8 @@ final class PolyglotSourceCache {
                 } else {
                     return null;
                 }
+            } else {
+                return hit(value);
             }
             return value.target;
         }
@@ -244,7 +296,7 @@ final class PolyglotSourceCache {
         void listSources(PolyglotLanguageInstance language, Collection<org.graalvm.polyglot.Source> sources) {
             cleanupStaleEntries();
             PolyglotImpl polygot = language.getImpl();
-            for (WeakCacheValue value : sourceCache.values()) {
+            for (CacheValue value : sourceCache.values()) {
                 sources.add(polygot.getOrCreatePolyglotSource(value.source));
             }
         }
@@ -258,18 +310,191 @@ final class PolyglotSourceCache {
 
     }
 
-    static class WeakCacheValue {
+    /*
+     * Keeps parsed sources strongly reachable up to a maximum number of entries and a maximum total
+     * source length. Used instead of the weak cache if SourceCacheSize or SourceCacheMaxLength is
+     * set, so hot sources survive GC pressure while the footprint stays bounded.
+     */
+    private static final class BoundedCache extends Cache {
+
+        /*
+         * The use counts of the LFU policy are halved after this many hits per cached entry, so
+         * entries that were hot a long time ago do not outlive entries that are hot now.
+         */
+        private static final int AGING_INTERVAL = 16;
+
+        private final int maxSize;
+        private final long maxLength;
+        // iteration order is least recently used first
+        private final LinkedHashMap<SourceKey, CacheValue> sourceCache = new LinkedHashMap<>(16, 0.75f, true);
+        // entries grouped by use count, each group least recently used first; null for LRU
+        private final TreeMap<Integer, LinkedHashSet<SourceKey>> frequencies;
+        private long length;
+        private int hitsSinceAging;
+
+        BoundedCache(Statistics statistics, int maxSize, long maxLength, EvictionPolicy policy) {
+            super(statistics);
+            this.maxSize = maxSize;
+            this.maxLength = maxLength;
+            this.frequencies = policy == EvictionPolicy.LFU ? new TreeMap<>() : null;
+        }
+
+        @Override
+        CallTarget lookup(PolyglotLanguageContext context, Source source, String[] argumentNames, boolean parse) {
+            /*
+             * The key references the source instance strongly, which keeps it interned. Sources
+             * with the same content created later therefore resolve to the same source identity
+             * and hit the cache even if the embedder dropped all of its references.
+             */
+            SourceKey key = new SourceKey(source, argumentNames);
+            CacheValue value;
+            synchronized (this) {
+                value = sourceCache.get(key);
+                if (value != null && frequencies != null) {
+                    removeFrequency(key, value.uses);
+                    value.uses++;
+                    addFrequency(key, value.uses);
+                    if (++hitsSinceAging >= AGING_INTERVAL * sourceCache.size()) {
+                        age();
+                    }
+                }
+            }
+            if (value != null) {
+                return hit(value);
+            } else if (!parse) {
+                return null;
+            }
+            // parse outside of the lock, parsing may reenter the cache
+            value = parseValue(statistics, context, argumentNames, EngineAccessor.SOURCE.copySource(source));
+            synchronized (this) {
+                CacheValue prev = sourceCache.get(key);
+                if (prev != null) {
+                    // parsed twice -> discard the one not in the cache
+                    return prev.target;
+                }
+                // never evict the entry that is added
+                evict(value.length);
+                sourceCache.put(key, value);
+                length += value.length;
+                if (frequencies != null) {
+                    addFrequency(key, value.uses);
+                }
+            }
+            return value.target;
+        }
+
+        private void evict(int addedLength) {
+            while (!sourceCache.isEmpty() && ((maxSize > 0 && sourceCache.size() >= maxSize) || (maxLength > 0 && length + addedLength > maxLength))) {
+                SourceKey victim;
+                if (frequencies == null) {
+                    victim = sourceCache.keySet().iterator().next();
+                } else {
+                    Map.Entry<Integer, LinkedHashSet<SourceKey>> leastUsed = frequencies.firstEntry();
+                    victim = leastUsed.getValue().iterator().next();
+                    removeFrequency(victim, leastUsed.getKey());
+                }
+                length -= sourceCache.remove(victim).length;
+                statistics.evictions.increment();
+            }
+        }
+
+        private void addFrequency(SourceKey key, int uses) {
+            LinkedHashSet<SourceKey> keys = frequencies.get(uses);
+            if (keys == null) {
+                keys = new LinkedHashSet<>();
+                frequencies.put(uses, keys);
+            }
+            keys.add(key);
+        }
+
+        private void removeFrequency(SourceKey key, int uses) {
+            LinkedHashSet<SourceKey> keys = frequencies.get(uses);
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                frequencies.remove(uses);
+            }
+        }
+
+        private void age() {
+            hitsSinceAging = 0;
+            frequencies.clear();
+            // regroup in least recently used order to keep recency as the tie-break
+            for (Map.Entry<SourceKey, CacheValue> entry : sourceCache.entrySet()) {
+                CacheValue value = entry.getValue();
+                value.uses >>>= 1;
+                addFrequency(entry.getKey(), value.uses);
+            }
+        }
+
+        @Override
+        synchronized boolean isEmpty() {
+            return sourceCache.isEmpty();
+        }
+
+        @Override
+        void listSources(PolyglotLanguageInstance language, Collection<org.graalvm.polyglot.Source> sources) {
+            PolyglotImpl polygot = language.getImpl();
+            CacheValue[] values;
+            synchronized (this) {
+                values = sourceCache.values().toArray(new CacheValue[0]);
+            }
+            for (CacheValue value : values) {
+                sources.add(polygot.getOrCreatePolyglotSource(value.source));
+            }
+        }
+
+    }
+
+    static final class CacheValue {
 
         final CallTarget target;
         final Source source;
+        final long parseTime;
+        final int length;
+        int uses; // guarded by the bounded cache
 
-        WeakCacheValue(CallTarget target, Source source) {
+        CacheValue(CallTarget target, Source source, long parseTime) {
             this.target = target;
             this.source = source;
+            this.parseTime = parseTime;
+            this.length = source.getLength();
         }
 
     }
 
+    enum EvictionPolicy {
+        LRU,
+        LFU
+    }
+
+    /*
+     * Source cache counters shared by all language instances of an engine.
+     */
+    static final class Statistics {
+
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+        final LongAdder parseTime = new LongAdder();
+        final LongAdder parseTimeSaved = new LongAdder();
+
+        Statistics snapshot() {
+            Statistics copy = new Statistics();
+            copy.hits.add(hits.sum());
+            copy.misses.add(misses.sum());
+            copy.evictions.add(evictions.sum());
+            copy.parseTime.add(parseTime.sum());
+            copy.parseTimeSaved.add(parseTimeSaved.sum());
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits: %d, misses: %d, evictions: %d, parse time: %dms, parse time saved: %dms",
+                            hits.sum(), misses.sum(), evictions.sum(), parseTime.sum() / 1_000_000, parseTimeSaved.sum() / 1_000_000);
+        }
+    }
+
     private static final class SourceKey {
 
         private final Object key;
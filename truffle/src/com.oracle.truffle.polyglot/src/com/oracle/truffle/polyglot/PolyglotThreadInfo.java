@@ -152,6 +152,10 @@ final class PolyglotThreadInfo {
             EngineAccessor.INSTRUMENT.notifyLeave(engine.instrumentationHandler, profiledContext.creatorTruffleContext);
         } finally {
             enteredCount--;
+            if (enteredCount == 0) {
+                // pending thread local actions are only performed while the context is entered
+                EngineAccessor.LANGUAGE.discardThreadLocalActions(profiledContext, getThread());
+            }
             if (!engine.customHostClassLoader.isValid()) {
                 restoreContextClassLoader();
             }
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.sl.SLException;
+import com.oracle.truffle.sl.bytecode.SLBytecodeRootNodeGen;
+import com.oracle.truffle.sl.runtime.SLBigNumber;
+
+public class SLBytecodeTest {
+
+    private Context context;
+    private Value sum;
+
+    @Before
+    public void initEngine() throws Exception {
+        context = Context.create();
+        // @formatter:off
+        context.eval("sl", "\n" +
+                "function sum(n) {\n" +
+                "  i = 0;\n" +
+                "  s = 0;\n" +
+                "  while (i < n) {\n" +
+                "    s = s + i;\n" +
+                "    i = i + 1;\n" +
+                "  }\n" +
+                "  return s;\n" +
+                "}\n"
+        );
+        // @formatter:on
+        sum = context.getBindings("sl").getMember("sum");
+    }
+
+    @After
+    public void dispose() {
+        context.close();
+    }
+
+    /**
+     * Translation of the <code>sum</code> function to bytecode.
+     */
+    static CallTarget createSum() {
+        SLBytecodeRootNodeGen.Builder b = new SLBytecodeRootNodeGen.Builder(null);
+        int i = b.createLocal("i");
+        int s = b.createLocal("s");
+        SLBytecodeRootNodeGen.Label loop = b.createLabel();
+        SLBytecodeRootNodeGen.Label end = b.createLabel();
+        b.emitLoadConstant(0L);
+        b.emitStoreLocal(i);
+        b.emitLoadConstant(0L);
+        b.emitStoreLocal(s);
+        b.emitLabel(loop);
+        b.emitLoadLocal(i);
+        b.emitLoadArgument(0);
+        b.emitLessThan();
+        b.emitBranchFalse(end);
+        b.emitLoadLocal(s);
+        b.emitLoadLocal(i);
+        b.emitAdd();
+        b.emitStoreLocal(s);
+        b.emitLoadLocal(i);
+        b.emitLoadConstant(1L);
+        b.emitAdd();
+        b.emitStoreLocal(i);
+        b.emitBranch(loop);
+        b.emitLabel(end);
+        b.emitLoadLocal(s);
+        b.emitReturn();
+        return Truffle.getRuntime().createCallTarget(b.build());
+    }
+
+    private static CallTarget createBinary(boolean add) {
+        SLBytecodeRootNodeGen.Builder b = new SLBytecodeRootNodeGen.Builder(null);
+        b.emitLoadArgument(0);
+        b.emitLoadArgument(1);
+        if (add) {
+            b.emitAdd();
+        } else {
+            b.emitSub();
+        }
+        b.emitReturn();
+        return Truffle.getRuntime().createCallTarget(b.build());
+    }
+
+    @Test
+    public void testSum() {
+        CallTarget bytecodeSum = createSum();
+        for (long n : new long[]{0, 1, 10, 1000}) {
+            assertEquals(sum.execute(n).asLong(), bytecodeSum.call(n));
+        }
+    }
+
+    @Test
+    public void testOverflow() {
+        CallTarget add = createBinary(true);
+        assertEquals(3L, add.call(1L, 2L));
+        Object result = add.call(Long.MAX_VALUE, 1L);
+        assertTrue(result instanceof SLBigNumber);
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE), ((SLBigNumber) result).getValue());
+        assertEquals(-1L, createBinary(false).call(1L, 2L));
+        assertEquals("a1", add.call("a", 1L));
+    }
+
+    @Test
+    public void testTypeError() {
+        CallTarget sub = createBinary(false);
+        try {
+            sub.call(true, 1L);
+            fail();
+        } catch (SLException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("\"-\""));
+        }
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.bytecode;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateBytecode;
+import com.oracle.truffle.api.dsl.Operation;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.sl.SLException;
+import com.oracle.truffle.sl.SLLanguage;
+import com.oracle.truffle.sl.nodes.SLTypes;
+import com.oracle.truffle.sl.nodes.expression.SLAddNode;
+import com.oracle.truffle.sl.nodes.expression.SLLessOrEqualNode;
+import com.oracle.truffle.sl.nodes.expression.SLLessThanNode;
+import com.oracle.truffle.sl.nodes.expression.SLSubNode;
+import com.oracle.truffle.sl.runtime.SLBigNumber;
+
+/**
+ * Bytecode variant of the arithmetic and comparison operators of SL. The operations have the same
+ * specializations as their AST counterparts, but a function is translated into a compact bytecode
+ * array executed by the interpreter loop of the generated {@link SLBytecodeRootNodeGen} instead of
+ * a tree of nodes. Functions are created with {@link SLBytecodeRootNodeGen.Builder}.
+ */
+@GenerateBytecode
+public abstract class SLBytecodeRootNode extends RootNode {
+
+    protected SLBytecodeRootNode(SLLanguage language, FrameDescriptor frameDescriptor) {
+        super(language, frameDescriptor);
+    }
+
+    /**
+     * @see SLAddNode
+     */
+    @Operation
+    @TypeSystemReference(SLTypes.class)
+    @NodeInfo(shortName = "+")
+    public abstract static class Add extends Node {
+
+        public abstract Object execute(Object left, Object right);
+
+        @Specialization(rewriteOn = ArithmeticException.class)
+        protected static long add(long left, long right) {
+            return Math.addExact(left, right);
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected static SLBigNumber add(SLBigNumber left, SLBigNumber right) {
+            return new SLBigNumber(left.getValue().add(right.getValue()));
+        }
+
+        @Specialization(guards = "isString(left, right)")
+        @TruffleBoundary
+        protected static String add(Object left, Object right) {
+            return left.toString() + right.toString();
+        }
+
+        protected static boolean isString(Object a, Object b) {
+            return a instanceof String || b instanceof String;
+        }
+
+        @Fallback
+        protected Object typeError(Object left, Object right) {
+            throw SLException.typeError(this, left, right);
+        }
+
+    }
+
+    /**
+     * @see SLSubNode
+     */
+    @Operation
+    @TypeSystemReference(SLTypes.class)
+    @NodeInfo(shortName = "-")
+    public abstract static class Sub extends Node {
+
+        public abstract Object execute(Object left, Object right);
+
+        @Specialization(rewriteOn = ArithmeticException.class)
+        protected static long sub(long left, long right) {
+            return Math.subtractExact(left, right);
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected static SLBigNumber sub(SLBigNumber left, SLBigNumber right) {
+            return new SLBigNumber(left.getValue().subtract(right.getValue()));
+        }
+
+        @Fallback
+        protected Object typeError(Object left, Object right) {
+            throw SLException.typeError(this, left, right);
+        }
+
+    }
+
+    /**
+     * @see SLLessThanNode
+     */
+    @Operation
+    @TypeSystemReference(SLTypes.class)
+    @NodeInfo(shortName = "<")
+    public abstract static class LessThan extends Node {
+
+        public abstract Object execute(Object left, Object right);
+
+        @Specialization
+        protected static boolean lessThan(long left, long right) {
+            return left < right;
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected static boolean lessThan(SLBigNumber left, SLBigNumber right) {
+            return left.compareTo(right) < 0;
+        }
+
+        @Fallback
+        protected Object typeError(Object left, Object right) {
+            throw SLException.typeError(this, left, right);
+        }
+
+    }
+
+    /**
+     * @see SLLessOrEqualNode
+     */
+    @Operation
+    @TypeSystemReference(SLTypes.class)
+    @NodeInfo(shortName = "<=")
+    public abstract static class LessOrEqual extends Node {
+
+        public abstract Object execute(Object left, Object right);
+
+        @Specialization
+        protected static boolean lessOrEqual(long left, long right) {
+            return left <= right;
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected static boolean lessOrEqual(SLBigNumber left, SLBigNumber right) {
+            return left.compareTo(right) <= 0;
+        }
+
+        @Fallback
+        protected Object typeError(Object left, Object right) {
+            throw SLException.typeError(this, left, right);
+        }
+
+    }
+
+}
@@ -43,6 +43,7 @@ package com.oracle.truffle.sl.nodes.expression;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.StartUncached;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.sl.SLException;
 import com.oracle.truffle.sl.nodes.SLBinaryNode;
@@ -52,6 +53,7 @@ import com.oracle.truffle.sl.runtime.SLBigNumber;
  * This class is similar to the extensively documented {@link SLAddNode}. The only difference: the
  * specialized methods return {@code boolean} instead of the input types.
  */
+@StartUncached
 @NodeInfo(shortName = "<")
 public abstract class SLLessThanNode extends SLBinaryNode {
 
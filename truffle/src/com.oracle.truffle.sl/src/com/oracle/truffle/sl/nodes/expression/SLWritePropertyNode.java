@@ -43,6 +43,7 @@ package com.oracle.truffle.sl.nodes.expression;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.NodeChild;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.StartUncached;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
@@ -64,6 +65,7 @@ import com.oracle.truffle.sl.runtime.SLUndefinedNameException;
  * <li>returns the written value</li>
  * </ol>
  */
+@StartUncached
 @NodeInfo(shortName = ".=")
 @NodeChild("receiverNode")
 @NodeChild("nameNode")